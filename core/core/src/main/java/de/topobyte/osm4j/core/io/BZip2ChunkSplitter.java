@@ -0,0 +1,334 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+/**
+ * Splits bzip2 input at block boundaries.
+ * 
+ * A bzip2 stream consists of a header and a sequence of blocks that are
+ * compressed independently of each other. Blocks are not aligned to byte
+ * boundaries and do not store their length, so they are found by searching
+ * the input bit by bit for the 48 bit block and end of stream markers. Each
+ * block is turned into a complete single block bzip2 stream by prepending the
+ * stream header and appending an end of stream marker with the combined CRC.
+ * Inputs that consist of several concatenated streams, such as those created
+ * by pbzip2, are handled as well.
+ * 
+ * The data of a chunk is the stream header followed by the block, its length
+ * is measured in bits.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class BZip2ChunkSplitter extends ChunkSplitter
+{
+
+	static final int DEFAULT_MAX_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	private static final long BLOCK_MAGIC = 0x314159265359L;
+	private static final long EOS_MAGIC = 0x177245385090L;
+	private static final long MAGIC_MASK = 0xFFFFFFFFFFFFL;
+
+	private static final int HEADER_BITS = 32;
+	private static final int MAGIC_BITS = 48;
+	private static final int CRC_BITS = 32;
+
+	private final InputStream in;
+	private final int maxChunkSize;
+
+	private byte[] buffer = new byte[1024 * 1024];
+	private int length = 0;
+	private boolean eof = false;
+
+	// Bit position of the current block or of the next stream header
+	private int position = 0;
+	private boolean inBlock = false;
+	private byte level;
+
+	// Index of the next byte to shift into the search register
+	private int scan;
+	private long register;
+
+	BZip2ChunkSplitter(InputStream in)
+	{
+		this(in, DEFAULT_MAX_CHUNK_SIZE);
+	}
+
+	BZip2ChunkSplitter(InputStream in, int maxChunkSize)
+	{
+		this.in = in;
+		this.maxChunkSize = maxChunkSize;
+	}
+
+	@Override
+	Chunk next() throws IOException
+	{
+		compact();
+		while (!inBlock) {
+			if (!startStream()) {
+				return null;
+			}
+		}
+		return nextBlock();
+	}
+
+	@Override
+	byte[] decompress(Chunk chunk) throws IOException
+	{
+		int bits = chunk.getLength();
+		byte[] stream = new byte[(bits + MAGIC_BITS + CRC_BITS + 7) / 8];
+		System.arraycopy(chunk.getData(), 0, stream, 0,
+				chunk.getData().length);
+
+		// A single block stream's combined CRC equals the block's CRC
+		long crc = readBits(stream, HEADER_BITS + MAGIC_BITS, CRC_BITS);
+		writeBits(stream, bits, EOS_MAGIC, MAGIC_BITS);
+		writeBits(stream, bits + MAGIC_BITS, crc, CRC_BITS);
+
+		int blockSize = (stream[3] - '0') * 100 * 1000;
+		try {
+			InputStream input = new BZip2CompressorInputStream(
+					new ByteArrayInputStream(stream), false);
+			return readFully(input, blockSize);
+		} catch (RuntimeException e) {
+			throw new IOException("invalid bzip2 block", e);
+		}
+	}
+
+	@Override
+	Chunk merge(Chunk first, Chunk second)
+	{
+		int secondBits = second.getLength() - HEADER_BITS;
+		int bits = first.getLength() + secondBits;
+		byte[] data = new byte[(bits + 7) / 8];
+		System.arraycopy(first.getData(), 0, data, 0,
+				first.getData().length);
+		for (int i = 0; i < secondBits; i += 32) {
+			int n = Math.min(32, secondBits - i);
+			long value = readBits(second.getData(), HEADER_BITS + i, n);
+			writeBits(data, first.getLength() + i, value, n);
+		}
+		return new Chunk(data, bits);
+	}
+
+	/*
+	 * Parse a stream header at the current byte aligned position. Returns
+	 * false if the end of the input has been reached.
+	 */
+	private boolean startStream() throws IOException
+	{
+		int p = position / 8;
+		ensure(p + 10);
+		if (length == p) {
+			return false;
+		}
+		if (length < p + 10) {
+			throw new IOException("unexpected end of bzip2 input");
+		}
+		if (!isStreamStart(p)) {
+			throw new IOException("invalid bzip2 stream header");
+		}
+		level = buffer[p + 3];
+		if (readBits(buffer, (p + 4) * 8, MAGIC_BITS) == EOS_MAGIC) {
+			// An empty stream without any blocks
+			position = (p + 14) * 8;
+			return true;
+		}
+		position = (p + 4) * 8;
+		inBlock = true;
+		scan = p + 10;
+		register = 0;
+		for (int i = scan - 8; i < scan; i++) {
+			register = (register << 8) | (buffer[i] & 0xff);
+		}
+		return true;
+	}
+
+	/*
+	 * Search for the marker that terminates the block at the current position
+	 * and return the block as a chunk.
+	 */
+	private Chunk nextBlock() throws IOException
+	{
+		int start = position;
+		while (true) {
+			if (scan == length) {
+				if (scan - start / 8 > maxChunkSize) {
+					throw new IOException(
+							"no bzip2 block boundary found within "
+									+ maxChunkSize + " bytes");
+				}
+				if (!fill()) {
+					throw new IOException("unexpected end of bzip2 input");
+				}
+			}
+			register = (register << 8) | (buffer[scan++] & 0xff);
+			for (int k = 7; k >= 0; k--) {
+				long word = (register >>> k) & MAGIC_MASK;
+				if (word != BLOCK_MAGIC && word != EOS_MAGIC) {
+					continue;
+				}
+				int end = scan * 8 - k - MAGIC_BITS;
+				if (end < start + MAGIC_BITS) {
+					continue;
+				}
+				if (word == BLOCK_MAGIC) {
+					position = end;
+					return extract(start, end);
+				}
+				int next = (end + MAGIC_BITS + CRC_BITS + 7) / 8;
+				if (isStreamEnd(next)) {
+					position = next * 8;
+					inBlock = false;
+					return extract(start, end);
+				}
+			}
+		}
+	}
+
+	/*
+	 * An end of stream marker is only accepted if it is followed by the end of
+	 * the input or by the start of another stream.
+	 */
+	private boolean isStreamEnd(int next) throws IOException
+	{
+		ensure(next + 10);
+		if (length == next) {
+			return eof;
+		}
+		return length >= next + 10 && isStreamStart(next);
+	}
+
+	private boolean isStreamStart(int p)
+	{
+		if (buffer[p] != 'B' || buffer[p + 1] != 'Z' || buffer[p + 2] != 'h'
+				|| buffer[p + 3] < '1' || buffer[p + 3] > '9') {
+			return false;
+		}
+		long magic = readBits(buffer, (p + 4) * 8, MAGIC_BITS);
+		return magic == BLOCK_MAGIC || magic == EOS_MAGIC;
+	}
+
+	private Chunk extract(int start, int end)
+	{
+		int bits = end - start;
+		byte[] data = new byte[(HEADER_BITS + bits + 7) / 8];
+		data[0] = 'B';
+		data[1] = 'Z';
+		data[2] = 'h';
+		data[3] = level;
+
+		int from = start / 8;
+		int shift = start % 8;
+		int bytes = bits / 8;
+		if (shift == 0) {
+			System.arraycopy(buffer, from, data, 4, bytes);
+		} else {
+			for (int i = 0; i < bytes; i++) {
+				int b = from + i;
+				data[4 + i] = (byte) ((buffer[b] << shift)
+						| ((buffer[b + 1] & 0xff) >>> (8 - shift)));
+			}
+		}
+		int rest = bits % 8;
+		if (rest != 0) {
+			long value = readBits(buffer, start + bytes * 8, rest);
+			data[4 + bytes] = (byte) (value << (8 - rest));
+		}
+		return new Chunk(data, HEADER_BITS + bits);
+	}
+
+	private void ensure(int size) throws IOException
+	{
+		while (length < size && fill()) {
+			// keep reading
+		}
+	}
+
+	private boolean fill() throws IOException
+	{
+		if (eof) {
+			return false;
+		}
+		if (length == buffer.length) {
+			byte[] larger = new byte[buffer.length * 2];
+			System.arraycopy(buffer, 0, larger, 0, length);
+			buffer = larger;
+		}
+		int read = in.read(buffer, length, buffer.length - length);
+		if (read < 0) {
+			eof = true;
+			return false;
+		}
+		length += read;
+		return true;
+	}
+
+	/*
+	 * Discard the bytes before the current position.
+	 */
+	private void compact()
+	{
+		int drop = position / 8;
+		if (drop == 0) {
+			return;
+		}
+		System.arraycopy(buffer, drop, buffer, 0, length - drop);
+		length -= drop;
+		position -= drop * 8;
+		scan -= drop;
+	}
+
+	/*
+	 * Read up to 57 bits starting at the specified bit offset, most
+	 * significant bit first.
+	 */
+	private static long readBits(byte[] data, int offset, int n)
+	{
+		int first = offset / 8;
+		int last = (offset + n - 1) / 8;
+		long value = 0;
+		for (int i = first; i <= last; i++) {
+			value = (value << 8) | (data[i] & 0xff);
+		}
+		int trailing = (last + 1) * 8 - (offset + n);
+		return (value >>> trailing) & ((1L << n) - 1);
+	}
+
+	/*
+	 * Write up to 57 bits at the specified bit offset into a region of the
+	 * array that is still zero.
+	 */
+	private static void writeBits(byte[] data, int offset, long value, int n)
+	{
+		int first = offset / 8;
+		int last = (offset + n - 1) / 8;
+		int trailing = (last + 1) * 8 - (offset + n);
+		long shifted = value << trailing;
+		for (int i = last; i >= first; i--) {
+			data[i] |= (byte) shifted;
+			shifted >>>= 8;
+		}
+	}
+
+}
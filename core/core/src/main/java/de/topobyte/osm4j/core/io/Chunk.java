@@ -0,0 +1,72 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.io;
+
+/**
+ * A piece of compressed input that can be decompressed independently of the
+ * other chunks of the same input.
+ * 
+ * The length of a chunk is measured in units defined by the
+ * {@link ChunkSplitter} that created it. A chunk may instead carry the
+ * remaining compressed input in case it could not be split any further, which
+ * is then decompressed sequentially.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class Chunk
+{
+
+	private final byte[] data;
+	private final int length;
+	private final Remainder remainder;
+
+	Chunk(byte[] data, int length)
+	{
+		this.data = data;
+		this.length = length;
+		this.remainder = null;
+	}
+
+	Chunk(Remainder remainder)
+	{
+		this.data = null;
+		this.length = 0;
+		this.remainder = remainder;
+	}
+
+	byte[] getData()
+	{
+		return data;
+	}
+
+	int getLength()
+	{
+		return length;
+	}
+
+	boolean isRemainder()
+	{
+		return remainder != null;
+	}
+
+	Remainder getRemainder()
+	{
+		return remainder;
+	}
+
+}
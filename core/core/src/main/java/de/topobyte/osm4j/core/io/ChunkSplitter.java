@@ -0,0 +1,80 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Splits a compressed input into chunks that can be decompressed in parallel.
+ * 
+ * Chunk boundaries are found by looking for byte patterns that start a new
+ * independently compressed unit. Such patterns may also occur by chance
+ * within compressed data. A chunk that has been split at such a spurious
+ * boundary fails to decompress, in which case it can be merged with the
+ * following chunk and decompressed again.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+abstract class ChunkSplitter
+{
+
+	/**
+	 * Read the next chunk from the input.
+	 * 
+	 * @return the next chunk or null if the end of the input has been reached.
+	 */
+	abstract Chunk next() throws IOException;
+
+	/**
+	 * Decompress a chunk returned by {@link #next()} or
+	 * {@link #merge(Chunk, Chunk)}. This method will be called from multiple
+	 * threads concurrently.
+	 */
+	abstract byte[] decompress(Chunk chunk) throws IOException;
+
+	/**
+	 * Create a single chunk from two adjacent chunks.
+	 */
+	abstract Chunk merge(Chunk first, Chunk second);
+
+	static byte[] readFully(InputStream in, int sizeHint) throws IOException
+	{
+		byte[] buffer = new byte[Math.max(sizeHint, 4096)];
+		int size = 0;
+		while (true) {
+			if (size == buffer.length) {
+				byte[] larger = new byte[buffer.length * 2];
+				System.arraycopy(buffer, 0, larger, 0, size);
+				buffer = larger;
+			}
+			int read = in.read(buffer, size, buffer.length - size);
+			if (read < 0) {
+				break;
+			}
+			size += read;
+		}
+		if (size == buffer.length) {
+			return buffer;
+		}
+		byte[] result = new byte[size];
+		System.arraycopy(buffer, 0, result, 0, size);
+		return result;
+	}
+
+}
@@ -0,0 +1,188 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+/**
+ * Splits gzip input at member boundaries.
+ * 
+ * A gzip file may consist of multiple concatenated members, each of which can
+ * be decompressed on its own. Members do not store their compressed length,
+ * so boundaries are found by looking for byte sequences that look like a
+ * member header. Consecutive members are grouped into chunks of at least
+ * <code>chunkSize</code> bytes. The length of a chunk is measured in bytes.
+ * 
+ * If no member header has been found within <code>maxChunkSize</code> bytes,
+ * which is the case for the usual single member files, the remaining input is
+ * decompressed sequentially.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class GzipChunkSplitter extends ChunkSplitter
+{
+
+	static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+	static final int DEFAULT_MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+
+	private static final int HEADER_SIZE = 10;
+
+	private final InputStream in;
+	private final int chunkSize;
+	private final int maxChunkSize;
+
+	private byte[] buffer;
+	private int length = 0;
+	private boolean eof = false;
+	private boolean done = false;
+
+	GzipChunkSplitter(InputStream in)
+	{
+		this(in, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CHUNK_SIZE);
+	}
+
+	GzipChunkSplitter(InputStream in, int chunkSize, int maxChunkSize)
+	{
+		this.in = in;
+		this.chunkSize = chunkSize;
+		this.maxChunkSize = maxChunkSize;
+		buffer = new byte[chunkSize + HEADER_SIZE];
+	}
+
+	@Override
+	Chunk next() throws IOException
+	{
+		if (done) {
+			return null;
+		}
+
+		// The chunk currently being assembled always starts at offset 0
+		int position = chunkSize;
+		while (true) {
+			while (length < position + HEADER_SIZE && fill()) {
+				// keep reading
+			}
+			if (length < position + HEADER_SIZE) {
+				done = true;
+				if (length == 0) {
+					return null;
+				}
+				return emit(length);
+			}
+			if (isMemberHeader(position)) {
+				return emit(position);
+			}
+			if (++position >= maxChunkSize) {
+				done = true;
+				InputStream remaining = new SequenceInputStream(
+						new ByteArrayInputStream(buffer, 0, length), in);
+				buffer = null;
+				return new Chunk(remainder(remaining));
+			}
+		}
+	}
+
+	@Override
+	byte[] decompress(Chunk chunk) throws IOException
+	{
+		InputStream input = new GzipCompressorInputStream(
+				new ByteArrayInputStream(chunk.getData(), 0,
+						chunk.getLength()), true);
+		return readFully(input, chunk.getLength() * 4);
+	}
+
+	@Override
+	Chunk merge(Chunk first, Chunk second)
+	{
+		int size = first.getLength() + second.getLength();
+		byte[] data = new byte[size];
+		System.arraycopy(first.getData(), 0, data, 0, first.getLength());
+		System.arraycopy(second.getData(), 0, data, first.getLength(),
+				second.getLength());
+		return new Chunk(data, size);
+	}
+
+	private static Remainder remainder(final InputStream remaining)
+	{
+		return new Remainder() {
+
+			@Override
+			public InputStream decompress(Chunk failed) throws IOException
+			{
+				InputStream compressed = remaining;
+				if (failed != null) {
+					compressed = new SequenceInputStream(
+							new ByteArrayInputStream(failed.getData(), 0,
+									failed.getLength()),
+							remaining);
+				}
+				return new GzipCompressorInputStream(compressed, true);
+			}
+
+		};
+	}
+
+	private boolean fill() throws IOException
+	{
+		if (eof) {
+			return false;
+		}
+		if (length == buffer.length) {
+			byte[] larger = new byte[buffer.length * 2];
+			System.arraycopy(buffer, 0, larger, 0, length);
+			buffer = larger;
+		}
+		int read = in.read(buffer, length, buffer.length - length);
+		if (read < 0) {
+			eof = true;
+			return false;
+		}
+		length += read;
+		return true;
+	}
+
+	private Chunk emit(int end)
+	{
+		byte[] data = new byte[end];
+		System.arraycopy(buffer, 0, data, 0, end);
+		System.arraycopy(buffer, end, buffer, 0, length - end);
+		length -= end;
+		return new Chunk(data, end);
+	}
+
+	/*
+	 * Check the magic bytes, the compression method, the reserved flags and
+	 * plausible values for the extra flags and the operating system.
+	 */
+	private boolean isMemberHeader(int i)
+	{
+		if (buffer[i] != (byte) 0x1f || buffer[i + 1] != (byte) 0x8b
+				|| buffer[i + 2] != 8 || (buffer[i + 3] & 0xe0) != 0) {
+			return false;
+		}
+		int xfl = buffer[i + 8] & 0xff;
+		int os = buffer[i + 9] & 0xff;
+		return (xfl == 0 || xfl == 2 || xfl == 4) && (os <= 13 || os == 255);
+	}
+
+}
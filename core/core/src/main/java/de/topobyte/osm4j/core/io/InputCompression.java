@@ -0,0 +1,47 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.io;
+
+/**
+ * Compression formats of raw input files that can be decompressed by
+ * {@link ParallelDecompressionInputStream}.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public enum InputCompression {
+
+	NONE,
+	GZIP,
+	BZIP2;
+
+	/**
+	 * Guess the compression of a file from its name, i.e. '.gz' and '.bz2'
+	 * suffixes.
+	 */
+	public static InputCompression fromFileName(String name)
+	{
+		String lower = name.toLowerCase();
+		if (lower.endsWith(".gz")) {
+			return GZIP;
+		} else if (lower.endsWith(".bz2")) {
+			return BZIP2;
+		}
+		return NONE;
+	}
+
+}
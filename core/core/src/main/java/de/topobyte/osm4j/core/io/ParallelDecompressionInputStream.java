@@ -0,0 +1,396 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+
+import de.topobyte.osm4j.core.util.OrderedPipeline;
+import de.topobyte.osm4j.core.util.OrderedPipeline.Result;
+
+/**
+ * An input stream that decompresses gzip or bzip2 compressed input using
+ * multiple threads while still delivering the decompressed data in order.
+ * 
+ * A single reader thread splits the compressed input into chunks that can be
+ * decompressed independently, i.e. bzip2 blocks and gzip members, which are
+ * decompressed by a pool of worker threads, using an {@link OrderedPipeline}.
+ * At most <code>maxChunksInFlight</code> chunks are being decompressed or are
+ * waiting to be consumed at any time.
+ * 
+ * Chunk boundaries are detected by searching for marker patterns in the
+ * compressed data. If a chunk fails to decompress because such a pattern
+ * occurred by chance, it is merged with the following chunk and decompressed
+ * again. Gzip input that cannot be split, such as the common single member
+ * files, is decompressed sequentially by the reader thread, which still takes
+ * decompression off the consuming thread. If the chunk preceding such a
+ * sequentially decompressed remainder fails, sequential decompression starts
+ * with the failed chunk instead.
+ * 
+ * Threads are started lazily on the first read. They are shut down once the
+ * end of the input has been reached, when an error occurs or when the stream
+ * is closed. Closing this stream also closes the underlying stream.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class ParallelDecompressionInputStream extends InputStream
+{
+
+	private static final int MAX_MERGES = 8;
+	private static final int REMAINDER_PIECE_SIZE = 1024 * 1024;
+
+	private static final byte[] EMPTY = new byte[0];
+
+	private final InputStream in;
+	private final ChunkSplitter splitter;
+
+	private final OrderedPipeline<Item, byte[]> pipeline;
+	// Hands the stream for decompressing the remainder to the reader thread
+	private final BlockingQueue<InputStream> remainders;
+
+	// State of the reader thread
+	private boolean awaitingRemainder = false;
+	private InputStream remainder = null;
+
+	private boolean finished = false;
+	private boolean closed = false;
+
+	private byte[] current = EMPTY;
+	private int offset = 0;
+
+	public ParallelDecompressionInputStream(InputStream in,
+			InputCompression compression, int numThreads)
+	{
+		this(in, compression, numThreads, 2 * numThreads);
+	}
+
+	public ParallelDecompressionInputStream(InputStream in,
+			InputCompression compression, int numThreads,
+			int maxChunksInFlight)
+	{
+		this(in, splitter(in, compression), numThreads, maxChunksInFlight);
+	}
+
+	ParallelDecompressionInputStream(InputStream in, ChunkSplitter splitter,
+			int numThreads, int maxChunksInFlight)
+	{
+		this.in = in;
+		this.splitter = splitter;
+		remainders = new ArrayBlockingQueue<>(1);
+		pipeline = new OrderedPipeline<>("decompression",
+				new Callable<Item>() {
+
+					@Override
+					public Item call() throws IOException, InterruptedException
+					{
+						return readItem();
+					}
+
+				}, new OrderedPipeline.Worker<Item, byte[]>() {
+
+					@Override
+					public byte[] process(Item item) throws IOException
+					{
+						return decompress(item);
+					}
+
+				}, numThreads, maxChunksInFlight);
+	}
+
+	private static ChunkSplitter splitter(InputStream in,
+			InputCompression compression)
+	{
+		switch (compression) {
+		case GZIP:
+			return new GzipChunkSplitter(in);
+		case BZIP2:
+			return new BZip2ChunkSplitter(in);
+		default:
+			throw new IllegalArgumentException(
+					"unsupported compression: " + compression);
+		}
+	}
+
+	/**
+	 * Wrap the specified stream with a stream that decompresses its content
+	 * using one thread per available processor. Returns the stream itself if
+	 * no compression is specified.
+	 */
+	public static InputStream decompress(InputStream in,
+			InputCompression compression)
+	{
+		return decompress(in, compression,
+				Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Wrap the specified stream with a stream that decompresses its content
+	 * using the specified number of threads. Returns the stream itself if no
+	 * compression is specified.
+	 */
+	public static InputStream decompress(InputStream in,
+			InputCompression compression, int numThreads)
+	{
+		if (compression == InputCompression.NONE) {
+			return in;
+		}
+		return new ParallelDecompressionInputStream(in, compression,
+				numThreads);
+	}
+
+	@Override
+	public int read() throws IOException
+	{
+		if (!ensureData()) {
+			return -1;
+		}
+		return current[offset++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException
+	{
+		if (len == 0) {
+			return 0;
+		}
+		if (!ensureData()) {
+			return -1;
+		}
+		int n = Math.min(len, current.length - offset);
+		System.arraycopy(current, offset, b, off, n);
+		offset += n;
+		return n;
+	}
+
+	@Override
+	public int available() throws IOException
+	{
+		return current.length - offset;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		if (closed) {
+			return;
+		}
+		closed = true;
+		shutdown();
+		current = EMPTY;
+		offset = 0;
+		in.close();
+	}
+
+	private boolean ensureData() throws IOException
+	{
+		if (closed) {
+			throw new IOException("stream closed");
+		}
+		while (offset == current.length) {
+			byte[] data = nextData();
+			if (data == null) {
+				return false;
+			}
+			current = data;
+			offset = 0;
+		}
+		return true;
+	}
+
+	private byte[] nextData() throws IOException
+	{
+		if (finished) {
+			return null;
+		}
+
+		Result<Item, byte[]> result = pipeline.take();
+		if (result == null) {
+			finished = true;
+			return null;
+		}
+		Item item = result.getInput();
+		if (item != null && item.isRemainder()) {
+			startRemainder(null, item.chunk);
+			return EMPTY;
+		}
+		try {
+			return result.get();
+		} catch (InterruptedIOException e) {
+			shutdown();
+			throw e;
+		} catch (IOException e) {
+			if (item == null || item.chunk == null) {
+				shutdown();
+				throw e;
+			}
+			return recover(item.chunk, e);
+		}
+	}
+
+	/*
+	 * Retry a chunk that failed to decompress by merging it with the
+	 * following chunks, which undoes a split at a spurious boundary.
+	 */
+	private byte[] recover(Chunk chunk, IOException error) throws IOException
+	{
+		Chunk merged = chunk;
+		for (int i = 0; i < MAX_MERGES; i++) {
+			Result<Item, byte[]> next = pipeline.take();
+			if (next == null || next.getInput() == null) {
+				break;
+			}
+			Item item = next.getInput();
+			if (item.isRemainder()) {
+				// The remainder may start at a spurious boundary as well
+				startRemainder(merged, item.chunk);
+				return EMPTY;
+			}
+			next.cancel();
+			merged = splitter.merge(merged, item.chunk);
+			try {
+				return decompress(merged);
+			} catch (IOException e) {
+				// try again with the next chunk
+			}
+		}
+		shutdown();
+		throw error;
+	}
+
+	private void startRemainder(Chunk failed, Chunk chunk) throws IOException
+	{
+		try {
+			remainders.put(chunk.getRemainder().decompress(failed));
+		} catch (IOException e) {
+			shutdown();
+			throw e;
+		} catch (InterruptedException e) {
+			shutdown();
+			throw new InterruptedIOException(
+					"interrupted while waiting for data");
+		}
+	}
+
+	private void shutdown()
+	{
+		finished = true;
+		pipeline.close();
+	}
+
+	/*
+	 * Called on the reader thread to obtain the next input of the pipeline.
+	 * Once the splitter reaches the remainder that cannot be split, the
+	 * consumer decides where decompression starts, in case the preceding
+	 * chunk fails to decompress. After that, the remainder is decompressed
+	 * sequentially on the reader thread and passed on in pieces.
+	 */
+	private Item readItem() throws IOException, InterruptedException
+	{
+		if (awaitingRemainder) {
+			remainder = remainders.take();
+			awaitingRemainder = false;
+		}
+		if (remainder != null) {
+			byte[] piece = readPiece(remainder);
+			if (piece == null) {
+				return null;
+			}
+			return new Item(null, piece);
+		}
+		Chunk chunk = splitter.next();
+		if (chunk == null) {
+			return null;
+		}
+		if (chunk.isRemainder()) {
+			awaitingRemainder = true;
+		}
+		return new Item(chunk, null);
+	}
+
+	private static byte[] readPiece(InputStream remainder) throws IOException
+	{
+		byte[] piece = new byte[REMAINDER_PIECE_SIZE];
+		int size = 0;
+		while (size < piece.length) {
+			int read = remainder.read(piece, size, piece.length - size);
+			if (read < 0) {
+				break;
+			}
+			size += read;
+		}
+		if (size == 0) {
+			return null;
+		}
+		if (size < piece.length) {
+			byte[] smaller = new byte[size];
+			System.arraycopy(piece, 0, smaller, 0, size);
+			piece = smaller;
+		}
+		return piece;
+	}
+
+	private byte[] decompress(Item item) throws IOException
+	{
+		if (item.chunk == null) {
+			// already decompressed piece of the remainder
+			return item.data;
+		}
+		if (item.isRemainder()) {
+			// handled by the consumer
+			return EMPTY;
+		}
+		return decompress(item.chunk);
+	}
+
+	private byte[] decompress(Chunk chunk) throws IOException
+	{
+		try {
+			return splitter.decompress(chunk);
+		} catch (RuntimeException e) {
+			throw new IOException("error while decompressing chunk", e);
+		}
+	}
+
+	/*
+	 * An input of the pipeline, either a chunk of compressed data or a piece
+	 * of the sequentially decompressed remainder.
+	 */
+	private static class Item
+	{
+
+		private Chunk chunk;
+		private byte[] data;
+
+		Item(Chunk chunk, byte[] data)
+		{
+			this.chunk = chunk;
+			this.data = data;
+		}
+
+		boolean isRemainder()
+		{
+			return chunk != null && chunk.isRemainder();
+		}
+
+	}
+
+}
@@ -0,0 +1,42 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The remaining compressed input of a {@link ChunkSplitter} that could not be
+ * split any further, which is decompressed sequentially.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+interface Remainder
+{
+
+	/**
+	 * Create a stream that sequentially decompresses the remaining input.
+	 * 
+	 * @param failed
+	 *            the chunk preceding the remainder if it failed to decompress,
+	 *            in which case decompression starts with the failed chunk, or
+	 *            null.
+	 */
+	public InputStream decompress(Chunk failed) throws IOException;
+
+}
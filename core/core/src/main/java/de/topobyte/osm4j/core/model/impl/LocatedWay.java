@@ -0,0 +1,75 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.model.impl;
+
+import java.util.List;
+
+import com.slimjars.dist.gnu.trove.list.TLongList;
+
+import de.topobyte.osm4j.core.model.iface.OsmLocatedWay;
+import de.topobyte.osm4j.core.model.iface.OsmMetadata;
+import de.topobyte.osm4j.core.model.iface.OsmTag;
+
+public class LocatedWay extends Way implements OsmLocatedWay
+{
+
+	private final double[] lons;
+	private final double[] lats;
+
+	public LocatedWay(long id, TLongList nodes, double[] lons, double[] lats)
+	{
+		super(id, nodes);
+		this.lons = lons;
+		this.lats = lats;
+	}
+
+	public LocatedWay(long id, TLongList nodes, double[] lons, double[] lats,
+			OsmMetadata metadata)
+	{
+		super(id, nodes, metadata);
+		this.lons = lons;
+		this.lats = lats;
+	}
+
+	public LocatedWay(long id, TLongList nodes, double[] lons, double[] lats,
+			List<? extends OsmTag> tags)
+	{
+		this(id, nodes, lons, lats, tags, null);
+	}
+
+	public LocatedWay(long id, TLongList nodes, double[] lons, double[] lats,
+			List<? extends OsmTag> tags, OsmMetadata metadata)
+	{
+		super(id, nodes, tags, metadata);
+		this.lons = lons;
+		this.lats = lats;
+	}
+
+	@Override
+	public double getLongitude(int n)
+	{
+		return lons[n];
+	}
+
+	@Override
+	public double getLatitude(int n)
+	{
+		return lats[n];
+	}
+
+}
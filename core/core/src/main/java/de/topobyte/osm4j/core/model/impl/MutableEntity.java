@@ -0,0 +1,109 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.model.impl;
+
+import java.util.Arrays;
+
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmMetadata;
+import de.topobyte.osm4j.core.model.iface.OsmTag;
+
+/**
+ * Base class for entities that are filled in place and reused for a sequence
+ * of elements instead of allocating a new object for each element. The tag
+ * and metadata objects are owned by the entity and reused as well.
+ * 
+ * Instances are not meant to be retained, use
+ * {@link de.topobyte.osm4j.core.model.util.ImplUtil} to create an immutable
+ * copy if necessary.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public abstract class MutableEntity implements OsmEntity
+{
+
+	private long id;
+
+	private MutableTag[] tags = new MutableTag[0];
+	private int numTags = 0;
+
+	private MutableMetadata metadata = new MutableMetadata();
+	private boolean hasMetadata = false;
+
+	/**
+	 * Reset this entity to have no tags and no metadata.
+	 */
+	public void clear()
+	{
+		numTags = 0;
+		hasMetadata = false;
+	}
+
+	public void setId(long id)
+	{
+		this.id = id;
+	}
+
+	@Override
+	public long getId()
+	{
+		return id;
+	}
+
+	public void addTag(String key, String value)
+	{
+		if (numTags == tags.length) {
+			int size = Math.max(8, tags.length * 2);
+			tags = Arrays.copyOf(tags, size);
+			for (int i = numTags; i < size; i++) {
+				tags[i] = new MutableTag();
+			}
+		}
+		tags[numTags++].set(key, value);
+	}
+
+	@Override
+	public int getNumberOfTags()
+	{
+		return numTags;
+	}
+
+	@Override
+	public OsmTag getTag(int n)
+	{
+		if (n >= numTags) {
+			throw new IndexOutOfBoundsException(
+					"Index: " + n + ", Size: " + numTags);
+		}
+		return tags[n];
+	}
+
+	public void setMetadata(int version, long timestamp, long uid,
+			String user, long changeset, boolean visible)
+	{
+		metadata.set(version, timestamp, uid, user, changeset, visible);
+		hasMetadata = true;
+	}
+
+	@Override
+	public OsmMetadata getMetadata()
+	{
+		return hasMetadata ? metadata : null;
+	}
+
+}
@@ -0,0 +1,62 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.model.impl;
+
+import java.util.Arrays;
+
+import de.topobyte.osm4j.core.model.iface.OsmLocatedWay;
+
+/**
+ * A way with node locations that is filled in place, see
+ * {@link MutableEntity}. Nodes have to be added using
+ * {@link #addNode(long, double, double)}.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class MutableLocatedWay extends MutableWay implements OsmLocatedWay
+{
+
+	private double[] lons = new double[0];
+	private double[] lats = new double[0];
+
+	public void addNode(long id, double lon, double lat)
+	{
+		int n = getNumberOfNodes();
+		if (n == lons.length) {
+			int size = Math.max(16, lons.length * 2);
+			lons = Arrays.copyOf(lons, size);
+			lats = Arrays.copyOf(lats, size);
+		}
+		addNode(id);
+		lons[n] = lon;
+		lats[n] = lat;
+	}
+
+	@Override
+	public double getLongitude(int n)
+	{
+		return lons[n];
+	}
+
+	@Override
+	public double getLatitude(int n)
+	{
+		return lats[n];
+	}
+
+}
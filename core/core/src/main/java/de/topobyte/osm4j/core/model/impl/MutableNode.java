@@ -0,0 +1,62 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.model.impl;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+
+/**
+ * A node that is filled in place, see {@link MutableEntity}.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class MutableNode extends MutableEntity implements OsmNode
+{
+
+	private double lon;
+	private double lat;
+
+	public void setLongitude(double lon)
+	{
+		this.lon = lon;
+	}
+
+	public void setLatitude(double lat)
+	{
+		this.lat = lat;
+	}
+
+	@Override
+	public double getLongitude()
+	{
+		return lon;
+	}
+
+	@Override
+	public double getLatitude()
+	{
+		return lat;
+	}
+
+	@Override
+	public EntityType getType()
+	{
+		return EntityType.Node;
+	}
+
+}
@@ -0,0 +1,78 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.model.impl;
+
+import java.util.Arrays;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+
+/**
+ * A relation that is filled in place, see {@link MutableEntity}.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class MutableRelation extends MutableEntity implements OsmRelation
+{
+
+	private MutableRelationMember[] members = new MutableRelationMember[0];
+	private int numMembers = 0;
+
+	@Override
+	public void clear()
+	{
+		super.clear();
+		numMembers = 0;
+	}
+
+	public void addMember(long id, EntityType type, String role)
+	{
+		if (numMembers == members.length) {
+			int size = Math.max(8, members.length * 2);
+			members = Arrays.copyOf(members, size);
+			for (int i = numMembers; i < size; i++) {
+				members[i] = new MutableRelationMember();
+			}
+		}
+		members[numMembers++].set(id, type, role);
+	}
+
+	@Override
+	public int getNumberOfMembers()
+	{
+		return numMembers;
+	}
+
+	@Override
+	public OsmRelationMember getMember(int n)
+	{
+		if (n >= numMembers) {
+			throw new IndexOutOfBoundsException(
+					"Index: " + n + ", Size: " + numMembers);
+		}
+		return members[n];
+	}
+
+	@Override
+	public EntityType getType()
+	{
+		return EntityType.Relation;
+	}
+
+}
@@ -0,0 +1,65 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.model.impl;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+
+/**
+ * A way that is filled in place, see {@link MutableEntity}.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class MutableWay extends MutableEntity implements OsmWay
+{
+
+	private final TLongArrayList nodes = new TLongArrayList();
+
+	@Override
+	public void clear()
+	{
+		super.clear();
+		nodes.resetQuick();
+	}
+
+	public void addNode(long id)
+	{
+		nodes.add(id);
+	}
+
+	@Override
+	public int getNumberOfNodes()
+	{
+		return nodes.size();
+	}
+
+	@Override
+	public long getNodeId(int n)
+	{
+		return nodes.get(n);
+	}
+
+	@Override
+	public EntityType getType()
+	{
+		return EntityType.Way;
+	}
+
+}
@@ -0,0 +1,158 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.model.util;
+
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmMetadata;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+import de.topobyte.osm4j.core.model.iface.OsmTag;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+
+/**
+ * Cheap estimates of the number of bytes an entity occupies in an
+ * uncompressed, delta coded binary block. The estimates are meant for cutting
+ * output into blocks of predictable size and are upper bounds: numbers are
+ * counted with the size of their largest varint encoding, strings with their
+ * UTF-8 encoded length for each occurrence although block formats usually
+ * store them only once per block.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class EntitySizeEstimator
+{
+
+	// Largest encoding of a 64 bit varint and of a 32 bit index varint
+	private static final int SIZE_VARINT = 10;
+	private static final int SIZE_INDEX = 5;
+
+	// Field keys and length prefixes of the messages an entity consists of
+	private static final int SIZE_NODE_OVERHEAD = 32;
+	private static final int SIZE_ENTITY_OVERHEAD = 48;
+
+	private static final int SIZE_ID = SIZE_VARINT;
+	private static final int SIZE_COORDINATES = 2 * SIZE_VARINT;
+	private static final int SIZE_REFERENCE = SIZE_VARINT;
+	private static final int SIZE_MEMBER = SIZE_VARINT + 1;
+	// Version, timestamp, changeset, uid, visibility and field keys
+	private static final int SIZE_METADATA = 3 * SIZE_VARINT + SIZE_INDEX + 1
+			+ 6;
+
+	public static int estimate(OsmNode node, boolean metadata)
+	{
+		return SIZE_NODE_OVERHEAD + SIZE_ID + SIZE_COORDINATES
+				+ estimateCommon(node, metadata);
+	}
+
+	public static int estimate(OsmWay way, boolean metadata)
+	{
+		return SIZE_ENTITY_OVERHEAD + SIZE_ID
+				+ way.getNumberOfNodes() * SIZE_REFERENCE
+				+ estimateCommon(way, metadata);
+	}
+
+	public static int estimate(OsmRelation relation, boolean metadata)
+	{
+		int size = SIZE_ENTITY_OVERHEAD + SIZE_ID
+				+ estimateCommon(relation, metadata);
+		for (int i = 0; i < relation.getNumberOfMembers(); i++) {
+			OsmRelationMember member = relation.getMember(i);
+			size += SIZE_MEMBER + estimate(member.getRole());
+		}
+		return size;
+	}
+
+	public static int estimate(OsmEntity entity, boolean metadata)
+	{
+		switch (entity.getType()) {
+		default:
+		case Node:
+			return estimate((OsmNode) entity, metadata);
+		case Way:
+			return estimate((OsmWay) entity, metadata);
+		case Relation:
+			return estimate((OsmRelation) entity, metadata);
+		}
+	}
+
+	/**
+	 * Estimate the number of additional bytes needed for storing the
+	 * locations of the specified number of way nodes with a way.
+	 */
+	public static int estimateLocations(int numNodes)
+	{
+		return numNodes * SIZE_COORDINATES;
+	}
+
+	private static int estimateCommon(OsmEntity entity, boolean metadata)
+	{
+		int size = 0;
+		for (int i = 0; i < entity.getNumberOfTags(); i++) {
+			OsmTag tag = entity.getTag(i);
+			size += estimate(tag.getKey()) + estimate(tag.getValue());
+		}
+		if (metadata) {
+			OsmMetadata data = entity.getMetadata();
+			if (data != null) {
+				size += SIZE_METADATA + estimate(data.getUser());
+			}
+		}
+		return size;
+	}
+
+	/*
+	 * A string is referenced by an index and stored as a length prefixed
+	 * entry of the block's string table.
+	 */
+	private static int estimate(String string)
+	{
+		if (string == null) {
+			return SIZE_INDEX;
+		}
+		int length = utf8Length(string);
+		return SIZE_INDEX + 1 + varintLength(length) + length;
+	}
+
+	private static int utf8Length(String string)
+	{
+		int length = 0;
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c < 0x80) {
+				length += 1;
+			} else if (c < 0x800 || Character.isSurrogate(c)) {
+				// Each half of a surrogate pair accounts for 2 of 4 bytes
+				length += 2;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	private static int varintLength(int value)
+	{
+		int length = 1;
+		while ((value >>>= 7) != 0) {
+			length++;
+		}
+		return length;
+	}
+
+}
@@ -23,13 +23,17 @@ import java.util.List;
 import com.slimjars.dist.gnu.trove.list.TLongList;
 import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
 
+import de.topobyte.osm4j.core.model.iface.EntityContainer;
 import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmLocatedWay;
 import de.topobyte.osm4j.core.model.iface.OsmMetadata;
 import de.topobyte.osm4j.core.model.iface.OsmNode;
 import de.topobyte.osm4j.core.model.iface.OsmRelation;
 import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
 import de.topobyte.osm4j.core.model.iface.OsmTag;
 import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.impl.Entity;
+import de.topobyte.osm4j.core.model.impl.LocatedWay;
 import de.topobyte.osm4j.core.model.impl.Metadata;
 import de.topobyte.osm4j.core.model.impl.Node;
 import de.topobyte.osm4j.core.model.impl.Relation;
@@ -40,6 +44,30 @@ import de.topobyte.osm4j.core.model.impl.Way;
 public class ImplUtil
 {
 
+	/**
+	 * Create a container with a copy of the contained entity. This is useful
+	 * for retaining entities obtained from an iterator that reuses its
+	 * entities and containers, see {@link ReusableEntities}.
+	 */
+	public static EntityContainer copy(EntityContainer container)
+	{
+		return new EntityContainer(container.getType(),
+				clone(container.getEntity()));
+	}
+
+	public static Entity clone(OsmEntity entity)
+	{
+		switch (entity.getType()) {
+		default:
+		case Node:
+			return clone((OsmNode) entity);
+		case Way:
+			return clone((OsmWay) entity);
+		case Relation:
+			return clone((OsmRelation) entity);
+		}
+	}
+
 	public static Node clone(OsmNode node)
 	{
 		List<? extends OsmTag> tags = cloneTags(node);
@@ -52,10 +80,22 @@ public class ImplUtil
 	{
 		List<? extends OsmTag> tags = cloneTags(way);
 		OsmMetadata metadata = cloneMetadata(way);
-		TLongList nodes = new TLongArrayList(way.getNumberOfNodes());
-		for (int i = 0; i < way.getNumberOfNodes(); i++) {
+		int n = way.getNumberOfNodes();
+		TLongList nodes = new TLongArrayList(n);
+		for (int i = 0; i < n; i++) {
 			nodes.add(way.getNodeId(i));
 		}
+		if (way instanceof OsmLocatedWay) {
+			OsmLocatedWay located = (OsmLocatedWay) way;
+			double[] lons = new double[n];
+			double[] lats = new double[n];
+			for (int i = 0; i < n; i++) {
+				lons[i] = located.getLongitude(i);
+				lats[i] = located.getLatitude(i);
+			}
+			return new LocatedWay(way.getId(), nodes, lons, lats, tags,
+					metadata);
+		}
 		return new Way(way.getId(), nodes, tags, metadata);
 	}
 
@@ -81,7 +121,8 @@ public class ImplUtil
 			return null;
 		}
 		return new Metadata(metadata.getVersion(), metadata.getTimestamp(),
-				metadata.getUid(), metadata.getUser(), metadata.getChangeset());
+				metadata.getUid(), metadata.getUser(), metadata.getChangeset(),
+				metadata.isVisible());
 	}
 
 	private static List<? extends OsmTag> cloneTags(OsmEntity entity)
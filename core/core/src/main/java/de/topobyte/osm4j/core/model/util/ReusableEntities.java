@@ -0,0 +1,85 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.model.util;
+
+import de.topobyte.osm4j.core.model.iface.EntityContainer;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.impl.MutableLocatedWay;
+import de.topobyte.osm4j.core.model.impl.MutableNode;
+import de.topobyte.osm4j.core.model.impl.MutableRelation;
+import de.topobyte.osm4j.core.model.impl.MutableWay;
+
+/**
+ * A set of mutable entities and a single container that iterators hand out
+ * when reusing entities. Each of the accessors for the entities resets the
+ * respective instance before returning it, so that it can be filled with the
+ * data of the next element.
+ * 
+ * Entities and the container obtained from an iterator that reuses entities
+ * are only valid until the next call to the iterator's <code>next()</code>
+ * method. Use {@link ImplUtil#copy(EntityContainer)} to retain them.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class ReusableEntities
+{
+
+	private final EntityContainer container = new EntityContainer(
+			EntityType.Node, null);
+
+	private final MutableNode node = new MutableNode();
+	private final MutableWay way = new MutableWay();
+	private final MutableLocatedWay locatedWay = new MutableLocatedWay();
+	private final MutableRelation relation = new MutableRelation();
+
+	public MutableNode node()
+	{
+		node.clear();
+		return node;
+	}
+
+	public MutableWay way()
+	{
+		way.clear();
+		return way;
+	}
+
+	public MutableLocatedWay locatedWay()
+	{
+		locatedWay.clear();
+		return locatedWay;
+	}
+
+	public MutableRelation relation()
+	{
+		relation.clear();
+		return relation;
+	}
+
+	/**
+	 * Get the shared container, pointing to the specified entity.
+	 */
+	public EntityContainer container(OsmEntity entity)
+	{
+		container.setType(entity.getType());
+		container.setEntity(entity);
+		return container;
+	}
+
+}
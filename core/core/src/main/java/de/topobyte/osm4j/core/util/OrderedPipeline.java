@@ -0,0 +1,346 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes a sequence of inputs using multiple threads while still
+ * delivering the results in input order.
+ * 
+ * A single reader thread obtains the inputs from a {@link Callable} that
+ * returns null once the end of the input has been reached, and submits them
+ * to a pool of worker threads that process them using a {@link Worker}. The
+ * pending results are queued in input order in a bounded queue, so that at
+ * most <code>maxInFlight</code> inputs are being processed or are waiting to
+ * be consumed at any time.
+ * 
+ * Threads are started lazily on the first call to {@link #next()} or
+ * {@link #take()}. They are shut down once the end of the input has been
+ * reached, when an error occurs or when {@link #close()} is called. Closing
+ * interrupts the reader thread, so the reader may block interruptibly.
+ * 
+ * @param <I>
+ *            the type of inputs.
+ * @param <O>
+ *            the type of results.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class OrderedPipeline<I, O>
+{
+
+	/**
+	 * Processes a single input on one of the worker threads.
+	 */
+	public interface Worker<I, O>
+	{
+
+		public O process(I input) throws IOException;
+
+	}
+
+	private final String name;
+	private final Callable<I> reader;
+	private final Worker<I, O> worker;
+	private final int numThreads;
+
+	private final BlockingQueue<Result<I, O>> queue;
+
+	private ExecutorService workers = null;
+	private Thread readerThread = null;
+
+	private boolean started = false;
+	private volatile boolean finished = false;
+
+	/**
+	 * @param name
+	 *            a prefix for the names of the threads.
+	 * @param reader
+	 *            supplies the inputs, returns null at the end of the input.
+	 * @param worker
+	 *            turns an input into a result.
+	 * @param numThreads
+	 *            the number of worker threads.
+	 * @param maxInFlight
+	 *            the maximum number of inputs being processed or waiting to
+	 *            be consumed.
+	 */
+	public OrderedPipeline(String name, Callable<I> reader,
+			Worker<I, O> worker, int numThreads, int maxInFlight)
+	{
+		if (numThreads < 1) {
+			throw new IllegalArgumentException(
+					"number of threads must be positive");
+		}
+		if (maxInFlight < 1) {
+			throw new IllegalArgumentException(
+					"number of inputs in flight must be positive");
+		}
+		this.name = name;
+		this.reader = reader;
+		this.worker = worker;
+		this.numThreads = numThreads;
+		queue = new ArrayBlockingQueue<>(maxInFlight);
+	}
+
+	/**
+	 * Get the result for the next input.
+	 * 
+	 * @return the next result or null if the end of the input has been
+	 *         reached.
+	 * @throws IOException
+	 *             if reading or processing the input failed, in which case
+	 *             the pipeline is closed.
+	 */
+	public O next() throws IOException
+	{
+		Result<I, O> result = take();
+		if (result == null) {
+			return null;
+		}
+		try {
+			return result.get();
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Get the pending result for the next input. Unlike {@link #next()}, this
+	 * does not close the pipeline if processing the input failed, so that the
+	 * caller may recover from the error using the input.
+	 * 
+	 * @return the next pending result or null if the end of the input has
+	 *         been reached.
+	 * @throws IOException
+	 *             if interrupted while waiting for the next result.
+	 */
+	public Result<I, O> take() throws IOException
+	{
+		if (finished) {
+			return null;
+		}
+		if (!started) {
+			start();
+		}
+
+		Result<I, O> result;
+		try {
+			result = queue.take();
+		} catch (InterruptedException e) {
+			close();
+			throw new InterruptedIOException(
+					"interrupted while waiting for result");
+		}
+		if (result.future == null) {
+			close();
+			return null;
+		}
+		return result;
+	}
+
+	/**
+	 * Stop the reader thread and the worker threads. Subsequent calls to
+	 * {@link #next()} and {@link #take()} will return null.
+	 */
+	public void close()
+	{
+		finished = true;
+		if (!started) {
+			return;
+		}
+		readerThread.interrupt();
+		workers.shutdownNow();
+	}
+
+	private void start()
+	{
+		started = true;
+
+		workers = Executors.newFixedThreadPool(numThreads,
+				new DaemonThreadFactory(name + "-worker"));
+
+		readerThread = new Thread(new Runnable() {
+
+			@Override
+			public void run()
+			{
+				read();
+			}
+
+		}, name + "-reader");
+		readerThread.setDaemon(true);
+		readerThread.start();
+	}
+
+	private void read()
+	{
+		try {
+			while (true) {
+				final I input = reader.call();
+				if (input == null) {
+					break;
+				}
+				Future<O> future = workers.submit(new Callable<O>() {
+
+					@Override
+					public O call() throws IOException
+					{
+						return worker.process(input);
+					}
+
+				});
+				queue.put(new Result<>(input, future));
+			}
+			queue.put(new Result<I, O>(null, null));
+		} catch (InterruptedException e) {
+			// closed by the consumer
+		} catch (RejectedExecutionException e) {
+			// closed by the consumer
+		} catch (Exception e) {
+			// corrupt input may cause unchecked exceptions while reading
+			fail(e);
+		} catch (Error e) {
+			fail(e);
+		}
+	}
+
+	// Pass an error to the consumer, which would otherwise wait forever
+	private void fail(Throwable throwable)
+	{
+		if (finished) {
+			return;
+		}
+		try {
+			queue.put(new Result<I, O>(null, failed(throwable)));
+		} catch (InterruptedException interrupted) {
+			// closed by the consumer
+		}
+	}
+
+	/**
+	 * The pending result for an input.
+	 */
+	public static class Result<I, O>
+	{
+
+		private final I input;
+		private final Future<O> future;
+
+		Result(I input, Future<O> future)
+		{
+			this.input = input;
+			this.future = future;
+		}
+
+		/**
+		 * @return the input this is the result for or null if reading the
+		 *         input failed.
+		 */
+		public I getInput()
+		{
+			return input;
+		}
+
+		/**
+		 * Wait for the result.
+		 * 
+		 * @throws IOException
+		 *             if reading or processing the input failed.
+		 */
+		public O get() throws IOException
+		{
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException(
+						"interrupted while waiting for result");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				throw new IOException("error while processing input", cause);
+			}
+		}
+
+		/**
+		 * Stop processing the input if that has not finished yet.
+		 */
+		public void cancel()
+		{
+			future.cancel(true);
+		}
+
+	}
+
+	private static <O> Future<O> failed(final Throwable throwable)
+	{
+		FutureTask<O> task = new FutureTask<>(new Callable<O>() {
+
+			@Override
+			public O call() throws Exception
+			{
+				if (throwable instanceof Error) {
+					throw (Error) throwable;
+				}
+				throw (Exception) throwable;
+			}
+
+		});
+		task.run();
+		return task;
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory
+	{
+
+		private String prefix;
+		private AtomicInteger counter = new AtomicInteger();
+
+		DaemonThreadFactory(String prefix)
+		{
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable)
+		{
+			Thread thread = new Thread(runnable,
+					prefix + "-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
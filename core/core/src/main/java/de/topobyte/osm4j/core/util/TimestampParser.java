@@ -0,0 +1,113 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.util;
+
+/**
+ * Parses timestamps in the canonical format used by OSM data,
+ * 'yyyy-MM-dd'T'HH:mm:ss'Z'', to milliseconds since the epoch without creating
+ * any objects.
+ * 
+ * Only this exact format is supported. For any other input, including valid
+ * timestamps in other ISO-8601 variants, {@link #INVALID} is returned so that
+ * callers can fall back to a more lenient parser.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class TimestampParser
+{
+
+	/**
+	 * The value returned for input that is not in the canonical format.
+	 */
+	public static final long INVALID = Long.MIN_VALUE;
+
+	private static final int LENGTH = 20;
+
+	private static final int[] DAYS_IN_MONTH = { 31, 28, 31, 30, 31, 30, 31,
+			31, 30, 31, 30, 31 };
+
+	public static long parse(CharSequence text)
+	{
+		if (text.length() != LENGTH || text.charAt(4) != '-'
+				|| text.charAt(7) != '-' || text.charAt(10) != 'T'
+				|| text.charAt(13) != ':' || text.charAt(16) != ':'
+				|| text.charAt(19) != 'Z') {
+			return INVALID;
+		}
+
+		int year = digits(text, 0, 4);
+		int month = digits(text, 5, 2);
+		int day = digits(text, 8, 2);
+		int hour = digits(text, 11, 2);
+		int minute = digits(text, 14, 2);
+		int second = digits(text, 17, 2);
+		if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0
+				|| hour > 23 || minute < 0 || minute > 59 || second < 0
+				|| second > 59) {
+			return INVALID;
+		}
+		if (day > DAYS_IN_MONTH[month - 1]
+				&& !(month == 2 && day == 29 && isLeapYear(year))) {
+			return INVALID;
+		}
+
+		long days = daysSinceEpoch(year, month, day);
+		long seconds = days * 86400 + hour * 3600 + minute * 60 + second;
+		return seconds * 1000;
+	}
+
+	/*
+	 * Parse a fixed number of decimal digits, returns -1 if any of the
+	 * characters is not a digit.
+	 */
+	private static int digits(CharSequence text, int offset, int count)
+	{
+		int value = 0;
+		for (int i = offset; i < offset + count; i++) {
+			int digit = text.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	private static boolean isLeapYear(int year)
+	{
+		return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	/*
+	 * Days since 1970-01-01 in the proleptic Gregorian calendar, for years
+	 * from 0 on. Years are counted from March, so that the leap day is the
+	 * last day of a year.
+	 */
+	private static long daysSinceEpoch(int year, int month, int day)
+	{
+		int y = month <= 2 ? year - 1 : year;
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5
+				+ day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100
+				+ dayOfYear;
+		return era * 146097L + dayOfEra - 719468;
+	}
+
+}
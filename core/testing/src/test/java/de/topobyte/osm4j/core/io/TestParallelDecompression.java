@@ -0,0 +1,302 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.Test;
+
+public class TestParallelDecompression
+{
+
+	private static byte[] generate(int size, long seed)
+	{
+		Random random = new Random(seed);
+		StringBuilder buffer = new StringBuilder();
+		while (buffer.length() < size) {
+			buffer.append(String.format(
+					" <node id=\"%d\" lat=\"%.7f\" lon=\"%.7f\"/>\n",
+					random.nextInt(1000000), random.nextDouble() * 180 - 90,
+					random.nextDouble() * 360 - 180));
+		}
+		return buffer.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] gzip(byte[] data, int offset, int length)
+			throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		OutputStream out = new GZIPOutputStream(baos);
+		out.write(data, offset, length);
+		out.close();
+		return baos.toByteArray();
+	}
+
+	private static byte[] bzip2(byte[] data, int offset, int length,
+			int blockSize) throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		OutputStream out = new BZip2CompressorOutputStream(baos, blockSize);
+		out.write(data, offset, length);
+		out.close();
+		return baos.toByteArray();
+	}
+
+	/*
+	 * Compress the data as a concatenation of independently compressed parts
+	 */
+	private static byte[] concatenate(byte[] data, int partSize,
+			boolean useBzip2) throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		for (int i = 0; i < data.length; i += partSize) {
+			int length = Math.min(partSize, data.length - i);
+			if (useBzip2) {
+				baos.write(bzip2(data, i, length, 9));
+			} else {
+				baos.write(gzip(data, i, length));
+			}
+		}
+		return baos.toByteArray();
+	}
+
+	private static byte[] read(InputStream input) throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = input.read(buffer)) >= 0) {
+			baos.write(buffer, 0, read);
+		}
+		input.close();
+		return baos.toByteArray();
+	}
+
+	private static byte[] decompress(byte[] compressed,
+			InputCompression compression) throws IOException
+	{
+		return read(new ParallelDecompressionInputStream(
+				new ByteArrayInputStream(compressed), compression, 4));
+	}
+
+	@Test
+	public void testGzipSingleMember() throws IOException
+	{
+		byte[] data = generate(2 * 1000 * 1000, 1);
+		byte[] compressed = gzip(data, 0, data.length);
+		assertArrayEquals(data, decompress(compressed, InputCompression.GZIP));
+	}
+
+	@Test
+	public void testGzipSequentialRemainder() throws IOException
+	{
+		byte[] data = generate(2 * 1000 * 1000, 2);
+		byte[] compressed = gzip(data, 0, data.length);
+		InputStream in = new ByteArrayInputStream(compressed);
+		GzipChunkSplitter splitter = new GzipChunkSplitter(in, 1024, 4096);
+		InputStream input = new ParallelDecompressionInputStream(in,
+				splitter, 2, 4);
+		assertArrayEquals(data, read(input));
+	}
+
+	@Test
+	public void testGzipMultiMember() throws IOException
+	{
+		byte[] data = generate(4 * 1000 * 1000, 3);
+		byte[] compressed = concatenate(data, 64 * 1024, false);
+		assertArrayEquals(data, decompress(compressed, InputCompression.GZIP));
+
+		InputStream in = new ByteArrayInputStream(compressed);
+		GzipChunkSplitter splitter = new GzipChunkSplitter(in, 1,
+				GzipChunkSplitter.DEFAULT_MAX_CHUNK_SIZE);
+		int chunks = 0;
+		while (splitter.next() != null) {
+			chunks++;
+		}
+		assertEquals((data.length + 64 * 1024 - 1) / (64 * 1024), chunks);
+	}
+
+	@Test
+	public void testGzipSpuriousHeader() throws IOException
+	{
+		// Stored deflate blocks contain the payload verbatim, so a payload
+		// that looks like a member header creates a spurious chunk boundary
+		byte[] header = gzip(new byte[0], 0, 0);
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		for (int i = 0; i < 4; i++) {
+			payload.write(generate(20 * 1000, i));
+			payload.write(header, 0, 10);
+		}
+		payload.write(generate(20 * 1000, 4));
+		byte[] data = payload.toByteArray();
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		OutputStream out = new GZIPOutputStream(baos) {
+			{
+				def.setLevel(0);
+			}
+		};
+		out.write(data);
+		out.close();
+		byte[] compressed = baos.toByteArray();
+
+		InputStream in = new ByteArrayInputStream(compressed);
+		GzipChunkSplitter splitter = new GzipChunkSplitter(in, 1024,
+				GzipChunkSplitter.DEFAULT_MAX_CHUNK_SIZE);
+		InputStream input = new ParallelDecompressionInputStream(in,
+				splitter, 4, 8);
+		assertArrayEquals(data, read(input));
+	}
+
+	@Test
+	public void testGzipSpuriousHeaderBeforeRemainder() throws IOException
+	{
+		// A spurious boundary is followed by enough input without any
+		// boundaries for the rest to be decompressed sequentially
+		byte[] header = gzip(new byte[0], 0, 0);
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		payload.write(generate(2000, 10));
+		payload.write(header, 0, 10);
+		payload.write(generate(100 * 1000, 11));
+		byte[] data = payload.toByteArray();
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		OutputStream out = new GZIPOutputStream(baos) {
+			{
+				def.setLevel(0);
+			}
+		};
+		out.write(data);
+		out.close();
+		byte[] compressed = baos.toByteArray();
+
+		InputStream in = new ByteArrayInputStream(compressed);
+		GzipChunkSplitter splitter = new GzipChunkSplitter(in, 1024, 8192);
+		InputStream input = new ParallelDecompressionInputStream(in,
+				splitter, 2, 4);
+		assertArrayEquals(data, read(input));
+	}
+
+	@Test(timeout = 10000, expected = IOException.class)
+	public void testSplitterError() throws IOException
+	{
+		ChunkSplitter splitter = new GzipChunkSplitter(
+				new ByteArrayInputStream(new byte[0])) {
+
+			@Override
+			Chunk next()
+			{
+				throw new IllegalStateException();
+			}
+
+		};
+		read(new ParallelDecompressionInputStream(
+				new ByteArrayInputStream(new byte[0]), splitter, 2, 4));
+	}
+
+	@Test
+	public void testBzip2MultiBlock() throws IOException
+	{
+		byte[] data = generate(3 * 1000 * 1000, 4);
+		byte[] compressed = bzip2(data, 0, data.length, 1);
+		assertArrayEquals(data,
+				decompress(compressed, InputCompression.BZIP2));
+	}
+
+	@Test
+	public void testBzip2MultiStream() throws IOException
+	{
+		byte[] data = generate(3 * 1000 * 1000, 5);
+		byte[] compressed = concatenate(data, 300 * 1000, true);
+		assertArrayEquals(data,
+				decompress(compressed, InputCompression.BZIP2));
+	}
+
+	@Test
+	public void testBzip2Merge() throws IOException
+	{
+		byte[] data = generate(300 * 1000, 6);
+		byte[] compressed = bzip2(data, 0, data.length, 9);
+		BZip2ChunkSplitter splitter = new BZip2ChunkSplitter(
+				new ByteArrayInputStream(compressed));
+		Chunk chunk = splitter.next();
+
+		// Split the block at a few arbitrary bit positions, as a spurious
+		// block marker would, and merge the pieces again
+		int[] positions = { 32 + 48, 1001, 12347, chunk.getLength() - 3 };
+		for (int position : positions) {
+			List<Chunk> pieces = split(chunk, position);
+			Chunk merged = splitter.merge(pieces.get(0), pieces.get(1));
+			assertEquals(chunk.getLength(), merged.getLength());
+			assertArrayEquals(chunk.getData(), merged.getData());
+			assertArrayEquals(data, splitter.decompress(merged));
+		}
+	}
+
+	private static List<Chunk> split(Chunk chunk, int position)
+	{
+		byte[] data = chunk.getData();
+		int secondBits = 32 + chunk.getLength() - position;
+		byte[] first = new byte[(position + 7) / 8];
+		byte[] second = new byte[(secondBits + 7) / 8];
+		System.arraycopy(data, 0, second, 0, 4);
+		for (int i = 0; i < chunk.getLength(); i++) {
+			int bit = (data[i / 8] >>> (7 - i % 8)) & 1;
+			if (i < position) {
+				first[i / 8] |= bit << (7 - i % 8);
+			} else {
+				int j = 32 + i - position;
+				second[j / 8] |= bit << (7 - j % 8);
+			}
+		}
+		List<Chunk> chunks = new ArrayList<>();
+		chunks.add(new Chunk(first, position));
+		chunks.add(new Chunk(second, secondBits));
+		return chunks;
+	}
+
+	@Test
+	public void testCloseEarly() throws IOException
+	{
+		byte[] data = generate(3 * 1000 * 1000, 7);
+		byte[] compressed = bzip2(data, 0, data.length, 1);
+		InputStream input = new ParallelDecompressionInputStream(
+				new ByteArrayInputStream(compressed), InputCompression.BZIP2,
+				2, 1);
+		byte[] buffer = new byte[1000];
+		int read = input.read(buffer);
+		input.close();
+		for (int i = 0; i < read; i++) {
+			assertEquals(data[i], buffer[i]);
+		}
+	}
+
+}
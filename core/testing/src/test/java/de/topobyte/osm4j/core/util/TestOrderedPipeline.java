@@ -0,0 +1,153 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.core.util;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestOrderedPipeline
+{
+
+	private static class Counter implements Callable<Integer>
+	{
+
+		private int next = 0;
+		private int limit;
+		private int failAt;
+
+		Counter(int limit, int failAt)
+		{
+			this.limit = limit;
+			this.failAt = failAt;
+		}
+
+		@Override
+		public Integer call()
+		{
+			if (next == failAt) {
+				throw new IllegalStateException("corrupt input");
+			}
+			if (next == limit) {
+				return null;
+			}
+			return next++;
+		}
+
+	}
+
+	private static class Squarer implements OrderedPipeline.Worker<Integer, Long>
+	{
+
+		private Random random = new Random(1);
+		private int failAt;
+
+		Squarer(int failAt)
+		{
+			this.failAt = failAt;
+		}
+
+		@Override
+		public Long process(Integer input) throws IOException
+		{
+			if (input == failAt) {
+				throw new IOException("processing failed");
+			}
+			if (random.nextInt(10) == 0) {
+				Thread.yield();
+			}
+			return (long) input * input;
+		}
+
+	}
+
+	@Test(timeout = 10000)
+	public void testOrder() throws IOException
+	{
+		for (int numThreads : new int[] { 1, 4 }) {
+			OrderedPipeline<Integer, Long> pipeline = new OrderedPipeline<>(
+					"test", new Counter(1000, -1), new Squarer(-1),
+					numThreads, 3);
+			for (int i = 0; i < 1000; i++) {
+				Assert.assertEquals((long) i * i, (long) pipeline.next());
+			}
+			Assert.assertNull(pipeline.next());
+			Assert.assertNull(pipeline.next());
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testReaderError() throws IOException
+	{
+		OrderedPipeline<Integer, Long> pipeline = new OrderedPipeline<>(
+				"test", new Counter(1000, 10), new Squarer(-1), 4, 3);
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals((long) i * i, (long) pipeline.next());
+		}
+		try {
+			pipeline.next();
+			Assert.fail("no exception for reader error");
+		} catch (IOException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		Assert.assertNull(pipeline.next());
+	}
+
+	@Test(timeout = 10000)
+	public void testWorkerError() throws IOException
+	{
+		OrderedPipeline<Integer, Long> pipeline = new OrderedPipeline<>(
+				"test", new Counter(1000, -1), new Squarer(10), 4, 3);
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals((long) i * i, (long) pipeline.next());
+		}
+		try {
+			pipeline.next();
+			Assert.fail("no exception for worker error");
+		} catch (IOException e) {
+			Assert.assertEquals("processing failed", e.getMessage());
+		}
+		Assert.assertNull(pipeline.next());
+	}
+
+	@Test(timeout = 10000)
+	public void testTake() throws IOException
+	{
+		OrderedPipeline<Integer, Long> pipeline = new OrderedPipeline<>(
+				"test", new Counter(20, -1), new Squarer(10), 4, 3);
+		for (int i = 0; i < 20; i++) {
+			OrderedPipeline.Result<Integer, Long> result = pipeline.take();
+			Assert.assertEquals(i, (int) result.getInput());
+			if (i == 10) {
+				try {
+					result.get();
+					Assert.fail("no exception for worker error");
+				} catch (IOException e) {
+					// expected, the pipeline stays open
+				}
+			} else {
+				Assert.assertEquals((long) i * i, (long) result.get());
+			}
+		}
+		Assert.assertNull(pipeline.take());
+	}
+
+}
@@ -22,6 +22,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
@@ -273,8 +276,36 @@ public class ExtractionFilesBuilder
 
 		outputConfigTreeFinal = new OsmOutputConfig(outputFormat,
 				includeMetadata);
+		// Leaves of the final tree are queried directly, allow random access
+		outputConfigTreeFinal.getTboConfig().setWriteIndex(true);
+
+		// The tree steps keep many writers open at the same time, let them
+		// share a single pool of threads for compressing blocks
+		ExecutorService compressionPool = createCompressionPool();
+		outputConfigTree.getTboConfig().setExecutor(compressionPool);
+		outputConfigTreeFinal.getTboConfig().setExecutor(compressionPool);
+
+		try {
+			process();
+		} finally {
+			compressionPool.shutdownNow();
+		}
+	}
+
+	private ExecutorService createCompressionPool()
+	{
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		return Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "tbo-compression");
+				thread.setDaemon(true);
+				return thread;
+			}
 
-		process();
+		});
 	}
 
 	private void process() throws IOException, OsmInputException
@@ -26,6 +26,7 @@ import org.locationtech.jts.geom.GeometryFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.topobyte.osm4j.core.model.iface.OsmLocatedWay;
 import de.topobyte.osm4j.core.model.iface.OsmNode;
 import de.topobyte.osm4j.core.model.iface.OsmWay;
 import de.topobyte.osm4j.core.model.util.OsmModelUtil;
@@ -140,9 +141,51 @@ public class WayBuilder extends AbstractGeometryBuilder
 		}
 	}
 
+	/**
+	 * Build a LineString from the node locations embedded in the given way.
+	 * This does not require resolving any nodes. Ways that carry their node
+	 * locations are also built this way by the other build methods,
+	 * regardless of the strategy for missing entities.
+	 * 
+	 * @param way
+	 *            the way to use for building.
+	 * @return the constructed LineString.
+	 */
+	public WayBuilderResult build(OsmLocatedWay way)
+	{
+		WayBuilderResult result = new WayBuilderResult();
+
+		int numNodes = way.getNumberOfNodes();
+		if (numNodes == 0) {
+			return result;
+		}
+		if (numNodes == 1) {
+			if (includePuntal) {
+				result.getCoordinates().add(new Coordinate(
+						way.getLongitude(0), way.getLatitude(0)));
+			}
+			return result;
+		}
+
+		CoordinateSequence cs = factory.getCoordinateSequenceFactory().create(
+				numNodes, 2);
+
+		for (int i = 0; i < numNodes; i++) {
+			cs.setOrdinate(i, 0, way.getLongitude(i));
+			cs.setOrdinate(i, 1, way.getLatitude(i));
+		}
+		createLine(result, cs, OsmModelUtil.isClosed(way));
+
+		return result;
+	}
+
 	public WayBuilderResult buildThrowExceptionIfNodeMissing(OsmWay way,
 			OsmEntityProvider resolver) throws EntityNotFoundException
 	{
+		if (way instanceof OsmLocatedWay) {
+			return build((OsmLocatedWay) way);
+		}
+
 		WayBuilderResult result = new WayBuilderResult();
 
 		int numNodes = way.getNumberOfNodes();
@@ -174,6 +217,10 @@ public class WayBuilder extends AbstractGeometryBuilder
 	public WayBuilderResult buildReturnEmptyIfNodeMissing(OsmWay way,
 			OsmEntityProvider resolver)
 	{
+		if (way instanceof OsmLocatedWay) {
+			return build((OsmLocatedWay) way);
+		}
+
 		WayBuilderResult result = new WayBuilderResult();
 
 		int numNodes = way.getNumberOfNodes();
@@ -216,6 +263,10 @@ public class WayBuilder extends AbstractGeometryBuilder
 	public WayBuilderResult buildOmitVertexIfNodeMissing(OsmWay way,
 			OsmEntityProvider resolver)
 	{
+		if (way instanceof OsmLocatedWay) {
+			return build((OsmLocatedWay) way);
+		}
+
 		WayBuilderResult result = new WayBuilderResult();
 
 		// Test if the way is closed, i.e. first node id == last node id
@@ -269,6 +320,10 @@ public class WayBuilder extends AbstractGeometryBuilder
 	public WayBuilderResult buildSplitIfNodeMissing(OsmWay way,
 			OsmEntityProvider resolver)
 	{
+		if (way instanceof OsmLocatedWay) {
+			return build((OsmLocatedWay) way);
+		}
+
 		// Test if the way is closed, i.e. first node id == last node id
 		boolean closed = OsmModelUtil.isClosed(way);
 		// Remember if the first node is missing, so that we can handle closed
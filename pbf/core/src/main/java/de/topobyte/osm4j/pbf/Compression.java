@@ -21,6 +21,7 @@ public enum Compression {
 
 	NONE,
 	DEFLATE,
-	LZ4
+	LZ4,
+	ZSTD
 
 }
\ No newline at end of file
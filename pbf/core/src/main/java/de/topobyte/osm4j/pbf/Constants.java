@@ -23,9 +23,16 @@ public class Constants
 	public static final String BLOCK_TYPE_HEADER = "OSMHeader";
 	public static final String BLOCK_TYPE_DATA = "OSMData";
 
+	/**
+	 * The maximum size of uncompressed block data allowed by the format.
+	 */
+	public static final int MAX_BLOCK_SIZE = 32 * 1024 * 1024;
+
 	public static final String WRITING_PROGRAM = "osm4j-pbf-0.0.12";
 
 	public static final String FEATURE_SCHEMA_0_6 = "OsmSchema-V0.6";
 	public static final String FEATURE_DENSE_NODES = "DenseNodes";
 
+	public static final String FEATURE_LOCATIONS_ON_WAYS = "LocationsOnWays";
+
 }
@@ -0,0 +1,287 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.raf;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+
+/**
+ * The block index of a PBF file, i.e. the location of the header block and
+ * the location and the first and last contained entity of each data block.
+ * 
+ * An index can be persisted to a small sidecar file next to the PBF file. The
+ * sidecar records the size and the modification time of the indexed file, so
+ * that a stale index is detected and discarded when the file changes.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class BlockIndex
+{
+
+	private static final byte[] MAGIC = new byte[] { 'p', 'b', 'f', 'i', 'd',
+			'x' };
+	private static final int VERSION = 1;
+
+	public static final String SIDECAR_SUFFIX = ".blockindex";
+
+	/**
+	 * @return the default location of the sidecar index for the specified PBF
+	 *         file.
+	 */
+	public static File sidecarFor(File file)
+	{
+		return new File(file.getPath() + SIDECAR_SUFFIX);
+	}
+
+	private long fileSize;
+	private long lastModified;
+
+	private BlockInfo headerBlockInfo;
+	private List<IndexedBlockInfo> dataBlockInfos;
+
+	public BlockIndex(long fileSize, long lastModified,
+			BlockInfo headerBlockInfo, List<IndexedBlockInfo> dataBlockInfos)
+	{
+		this.fileSize = fileSize;
+		this.lastModified = lastModified;
+		this.headerBlockInfo = headerBlockInfo;
+		this.dataBlockInfos = dataBlockInfos;
+	}
+
+	public long getFileSize()
+	{
+		return fileSize;
+	}
+
+	public long getLastModified()
+	{
+		return lastModified;
+	}
+
+	public BlockInfo getHeaderBlockInfo()
+	{
+		return headerBlockInfo;
+	}
+
+	public List<IndexedBlockInfo> getDataBlockInfos()
+	{
+		return dataBlockInfos;
+	}
+
+	/**
+	 * Check whether this index has been built for the specified file in its
+	 * current state.
+	 */
+	public boolean isValidFor(File file)
+	{
+		return file.length() == fileSize
+				&& file.lastModified() == lastModified;
+	}
+
+	/**
+	 * Create an entry for a data block by looking at the first and last
+	 * entities in the block.
+	 */
+	public static IndexedBlockInfo createInfo(BlockInfo info,
+			Osmformat.PrimitiveBlock block)
+	{
+		EntityType firstType = null, lastType = null;
+		long firstId = 0, lastId = 0;
+
+		for (Osmformat.PrimitiveGroup group : block.getPrimitivegroupList()) {
+			if (group.hasDense() && group.getDense().getIdCount() > 0) {
+				Osmformat.DenseNodes dense = group.getDense();
+				if (firstType == null) {
+					firstType = EntityType.Node;
+					firstId = dense.getId(0);
+				}
+				// ids are delta coded
+				long id = 0;
+				for (int i = 0; i < dense.getIdCount(); i++) {
+					id += dense.getId(i);
+				}
+				lastType = EntityType.Node;
+				lastId = id;
+			}
+			if (group.getNodesCount() > 0) {
+				if (firstType == null) {
+					firstType = EntityType.Node;
+					firstId = group.getNodes(0).getId();
+				}
+				lastType = EntityType.Node;
+				lastId = group.getNodes(group.getNodesCount() - 1).getId();
+			}
+			if (group.getWaysCount() > 0) {
+				if (firstType == null) {
+					firstType = EntityType.Way;
+					firstId = group.getWays(0).getId();
+				}
+				lastType = EntityType.Way;
+				lastId = group.getWays(group.getWaysCount() - 1).getId();
+			}
+			if (group.getRelationsCount() > 0) {
+				if (firstType == null) {
+					firstType = EntityType.Relation;
+					firstId = group.getRelations(0).getId();
+				}
+				lastType = EntityType.Relation;
+				lastId = group.getRelations(group.getRelationsCount() - 1)
+						.getId();
+			}
+		}
+
+		return new IndexedBlockInfo(info.getPosition(), info.getLengthHeader(),
+				info.getLengthData(), firstType, firstId, lastType, lastId);
+	}
+
+	/**
+	 * Read an index from the specified sidecar file.
+	 * 
+	 * @return the index or null if the sidecar does not exist, is not a valid
+	 *         index file or does not match the specified indexed file.
+	 */
+	public static BlockIndex read(File sidecar, File file) throws IOException
+	{
+		if (!sidecar.exists()) {
+			return null;
+		}
+
+		try (DataInputStream input = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(sidecar)))) {
+			byte[] magic = new byte[MAGIC.length];
+			input.readFully(magic);
+			if (!Arrays.equals(magic, MAGIC)) {
+				return null;
+			}
+			int version = input.readInt();
+			if (version != VERSION) {
+				return null;
+			}
+
+			long fileSize = input.readLong();
+			long lastModified = input.readLong();
+			if (file.length() != fileSize
+					|| file.lastModified() != lastModified) {
+				return null;
+			}
+
+			BlockInfo headerBlockInfo = null;
+			if (input.readBoolean()) {
+				headerBlockInfo = new BlockInfo(input.readLong(),
+						input.readInt(), input.readInt());
+			}
+
+			int n = input.readInt();
+			List<IndexedBlockInfo> infos = new ArrayList<>(n);
+			for (int i = 0; i < n; i++) {
+				long position = input.readLong();
+				int lengthHeader = input.readInt();
+				int lengthData = input.readInt();
+				EntityType firstType = type(input.readByte());
+				long firstId = input.readLong();
+				EntityType lastType = type(input.readByte());
+				long lastId = input.readLong();
+				infos.add(new IndexedBlockInfo(position, lengthHeader,
+						lengthData, firstType, firstId, lastType, lastId));
+			}
+
+			return new BlockIndex(fileSize, lastModified, headerBlockInfo,
+					infos);
+		} catch (IOException e) {
+			// A truncated or otherwise broken sidecar is simply rebuilt
+			return null;
+		}
+	}
+
+	/**
+	 * Write this index to the specified sidecar file.
+	 */
+	public void write(File sidecar) throws IOException
+	{
+		try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(sidecar)))) {
+			output.write(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(fileSize);
+			output.writeLong(lastModified);
+
+			output.writeBoolean(headerBlockInfo != null);
+			if (headerBlockInfo != null) {
+				output.writeLong(headerBlockInfo.getPosition());
+				output.writeInt(headerBlockInfo.getLengthHeader());
+				output.writeInt(headerBlockInfo.getLengthData());
+			}
+
+			output.writeInt(dataBlockInfos.size());
+			for (IndexedBlockInfo info : dataBlockInfos) {
+				output.writeLong(info.getPosition());
+				output.writeInt(info.getLengthHeader());
+				output.writeInt(info.getLengthData());
+				output.writeByte(id(info.getFirstType()));
+				output.writeLong(info.getFirstId());
+				output.writeByte(id(info.getLastType()));
+				output.writeLong(info.getLastId());
+			}
+		}
+	}
+
+	private static int id(EntityType type)
+	{
+		if (type == null) {
+			return -1;
+		}
+		switch (type) {
+		default:
+		case Node:
+			return 0;
+		case Way:
+			return 1;
+		case Relation:
+			return 2;
+		}
+	}
+
+	private static EntityType type(byte id) throws IOException
+	{
+		switch (id) {
+		case -1:
+			return null;
+		case 0:
+			return EntityType.Node;
+		case 1:
+			return EntityType.Way;
+		case 2:
+			return EntityType.Relation;
+		default:
+			throw new IOException("invalid entity type: " + id);
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.raf;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+
+/**
+ * Information about a data block that, in addition to its location within the
+ * file, describes the first and the last entity contained in the block. For
+ * empty blocks, the types are null and the ids are undefined.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class IndexedBlockInfo extends BlockInfo
+{
+
+	private EntityType firstType;
+	private long firstId;
+	private EntityType lastType;
+	private long lastId;
+
+	public IndexedBlockInfo(long position, int lengthHeader, int lengthData,
+			EntityType firstType, long firstId, EntityType lastType,
+			long lastId)
+	{
+		super(position, lengthHeader, lengthData);
+		this.firstType = firstType;
+		this.firstId = firstId;
+		this.lastType = lastType;
+		this.lastId = lastId;
+	}
+
+	public boolean isEmpty()
+	{
+		return firstType == null;
+	}
+
+	public EntityType getFirstType()
+	{
+		return firstType;
+	}
+
+	public long getFirstId()
+	{
+		return firstId;
+	}
+
+	public EntityType getLastType()
+	{
+		return lastType;
+	}
+
+	public long getLastId()
+	{
+		return lastId;
+	}
+
+}
@@ -0,0 +1,305 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.raf;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.protobuf.CodedInputStream;
+
+import de.topobyte.osm4j.pbf.Constants;
+import de.topobyte.osm4j.pbf.protobuf.Fileformat;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+import de.topobyte.osm4j.pbf.util.BlobHeader;
+import de.topobyte.osm4j.pbf.util.BlockData;
+import de.topobyte.osm4j.pbf.util.PbfUtil;
+
+/**
+ * Random access to the blocks of a PBF file through memory mapping.
+ * 
+ * In contrast to {@link PbfFile}, the block index is not rebuilt every time
+ * the file is opened. Instead it is stored in a sidecar file (see
+ * {@link BlockIndex}) when it has been built and loaded from there on
+ * subsequent openings as long as size and modification time of the PBF file
+ * still match. Raw blocks are returned as slices of the mapped file without
+ * copying them.
+ * 
+ * The file is mapped in overlapping regions of about 1 GiB, so that each block
+ * (which is limited to 32 MiB by the format) is completely contained in the
+ * region its start position belongs to.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class MappedPbfFile implements Closeable
+{
+
+	final static Logger logger = LoggerFactory.getLogger(MappedPbfFile.class);
+
+	private static final long REGION_SIZE = 1L << 30;
+	private static final long REGION_OVERLAP = 64L << 20;
+
+	private File file;
+	private File sidecar;
+	private RandomAccessFile raf;
+	private FileChannel channel;
+	private long size;
+	private List<MappedByteBuffer> regions = new ArrayList<>();
+
+	private BlockIndex index;
+	private boolean indexLoaded = false;
+
+	/**
+	 * Open the specified file, using the default sidecar location for the
+	 * block index.
+	 */
+	public MappedPbfFile(File file) throws IOException
+	{
+		this(file, BlockIndex.sidecarFor(file));
+	}
+
+	/**
+	 * Open the specified file using the specified sidecar file for the block
+	 * index. If the sidecar is missing or does not match the file, the index
+	 * is built and an attempt to store it in the sidecar is made. Pass null
+	 * to always build the index without using a sidecar.
+	 */
+	public MappedPbfFile(File file, File sidecar) throws IOException
+	{
+		this.file = file;
+		this.sidecar = sidecar;
+		raf = new RandomAccessFile(file, "r");
+		channel = raf.getChannel();
+		size = channel.size();
+
+		for (long offset = 0; offset < size; offset += REGION_SIZE) {
+			long length = Math.min(REGION_SIZE + REGION_OVERLAP, size - offset);
+			regions.add(channel.map(MapMode.READ_ONLY, offset, length));
+		}
+
+		initIndex();
+	}
+
+	private void initIndex() throws IOException
+	{
+		if (sidecar != null) {
+			index = BlockIndex.read(sidecar, file);
+			if (index != null) {
+				indexLoaded = true;
+				return;
+			}
+		}
+
+		index = buildBlockIndex();
+
+		if (sidecar != null) {
+			try {
+				index.write(sidecar);
+			} catch (IOException e) {
+				logger.warn("unable to write block index to " + sidecar, e);
+			}
+		}
+	}
+
+	private BlockIndex buildBlockIndex() throws IOException
+	{
+		long lastModified = file.lastModified();
+
+		BlockInfo headerBlockInfo = null;
+		List<IndexedBlockInfo> dataBlockInfos = new ArrayList<>();
+
+		long pos = 0;
+		while (pos + 4 <= size) {
+			ByteBuffer buffer = slice(pos, 4);
+			int headerSize = buffer.getInt();
+			if (pos + 4 + headerSize > size) {
+				throw new IOException("Unable to parse blob header");
+			}
+			Fileformat.BlobHeader header = Fileformat.BlobHeader
+					.parseFrom(slice(pos + 4, headerSize));
+			BlockInfo info = new BlockInfo(pos, headerSize,
+					header.getDatasize());
+
+			if (header.getType().equals(Constants.BLOCK_TYPE_DATA)) {
+				Osmformat.PrimitiveBlock block = parseDataBlock(info);
+				dataBlockInfos.add(BlockIndex.createInfo(info, block));
+			} else if (header.getType().equals(Constants.BLOCK_TYPE_HEADER)) {
+				if (headerBlockInfo == null) {
+					headerBlockInfo = info;
+				} else {
+					throw new IOException("Multiple header blocks");
+				}
+			} else {
+				throw new IOException("invalid PBF block");
+			}
+
+			pos += 4 + headerSize + header.getDatasize();
+		}
+
+		return new BlockIndex(size, lastModified, headerBlockInfo,
+				dataBlockInfos);
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		regions.clear();
+		channel.close();
+		raf.close();
+	}
+
+	/**
+	 * @return whether the block index has been loaded from the sidecar file
+	 *         instead of being built by scanning the file.
+	 */
+	public boolean isIndexLoadedFromSidecar()
+	{
+		return indexLoaded;
+	}
+
+	public BlockIndex getBlockIndex()
+	{
+		return index;
+	}
+
+	/*
+	 * Block info
+	 */
+
+	public boolean hasHeader()
+	{
+		return index.getHeaderBlockInfo() != null;
+	}
+
+	public int getNumberOfDataBlocks()
+	{
+		return index.getDataBlockInfos().size();
+	}
+
+	public IndexedBlockInfo getDataBlockInfo(int i)
+	{
+		return index.getDataBlockInfos().get(i);
+	}
+
+	/*
+	 * Access to raw blocks (header data + block data)
+	 */
+
+	public ByteBuffer getRawHeaderBlockWithHeader()
+	{
+		return getRawBlockWithHeader(index.getHeaderBlockInfo());
+	}
+
+	public ByteBuffer getRawDataBlockWithHeader(int i)
+	{
+		return getRawBlockWithHeader(getDataBlockInfo(i));
+	}
+
+	/**
+	 * Get the complete block as stored in the file, i.e. the length of the
+	 * blob header, the blob header and the blob. The returned buffer is a
+	 * read-only slice of the mapped file.
+	 */
+	private ByteBuffer getRawBlockWithHeader(BlockInfo info)
+	{
+		int lengthTotal = 4 + info.getLengthHeader() + info.getLengthData();
+		return slice(info.getPosition(), lengthTotal);
+	}
+
+	/*
+	 * Data access
+	 */
+
+	public Osmformat.HeaderBlock getHeaderBlock() throws IOException
+	{
+		Fileformat.Blob blob = getBlockBlob(index.getHeaderBlockInfo());
+		BlockData blockData = PbfUtil.getBlockData(blob);
+		return Osmformat.HeaderBlock.parseFrom(blockData.getBlobData());
+	}
+
+	public BlobHeader getDataBlockHeader(int i) throws IOException
+	{
+		BlockInfo info = getDataBlockInfo(i);
+		Fileformat.BlobHeader header = Fileformat.BlobHeader.parseFrom(slice(
+				info.getPosition() + 4, info.getLengthHeader()));
+		return new BlobHeader(header.getType(), header.getDatasize(),
+				header.getIndexdata());
+	}
+
+	public Fileformat.Blob getDataBlob(int i) throws IOException
+	{
+		return getBlockBlob(getDataBlockInfo(i));
+	}
+
+	public Osmformat.PrimitiveBlock getDataBlock(int i) throws IOException
+	{
+		return parseDataBlock(getDataBlockInfo(i));
+	}
+
+	private Osmformat.PrimitiveBlock parseDataBlock(BlockInfo info)
+			throws IOException
+	{
+		Fileformat.Blob blob = getBlockBlob(info);
+		BlockData blockData = PbfUtil.getBlockData(blob);
+		return Osmformat.PrimitiveBlock.parseFrom(blockData.getBlobData());
+	}
+
+	private Fileformat.Blob getBlockBlob(BlockInfo info) throws IOException
+	{
+		ByteBuffer data = slice(info.getPosition() + 4 + info.getLengthHeader(),
+				info.getLengthData());
+		// Let the blob reference the mapped data instead of copying it
+		CodedInputStream cis = CodedInputStream.newInstance(data);
+		cis.enableAliasing(true);
+		return Fileformat.Blob.parseFrom(cis);
+	}
+
+	private ByteBuffer slice(long position, int length)
+	{
+		int r = (int) (position / REGION_SIZE);
+		long regionStart = r * REGION_SIZE;
+		MappedByteBuffer region = regions.get(r);
+		int offset = (int) (position - regionStart);
+
+		if (offset + length > region.capacity()) {
+			// Does not happen for valid files, but don't fail on oversized
+			// blocks either
+			try {
+				return channel.map(MapMode.READ_ONLY, position, length);
+			} catch (IOException e) {
+				throw new RuntimeException("error while mapping block", e);
+			}
+		}
+
+		ByteBuffer buffer = region.duplicate();
+		buffer.position(offset);
+		buffer.limit(offset + length);
+		return buffer.slice();
+	}
+
+}
@@ -0,0 +1,357 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.raf;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+
+/**
+ * For each data block of a PBF file, the types of entities it contains, the
+ * bounding box of the contained nodes and the range of their ids.
+ * 
+ * Computing the bounds requires decoding each block, hence the index can be
+ * stored in a sidecar file next to the PBF file. Like {@link BlockIndex}, the
+ * sidecar records size and modification time of the indexed file to detect
+ * when it became stale.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class NodeBoundsIndex
+{
+
+	final static Logger logger = LoggerFactory.getLogger(NodeBoundsIndex.class);
+
+	private static final byte[] MAGIC = new byte[] { 'p', 'b', 'f', 'n', 'b',
+			'x' };
+	private static final int VERSION = 2;
+
+	public static final String SIDECAR_SUFFIX = ".nodebounds";
+
+	private static final int FLAG_NODES = 1;
+	private static final int FLAG_WAYS = 2;
+	private static final int FLAG_RELATIONS = 4;
+
+	/**
+	 * @return the default location of the sidecar index for the specified PBF
+	 *         file.
+	 */
+	public static File sidecarFor(File file)
+	{
+		return new File(file.getPath() + SIDECAR_SUFFIX);
+	}
+
+	/**
+	 * Load the index of the specified file from its default sidecar location
+	 * or compute it if the sidecar does not exist or does not match the file.
+	 * A computed index is stored in the sidecar if possible.
+	 */
+	public static NodeBoundsIndex get(File file, PbfFile pbfFile)
+			throws IOException
+	{
+		File sidecar = sidecarFor(file);
+		NodeBoundsIndex index = read(sidecar, file);
+		if (index != null) {
+			return index;
+		}
+
+		index = compute(pbfFile, file.length(), file.lastModified());
+		try {
+			index.write(sidecar);
+		} catch (IOException e) {
+			logger.warn("unable to write node bounds to " + sidecar, e);
+		}
+		return index;
+	}
+
+	private long fileSize;
+	private long lastModified;
+
+	private byte[] flags;
+	private double[] minLon;
+	private double[] maxLon;
+	private double[] minLat;
+	private double[] maxLat;
+	private long[] minNodeId;
+	private long[] maxNodeId;
+
+	private NodeBoundsIndex(long fileSize, long lastModified, int n)
+	{
+		this.fileSize = fileSize;
+		this.lastModified = lastModified;
+		flags = new byte[n];
+		minLon = new double[n];
+		maxLon = new double[n];
+		minLat = new double[n];
+		maxLat = new double[n];
+		minNodeId = new long[n];
+		maxNodeId = new long[n];
+		Arrays.fill(minLon, Double.NaN);
+		Arrays.fill(maxLon, Double.NaN);
+		Arrays.fill(minLat, Double.NaN);
+		Arrays.fill(maxLat, Double.NaN);
+		Arrays.fill(minNodeId, Long.MAX_VALUE);
+		Arrays.fill(maxNodeId, Long.MIN_VALUE);
+	}
+
+	public int getNumberOfDataBlocks()
+	{
+		return flags.length;
+	}
+
+	public boolean hasNodes(int i)
+	{
+		return (flags[i] & FLAG_NODES) != 0;
+	}
+
+	public boolean hasWays(int i)
+	{
+		return (flags[i] & FLAG_WAYS) != 0;
+	}
+
+	public boolean hasRelations(int i)
+	{
+		return (flags[i] & FLAG_RELATIONS) != 0;
+	}
+
+	/**
+	 * @return whether the block contains nodes and no other entities.
+	 */
+	public boolean hasOnlyNodes(int i)
+	{
+		return flags[i] == FLAG_NODES;
+	}
+
+	/*
+	 * Bounds of the nodes in a block, NaN for blocks without nodes with valid
+	 * coordinates
+	 */
+
+	public double getMinLon(int i)
+	{
+		return minLon[i];
+	}
+
+	public double getMaxLon(int i)
+	{
+		return maxLon[i];
+	}
+
+	public double getMinLat(int i)
+	{
+		return minLat[i];
+	}
+
+	public double getMaxLat(int i)
+	{
+		return maxLat[i];
+	}
+
+	/*
+	 * Range of the ids of the nodes in a block, undefined for blocks without
+	 * nodes
+	 */
+
+	public long getMinNodeId(int i)
+	{
+		return minNodeId[i];
+	}
+
+	public long getMaxNodeId(int i)
+	{
+		return maxNodeId[i];
+	}
+
+	/**
+	 * Compute the index by decoding each data block of the specified file.
+	 */
+	public static NodeBoundsIndex compute(PbfFile pbfFile, long fileSize,
+			long lastModified) throws IOException
+	{
+		if (!pbfFile.isBlockIndexInitialized()) {
+			pbfFile.buildBlockIndex();
+		}
+
+		int n = pbfFile.getNumberOfDataBlocks();
+		NodeBoundsIndex index = new NodeBoundsIndex(fileSize, lastModified, n);
+		for (int i = 0; i < n; i++) {
+			index.add(i, pbfFile.getDataBlock(i));
+		}
+		return index;
+	}
+
+	private void add(int i, Osmformat.PrimitiveBlock block)
+	{
+		int granularity = block.getGranularity();
+		long latOffset = block.getLatOffset();
+		long lonOffset = block.getLonOffset();
+
+		for (Osmformat.PrimitiveGroup group : block.getPrimitivegroupList()) {
+			if (group.getNodesCount() > 0) {
+				flags[i] |= FLAG_NODES;
+				for (Osmformat.Node node : group.getNodesList()) {
+					addId(i, node.getId());
+					add(i, granularity, lonOffset, latOffset, node.getLon(),
+							node.getLat());
+				}
+			}
+			if (group.hasDense() && group.getDense().getIdCount() > 0) {
+				flags[i] |= FLAG_NODES;
+				Osmformat.DenseNodes dense = group.getDense();
+				long id = 0, lat = 0, lon = 0;
+				for (int k = 0; k < dense.getIdCount(); k++) {
+					id += dense.getId(k);
+					addId(i, id);
+					lat += dense.getLat(k);
+					lon += dense.getLon(k);
+					add(i, granularity, lonOffset, latOffset, lon, lat);
+				}
+			}
+			if (group.getWaysCount() > 0) {
+				flags[i] |= FLAG_WAYS;
+			}
+			if (group.getRelationsCount() > 0) {
+				flags[i] |= FLAG_RELATIONS;
+			}
+		}
+	}
+
+	private void add(int i, int granularity, long lonOffset, long latOffset,
+			long lon, long lat)
+	{
+		// Integer.MAX_VALUE encodes a missing coordinate, see PrimParser
+		if (lon == Integer.MAX_VALUE || lat == Integer.MAX_VALUE) {
+			return;
+		}
+		add(i, degrees(granularity, lonOffset, lon),
+				degrees(granularity, latOffset, lat));
+	}
+
+	private static double degrees(int granularity, long offset, long value)
+	{
+		return (granularity * value + offset) * .000000001;
+	}
+
+	private void addId(int i, long id)
+	{
+		minNodeId[i] = Math.min(minNodeId[i], id);
+		maxNodeId[i] = Math.max(maxNodeId[i], id);
+	}
+
+	private void add(int i, double lon, double lat)
+	{
+		if (Double.isNaN(minLon[i])) {
+			minLon[i] = lon;
+			maxLon[i] = lon;
+			minLat[i] = lat;
+			maxLat[i] = lat;
+			return;
+		}
+		minLon[i] = Math.min(minLon[i], lon);
+		maxLon[i] = Math.max(maxLon[i], lon);
+		minLat[i] = Math.min(minLat[i], lat);
+		maxLat[i] = Math.max(maxLat[i], lat);
+	}
+
+	/**
+	 * Read an index from the specified sidecar file.
+	 * 
+	 * @return the index or null if the sidecar does not exist, is not a valid
+	 *         index file or does not match the specified indexed file.
+	 */
+	public static NodeBoundsIndex read(File sidecar, File file)
+			throws IOException
+	{
+		if (!sidecar.exists()) {
+			return null;
+		}
+
+		try (DataInputStream input = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(sidecar)))) {
+			byte[] magic = new byte[MAGIC.length];
+			input.readFully(magic);
+			if (!Arrays.equals(magic, MAGIC)) {
+				return null;
+			}
+			int version = input.readInt();
+			if (version != VERSION) {
+				return null;
+			}
+
+			long fileSize = input.readLong();
+			long lastModified = input.readLong();
+			if (file.length() != fileSize
+					|| file.lastModified() != lastModified) {
+				return null;
+			}
+
+			int n = input.readInt();
+			NodeBoundsIndex index = new NodeBoundsIndex(fileSize,
+					lastModified, n);
+			for (int i = 0; i < n; i++) {
+				index.flags[i] = input.readByte();
+				index.minLon[i] = input.readDouble();
+				index.maxLon[i] = input.readDouble();
+				index.minLat[i] = input.readDouble();
+				index.maxLat[i] = input.readDouble();
+				index.minNodeId[i] = input.readLong();
+				index.maxNodeId[i] = input.readLong();
+			}
+			return index;
+		} catch (IOException e) {
+			// A truncated or otherwise broken sidecar is simply recomputed
+			return null;
+		}
+	}
+
+	/**
+	 * Write this index to the specified sidecar file.
+	 */
+	public void write(File sidecar) throws IOException
+	{
+		try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(sidecar)))) {
+			output.write(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(fileSize);
+			output.writeLong(lastModified);
+			output.writeInt(flags.length);
+			for (int i = 0; i < flags.length; i++) {
+				output.writeByte(flags[i]);
+				output.writeDouble(minLon[i]);
+				output.writeDouble(maxLon[i]);
+				output.writeDouble(minLat[i]);
+				output.writeDouble(maxLat[i]);
+				output.writeLong(minNodeId[i]);
+				output.writeLong(maxNodeId[i]);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,317 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.raf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumSet;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+import com.slimjars.dist.gnu.trove.set.hash.TLongHashSet;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmBounds;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.impl.Bounds;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+import de.topobyte.osm4j.pbf.seq.DecodedBlock;
+import de.topobyte.osm4j.pbf.seq.PbfWriter;
+import de.topobyte.osm4j.pbf.util.PbfUtil;
+
+/**
+ * Extracts the data within a bounding box from a PBF file, working block by
+ * block where possible.
+ * 
+ * Using the node bounds of each block from a {@link NodeBoundsIndex}, blocks
+ * that contain only nodes are handled without decoding their entities: blocks
+ * that lie completely within the box are copied to the output as they are and
+ * blocks that lie completely outside are skipped. Only blocks that intersect
+ * the boundary of the box and blocks with ways or relations are decoded and
+ * filtered entity by entity. If the node blocks of the file are sorted by id,
+ * the nodes of copied blocks are tracked by the id range of the block, so that
+ * ways and relations can be tested for membership without decoding the block.
+ * Otherwise, copied blocks are decoded in order to collect their node ids.
+ * 
+ * The selection of entities is the same as with the entity-based area
+ * filters: nodes within the box, ways that reference any of these nodes and
+ * relations that have any of the selected nodes or ways as members. Blocks
+ * copied raw retain their metadata even if the output is configured not to
+ * write metadata.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class PbfBboxFilter
+{
+
+	private PbfFile input;
+	private NodeBoundsIndex index;
+	private PbfWriter output;
+	private OsmBounds bbox;
+	private boolean onlyNodes;
+	private boolean fetchMetadata;
+
+	private TLongHashSet nodeIds = new TLongHashSet();
+	private TLongHashSet wayIds = new TLongHashSet();
+
+	// Id ranges of the nodes of copied blocks, for input sorted by node id
+	private boolean sorted;
+	private TLongArrayList copiedFirstIds = new TLongArrayList();
+	private TLongArrayList copiedLastIds = new TLongArrayList();
+
+	private int numBlocksCopied = 0;
+	private int numBlocksSkipped = 0;
+	private int numBlocksDecoded = 0;
+
+	public PbfBboxFilter(PbfFile input, NodeBoundsIndex index,
+			PbfWriter output, OsmBounds bbox, boolean onlyNodes,
+			boolean fetchMetadata)
+	{
+		this.input = input;
+		this.index = index;
+		this.output = output;
+		this.bbox = bbox;
+		this.onlyNodes = onlyNodes;
+		this.fetchMetadata = fetchMetadata;
+	}
+
+	/**
+	 * Create a filter for the specified file, loading the node bounds from
+	 * the file's sidecar or computing them if necessary.
+	 */
+	public static PbfBboxFilter create(File file, PbfWriter output,
+			OsmBounds bbox, boolean onlyNodes, boolean fetchMetadata)
+			throws IOException
+	{
+		PbfFile pbfFile = new PbfFile(file);
+		pbfFile.buildBlockIndex();
+		NodeBoundsIndex index = NodeBoundsIndex.get(file, pbfFile);
+		return new PbfBboxFilter(pbfFile, index, output, bbox, onlyNodes,
+				fetchMetadata);
+	}
+
+	public int getNumberOfBlocksCopied()
+	{
+		return numBlocksCopied;
+	}
+
+	public int getNumberOfBlocksSkipped()
+	{
+		return numBlocksSkipped;
+	}
+
+	public int getNumberOfBlocksDecoded()
+	{
+		return numBlocksDecoded;
+	}
+
+	public void run() throws IOException
+	{
+		if (!input.isBlockIndexInitialized()) {
+			input.buildBlockIndex();
+		}
+		if (index.getNumberOfDataBlocks() != input.getNumberOfDataBlocks()) {
+			throw new IOException("node bounds do not match the input file");
+		}
+		sorted = isSorted();
+
+		output.write(outputBounds());
+
+		for (int i = 0; i < input.getNumberOfDataBlocks(); i++) {
+			processBlock(i);
+		}
+
+		output.complete();
+	}
+
+	private OsmBounds outputBounds() throws IOException
+	{
+		if (!input.hasHeader()) {
+			return bbox;
+		}
+		Osmformat.HeaderBlock header = input.getHeaderBlock();
+		if (!header.hasBbox()) {
+			return bbox;
+		}
+		OsmBounds bounds = PbfUtil.bounds(header.getBbox());
+		return new Bounds(Math.max(bounds.getLeft(), bbox.getLeft()),
+				Math.min(bounds.getRight(), bbox.getRight()),
+				Math.min(bounds.getTop(), bbox.getTop()),
+				Math.max(bounds.getBottom(), bbox.getBottom()));
+	}
+
+	private void processBlock(int i) throws IOException
+	{
+		if (index.hasOnlyNodes(i)) {
+			if (isOutside(i)) {
+				numBlocksSkipped++;
+				return;
+			}
+			if (isInside(i)) {
+				numBlocksCopied++;
+				if (!onlyNodes) {
+					if (sorted) {
+						copiedFirstIds.add(index.getMinNodeId(i));
+						copiedLastIds.add(index.getMaxNodeId(i));
+					} else {
+						collectNodeIds(input.getDataBlock(i));
+					}
+				}
+				output.writeRawBlock(input.getRawDataBlockWithHeader(i));
+				return;
+			}
+		} else if (onlyNodes && !index.hasNodes(i)) {
+			numBlocksSkipped++;
+			return;
+		}
+
+		numBlocksDecoded++;
+		DecodedBlock block = DecodedBlock.decode(input.getDataBlock(i),
+				fetchMetadata, onlyNodes ? EnumSet.of(EntityType.Node) : null);
+		for (OsmNode node : block.getNodes()) {
+			handle(node);
+		}
+		for (OsmWay way : block.getWays()) {
+			handle(way);
+		}
+		for (OsmRelation relation : block.getRelations()) {
+			handle(relation);
+		}
+	}
+
+	/*
+	 * Whether the id ranges of the node blocks are ascending and do not
+	 * overlap, in which case the range of a block contains no nodes of other
+	 * blocks
+	 */
+	private boolean isSorted()
+	{
+		boolean first = true;
+		long last = 0;
+		for (int i = 0; i < index.getNumberOfDataBlocks(); i++) {
+			if (!index.hasNodes(i)) {
+				continue;
+			}
+			if (!first && index.getMinNodeId(i) <= last) {
+				return false;
+			}
+			first = false;
+			last = index.getMaxNodeId(i);
+		}
+		return true;
+	}
+
+	private boolean isInside(int i)
+	{
+		return index.getMinLon(i) >= bbox.getLeft()
+				&& index.getMaxLon(i) <= bbox.getRight()
+				&& index.getMinLat(i) >= bbox.getBottom()
+				&& index.getMaxLat(i) <= bbox.getTop();
+	}
+
+	private boolean isOutside(int i)
+	{
+		return index.getMaxLon(i) < bbox.getLeft()
+				|| index.getMinLon(i) > bbox.getRight()
+				|| index.getMaxLat(i) < bbox.getBottom()
+				|| index.getMinLat(i) > bbox.getTop();
+	}
+
+	private void collectNodeIds(Osmformat.PrimitiveBlock block)
+	{
+		for (Osmformat.PrimitiveGroup group : block.getPrimitivegroupList()) {
+			for (Osmformat.Node node : group.getNodesList()) {
+				nodeIds.add(node.getId());
+			}
+			if (group.hasDense()) {
+				Osmformat.DenseNodes dense = group.getDense();
+				long id = 0;
+				for (int k = 0; k < dense.getIdCount(); k++) {
+					id += dense.getId(k);
+					nodeIds.add(id);
+				}
+			}
+		}
+	}
+
+	private boolean containsNode(long id)
+	{
+		if (nodeIds.contains(id)) {
+			return true;
+		}
+		// Find the last range starting at or before the id
+		int k = copiedFirstIds.binarySearch(id);
+		if (k >= 0) {
+			return true;
+		}
+		k = -k - 2;
+		return k >= 0 && id <= copiedLastIds.get(k);
+	}
+
+	private boolean covers(OsmNode node)
+	{
+		double lon = node.getLongitude();
+		double lat = node.getLatitude();
+		return lon >= bbox.getLeft() && lon <= bbox.getRight()
+				&& lat >= bbox.getBottom() && lat <= bbox.getTop();
+	}
+
+	private void handle(OsmNode node) throws IOException
+	{
+		if (covers(node)) {
+			if (!onlyNodes) {
+				nodeIds.add(node.getId());
+			}
+			output.write(node);
+		}
+	}
+
+	private void handle(OsmWay way) throws IOException
+	{
+		if (onlyNodes) {
+			return;
+		}
+		for (int i = 0; i < way.getNumberOfNodes(); i++) {
+			if (containsNode(way.getNodeId(i))) {
+				wayIds.add(way.getId());
+				output.write(way);
+				return;
+			}
+		}
+	}
+
+	private void handle(OsmRelation relation) throws IOException
+	{
+		if (onlyNodes) {
+			return;
+		}
+		for (int i = 0; i < relation.getNumberOfMembers(); i++) {
+			OsmRelationMember member = relation.getMember(i);
+			if (member.getType() == EntityType.Node
+					&& containsNode(member.getId())
+					|| member.getType() == EntityType.Way
+					&& wayIds.contains(member.getId())) {
+				output.write(relation);
+				return;
+			}
+		}
+	}
+
+}
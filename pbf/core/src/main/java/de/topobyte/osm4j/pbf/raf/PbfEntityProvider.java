@@ -0,0 +1,230 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.raf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.core.resolve.OsmEntityProvider;
+import de.topobyte.osm4j.pbf.seq.DecodedBlock;
+
+/**
+ * An {@link OsmEntityProvider} that looks up entities directly in a PBF file.
+ * 
+ * The file needs to be sorted, i.e. contain nodes, ways and relations in that
+ * order, each sorted by id. The provider uses the id ranges recorded in the
+ * file's {@link BlockIndex} to find the single block that may contain a
+ * requested entity using binary search and decodes that block. A bounded
+ * number of decoded blocks is kept in a least-recently-used cache, so that
+ * lookups of entities with nearby ids are cheap.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class PbfEntityProvider implements OsmEntityProvider
+{
+
+	private MappedPbfFile file;
+	private boolean fetchMetadata;
+
+	// For each non-empty data block, the index of the block and the type and
+	// id of the first and last entity, ordered as in the file
+	private int[] blocks;
+	private int[] firstTypes;
+	private long[] firstIds;
+	private int[] lastTypes;
+	private long[] lastIds;
+
+	private Map<Integer, DecodedBlock> cache;
+
+	/**
+	 * Create a provider for the specified file.
+	 * 
+	 * @param file
+	 *            a sorted PBF file.
+	 * @param fetchMetadata
+	 *            whether to decode entity metadata.
+	 * @param cacheSize
+	 *            the maximum number of decoded blocks to keep in memory.
+	 */
+	public PbfEntityProvider(MappedPbfFile file, boolean fetchMetadata,
+			final int cacheSize)
+	{
+		this.file = file;
+		this.fetchMetadata = fetchMetadata;
+
+		List<Integer> nonEmpty = new ArrayList<>();
+		for (int i = 0; i < file.getNumberOfDataBlocks(); i++) {
+			if (!file.getDataBlockInfo(i).isEmpty()) {
+				nonEmpty.add(i);
+			}
+		}
+
+		int n = nonEmpty.size();
+		blocks = new int[n];
+		firstTypes = new int[n];
+		firstIds = new long[n];
+		lastTypes = new int[n];
+		lastIds = new long[n];
+		for (int k = 0; k < n; k++) {
+			int i = nonEmpty.get(k);
+			IndexedBlockInfo info = file.getDataBlockInfo(i);
+			blocks[k] = i;
+			firstTypes[k] = info.getFirstType().ordinal();
+			firstIds[k] = info.getFirstId();
+			lastTypes[k] = info.getLastType().ordinal();
+			lastIds[k] = info.getLastId();
+		}
+
+		cache = new LinkedHashMap<Integer, DecodedBlock>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Integer, DecodedBlock> eldest)
+			{
+				return size() > cacheSize;
+			}
+
+		};
+	}
+
+	@Override
+	public OsmNode getNode(long id) throws EntityNotFoundException
+	{
+		DecodedBlock block = findBlock(EntityType.Node, id);
+		return find(block.getNodes(), EntityType.Node, id);
+	}
+
+	@Override
+	public OsmWay getWay(long id) throws EntityNotFoundException
+	{
+		DecodedBlock block = findBlock(EntityType.Way, id);
+		return find(block.getWays(), EntityType.Way, id);
+	}
+
+	@Override
+	public OsmRelation getRelation(long id) throws EntityNotFoundException
+	{
+		DecodedBlock block = findBlock(EntityType.Relation, id);
+		return find(block.getRelations(), EntityType.Relation, id);
+	}
+
+	private static int compare(int type1, long id1, int type2, long id2)
+	{
+		if (type1 != type2) {
+			return Integer.compare(type1, type2);
+		}
+		return Long.compare(id1, id2);
+	}
+
+	/**
+	 * Find the index of the block that may contain the specified entity, i.e.
+	 * the last block starting at or before the entity.
+	 * 
+	 * @return the position of the block in our arrays or -1 if no block may
+	 *         contain the entity.
+	 */
+	private int findCandidate(EntityType type, long id)
+	{
+		int t = type.ordinal();
+		int low = 0;
+		int high = blocks.length - 1;
+		int candidate = -1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (compare(firstTypes[mid], firstIds[mid], t, id) <= 0) {
+				candidate = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+
+		if (candidate < 0) {
+			return -1;
+		}
+		if (compare(lastTypes[candidate], lastIds[candidate], t, id) < 0) {
+			return -1;
+		}
+		return candidate;
+	}
+
+	private DecodedBlock findBlock(EntityType type, long id)
+			throws EntityNotFoundException
+	{
+		int candidate = findCandidate(type, id);
+		if (candidate < 0) {
+			throw new EntityNotFoundException(name(type, id) + " not found");
+		}
+		try {
+			return getBlock(blocks[candidate]);
+		} catch (IOException e) {
+			throw new EntityNotFoundException(
+					"error while reading block for " + name(type, id), e);
+		}
+	}
+
+	private synchronized DecodedBlock getBlock(int i) throws IOException
+	{
+		DecodedBlock block = cache.get(i);
+		if (block == null) {
+			block = DecodedBlock.decode(file.getDataBlock(i), fetchMetadata);
+			cache.put(i, block);
+		}
+		return block;
+	}
+
+	private static <T extends OsmEntity> T find(List<T> list, EntityType type,
+			long id) throws EntityNotFoundException
+	{
+		int low = 0;
+		int high = list.size() - 1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			T entity = list.get(mid);
+			long midId = entity.getId();
+
+			if (midId < id) {
+				low = mid + 1;
+			} else if (midId > id) {
+				high = mid - 1;
+			} else {
+				return entity;
+			}
+		}
+		throw new EntityNotFoundException(name(type, id) + " not found");
+	}
+
+	private static String name(EntityType type, long id)
+	{
+		return String.format("%s %d", type, id);
+	}
+
+}
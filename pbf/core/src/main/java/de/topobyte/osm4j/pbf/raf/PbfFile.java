@@ -86,6 +86,18 @@ public class PbfFile
 		blockIndexInitialized = true;
 	}
 
+	/**
+	 * Take over the block index of another instance that refers to the same
+	 * file, so that several instances can be used concurrently without
+	 * scanning the file more than once.
+	 */
+	public void copyBlockIndex(PbfFile other)
+	{
+		headerBlockInfo = other.headerBlockInfo;
+		dataBlockInfos = new ArrayList<>(other.dataBlockInfos);
+		blockIndexInitialized = other.blockIndexInitialized;
+	}
+
 	/*
 	 * Block info
 	 */
@@ -125,10 +137,14 @@ public class PbfFile
 		return getRawBlockWithHeader(info);
 	}
 
+	/**
+	 * Get the complete block as stored in the file, i.e. the length of the
+	 * blob header, the blob header and the blob.
+	 */
 	private byte[] getRawBlockWithHeader(BlockInfo info) throws IOException
 	{
 		file.seek(info.getPosition());
-		int lengthTotal = info.getLengthHeader() + info.getLengthData();
+		int lengthTotal = 4 + info.getLengthHeader() + info.getLengthData();
 		byte[] buf = new byte[lengthTotal];
 		file.readFully(buf);
 		return buf;
@@ -0,0 +1,172 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.raf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.pbf.seq.DecodedBlock;
+import de.topobyte.osm4j.pbf.seq.DecodedBlockIterator;
+import de.topobyte.osm4j.pbf.seq.TagProjection;
+
+/**
+ * An iterator over selected data blocks of a {@link PbfFile}. Blocks that are
+ * not selected are never read from disk, the file is positioned directly at
+ * the selected blocks instead.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class PbfFileIterator extends DecodedBlockIterator
+{
+
+	/**
+	 * Create an iterator that returns only entities of the specified types
+	 * from a sorted file. The file structure is analyzed using
+	 * {@link FileStructureAnalyzer} and only blocks that belong to the
+	 * sections of the requested types are read. Entities of other types
+	 * within blocks at the section boundaries are skipped without converting
+	 * them.
+	 * 
+	 * @param pbfFile
+	 *            a file that contains nodes, ways and relations in that order.
+	 * @param fetchMetadata
+	 *            whether to read entity metadata.
+	 * @param types
+	 *            the entity types to return.
+	 */
+	public static PbfFileIterator forTypes(PbfFile pbfFile,
+			boolean fetchMetadata, Set<EntityType> types) throws IOException
+	{
+		FileStructure structure = FileStructureAnalyzer.analyze(pbfFile);
+
+		List<Interval> intervals = new ArrayList<>();
+		for (EntityType type : EntityType.values()) {
+			if (types.contains(type) && structure.hasType(type)) {
+				add(intervals, structure.getBlocks(type));
+			}
+		}
+
+		return new PbfFileIterator(pbfFile, fetchMetadata, intervals, types);
+	}
+
+	// Add an interval, merging it with the last one if they overlap
+	private static void add(List<Interval> intervals, Interval interval)
+	{
+		if (!intervals.isEmpty()) {
+			Interval last = intervals.get(intervals.size() - 1);
+			if (interval.getStart() <= last.getEnd() + 1) {
+				last.setEnd(Math.max(last.getEnd(), interval.getEnd()));
+				return;
+			}
+		}
+		intervals.add(new Interval(interval.getStart(), interval.getEnd()));
+	}
+
+	private PbfFile pbfFile;
+	private boolean fetchMetadata;
+	private List<Interval> intervals;
+	private Set<EntityType> types;
+	private TagProjection projection = null;
+
+	private boolean headerDone = false;
+	private int intervalIndex = 0;
+	private int blockIndex;
+
+	/**
+	 * Create an iterator over the data blocks within the specified intervals
+	 * of block indices.
+	 * 
+	 * @param pbfFile
+	 *            the file to read.
+	 * @param fetchMetadata
+	 *            whether to read entity metadata.
+	 * @param intervals
+	 *            ascending, non-overlapping intervals of data block indices
+	 *            (both ends inclusive).
+	 * @param types
+	 *            the entity types to return or null for all types.
+	 */
+	public PbfFileIterator(PbfFile pbfFile, boolean fetchMetadata,
+			List<Interval> intervals, Set<EntityType> types) throws IOException
+	{
+		this.pbfFile = pbfFile;
+		this.fetchMetadata = fetchMetadata;
+		this.intervals = intervals;
+		this.types = types;
+
+		if (!pbfFile.isBlockIndexInitialized()) {
+			pbfFile.buildBlockIndex();
+		}
+		if (!intervals.isEmpty()) {
+			blockIndex = intervals.get(0).getStart();
+		}
+	}
+
+	/**
+	 * Create an iterator over the data blocks within the specified interval
+	 * of block indices.
+	 */
+	public PbfFileIterator(PbfFile pbfFile, boolean fetchMetadata,
+			Interval interval) throws IOException
+	{
+		this(pbfFile, fetchMetadata, Collections.singletonList(interval),
+				null);
+	}
+
+	/**
+	 * Only materialize tags accepted by the specified projection. Must be
+	 * called before starting iteration.
+	 * 
+	 * @param projection
+	 *            the tag projection to apply or null to retain all tags.
+	 */
+	public void setTagProjection(TagProjection projection)
+	{
+		this.projection = projection;
+	}
+
+	@Override
+	protected DecodedBlock nextBlock() throws IOException
+	{
+		if (!headerDone) {
+			headerDone = true;
+			if (pbfFile.hasHeader()) {
+				return DecodedBlock.decode(pbfFile.getHeaderBlock());
+			}
+		}
+
+		while (intervalIndex < intervals.size()) {
+			Interval interval = intervals.get(intervalIndex);
+			if (blockIndex <= interval.getEnd()) {
+				return DecodedBlock.decode(pbfFile.getDataBlock(blockIndex++),
+						fetchMetadata, types, projection);
+			}
+			intervalIndex++;
+			if (intervalIndex < intervals.size()) {
+				blockIndex = intervals.get(intervalIndex).getStart();
+			}
+		}
+
+		return null;
+	}
+
+}
@@ -0,0 +1,221 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.raf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+
+/**
+ * Divides the data blocks of a {@link PbfFile} into contiguous ranges of
+ * roughly equal size in bytes, so that several threads or processes can each
+ * work on a slice of the same file.
+ * 
+ * Ranges are intervals of data block indices (both ends inclusive), hence they
+ * are always aligned to blob boundaries. Each range can be read using
+ * {@link #iterator(PbfFile, Interval, boolean)}, which returns the file's
+ * header block (and hence its bounds) before the range's entities. Since a
+ * {@link PbfFile} is not safe for concurrent use, each worker thread should
+ * open its own instance and can take over the block index of an already
+ * indexed instance using {@link PbfFile#copyBlockIndex(PbfFile)}.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class PbfFileRanges
+{
+
+	/**
+	 * Split the data blocks of the specified file into at most the specified
+	 * number of contiguous ranges of roughly equal size in bytes.
+	 * 
+	 * @param pbfFile
+	 *            the file to split.
+	 * @param n
+	 *            the desired number of ranges.
+	 * @return a list of ascending, non-overlapping and non-empty ranges that
+	 *         cover all data blocks of the file.
+	 */
+	public static List<Interval> split(PbfFile pbfFile, int n)
+			throws IOException
+	{
+		if (n < 1) {
+			throw new IllegalArgumentException("n must be positive");
+		}
+		if (!pbfFile.isBlockIndexInitialized()) {
+			pbfFile.buildBlockIndex();
+		}
+
+		List<Interval> ranges = new ArrayList<>();
+		int numBlocks = pbfFile.getNumberOfDataBlocks();
+		if (numBlocks > 0) {
+			split(pbfFile, new Interval(0, numBlocks - 1), n, ranges);
+		}
+		return ranges;
+	}
+
+	/**
+	 * Split the data blocks of the specified file into contiguous ranges of
+	 * roughly equal size in bytes that do not cross the boundaries between
+	 * the node, way and relation sections of the file, as determined by
+	 * {@link FileStructureAnalyzer}. A block that contains entities of two
+	 * types is assigned to the section of the first type only.
+	 * 
+	 * Each section receives at least one range, so the result may contain
+	 * more than the desired number of ranges if n is smaller than the number
+	 * of sections in the file. The file needs to be sorted by entity type.
+	 * 
+	 * @param pbfFile
+	 *            the file to split.
+	 * @param n
+	 *            the desired number of ranges.
+	 * @return a list of ascending, non-overlapping and non-empty ranges that
+	 *         cover all data blocks of the file.
+	 */
+	public static List<Interval> splitByType(PbfFile pbfFile, int n)
+			throws IOException
+	{
+		if (n < 1) {
+			throw new IllegalArgumentException("n must be positive");
+		}
+		FileStructure structure = FileStructureAnalyzer.analyze(pbfFile);
+
+		List<Interval> sections = new ArrayList<>();
+		int next = 0;
+		for (EntityType type : EntityType.values()) {
+			if (!structure.hasType(type)) {
+				continue;
+			}
+			Interval blocks = structure.getBlocks(type);
+			int start = Math.max(next, blocks.getStart());
+			if (start <= blocks.getEnd()) {
+				sections.add(new Interval(start, blocks.getEnd()));
+				next = blocks.getEnd() + 1;
+			}
+		}
+
+		// Give each section one range and hand out the remaining ranges one
+		// by one to the section with the most bytes per range
+		int numSections = sections.size();
+		long[] sizes = new long[numSections];
+		int[] counts = new int[numSections];
+		for (int i = 0; i < numSections; i++) {
+			Interval section = sections.get(i);
+			sizes[i] = size(pbfFile, section.getStart(), section.getEnd());
+			counts[i] = 1;
+		}
+		for (int k = numSections; k < n; k++) {
+			int best = -1;
+			for (int i = 0; i < numSections; i++) {
+				Interval section = sections.get(i);
+				int length = section.getEnd() - section.getStart() + 1;
+				if (counts[i] >= length) {
+					continue;
+				}
+				if (best < 0 || sizes[i] * counts[best] > sizes[best]
+						* counts[i]) {
+					best = i;
+				}
+			}
+			if (best < 0) {
+				break;
+			}
+			counts[best]++;
+		}
+
+		List<Interval> ranges = new ArrayList<>();
+		for (int i = 0; i < numSections; i++) {
+			split(pbfFile, sections.get(i), counts[i], ranges);
+		}
+		return ranges;
+	}
+
+	/**
+	 * Create an iterator over the entities of the specified range of data
+	 * blocks. The iterator reports the bounds from the file's header block.
+	 */
+	public static PbfFileIterator iterator(PbfFile pbfFile, Interval range,
+			boolean fetchMetadata) throws IOException
+	{
+		return new PbfFileIterator(pbfFile, fetchMetadata, range);
+	}
+
+	/**
+	 * Get the position of the first byte of the specified range within the
+	 * file.
+	 */
+	public static long getStartPosition(PbfFile pbfFile, Interval range)
+	{
+		return pbfFile.getDataBlockInfo(range.getStart()).getPosition();
+	}
+
+	/**
+	 * Get the position just after the last byte of the specified range within
+	 * the file.
+	 */
+	public static long getEndPosition(PbfFile pbfFile, Interval range)
+	{
+		BlockInfo info = pbfFile.getDataBlockInfo(range.getEnd());
+		return info.getPosition() + size(info);
+	}
+
+	private static void split(PbfFile pbfFile, Interval blocks, int n,
+			List<Interval> ranges)
+	{
+		int first = blocks.getStart();
+		int last = blocks.getEnd();
+		n = Math.min(n, last - first + 1);
+
+		long total = size(pbfFile, first, last);
+		long done = 0;
+		int start = first;
+		for (int r = 0; r < n; r++) {
+			if (r == n - 1) {
+				ranges.add(new Interval(start, last));
+				break;
+			}
+			long target = total * (r + 1) / n;
+			// Leave at least one block for each of the remaining ranges
+			int maxEnd = last - (n - r - 1);
+			int end = start;
+			done += size(pbfFile.getDataBlockInfo(end));
+			while (end < maxEnd && done < target) {
+				end++;
+				done += size(pbfFile.getDataBlockInfo(end));
+			}
+			ranges.add(new Interval(start, end));
+			start = end + 1;
+		}
+	}
+
+	private static long size(PbfFile pbfFile, int first, int last)
+	{
+		long size = 0;
+		for (int i = first; i <= last; i++) {
+			size += size(pbfFile.getDataBlockInfo(i));
+		}
+		return size;
+	}
+
+	private static long size(BlockInfo info)
+	{
+		return 4 + info.getLengthHeader() + info.getLengthData();
+	}
+
+}
@@ -0,0 +1,126 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.seq;
+
+import java.util.List;
+import java.util.Set;
+
+import de.topobyte.osm4j.core.model.iface.EntityContainer;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.util.ReusableEntities;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+
+/**
+ * Converts the entities of a data block one at a time into a set of
+ * {@link ReusableEntities}. The entities are returned in the same order as
+ * the entities of a {@link DecodedBlock}, i.e. all nodes of the block first,
+ * then all ways and finally all relations.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class BlockCursor
+{
+
+	private static final int NODES = 0;
+	private static final int WAYS = 1;
+	private static final int RELATIONS = 2;
+	private static final int DONE = 3;
+
+	private final List<Osmformat.PrimitiveGroup> groups;
+	private final PrimParser primParser;
+	private final boolean[] use = new boolean[3];
+
+	private int phase = NODES;
+	private int group = 0;
+	private int index = 0;
+	private PrimParser.DenseNodeCursor dense = null;
+
+	BlockCursor(Osmformat.PrimitiveBlock block, boolean fetchMetadata,
+			Set<EntityType> types, TagProjection projection)
+	{
+		groups = block.getPrimitivegroupList();
+		primParser = new PrimParser(block, fetchMetadata, projection);
+		use[NODES] = types == null || types.contains(EntityType.Node);
+		use[WAYS] = types == null || types.contains(EntityType.Way);
+		use[RELATIONS] = types == null || types.contains(EntityType.Relation);
+	}
+
+	/**
+	 * Move to the next entity of the block, if there is one left.
+	 */
+	boolean hasNext()
+	{
+		while (phase != DONE) {
+			if (use[phase] && group < groups.size()) {
+				Osmformat.PrimitiveGroup g = groups.get(group);
+				if (phase == NODES) {
+					if (index < g.getNodesCount()) {
+						return true;
+					}
+					if (g.hasDense()) {
+						if (dense == null) {
+							dense = primParser.cursor(g.getDense());
+						}
+						if (dense.hasNext()) {
+							return true;
+						}
+					}
+				} else if (phase == WAYS) {
+					if (index < g.getWaysCount()) {
+						return true;
+					}
+				} else if (index < g.getRelationsCount()) {
+					return true;
+				}
+				group++;
+				index = 0;
+				dense = null;
+			} else {
+				phase++;
+				group = 0;
+				index = 0;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Convert the next entity, only valid after {@link #hasNext()} returned
+	 * true.
+	 */
+	EntityContainer next(ReusableEntities entities)
+	{
+		Osmformat.PrimitiveGroup g = groups.get(group);
+		switch (phase) {
+		default:
+		case NODES:
+			if (dense != null) {
+				return entities.container(dense.next(entities));
+			}
+			return entities.container(primParser.convert(
+					g.getNodes(index++), entities));
+		case WAYS:
+			return entities.container(primParser.convert(g.getWays(index++),
+					entities));
+		case RELATIONS:
+			return entities.container(primParser.convert(
+					g.getRelations(index++), entities));
+		}
+	}
+
+}
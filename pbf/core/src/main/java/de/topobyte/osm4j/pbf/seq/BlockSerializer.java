@@ -0,0 +1,407 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+//
+//
+// This files is based on a file from Osmosis. The original file contained this
+// copyright notice:
+//
+// This software is released into the Public Domain. See copying.txt for details.
+//
+//
+// And the mentioned copying.txt states:
+//
+// Osmosis is placed into the public domain and where this is not legally
+// possible everybody is granted a perpetual, irrevocable license to use
+// this work for any purpose whatsoever.
+//
+// DISCLAIMERS
+// By making Osmosis publicly available, it is hoped that users will find the
+// software useful. However:
+//   * Osmosis comes without any warranty, to the extent permitted by
+//     applicable law.
+//   * Unless required by applicable law, no liability will be accepted by
+// the authors and distributors of this software for any damages caused
+// as a result of its use.
+
+package de.topobyte.osm4j.pbf.seq;
+
+import java.util.Collection;
+import java.util.List;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmLocatedWay;
+import de.topobyte.osm4j.core.model.iface.OsmMetadata;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+import de.topobyte.osm4j.core.model.iface.OsmTag;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.impl.Metadata;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat.PrimitiveBlock;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat.PrimitiveGroup;
+import de.topobyte.osm4j.pbf.util.StringTable;
+
+/**
+ * Builds a {@link PrimitiveBlock} from a batch of entities. Each instance uses
+ * its own string table, so that different batches can be serialized
+ * concurrently using separate instances.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class BlockSerializer
+{
+
+	private boolean writeMetadata;
+	private boolean useDense;
+	private int granularity;
+	private int dateGranularity;
+	private boolean writeLocations = false;
+
+	private StringTable stringTable = new StringTable();
+
+	public BlockSerializer(boolean writeMetadata, boolean useDense,
+			int granularity, int dateGranularity)
+	{
+		this.writeMetadata = writeMetadata;
+		this.useDense = useDense;
+		this.granularity = granularity;
+		this.dateGranularity = dateGranularity;
+	}
+
+	/**
+	 * Whether to store the node locations of ways that carry them (i.e.
+	 * implement {@link OsmLocatedWay}) with the ways.
+	 */
+	public void setWriteLocations(boolean writeLocations)
+	{
+		this.writeLocations = writeLocations;
+	}
+
+	public PrimitiveBlock serialize(List<OsmNode> nodes, List<OsmWay> ways,
+			List<OsmRelation> relations)
+	{
+		Osmformat.PrimitiveBlock.Builder builder = Osmformat.PrimitiveBlock
+				.newBuilder();
+
+		// First add all strings to the string table
+
+		addTagsToStringTable(nodes);
+		addTagsToStringTable(ways);
+		addTagsToStringTable(relations);
+
+		addMemberRolesToStringTable(relations);
+
+		if (writeMetadata) {
+			addUsersToStringTable(nodes);
+			addUsersToStringTable(ways);
+			addUsersToStringTable(relations);
+		}
+
+		// And build indices
+		stringTable.finish();
+
+		// Now build groups and add to block builder
+
+		if (nodes.size() > 0) {
+			if (useDense) {
+				PrimitiveGroup group = serializeDense(nodes);
+				builder.addPrimitivegroup(group);
+			} else {
+				PrimitiveGroup group = serializeNonDense(nodes);
+				builder.addPrimitivegroup(group);
+			}
+		}
+
+		if (ways.size() > 0) {
+			PrimitiveGroup group = serializeWays(ways);
+			builder.addPrimitivegroup(group);
+		}
+
+		if (relations.size() > 0) {
+			PrimitiveGroup group = serializeRelations(relations);
+			builder.addPrimitivegroup(group);
+		}
+
+		builder.setDateGranularity(dateGranularity);
+		builder.setGranularity(granularity);
+		builder.setStringtable(stringTable.serialize());
+
+		PrimitiveBlock block = builder.build();
+
+		stringTable.clear();
+
+		return block;
+	}
+
+	private void addTagsToStringTable(Collection<? extends OsmEntity> entities)
+	{
+		for (OsmEntity entity : entities) {
+			for (int k = 0; k < entity.getNumberOfTags(); k++) {
+				OsmTag tag = entity.getTag(k);
+				stringTable.incr(tag.getKey());
+				stringTable.incr(tag.getValue());
+			}
+		}
+	}
+
+	private void addUsersToStringTable(Collection<? extends OsmEntity> entities)
+	{
+		for (OsmEntity entity : entities) {
+			OsmMetadata metadata = entity.getMetadata();
+			if (metadata == null) {
+				continue;
+			}
+			String user = metadata.getUser();
+			if (user == null) {
+				continue;
+			}
+			stringTable.incr(user);
+		}
+	}
+
+	private Osmformat.Info.Builder serializeMetadata(OsmEntity entity)
+	{
+		Osmformat.Info.Builder b = Osmformat.Info.newBuilder();
+		if (writeMetadata) {
+			OsmMetadata metadata = entity.getMetadata();
+			if (metadata == null) {
+				return b;
+			}
+			if (metadata.getUid() >= 0) {
+				b.setUid((int) metadata.getUid());
+				b.setUserSid(stringTable.getIndex(metadata.getUser()));
+			}
+			b.setTimestamp((int) (metadata.getTimestamp() / dateGranularity));
+			b.setVersion(metadata.getVersion());
+			b.setChangeset(metadata.getChangeset());
+			b.setVisible(metadata.isVisible());
+		}
+		return b;
+	}
+
+	private void serializeMetadataDense(Osmformat.DenseInfo.Builder b,
+			Collection<? extends OsmEntity> entities)
+	{
+		long lasttimestamp = 0, lastchangeset = 0;
+		int lastuserSid = 0, lastuid = 0;
+		for (OsmEntity e : entities) {
+			OsmMetadata metadata = e.getMetadata();
+			if (metadata == null) {
+				metadata = new Metadata(-1, -1, -1, "", -1);
+			}
+			int uid = (int) metadata.getUid();
+			int userSid = stringTable.getIndex(metadata.getUser());
+			int timestamp = (int) (metadata.getTimestamp() / dateGranularity);
+			int version = metadata.getVersion();
+			long changeset = metadata.getChangeset();
+			boolean visible = metadata.isVisible();
+
+			b.addVersion(version);
+			b.addTimestamp(timestamp - lasttimestamp);
+			lasttimestamp = timestamp;
+			b.addChangeset(changeset - lastchangeset);
+			lastchangeset = changeset;
+			b.addUid(uid - lastuid);
+			lastuid = uid;
+			b.addUserSid(userSid - lastuserSid);
+			lastuserSid = userSid;
+			b.addVisible(visible);
+		}
+	}
+
+	private int mapDegrees(double degrees)
+	{
+		return (int) ((degrees / .0000001) / (granularity / 100));
+	}
+
+	private Osmformat.PrimitiveGroup serializeDense(Collection<OsmNode> nodes)
+	{
+		Osmformat.PrimitiveGroup.Builder builder = Osmformat.PrimitiveGroup
+				.newBuilder();
+
+		long lastlat = 0, lastlon = 0, lastid = 0;
+		Osmformat.DenseNodes.Builder bi = Osmformat.DenseNodes.newBuilder();
+
+		// Does anything in this block have tags?
+		boolean doesBlockHaveTags = false;
+		for (OsmNode node : nodes) {
+			if (node.getNumberOfTags() != 0) {
+				doesBlockHaveTags = true;
+				break;
+			}
+		}
+
+		// Find out if any of the nodes has metadata. If none does, we can omit
+		// the metadata completely.
+		boolean hasMetadata = false;
+		for (OsmNode node : nodes) {
+			if (node.getMetadata() != null) {
+				hasMetadata = true;
+			}
+		}
+
+		if (writeMetadata && hasMetadata) {
+			Osmformat.DenseInfo.Builder bdi = Osmformat.DenseInfo.newBuilder();
+			serializeMetadataDense(bdi, nodes);
+			bi.setDenseinfo(bdi);
+		}
+
+		for (OsmNode node : nodes) {
+			long id = node.getId();
+			int lat = mapDegrees(node.getLatitude());
+			int lon = mapDegrees(node.getLongitude());
+			bi.addId(id - lastid);
+			lastid = id;
+			bi.addLon(lon - lastlon);
+			lastlon = lon;
+			bi.addLat(lat - lastlat);
+			lastlat = lat;
+
+			// Then we must include tag information.
+			if (doesBlockHaveTags) {
+				for (int k = 0; k < node.getNumberOfTags(); k++) {
+					OsmTag t = node.getTag(k);
+					bi.addKeysVals(stringTable.getIndex(t.getKey()));
+					bi.addKeysVals(stringTable.getIndex(t.getValue()));
+				}
+				bi.addKeysVals(0); // Add delimiter.
+			}
+		}
+
+		builder.setDense(bi);
+		return builder.build();
+	}
+
+	private Osmformat.PrimitiveGroup serializeNonDense(Collection<OsmNode> nodes)
+	{
+		Osmformat.PrimitiveGroup.Builder builder = Osmformat.PrimitiveGroup
+				.newBuilder();
+		for (OsmNode node : nodes) {
+			Osmformat.Node.Builder bi = Osmformat.Node.newBuilder();
+			bi.setId(node.getId());
+			bi.setLon(mapDegrees(node.getLongitude()));
+			bi.setLat(mapDegrees(node.getLatitude()));
+			for (int k = 0; k < node.getNumberOfTags(); k++) {
+				OsmTag t = node.getTag(k);
+				bi.addKeys(stringTable.getIndex(t.getKey()));
+				bi.addVals(stringTable.getIndex(t.getValue()));
+			}
+			if (writeMetadata && node.getMetadata() != null) {
+				bi.setInfo(serializeMetadata(node));
+			}
+			builder.addNodes(bi);
+		}
+		return builder.build();
+	}
+
+	private Osmformat.PrimitiveGroup serializeWays(Collection<OsmWay> ways)
+	{
+		Osmformat.PrimitiveGroup.Builder builder = Osmformat.PrimitiveGroup
+				.newBuilder();
+		for (OsmWay way : ways) {
+			Osmformat.Way.Builder bi = Osmformat.Way.newBuilder();
+			bi.setId(way.getId());
+			long lastid = 0;
+			for (int k = 0; k < way.getNumberOfNodes(); k++) {
+				long id = way.getNodeId(k);
+				bi.addRefs(id - lastid);
+				lastid = id;
+			}
+			if (writeLocations && way instanceof OsmLocatedWay) {
+				OsmLocatedWay located = (OsmLocatedWay) way;
+				long lastlat = 0, lastlon = 0;
+				for (int k = 0; k < way.getNumberOfNodes(); k++) {
+					int lat = mapDegrees(located.getLatitude(k));
+					int lon = mapDegrees(located.getLongitude(k));
+					bi.addLat(lat - lastlat);
+					lastlat = lat;
+					bi.addLon(lon - lastlon);
+					lastlon = lon;
+				}
+			}
+			for (int k = 0; k < way.getNumberOfTags(); k++) {
+				OsmTag t = way.getTag(k);
+				bi.addKeys(stringTable.getIndex(t.getKey()));
+				bi.addVals(stringTable.getIndex(t.getValue()));
+			}
+			if (writeMetadata && way.getMetadata() != null) {
+				bi.setInfo(serializeMetadata(way));
+			}
+			builder.addWays(bi);
+		}
+		return builder.build();
+	}
+
+	private void addMemberRolesToStringTable(Collection<OsmRelation> relations)
+	{
+		for (OsmRelation relation : relations) {
+			for (int k = 0; k < relation.getNumberOfMembers(); k++) {
+				OsmRelationMember j = relation.getMember(k);
+				stringTable.incr(j.getRole());
+			}
+		}
+	}
+
+	private Osmformat.PrimitiveGroup serializeRelations(
+			Collection<OsmRelation> relations)
+	{
+		Osmformat.PrimitiveGroup.Builder builder = Osmformat.PrimitiveGroup
+				.newBuilder();
+		for (OsmRelation relation : relations) {
+			Osmformat.Relation.Builder bi = Osmformat.Relation.newBuilder();
+			bi.setId(relation.getId());
+			long lastid = 0;
+			for (int k = 0; k < relation.getNumberOfMembers(); k++) {
+				OsmRelationMember j = relation.getMember(k);
+				long id = j.getId();
+				bi.addMemids(id - lastid);
+				lastid = id;
+				EntityType t = j.getType();
+				Osmformat.Relation.MemberType type = getType(t);
+				bi.addTypes(type);
+				bi.addRolesSid(stringTable.getIndex(j.getRole()));
+			}
+
+			for (int k = 0; k < relation.getNumberOfTags(); k++) {
+				OsmTag t = relation.getTag(k);
+				bi.addKeys(stringTable.getIndex(t.getKey()));
+				bi.addVals(stringTable.getIndex(t.getValue()));
+			}
+			if (writeMetadata && relation.getMetadata() != null) {
+				bi.setInfo(serializeMetadata(relation));
+			}
+			builder.addRelations(bi);
+		}
+		return builder.build();
+	}
+
+	private Osmformat.Relation.MemberType getType(EntityType t)
+	{
+		switch (t) {
+		default:
+		case Node:
+			return Osmformat.Relation.MemberType.NODE;
+		case Way:
+			return Osmformat.Relation.MemberType.WAY;
+		case Relation:
+			return Osmformat.Relation.MemberType.RELATION;
+		}
+	}
+
+}
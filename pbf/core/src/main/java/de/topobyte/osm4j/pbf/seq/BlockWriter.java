@@ -26,6 +26,7 @@ import java.util.zip.Deflater;
 import net.jpountz.lz4.LZ4Compressor;
 import net.jpountz.lz4.LZ4Factory;
 
+import com.github.luben.zstd.Zstd;
 import com.google.protobuf.ByteString;
 
 import de.topobyte.osm4j.pbf.Compression;
@@ -34,15 +35,45 @@ import de.topobyte.osm4j.pbf.protobuf.Fileformat;
 public class BlockWriter
 {
 
+	public static final int DEFAULT_ZSTD_LEVEL = 3;
+
 	private DataOutputStream output;
 
+	private int zstdLevel = DEFAULT_ZSTD_LEVEL;
+
 	public BlockWriter(OutputStream output)
 	{
 		this.output = new DataOutputStream(output);
 	}
 
+	public int getZstdLevel()
+	{
+		return zstdLevel;
+	}
+
+	/**
+	 * Set the level to use with {@link Compression#ZSTD}. Higher levels result
+	 * in smaller blocks at the cost of slower compression, decompression speed
+	 * is mostly unaffected.
+	 */
+	public void setZstdLevel(int zstdLevel)
+	{
+		this.zstdLevel = zstdLevel;
+	}
+
 	public void write(String type, ByteString indexData,
 			Compression compression, ByteString data) throws IOException
+	{
+		Fileformat.Blob blob = createBlob(compression, data);
+		write(type, indexData, blob);
+	}
+
+	/**
+	 * Compress the specified data and wrap it into a blob. This method does
+	 * not touch the output and may be called from multiple threads
+	 * concurrently.
+	 */
+	public Fileformat.Blob createBlob(Compression compression, ByteString data)
 	{
 		Fileformat.Blob.Builder blobBuilder = Fileformat.Blob.newBuilder();
 		switch (compression) {
@@ -65,9 +96,15 @@ public class BlockWriter
 					compressed.getLength());
 			blobBuilder.setLz4Data(lz4Data);
 			break;
+		case ZSTD:
+			blobBuilder.setRawSize(data.size());
+			compressed = zstd(data);
+			ByteString zstdData = ByteString.copyFrom(compressed.getData(), 0,
+					compressed.getLength());
+			blobBuilder.setZstdData(zstdData);
+			break;
 		}
-		Fileformat.Blob blob = blobBuilder.build();
-		write(type, indexData, blob);
+		return blobBuilder.build();
 	}
 
 	public void write(String type, ByteString indexData, Fileformat.Blob blob)
@@ -89,6 +126,15 @@ public class BlockWriter
 		blob.writeTo(output);
 	}
 
+	/**
+	 * Write a complete block as found in a PBF file, i.e. the length of the
+	 * blob header, the blob header and the blob, without inspecting it.
+	 */
+	public void writeRawBlock(byte[] block) throws IOException
+	{
+		output.write(block);
+	}
+
 	protected ByteArray deflate(ByteString data)
 	{
 		int size = data.size();
@@ -117,7 +163,7 @@ public class BlockWriter
 
 	private LZ4Compressor lz4Compressor = null;
 
-	private void initLz4()
+	private synchronized void initLz4()
 	{
 		if (lz4Compressor == null) {
 			LZ4Factory factory = LZ4Factory.fastestInstance();
@@ -139,4 +185,19 @@ public class BlockWriter
 		return new ByteArray(out, length);
 	}
 
+	protected ByteArray zstd(ByteString data)
+	{
+		byte[] input = data.toByteArray();
+
+		byte[] out = new byte[(int) Zstd.compressBound(input.length)];
+		long length = Zstd.compressByteArray(out, 0, out.length, input, 0,
+				input.length, zstdLevel);
+		if (Zstd.isError(length)) {
+			throw new Error("Internal error in compressor: "
+					+ Zstd.getErrorName(length));
+		}
+
+		return new ByteArray(out, (int) length);
+	}
+
 }
@@ -0,0 +1,279 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.seq;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmBounds;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.pbf.Constants;
+import de.topobyte.osm4j.pbf.protobuf.Fileformat;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+import de.topobyte.osm4j.pbf.util.BlobHeader;
+import de.topobyte.osm4j.pbf.util.BlockData;
+import de.topobyte.osm4j.pbf.util.PbfUtil;
+
+/**
+ * The decoded contents of a single PBF file block. For a header block this is
+ * the bounding box, for a data block these are the contained entities in the
+ * order they appear in the block.
+ * 
+ * Decoding a block does not depend on any other block of the file, which makes
+ * it possible to decode multiple blocks concurrently.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class DecodedBlock
+{
+
+	private final boolean header;
+	private final OsmBounds bounds;
+
+	private final List<OsmNode> nodes;
+	private final List<OsmWay> ways;
+	private final List<OsmRelation> relations;
+
+	// Set for data blocks whose entities are converted on demand
+	private final BlockCursor cursor;
+
+	private DecodedBlock(OsmBounds bounds)
+	{
+		this.header = true;
+		this.bounds = bounds;
+		this.nodes = new ArrayList<>(0);
+		this.ways = new ArrayList<>(0);
+		this.relations = new ArrayList<>(0);
+		this.cursor = null;
+	}
+
+	private DecodedBlock(BlockCursor cursor)
+	{
+		this.header = false;
+		this.bounds = null;
+		this.nodes = new ArrayList<>(0);
+		this.ways = new ArrayList<>(0);
+		this.relations = new ArrayList<>(0);
+		this.cursor = cursor;
+	}
+
+	private DecodedBlock(List<OsmNode> nodes, List<OsmWay> ways,
+			List<OsmRelation> relations)
+	{
+		this.header = false;
+		this.bounds = null;
+		this.nodes = nodes;
+		this.ways = ways;
+		this.relations = relations;
+		this.cursor = null;
+	}
+
+	public static DecodedBlock decode(BlobHeader header, Fileformat.Blob blob,
+			boolean fetchMetadata) throws IOException
+	{
+		return decode(header, blob, fetchMetadata, null);
+	}
+
+	/**
+	 * Decode a block, converting only entities of the specified types.
+	 * 
+	 * @param types
+	 *            the types of entities to convert or null for all types.
+	 */
+	public static DecodedBlock decode(BlobHeader header, Fileformat.Blob blob,
+			boolean fetchMetadata, Set<EntityType> types) throws IOException
+	{
+		return decode(header, blob, fetchMetadata, types, null);
+	}
+
+	/**
+	 * Decode a block, converting only entities of the specified types and
+	 * materializing only the tags accepted by the specified projection.
+	 * 
+	 * @param types
+	 *            the types of entities to convert or null for all types.
+	 * @param projection
+	 *            the tag projection to apply or null to retain all tags.
+	 */
+	public static DecodedBlock decode(BlobHeader header, Fileformat.Blob blob,
+			boolean fetchMetadata, Set<EntityType> types,
+			TagProjection projection) throws IOException
+	{
+		BlockData blockData = PbfUtil.getBlockData(blob);
+
+		String type = header.getType();
+		if (type.equals(Constants.BLOCK_TYPE_DATA)) {
+			Osmformat.PrimitiveBlock block = Osmformat.PrimitiveBlock
+					.parseFrom(blockData.getBlobData());
+			return decode(block, fetchMetadata, types, projection);
+		} else if (type.equals(Constants.BLOCK_TYPE_HEADER)) {
+			Osmformat.HeaderBlock block = Osmformat.HeaderBlock
+					.parseFrom(blockData.getBlobData());
+			return decode(block);
+		} else {
+			throw new IOException("invalid PBF block");
+		}
+	}
+
+	/**
+	 * Decompress and parse a block without converting the contained entities.
+	 * The entities of a data block are converted one at a time while
+	 * iterating, into a set of reusable entities, see
+	 * {@link DecodedBlockIterator}.
+	 * 
+	 * @param types
+	 *            the types of entities to convert or null for all types.
+	 * @param projection
+	 *            the tag projection to apply or null to retain all tags.
+	 */
+	public static DecodedBlock parse(BlobHeader header, Fileformat.Blob blob,
+			boolean fetchMetadata, Set<EntityType> types,
+			TagProjection projection) throws IOException
+	{
+		if (!header.getType().equals(Constants.BLOCK_TYPE_DATA)) {
+			return decode(header, blob, fetchMetadata, types, projection);
+		}
+
+		BlockData blockData = PbfUtil.getBlockData(blob);
+		Osmformat.PrimitiveBlock block = Osmformat.PrimitiveBlock
+				.parseFrom(blockData.getBlobData());
+		return new DecodedBlock(new BlockCursor(block, fetchMetadata, types,
+				projection));
+	}
+
+	public static DecodedBlock decode(Osmformat.HeaderBlock block)
+	{
+		return new DecodedBlock(PbfUtil.bounds(block.getBbox()));
+	}
+
+	public static DecodedBlock decode(Osmformat.PrimitiveBlock block,
+			boolean fetchMetadata)
+	{
+		return decode(block, fetchMetadata, null);
+	}
+
+	/**
+	 * Decode a data block, converting only entities of the specified types.
+	 * 
+	 * @param types
+	 *            the types of entities to convert or null for all types.
+	 */
+	public static DecodedBlock decode(Osmformat.PrimitiveBlock block,
+			boolean fetchMetadata, Set<EntityType> types)
+	{
+		return decode(block, fetchMetadata, types, null);
+	}
+
+	/**
+	 * Decode a data block, converting only entities of the specified types and
+	 * materializing only the tags accepted by the specified projection.
+	 * 
+	 * @param types
+	 *            the types of entities to convert or null for all types.
+	 * @param projection
+	 *            the tag projection to apply or null to retain all tags.
+	 */
+	public static DecodedBlock decode(Osmformat.PrimitiveBlock block,
+			boolean fetchMetadata, Set<EntityType> types,
+			TagProjection projection)
+	{
+		boolean useNodes = types == null || types.contains(EntityType.Node);
+		boolean useWays = types == null || types.contains(EntityType.Way);
+		boolean useRelations = types == null
+				|| types.contains(EntityType.Relation);
+
+		List<OsmNode> nodes = new ArrayList<>();
+		List<OsmWay> ways = new ArrayList<>();
+		List<OsmRelation> relations = new ArrayList<>();
+
+		PrimParser primParser = new PrimParser(block, fetchMetadata,
+				projection);
+
+		for (Osmformat.PrimitiveGroup group : block.getPrimitivegroupList()) {
+			if (useNodes) {
+				for (Osmformat.Node node : group.getNodesList()) {
+					nodes.add(primParser.convert(node));
+				}
+				if (group.hasDense()) {
+					nodes.addAll(primParser.convert(group.getDense()));
+				}
+			}
+			if (useWays) {
+				for (Osmformat.Way way : group.getWaysList()) {
+					ways.add(primParser.convert(way));
+				}
+			}
+			if (useRelations) {
+				for (Osmformat.Relation relation : group.getRelationsList()) {
+					relations.add(primParser.convert(relation));
+				}
+			}
+		}
+
+		return new DecodedBlock(nodes, ways, relations);
+	}
+
+	public boolean isHeader()
+	{
+		return header;
+	}
+
+	public OsmBounds getBounds()
+	{
+		return bounds;
+	}
+
+	public List<OsmNode> getNodes()
+	{
+		return nodes;
+	}
+
+	public List<OsmWay> getWays()
+	{
+		return ways;
+	}
+
+	public List<OsmRelation> getRelations()
+	{
+		return relations;
+	}
+
+	/**
+	 * @return the number of converted entities of this block, which is zero
+	 *         for blocks created using {@link #parse}.
+	 */
+	public int getNumberOfEntities()
+	{
+		return nodes.size() + ways.size() + relations.size();
+	}
+
+	/**
+	 * @return the cursor over the unconverted entities of a block created
+	 *         using {@link #parse} or null otherwise.
+	 */
+	BlockCursor getCursor()
+	{
+		return cursor;
+	}
+
+}
@@ -0,0 +1,208 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.seq;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.core.model.iface.EntityContainer;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmBounds;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.util.ReusableEntities;
+
+/**
+ * Base class for iterators that obtain their entities block by block as
+ * {@link DecodedBlock}s. Subclasses only need to provide the blocks in order,
+ * this class takes care of handing out the contained entities and of
+ * determining the bounds from a header block that appears before the first
+ * data block.
+ * 
+ * Data blocks created using {@link DecodedBlock#parse} are converted entity by
+ * entity while iterating, into a set of {@link ReusableEntities}, so that the
+ * returned entities and containers are only valid until the next call to
+ * {@link #next()}.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public abstract class DecodedBlockIterator implements OsmIterator
+{
+
+	private OsmBounds bounds = null;
+	private boolean beyondBounds = false;
+
+	// The entities of the current block and the positions of the next
+	// entities to return
+	private List<OsmNode> nodes = null;
+	private List<OsmWay> ways = null;
+	private List<OsmRelation> relations = null;
+	private int nodeIndex = 0;
+	private int wayIndex = 0;
+	private int relationIndex = 0;
+
+	// The unconverted entities of the current block if it has been parsed only
+	private BlockCursor cursor = null;
+	private ReusableEntities reusable = null;
+
+	private int available = 0;
+	private boolean finished = false;
+
+	/**
+	 * Get the next block.
+	 * 
+	 * @return the next block or null if there are no more blocks.
+	 */
+	protected abstract DecodedBlock nextBlock() throws IOException;
+
+	/**
+	 * Mark this iterator as finished, i.e. do not request any more blocks.
+	 */
+	protected void finish()
+	{
+		finished = true;
+		beyondBounds = true;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (hasAvailable()) {
+			return true;
+		}
+		while (!finished && !hasAvailable()) {
+			try {
+				tryAdvanceBlock();
+			} catch (IOException e) {
+				throw new RuntimeException("error while reading block", e);
+			}
+		}
+		return hasAvailable();
+	}
+
+	private boolean hasAvailable()
+	{
+		if (cursor != null) {
+			return cursor.hasNext();
+		}
+		return available > 0;
+	}
+
+	@Override
+	public EntityContainer next()
+	{
+		while (!hasAvailable()) {
+			if (finished) {
+				throw new NoSuchElementException();
+			}
+			try {
+				tryAdvanceBlock();
+			} catch (IOException e) {
+				throw new RuntimeException("error while reading block", e);
+			}
+		}
+		if (cursor != null) {
+			return cursor.next(reusable);
+		}
+		available--;
+		if (nodeIndex < nodes.size()) {
+			OsmNode node = nodes.get(nodeIndex++);
+			return new EntityContainer(EntityType.Node, node);
+		} else if (wayIndex < ways.size()) {
+			OsmWay way = ways.get(wayIndex++);
+			return new EntityContainer(EntityType.Way, way);
+		} else {
+			OsmRelation relation = relations.get(relationIndex++);
+			return new EntityContainer(EntityType.Relation, relation);
+		}
+	}
+
+	@Override
+	public void remove()
+	{
+		throw new UnsupportedOperationException("read only");
+	}
+
+	private void tryAdvanceBlock() throws IOException
+	{
+		DecodedBlock block = nextBlock();
+
+		if (block == null) {
+			cursor = null;
+			finish();
+			return;
+		}
+
+		if (block.isHeader()) {
+			if (!beyondBounds) {
+				this.bounds = block.getBounds();
+			}
+			beyondBounds = true;
+			return;
+		}
+
+		beyondBounds = true;
+		nodes = block.getNodes();
+		ways = block.getWays();
+		relations = block.getRelations();
+		nodeIndex = 0;
+		wayIndex = 0;
+		relationIndex = 0;
+		available = block.getNumberOfEntities();
+		cursor = block.getCursor();
+		if (cursor != null && reusable == null) {
+			reusable = new ReusableEntities();
+		}
+	}
+
+	@Override
+	public Iterator<EntityContainer> iterator()
+	{
+		return this;
+	}
+
+	@Override
+	public boolean hasBounds()
+	{
+		ensureBeyondBounds();
+		return bounds != null;
+	}
+
+	@Override
+	public OsmBounds getBounds()
+	{
+		ensureBeyondBounds();
+		return bounds;
+	}
+
+	private void ensureBeyondBounds()
+	{
+		while (!beyondBounds) {
+			try {
+				tryAdvanceBlock();
+			} catch (IOException e) {
+				throw new RuntimeException("error while reading block", e);
+			}
+		}
+	}
+
+}
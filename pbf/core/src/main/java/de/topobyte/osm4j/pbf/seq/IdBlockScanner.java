@@ -0,0 +1,209 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.seq;
+
+import java.io.IOException;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+/**
+ * Extracts entity ids or entity counts from the serialized form of a
+ * PrimitiveBlock without parsing it into protobuf objects. Only the id fields
+ * of nodes, dense nodes, ways and relations are decoded. The string table,
+ * tags, coordinates, references and metadata are skipped over.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class IdBlockScanner
+{
+
+	// PrimitiveBlock
+	private static final int TAG_GROUP = tag(2,
+			WireFormat.WIRETYPE_LENGTH_DELIMITED);
+	// PrimitiveGroup
+	private static final int TAG_NODE = tag(1,
+			WireFormat.WIRETYPE_LENGTH_DELIMITED);
+	private static final int TAG_DENSE = tag(2,
+			WireFormat.WIRETYPE_LENGTH_DELIMITED);
+	private static final int TAG_WAY = tag(3,
+			WireFormat.WIRETYPE_LENGTH_DELIMITED);
+	private static final int TAG_RELATION = tag(4,
+			WireFormat.WIRETYPE_LENGTH_DELIMITED);
+	// Node, Way, Relation and DenseNodes
+	private static final int TAG_ID = tag(1, WireFormat.WIRETYPE_VARINT);
+	private static final int TAG_ID_PACKED = tag(1,
+			WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+	private static int tag(int field, int wireType)
+	{
+		return (field << 3) | wireType;
+	}
+
+	private boolean collectIds;
+
+	private TLongArrayList nodeIds = new TLongArrayList();
+	private TLongArrayList wayIds = new TLongArrayList();
+	private TLongArrayList relationIds = new TLongArrayList();
+
+	private long numNodes;
+	private long numWays;
+	private long numRelations;
+
+	/**
+	 * @param collectIds
+	 *            whether to collect the ids of entities or to only count
+	 *            them.
+	 */
+	public IdBlockScanner(boolean collectIds)
+	{
+		this.collectIds = collectIds;
+	}
+
+	/**
+	 * Scan the specified uncompressed PrimitiveBlock, replacing the ids and
+	 * counts of the previously scanned block.
+	 */
+	public void scan(ByteString data) throws IOException
+	{
+		nodeIds.resetQuick();
+		wayIds.resetQuick();
+		relationIds.resetQuick();
+		numNodes = 0;
+		numWays = 0;
+		numRelations = 0;
+
+		CodedInputStream input = data.newCodedInput();
+		int tag;
+		while ((tag = input.readTag()) != 0) {
+			if (tag == TAG_GROUP) {
+				int limit = input.pushLimit(input.readRawVarint32());
+				scanGroup(input);
+				input.popLimit(limit);
+			} else {
+				input.skipField(tag);
+			}
+		}
+	}
+
+	private void scanGroup(CodedInputStream input) throws IOException
+	{
+		int tag;
+		while ((tag = input.readTag()) != 0) {
+			if (tag == TAG_NODE) {
+				numNodes++;
+				scanEntity(input, nodeIds, true);
+			} else if (tag == TAG_DENSE) {
+				int limit = input.pushLimit(input.readRawVarint32());
+				scanDense(input);
+				input.popLimit(limit);
+			} else if (tag == TAG_WAY) {
+				numWays++;
+				scanEntity(input, wayIds, false);
+			} else if (tag == TAG_RELATION) {
+				numRelations++;
+				scanEntity(input, relationIds, false);
+			} else {
+				input.skipField(tag);
+			}
+		}
+	}
+
+	private void scanEntity(CodedInputStream input, TLongArrayList ids,
+			boolean signed) throws IOException
+	{
+		int length = input.readRawVarint32();
+		if (!collectIds) {
+			input.skipRawBytes(length);
+			return;
+		}
+
+		int limit = input.pushLimit(length);
+		int tag;
+		while ((tag = input.readTag()) != 0) {
+			if (tag == TAG_ID) {
+				ids.add(signed ? input.readSInt64() : input.readInt64());
+				// nothing but the id is of interest
+				input.skipRawBytes(input.getBytesUntilLimit());
+				break;
+			}
+			input.skipField(tag);
+		}
+		input.popLimit(limit);
+	}
+
+	private void scanDense(CodedInputStream input) throws IOException
+	{
+		long id = 0;
+		int tag;
+		while ((tag = input.readTag()) != 0) {
+			if (tag == TAG_ID_PACKED) {
+				int limit = input.pushLimit(input.readRawVarint32());
+				while (!input.isAtEnd()) {
+					id += input.readSInt64();
+					numNodes++;
+					if (collectIds) {
+						nodeIds.add(id);
+					}
+				}
+				input.popLimit(limit);
+			} else if (tag == TAG_ID) {
+				id += input.readSInt64();
+				numNodes++;
+				if (collectIds) {
+					nodeIds.add(id);
+				}
+			} else {
+				input.skipField(tag);
+			}
+		}
+	}
+
+	public TLongArrayList getNodeIds()
+	{
+		return nodeIds;
+	}
+
+	public TLongArrayList getWayIds()
+	{
+		return wayIds;
+	}
+
+	public TLongArrayList getRelationIds()
+	{
+		return relationIds;
+	}
+
+	public long getNumberOfNodes()
+	{
+		return numNodes;
+	}
+
+	public long getNumberOfWays()
+	{
+		return numWays;
+	}
+
+	public long getNumberOfRelations()
+	{
+		return numRelations;
+	}
+
+}
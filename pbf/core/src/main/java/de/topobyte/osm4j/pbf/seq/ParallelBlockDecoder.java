@@ -0,0 +1,184 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.seq;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.util.OrderedPipeline;
+import de.topobyte.osm4j.pbf.protobuf.Fileformat;
+import de.topobyte.osm4j.pbf.util.BlobHeader;
+import de.topobyte.osm4j.pbf.util.PbfUtil;
+
+/**
+ * Decodes the blocks of a PBF stream using multiple threads while still
+ * delivering them in file order.
+ * 
+ * The raw blobs are read from the input stream by a single reader thread and
+ * decompressed, parsed and converted by a pool of worker threads, using an
+ * {@link OrderedPipeline}. At most <code>maxBlocksInFlight</code> blocks are
+ * being decoded or are waiting to be consumed at any time. Calls to
+ * {@link #next()} return the blocks in the order they appear in the file.
+ * 
+ * Threads are started lazily on the first call to {@link #next()}. They are
+ * shut down once the end of the stream has been reached, when an error occurs
+ * or when {@link #close()} is called.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class ParallelBlockDecoder
+{
+
+	private final DataInputStream input;
+	private final boolean fetchMetadata;
+	private volatile Set<EntityType> types = null;
+	private volatile TagProjection projection = null;
+	private volatile boolean reuseEntities = false;
+
+	private final OrderedPipeline<RawBlob, DecodedBlock> pipeline;
+
+	public ParallelBlockDecoder(InputStream input, boolean fetchMetadata,
+			int numThreads)
+	{
+		this(input, fetchMetadata, numThreads, 2 * numThreads);
+	}
+
+	public ParallelBlockDecoder(InputStream input, boolean fetchMetadata,
+			int numThreads, int maxBlocksInFlight)
+	{
+		this.input = new DataInputStream(input);
+		this.fetchMetadata = fetchMetadata;
+		pipeline = new OrderedPipeline<>("pbf", new Callable<RawBlob>() {
+
+			@Override
+			public RawBlob call() throws IOException
+			{
+				return readBlob();
+			}
+
+		}, new OrderedPipeline.Worker<RawBlob, DecodedBlock>() {
+
+			@Override
+			public DecodedBlock process(RawBlob blob) throws IOException
+			{
+				return decode(blob);
+			}
+
+		}, numThreads, maxBlocksInFlight);
+	}
+
+	/**
+	 * Restrict conversion to entities of the specified types.
+	 * 
+	 * @param types
+	 *            the types of entities to convert or null for all types.
+	 */
+	public void setEntityTypes(Set<EntityType> types)
+	{
+		this.types = types;
+	}
+
+	/**
+	 * Restrict the tags materialized for entities to those accepted by the
+	 * specified projection.
+	 * 
+	 * @param projection
+	 *            the tag projection to apply or null to retain all tags.
+	 */
+	public void setTagProjection(TagProjection projection)
+	{
+		this.projection = projection;
+	}
+
+	/**
+	 * Only decompress and parse blocks without converting their entities, so
+	 * that the consumer can convert them into reusable entities, see
+	 * {@link DecodedBlock#parse}.
+	 * 
+	 * @param reuseEntities
+	 *            whether entities will be reused by the consumer.
+	 */
+	public void setReuseEntities(boolean reuseEntities)
+	{
+		this.reuseEntities = reuseEntities;
+	}
+
+	/**
+	 * Get the next block of the file.
+	 * 
+	 * @return the next decoded block or null if the end of the stream has been
+	 *         reached.
+	 * @throws IOException
+	 *             if reading or decoding the block failed.
+	 */
+	public DecodedBlock next() throws IOException
+	{
+		return pipeline.next();
+	}
+
+	/**
+	 * Stop the reader thread and the worker threads. Subsequent calls to
+	 * {@link #next()} will return null.
+	 */
+	public void close()
+	{
+		pipeline.close();
+	}
+
+	private RawBlob readBlob() throws IOException
+	{
+		try {
+			BlobHeader header = PbfUtil.parseHeader(input);
+			Fileformat.Blob blob = PbfUtil.parseBlock(input,
+					header.getDataLength());
+			return new RawBlob(header, blob);
+		} catch (EOFException eof) {
+			return null;
+		}
+	}
+
+	private DecodedBlock decode(RawBlob blob) throws IOException
+	{
+		if (reuseEntities) {
+			return DecodedBlock.parse(blob.header, blob.blob, fetchMetadata,
+					types, projection);
+		}
+		return DecodedBlock.decode(blob.header, blob.blob, fetchMetadata,
+				types, projection);
+	}
+
+	private static class RawBlob
+	{
+
+		private final BlobHeader header;
+		private final Fileformat.Blob blob;
+
+		RawBlob(BlobHeader header, Fileformat.Blob blob)
+		{
+			this.header = header;
+			this.blob = blob;
+		}
+
+	}
+
+}
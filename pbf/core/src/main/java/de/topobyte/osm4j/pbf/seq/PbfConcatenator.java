@@ -0,0 +1,119 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.seq;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import de.topobyte.osm4j.pbf.Constants;
+import de.topobyte.osm4j.pbf.util.BlobHeader;
+import de.topobyte.osm4j.pbf.util.PbfUtil;
+
+/**
+ * Concatenates several PBF files into a single valid PBF file by copying
+ * their blocks verbatim, i.e. without decompressing or re-encoding any data.
+ * 
+ * This is intended for joining the outputs of jobs that each processed one
+ * range of a file (see {@link de.topobyte.osm4j.pbf.raf.PbfFileRanges}), in
+ * which case all inputs carry the same header block. Only the first header
+ * block encountered is written to the output, all further header blocks are
+ * dropped. The inputs need to be passed in the order in which their data
+ * should appear in the output.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class PbfConcatenator
+{
+
+	public static void concat(List<File> inputs, File output)
+			throws IOException
+	{
+		OutputStream out = new BufferedOutputStream(
+				new FileOutputStream(output));
+		PbfConcatenator concatenator = new PbfConcatenator(out);
+		for (File file : inputs) {
+			InputStream in = new BufferedInputStream(new FileInputStream(file));
+			try {
+				concatenator.append(in);
+			} finally {
+				in.close();
+			}
+		}
+		out.close();
+	}
+
+	private DataOutputStream output;
+	private boolean headerWritten = false;
+	private boolean dataWritten = false;
+
+	public PbfConcatenator(OutputStream output)
+	{
+		this.output = new DataOutputStream(output);
+	}
+
+	/**
+	 * Append all blocks from the specified input to the output. The input is
+	 * read to its end but not closed.
+	 */
+	public void append(InputStream input) throws IOException
+	{
+		DataInputStream data = new DataInputStream(input);
+		while (true) {
+			int lengthHeader;
+			try {
+				lengthHeader = data.readInt();
+			} catch (EOFException eof) {
+				break;
+			}
+			byte[] header = new byte[lengthHeader];
+			data.readFully(header);
+			BlobHeader blobHeader = PbfUtil.parseHeader(
+					new DataInputStream(new ByteArrayInputStream(header)),
+					lengthHeader);
+			byte[] blob = new byte[blobHeader.getDataLength()];
+			data.readFully(blob);
+
+			if (blobHeader.getType().equals(Constants.BLOCK_TYPE_HEADER)) {
+				// A header block is only valid at the start of the file
+				if (headerWritten || dataWritten) {
+					continue;
+				}
+				headerWritten = true;
+			} else {
+				dataWritten = true;
+			}
+
+			output.writeInt(lengthHeader);
+			output.write(header);
+			output.write(blob);
+		}
+		output.flush();
+	}
+
+}
@@ -0,0 +1,123 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.seq;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import de.topobyte.osm4j.core.access.OsmElementCounter;
+import de.topobyte.osm4j.core.access.OsmInputException;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.pbf.Constants;
+import de.topobyte.osm4j.pbf.protobuf.Fileformat;
+import de.topobyte.osm4j.pbf.util.BlobHeader;
+import de.topobyte.osm4j.pbf.util.BlockData;
+import de.topobyte.osm4j.pbf.util.PbfUtil;
+
+/**
+ * An {@link OsmElementCounter} for PBF data that determines the number of
+ * entities per block by scanning the id fields only. No entity objects, tags
+ * or metadata are created.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class PbfElementCounter extends BlobParser implements
+		OsmElementCounter
+{
+
+	private InputStream input;
+
+	private IdBlockScanner scanner = new IdBlockScanner(false);
+
+	private long numNodes = 0;
+	private long numWays = 0;
+	private long numRelations = 0;
+
+	public PbfElementCounter(InputStream input)
+	{
+		this.input = input;
+	}
+
+	@Override
+	public void count() throws OsmInputException
+	{
+		try {
+			parse(input);
+		} catch (IOException e) {
+			throw new OsmInputException("error while parsing data", e);
+		}
+	}
+
+	@Override
+	protected void parse(BlobHeader header, Fileformat.Blob blob)
+			throws IOException
+	{
+		String type = header.getType();
+		if (type.equals(Constants.BLOCK_TYPE_HEADER)) {
+			return;
+		} else if (!type.equals(Constants.BLOCK_TYPE_DATA)) {
+			throw new IOException("invalid PBF block");
+		}
+
+		BlockData blockData = PbfUtil.getBlockData(blob);
+		scanner.scan(blockData.getBlobData());
+		numNodes += scanner.getNumberOfNodes();
+		numWays += scanner.getNumberOfWays();
+		numRelations += scanner.getNumberOfRelations();
+	}
+
+	@Override
+	public long getNumberOfNodes()
+	{
+		return numNodes;
+	}
+
+	@Override
+	public long getNumberOfWays()
+	{
+		return numWays;
+	}
+
+	@Override
+	public long getNumberOfRelations()
+	{
+		return numRelations;
+	}
+
+	@Override
+	public long getTotalNumberOfElements()
+	{
+		return numNodes + numWays + numRelations;
+	}
+
+	@Override
+	public long getNumberOfElements(EntityType type)
+	{
+		switch (type) {
+		default:
+			return 0;
+		case Node:
+			return numNodes;
+		case Way:
+			return numWays;
+		case Relation:
+			return numRelations;
+		}
+	}
+
+}
@@ -0,0 +1,191 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.seq;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.access.OsmIdIterator;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.IdContainer;
+import de.topobyte.osm4j.core.model.iface.OsmBounds;
+import de.topobyte.osm4j.pbf.Constants;
+import de.topobyte.osm4j.pbf.protobuf.Fileformat;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+import de.topobyte.osm4j.pbf.util.BlobHeader;
+import de.topobyte.osm4j.pbf.util.BlockData;
+import de.topobyte.osm4j.pbf.util.PbfUtil;
+
+/**
+ * An {@link OsmIdIterator} for PBF data that only decodes the ids of
+ * entities. No entity objects, tags or metadata are created.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class PbfIdIterator implements OsmIdIterator
+{
+
+	private DataInputStream input;
+
+	private IdBlockScanner scanner = new IdBlockScanner(true);
+
+	private OsmBounds bounds = null;
+	private boolean beyondBounds = false;
+	private boolean finished = false;
+
+	private EntityType type = EntityType.Node;
+	private TLongArrayList ids = null;
+	private int index = 0;
+
+	public PbfIdIterator(InputStream input)
+	{
+		this.input = new DataInputStream(input);
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		while (!available()) {
+			if (finished) {
+				return false;
+			}
+			tryAdvance();
+		}
+		return true;
+	}
+
+	@Override
+	public IdContainer next()
+	{
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return new IdContainer(type, ids.get(index++));
+	}
+
+	@Override
+	public void remove()
+	{
+		throw new UnsupportedOperationException("read only");
+	}
+
+	private boolean available()
+	{
+		return ids != null && index < ids.size();
+	}
+
+	/*
+	 * Move on to the next list of ids of the current block, or to the next
+	 * block when all lists of the current block have been handed out.
+	 */
+	private void tryAdvance()
+	{
+		if (ids != null && type == EntityType.Node) {
+			type = EntityType.Way;
+			ids = scanner.getWayIds();
+			index = 0;
+			return;
+		}
+		if (ids != null && type == EntityType.Way) {
+			type = EntityType.Relation;
+			ids = scanner.getRelationIds();
+			index = 0;
+			return;
+		}
+
+		try {
+			advanceBlock();
+		} catch (IOException e) {
+			throw new RuntimeException("error while reading block", e);
+		}
+	}
+
+	private void advanceBlock() throws IOException
+	{
+		ids = null;
+
+		BlobHeader header;
+		Fileformat.Blob blob;
+		try {
+			header = PbfUtil.parseHeader(input);
+			blob = PbfUtil.parseBlock(input, header.getDataLength());
+		} catch (EOFException eof) {
+			finished = true;
+			beyondBounds = true;
+			return;
+		}
+
+		BlockData blockData = PbfUtil.getBlockData(blob);
+
+		String blockType = header.getType();
+		if (blockType.equals(Constants.BLOCK_TYPE_DATA)) {
+			beyondBounds = true;
+			scanner.scan(blockData.getBlobData());
+			type = EntityType.Node;
+			ids = scanner.getNodeIds();
+			index = 0;
+		} else if (blockType.equals(Constants.BLOCK_TYPE_HEADER)) {
+			if (!beyondBounds) {
+				Osmformat.HeaderBlock block = Osmformat.HeaderBlock
+						.parseFrom(blockData.getBlobData());
+				bounds = PbfUtil.bounds(block.getBbox());
+			}
+			beyondBounds = true;
+		} else {
+			throw new IOException("invalid PBF block");
+		}
+	}
+
+	@Override
+	public Iterator<IdContainer> iterator()
+	{
+		return this;
+	}
+
+	@Override
+	public boolean hasBounds()
+	{
+		ensureBeyondBounds();
+		return bounds != null;
+	}
+
+	@Override
+	public OsmBounds getBounds()
+	{
+		ensureBeyondBounds();
+		return bounds;
+	}
+
+	private void ensureBeyondBounds()
+	{
+		while (!beyondBounds) {
+			try {
+				advanceBlock();
+			} catch (IOException e) {
+				throw new RuntimeException("error while reading block", e);
+			}
+		}
+	}
+
+}
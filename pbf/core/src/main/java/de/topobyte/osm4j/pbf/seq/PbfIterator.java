@@ -21,44 +21,23 @@ import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Set;
 
-import de.topobyte.osm4j.core.access.OsmIterator;
-import de.topobyte.osm4j.core.model.iface.EntityContainer;
 import de.topobyte.osm4j.core.model.iface.EntityType;
-import de.topobyte.osm4j.core.model.iface.OsmBounds;
-import de.topobyte.osm4j.core.model.iface.OsmNode;
-import de.topobyte.osm4j.core.model.iface.OsmRelation;
-import de.topobyte.osm4j.core.model.iface.OsmWay;
-import de.topobyte.osm4j.pbf.Constants;
 import de.topobyte.osm4j.pbf.protobuf.Fileformat;
-import de.topobyte.osm4j.pbf.protobuf.Osmformat;
-import de.topobyte.osm4j.pbf.protobuf.Osmformat.DenseNodes;
-import de.topobyte.osm4j.pbf.protobuf.Osmformat.HeaderBBox;
-import de.topobyte.osm4j.pbf.protobuf.Osmformat.Relation;
-import de.topobyte.osm4j.pbf.protobuf.Osmformat.Way;
 import de.topobyte.osm4j.pbf.util.BlobHeader;
-import de.topobyte.osm4j.pbf.util.BlockData;
 import de.topobyte.osm4j.pbf.util.PbfUtil;
 
-public class PbfIterator implements OsmIterator
+public class PbfIterator extends DecodedBlockIterator
 {
 
 	private DataInputStream input;
 	private boolean fetchMetadata;
+	private Set<EntityType> types = null;
+	private TagProjection projection = null;
+	private boolean reuseEntities = false;
 
-	private OsmBounds bounds = null;
-	private boolean beyondBounds = false;
-
-	private List<OsmNode> nodes = new LinkedList<>();
-	private List<OsmWay> ways = new LinkedList<>();
-	private List<OsmRelation> relations = new LinkedList<>();
-
-	private int available = 0;
-	private boolean finished = false;
+	private ParallelBlockDecoder decoder = null;
 
 	public PbfIterator(InputStream input, boolean fetchMetadata)
 	{
@@ -66,168 +45,136 @@ public class PbfIterator implements OsmIterator
 		this.fetchMetadata = fetchMetadata;
 	}
 
-	@Override
-	public boolean hasNext()
+	/**
+	 * Create an iterator that decodes blocks using the specified number of
+	 * threads. With more than one thread, raw blocks are read from the input
+	 * on a separate thread and decoded by a pool of worker threads while
+	 * entities are still returned in file order. The number of blocks decoded
+	 * ahead of the consumer is limited to twice the number of threads.
+	 * 
+	 * @param input
+	 *            the stream to read data from.
+	 * @param fetchMetadata
+	 *            whether to read entity metadata.
+	 * @param numThreads
+	 *            the number of threads to decode blocks with.
+	 */
+	public PbfIterator(InputStream input, boolean fetchMetadata, int numThreads)
 	{
-		if (available > 0) {
-			return true;
-		}
-		while (!finished && available == 0) {
-			try {
-				tryAdvanceBlock();
-			} catch (IOException e) {
-				throw new RuntimeException("error while reading block", e);
-			}
-		}
-		return available > 0;
+		this(input, fetchMetadata, numThreads, 2 * numThreads);
 	}
 
-	@Override
-	public EntityContainer next()
+	/**
+	 * Create an iterator that decodes blocks using the specified number of
+	 * threads, decoding at most <code>maxBlocksInFlight</code> blocks ahead of
+	 * the consumer.
+	 * 
+	 * @param input
+	 *            the stream to read data from.
+	 * @param fetchMetadata
+	 *            whether to read entity metadata.
+	 * @param numThreads
+	 *            the number of threads to decode blocks with.
+	 * @param maxBlocksInFlight
+	 *            the maximum number of blocks being decoded or waiting to be
+	 *            consumed at any time.
+	 */
+	public PbfIterator(InputStream input, boolean fetchMetadata,
+			int numThreads, int maxBlocksInFlight)
 	{
-		while (available == 0) {
-			if (finished) {
-				throw new NoSuchElementException();
-			}
-			try {
-				tryAdvanceBlock();
-			} catch (IOException e) {
-				throw new RuntimeException("error while reading block", e);
-			}
-		}
-		available--;
-		if (nodes.size() > 0) {
-			OsmNode node = nodes.remove(0);
-			return new EntityContainer(EntityType.Node, node);
-		} else if (ways.size() > 0) {
-			OsmWay way = ways.remove(0);
-			return new EntityContainer(EntityType.Way, way);
-		} else {
-			OsmRelation relation = relations.remove(0);
-			return new EntityContainer(EntityType.Relation, relation);
+		this(input, fetchMetadata);
+		if (numThreads > 1) {
+			decoder = new ParallelBlockDecoder(input, fetchMetadata,
+					numThreads, maxBlocksInFlight);
 		}
 	}
 
-	@Override
-	public void remove()
+	/**
+	 * Restrict the entities returned by this iterator to the specified types.
+	 * Groups of other types are skipped without converting them. Must be
+	 * called before starting iteration.
+	 * 
+	 * @param types
+	 *            the entity types to return or null for all types.
+	 */
+	public void setEntityTypes(Set<EntityType> types)
 	{
-		throw new UnsupportedOperationException("read only");
-	}
-
-	private void tryAdvanceBlock() throws IOException
-	{
-		try {
-			advanceBlock();
-		} catch (EOFException eof) {
-			finished = true;
-			beyondBounds = true;
+		this.types = types;
+		if (decoder != null) {
+			decoder.setEntityTypes(types);
 		}
 	}
 
-	private void advanceBlock() throws IOException
+	/**
+	 * Only materialize tags accepted by the specified projection, tags with
+	 * other keys are skipped while decoding. Must be called before starting
+	 * iteration.
+	 * 
+	 * @param projection
+	 *            the tag projection to apply or null to retain all tags.
+	 */
+	public void setTagProjection(TagProjection projection)
 	{
-		BlobHeader header = PbfUtil.parseHeader(input);
-		Fileformat.Blob blob = PbfUtil
-				.parseBlock(input, header.getDataLength());
-
-		BlockData blockData = PbfUtil.getBlockData(blob);
-
-		String type = header.getType();
-		if (type.equals(Constants.BLOCK_TYPE_DATA)) {
-			beyondBounds = true;
-
-			Osmformat.PrimitiveBlock block = Osmformat.PrimitiveBlock
-					.parseFrom(blockData.getBlobData());
-
-			PrimParser primParser = new PrimParser(block, fetchMetadata);
-
-			for (Osmformat.PrimitiveGroup group : block.getPrimitivegroupList()) {
-				if (group.getNodesCount() > 0) {
-					pushNodes(primParser, group.getNodesList());
-				}
-				if (group.hasDense()) {
-					pushNodes(primParser, group.getDense());
-				}
-				if (group.getWaysCount() > 0) {
-					pushWays(primParser, group.getWaysList());
-				}
-				if (group.getRelationsCount() > 0) {
-					pushRelations(primParser, group.getRelationsList());
-				}
-			}
-		} else if (type.equals(Constants.BLOCK_TYPE_HEADER)) {
-			Osmformat.HeaderBlock block = Osmformat.HeaderBlock
-					.parseFrom(blockData.getBlobData());
-			HeaderBBox bbox = block.getBbox();
-			if (bbox != null && !beyondBounds) {
-				this.bounds = PbfUtil.bounds(bbox);
-			}
-			beyondBounds = true;
-		} else {
-			throw new IOException("invalid PBF block");
+		this.projection = projection;
+		if (decoder != null) {
+			decoder.setTagProjection(projection);
 		}
 	}
 
-	private void pushNodes(PrimParser primParser, List<Osmformat.Node> nodes)
+	/**
+	 * Hand out mutable entities and containers that are reused across calls
+	 * to {@link #next()} instead of allocating new objects for each element.
+	 * An entity and its container are only valid until the next call to
+	 * {@link #next()}, use
+	 * {@link de.topobyte.osm4j.core.model.util.ImplUtil#copy} to retain them.
+	 * Must be called before starting iteration.
+	 * 
+	 * @param reuseEntities
+	 *            whether to reuse entities.
+	 */
+	public void setReuseEntities(boolean reuseEntities)
 	{
-		available += nodes.size();
-		for (Osmformat.Node node : nodes) {
-			this.nodes.add(primParser.convert(node));
+		this.reuseEntities = reuseEntities;
+		if (decoder != null) {
+			decoder.setReuseEntities(reuseEntities);
 		}
 	}
 
-	private void pushNodes(PrimParser primParser, DenseNodes dense)
+	/**
+	 * Stop any decoding threads used by this iterator. This is only necessary
+	 * when the iterator is abandoned before reaching the end of the data,
+	 * threads are shut down automatically otherwise.
+	 */
+	public void close()
 	{
-		List<OsmNode> nodes = primParser.convert(dense);
-		available += nodes.size();
-		this.nodes.addAll(nodes);
-	}
-
-	private void pushWays(PrimParser primParser, List<Way> ways)
-	{
-		available += ways.size();
-		for (Osmformat.Way way : ways) {
-			this.ways.add(primParser.convert(way));
+		finish();
+		if (decoder != null) {
+			decoder.close();
 		}
 	}
 
-	private void pushRelations(PrimParser primParser, List<Relation> relations)
-	{
-		available += relations.size();
-		for (Osmformat.Relation relation : relations) {
-			this.relations.add(primParser.convert(relation));
-		}
-	}
-
-	@Override
-	public Iterator<EntityContainer> iterator()
-	{
-		return this;
-	}
-
 	@Override
-	public boolean hasBounds()
+	protected DecodedBlock nextBlock() throws IOException
 	{
-		ensureBeyondBounds();
-		return bounds != null;
-	}
+		if (decoder != null) {
+			return decoder.next();
+		}
 
-	@Override
-	public OsmBounds getBounds()
-	{
-		ensureBeyondBounds();
-		return bounds;
-	}
+		BlobHeader header;
+		Fileformat.Blob blob;
+		try {
+			header = PbfUtil.parseHeader(input);
+			blob = PbfUtil.parseBlock(input, header.getDataLength());
+		} catch (EOFException eof) {
+			return null;
+		}
 
-	private void ensureBeyondBounds()
-	{
-		while (!beyondBounds) {
-			try {
-				tryAdvanceBlock();
-			} catch (IOException e) {
-				throw new RuntimeException("error while reading block", e);
-			}
+		if (reuseEntities) {
+			return DecodedBlock.parse(header, blob, fetchMetadata, types,
+					projection);
 		}
+		return DecodedBlock.decode(header, blob, fetchMetadata, types,
+				projection);
 	}
 
 }
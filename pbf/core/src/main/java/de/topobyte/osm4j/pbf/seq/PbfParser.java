@@ -18,8 +18,14 @@
 package de.topobyte.osm4j.pbf.seq;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
 
 import de.topobyte.osm4j.core.access.OsmHandler;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
 import de.topobyte.osm4j.pbf.protobuf.Osmformat;
 import de.topobyte.osm4j.pbf.protobuf.Osmformat.HeaderBBox;
 import de.topobyte.osm4j.pbf.util.PbfUtil;
@@ -30,12 +36,113 @@ public class PbfParser extends BlockParser
 	private OsmHandler handler;
 	private boolean fetchMetadata;
 
+	private int numThreads = 1;
+	private int maxBlocksInFlight = 2;
+
+	private boolean useNodes = true;
+	private boolean useWays = true;
+	private boolean useRelations = true;
+	private Set<EntityType> types = null;
+	private TagProjection projection = null;
+
 	public PbfParser(OsmHandler handler, boolean fetchMetadata)
 	{
 		this.handler = handler;
 		this.fetchMetadata = fetchMetadata;
 	}
 
+	/**
+	 * Create a parser that decodes blocks using the specified number of
+	 * threads. With more than one thread, blocks are decoded concurrently
+	 * while the handler is still invoked from the calling thread with entities
+	 * in file order.
+	 * 
+	 * @param handler
+	 *            the handler to pass entities to.
+	 * @param fetchMetadata
+	 *            whether to read entity metadata.
+	 * @param numThreads
+	 *            the number of threads to decode blocks with.
+	 */
+	public PbfParser(OsmHandler handler, boolean fetchMetadata, int numThreads)
+	{
+		this(handler, fetchMetadata, numThreads, 2 * numThreads);
+	}
+
+	public PbfParser(OsmHandler handler, boolean fetchMetadata,
+			int numThreads, int maxBlocksInFlight)
+	{
+		this(handler, fetchMetadata);
+		this.numThreads = numThreads;
+		this.maxBlocksInFlight = maxBlocksInFlight;
+	}
+
+	/**
+	 * Restrict the entities passed to the handler to the specified types.
+	 * Groups of other types are skipped without converting them.
+	 * 
+	 * @param types
+	 *            the entity types to handle or null for all types.
+	 */
+	public void setEntityTypes(Set<EntityType> types)
+	{
+		this.types = types;
+		useNodes = types == null || types.contains(EntityType.Node);
+		useWays = types == null || types.contains(EntityType.Way);
+		useRelations = types == null || types.contains(EntityType.Relation);
+	}
+
+	/**
+	 * Only pass tags accepted by the specified projection to the handler, tags
+	 * with other keys are skipped while decoding.
+	 * 
+	 * @param projection
+	 *            the tag projection to apply or null to retain all tags.
+	 */
+	public void setTagProjection(TagProjection projection)
+	{
+		this.projection = projection;
+	}
+
+	@Override
+	public void parse(InputStream input) throws IOException
+	{
+		if (numThreads <= 1) {
+			super.parse(input);
+			return;
+		}
+
+		ParallelBlockDecoder decoder = new ParallelBlockDecoder(input,
+				fetchMetadata, numThreads, maxBlocksInFlight);
+		decoder.setEntityTypes(types);
+		decoder.setTagProjection(projection);
+		try {
+			DecodedBlock block;
+			while ((block = decoder.next()) != null) {
+				parse(block);
+			}
+		} finally {
+			decoder.close();
+		}
+	}
+
+	private void parse(DecodedBlock block) throws IOException
+	{
+		if (block.isHeader()) {
+			handler.handle(block.getBounds());
+			return;
+		}
+		for (OsmNode node : block.getNodes()) {
+			handler.handle(node);
+		}
+		for (OsmWay way : block.getWays()) {
+			handler.handle(way);
+		}
+		for (OsmRelation relation : block.getRelations()) {
+			handler.handle(relation);
+		}
+	}
+
 	@Override
 	protected void parse(Osmformat.HeaderBlock block) throws IOException
 	{
@@ -46,13 +153,20 @@ public class PbfParser extends BlockParser
 	@Override
 	protected void parse(Osmformat.PrimitiveBlock block) throws IOException
 	{
-		PrimParser primParser = new PrimParser(block, fetchMetadata);
+		PrimParser primParser = new PrimParser(block, fetchMetadata,
+				projection);
 
 		for (Osmformat.PrimitiveGroup group : block.getPrimitivegroupList()) {
-			primParser.parseNodes(group.getNodesList(), handler);
-			primParser.parseWays(group.getWaysList(), handler);
-			primParser.parseRelations(group.getRelationsList(), handler);
-			if (group.hasDense()) {
+			if (useNodes) {
+				primParser.parseNodes(group.getNodesList(), handler);
+			}
+			if (useWays) {
+				primParser.parseWays(group.getWaysList(), handler);
+			}
+			if (useRelations) {
+				primParser.parseRelations(group.getRelationsList(), handler);
+			}
+			if (useNodes && group.hasDense()) {
 				primParser.parseDense(group.getDense(), handler);
 			}
 		}
@@ -23,10 +23,12 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Set;
 
 import de.topobyte.osm4j.core.access.OsmHandler;
 import de.topobyte.osm4j.core.access.OsmInputException;
 import de.topobyte.osm4j.core.access.OsmReader;
+import de.topobyte.osm4j.core.model.iface.EntityType;
 
 public class PbfReader implements OsmReader
 {
@@ -36,12 +38,27 @@ public class PbfReader implements OsmReader
 	private boolean parseMetadata;
 	private InputStream input;
 
+	private int numThreads = 1;
+	private Set<EntityType> types = null;
+	private TagProjection projection = null;
+
 	public PbfReader(InputStream input, boolean parseMetadata)
 	{
 		this.input = input;
 		this.parseMetadata = parseMetadata;
 	}
 
+	/**
+	 * Create a reader that decodes blocks using the specified number of
+	 * threads. The handler is always invoked from the thread calling
+	 * {@link #read()}, with entities in file order.
+	 */
+	public PbfReader(InputStream input, boolean parseMetadata, int numThreads)
+	{
+		this(input, parseMetadata);
+		this.numThreads = numThreads;
+	}
+
 	public PbfReader(File file, boolean parseMetadata)
 			throws FileNotFoundException
 	{
@@ -56,6 +73,37 @@ public class PbfReader implements OsmReader
 		this(new File(pathname), parseMetadata);
 	}
 
+	public PbfReader(File file, boolean parseMetadata, int numThreads)
+			throws FileNotFoundException
+	{
+		this(file, parseMetadata);
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Restrict the entities passed to the handler to the specified types.
+	 * Groups of other types are skipped without converting them.
+	 * 
+	 * @param types
+	 *            the entity types to handle or null for all types.
+	 */
+	public void setEntityTypes(Set<EntityType> types)
+	{
+		this.types = types;
+	}
+
+	/**
+	 * Only pass tags accepted by the specified projection to the handler, tags
+	 * with other keys are skipped while decoding.
+	 * 
+	 * @param projection
+	 *            the tag projection to apply or null to retain all tags.
+	 */
+	public void setTagProjection(TagProjection projection)
+	{
+		this.projection = projection;
+	}
+
 	@Override
 	public void setHandler(OsmHandler handler)
 	{
@@ -65,7 +113,10 @@ public class PbfReader implements OsmReader
 	@Override
 	public void read() throws OsmInputException
 	{
-		PbfParser parser = new PbfParser(handler, parseMetadata);
+		PbfParser parser = new PbfParser(handler, parseMetadata,
+				numThreads);
+		parser.setEntityTypes(types);
+		parser.setTagProjection(projection);
 		try {
 			parser.parse(input);
 		} catch (IOException e) {
@@ -40,36 +40,45 @@
 package de.topobyte.osm4j.pbf.seq;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import com.google.protobuf.ByteString;
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
 
 import de.topobyte.osm4j.core.access.OsmOutputStream;
-import de.topobyte.osm4j.core.model.iface.EntityType;
 import de.topobyte.osm4j.core.model.iface.OsmBounds;
-import de.topobyte.osm4j.core.model.iface.OsmEntity;
-import de.topobyte.osm4j.core.model.iface.OsmMetadata;
+import de.topobyte.osm4j.core.model.iface.OsmLocatedWay;
 import de.topobyte.osm4j.core.model.iface.OsmNode;
 import de.topobyte.osm4j.core.model.iface.OsmRelation;
-import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
-import de.topobyte.osm4j.core.model.iface.OsmTag;
 import de.topobyte.osm4j.core.model.iface.OsmWay;
-import de.topobyte.osm4j.core.model.impl.Metadata;
+import de.topobyte.osm4j.core.model.impl.LocatedWay;
+import de.topobyte.osm4j.core.model.util.EntitySizeEstimator;
+import de.topobyte.osm4j.core.model.util.OsmModelUtil;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.core.resolve.OsmEntityProvider;
 import de.topobyte.osm4j.pbf.Compression;
 import de.topobyte.osm4j.pbf.Constants;
-import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+import de.topobyte.osm4j.pbf.protobuf.Fileformat;
 import de.topobyte.osm4j.pbf.protobuf.Osmformat.HeaderBlock;
 import de.topobyte.osm4j.pbf.protobuf.Osmformat.PrimitiveBlock;
-import de.topobyte.osm4j.pbf.protobuf.Osmformat.PrimitiveGroup;
 import de.topobyte.osm4j.pbf.util.PbfUtil;
-import de.topobyte.osm4j.pbf.util.StringTable;
 
 public class PbfWriter extends BlockWriter implements OsmOutputStream
 {
 
+	public static final int DEFAULT_BLOCK_SIZE = 16 * 1024 * 1024;
+
 	private boolean writeMetadata;
 
 	private Compression compression = Compression.DEFLATE;
@@ -77,13 +86,18 @@ public class PbfWriter extends BlockWriter implements OsmOutputStream
 	private boolean useDense = true;
 	private int granularity = 100;
 	private int dateGranularity = 1000;
-	private StringTable stringTable = new StringTable();
 
 	private int batchLimit = 4000;
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+
+	private boolean locationsOnWays = false;
+	private OsmEntityProvider nodeLocations = null;
 
 	// The total number of elements currently buffered
 	// (nodes + ways + relations)
 	private int counter = 0;
+	// The estimated size of the elements currently buffered in bytes
+	private long bufferedSize = 0;
 
 	// Buffers for elements
 	private List<OsmNode> bufNodes = new ArrayList<>();
@@ -92,6 +106,13 @@ public class PbfWriter extends BlockWriter implements OsmOutputStream
 
 	private boolean headerWritten = false;
 
+	// Pipelined mode: batches are serialized and compressed on a pool of
+	// worker threads, finished blobs are written in submission order
+	private int numThreads = 1;
+	private int maxBlocksInFlight = 0;
+	private ExecutorService workers = null;
+	private Deque<Future<List<Fileformat.Blob>>> pending = new ArrayDeque<>();
+
 	public PbfWriter(OutputStream output, boolean writeMetadata)
 	{
 		super(output);
@@ -148,6 +169,90 @@ public class PbfWriter extends BlockWriter implements OsmOutputStream
 		this.batchLimit = batchLimit;
 	}
 
+	public int getBlockSize()
+	{
+		return blockSize;
+	}
+
+	/**
+	 * Set the targeted size of uncompressed blocks in bytes. Blocks are cut
+	 * when the estimated size of the buffered entities reaches this size or
+	 * when the batch limit is reached, whichever happens first. In order to
+	 * cut blocks by size only, set the batch limit to
+	 * {@link Integer#MAX_VALUE}. The size may not exceed
+	 * {@link Constants#MAX_BLOCK_SIZE}.
+	 */
+	public void setBlockSize(int blockSize)
+	{
+		if (blockSize <= 0 || blockSize > Constants.MAX_BLOCK_SIZE) {
+			throw new IllegalArgumentException(
+					"block size must be positive and at most "
+							+ Constants.MAX_BLOCK_SIZE);
+		}
+		this.blockSize = blockSize;
+	}
+
+	public int getNumThreads()
+	{
+		return numThreads;
+	}
+
+	/**
+	 * Set the number of threads used to serialize and compress data blocks.
+	 * With more than one thread, completed batches are handed off to a pool of
+	 * worker threads and the resulting blocks are written to the output in
+	 * order. Must be set before the first entity is written.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
+	public int getMaxBlocksInFlight()
+	{
+		return maxBlocksInFlight;
+	}
+
+	/**
+	 * Set the maximum number of blocks being processed by worker threads or
+	 * waiting to be written at any time. This bounds memory usage in
+	 * pipelined mode. Defaults to twice the number of threads if not set.
+	 */
+	public void setMaxBlocksInFlight(int maxBlocksInFlight)
+	{
+		this.maxBlocksInFlight = maxBlocksInFlight;
+	}
+
+	public boolean isLocationsOnWays()
+	{
+		return locationsOnWays;
+	}
+
+	/**
+	 * Store the locations of way nodes with the ways (the 'LocationsOnWays'
+	 * feature). Locations are taken from ways that already carry them, i.e.
+	 * that implement {@link OsmLocatedWay}, or are looked up using the node
+	 * location source otherwise. Must be called before writing any data.
+	 */
+	public void setLocationsOnWays(boolean locationsOnWays)
+	{
+		this.locationsOnWays = locationsOnWays;
+	}
+
+	public OsmEntityProvider getNodeLocations()
+	{
+		return nodeLocations;
+	}
+
+	/**
+	 * Set the source for looking up node locations of ways when writing
+	 * locations on ways.
+	 */
+	public void setNodeLocations(OsmEntityProvider nodeLocations)
+	{
+		this.nodeLocations = nodeLocations;
+	}
+
 	@Override
 	public void write(OsmBounds bounds) throws IOException
 	{
@@ -166,27 +271,79 @@ public class PbfWriter extends BlockWriter implements OsmOutputStream
 	@Override
 	public void write(OsmNode node) throws IOException
 	{
+		int size = EntitySizeEstimator.estimate(node, writeMetadata);
+		makeRoom(size);
 		bufNodes.add(node);
-		incrementCounter();
+		incrementCounter(size);
 	}
 
 	@Override
 	public void write(OsmWay way) throws IOException
 	{
+		if (locationsOnWays && !(way instanceof OsmLocatedWay)) {
+			way = locate(way);
+		}
+		int size = EntitySizeEstimator.estimate(way, writeMetadata);
+		if (locationsOnWays) {
+			size += EntitySizeEstimator
+					.estimateLocations(way.getNumberOfNodes());
+		}
+		makeRoom(size);
 		bufWays.add(way);
-		incrementCounter();
+		incrementCounter(size);
+	}
+
+	private OsmLocatedWay locate(OsmWay way) throws IOException
+	{
+		if (nodeLocations == null) {
+			throw new IOException("No node locations available for way "
+					+ way.getId());
+		}
+
+		int numNodes = way.getNumberOfNodes();
+		TLongArrayList nodes = new TLongArrayList(numNodes);
+		double[] lons = new double[numNodes];
+		double[] lats = new double[numNodes];
+		for (int i = 0; i < numNodes; i++) {
+			long nodeId = way.getNodeId(i);
+			OsmNode node;
+			try {
+				node = nodeLocations.getNode(nodeId);
+			} catch (EntityNotFoundException e) {
+				throw new IOException("Unable to locate node " + nodeId
+						+ " of way " + way.getId(), e);
+			}
+			nodes.add(nodeId);
+			lons[i] = node.getLongitude();
+			lats[i] = node.getLatitude();
+		}
+
+		return new LocatedWay(way.getId(), nodes, lons, lats,
+				OsmModelUtil.getTagsAsList(way), way.getMetadata());
 	}
 
 	@Override
 	public void write(OsmRelation relation) throws IOException
 	{
+		int size = EntitySizeEstimator.estimate(relation, writeMetadata);
+		makeRoom(size);
 		bufRelations.add(relation);
-		incrementCounter();
+		incrementCounter(size);
+	}
+
+	// Flush the current batch if adding an element of the specified size
+	// would exceed the block size
+	private void makeRoom(int size) throws IOException
+	{
+		if (counter > 0 && bufferedSize + size > blockSize) {
+			writeBatch();
+		}
 	}
 
-	private void incrementCounter() throws IOException
+	private void incrementCounter(int size) throws IOException
 	{
-		if (++counter >= batchLimit) {
+		bufferedSize += size;
+		if (++counter >= batchLimit || bufferedSize >= blockSize) {
 			writeBatch();
 		}
 	}
@@ -199,320 +356,198 @@ public class PbfWriter extends BlockWriter implements OsmOutputStream
 		if (counter > 0) {
 			writeBatch();
 		}
+
+		if (workers != null) {
+			try {
+				writePending(0);
+			} finally {
+				workers.shutdownNow();
+				workers = null;
+			}
+		}
+	}
+
+	/**
+	 * Write a complete block taken from another PBF file. Entities written
+	 * before are flushed as a block of their own first, so that the order of
+	 * entities is retained.
+	 */
+	@Override
+	public void writeRawBlock(byte[] block) throws IOException
+	{
+		ensureHeader();
+
+		if (counter > 0) {
+			writeBatch();
+		}
+		writePending(0);
+
+		super.writeRawBlock(block);
 	}
 
 	private void writeHeader(OsmBounds bounds) throws IOException
 	{
 		HeaderBlock header = PbfUtil.createHeader(Constants.WRITING_PROGRAM,
-				true, bounds);
+				true, locationsOnWays, bounds);
 		ByteString headerData = header.toByteString();
 		write(Constants.BLOCK_TYPE_HEADER, null, compression, headerData);
 		headerWritten = true;
 	}
 
+	private BlockSerializer createSerializer()
+	{
+		BlockSerializer serializer = new BlockSerializer(writeMetadata,
+				useDense, granularity, dateGranularity);
+		serializer.setWriteLocations(locationsOnWays);
+		return serializer;
+	}
+
 	private void writeBatch() throws IOException
 	{
 		ensureHeader();
 
-		Osmformat.PrimitiveBlock.Builder builder = Osmformat.PrimitiveBlock
-				.newBuilder();
-
-		// First add all strings to the string table
-
-		addTagsToStringTable(bufNodes);
-		addTagsToStringTable(bufWays);
-		addTagsToStringTable(bufRelations);
-
-		addMemberRolesToStringTable(bufRelations);
-
-		if (writeMetadata) {
-			addUsersToStringTable(bufNodes);
-			addUsersToStringTable(bufWays);
-			addUsersToStringTable(bufRelations);
-		}
-
-		// And build indices
-		stringTable.finish();
-
-		// Now build groups and add to block builder
-
-		if (bufNodes.size() > 0) {
-			if (useDense) {
-				PrimitiveGroup group = serializeDense(bufNodes);
-				builder.addPrimitivegroup(group);
-			} else {
-				PrimitiveGroup group = serializeNonDense(bufNodes);
-				builder.addPrimitivegroup(group);
-			}
-			bufNodes.clear();
-		}
-
-		if (bufWays.size() > 0) {
-			PrimitiveGroup group = serializeWays(bufWays);
-			builder.addPrimitivegroup(group);
-			bufWays.clear();
+		if (numThreads > 1) {
+			submitBatch();
+			return;
 		}
 
-		if (bufRelations.size() > 0) {
-			PrimitiveGroup group = serializeRelations(bufRelations);
-			builder.addPrimitivegroup(group);
-			bufRelations.clear();
-		}
-
-		builder.setDateGranularity(dateGranularity);
-		builder.setGranularity(granularity);
-		builder.setStringtable(stringTable.serialize());
-
-		PrimitiveBlock block = builder.build();
-		ByteString data = block.toByteString();
+		List<ByteString> blocks = new ArrayList<>(1);
+		serialize(createSerializer(), bufNodes, bufWays, bufRelations, blocks);
 
-		// Reset counter and string table
+		bufNodes.clear();
+		bufWays.clear();
+		bufRelations.clear();
 		counter = 0;
-		stringTable.clear();
+		bufferedSize = 0;
 
-		write(Constants.BLOCK_TYPE_DATA, null, compression, data);
-	}
-
-	private void addTagsToStringTable(Collection<? extends OsmEntity> entities)
-	{
-		for (OsmEntity entity : entities) {
-			for (int k = 0; k < entity.getNumberOfTags(); k++) {
-				OsmTag tag = entity.getTag(k);
-				stringTable.incr(tag.getKey());
-				stringTable.incr(tag.getValue());
-			}
+		for (ByteString data : blocks) {
+			write(Constants.BLOCK_TYPE_DATA, null, compression, data);
 		}
 	}
 
-	private void addUsersToStringTable(Collection<? extends OsmEntity> entities)
+	/**
+	 * Serialize a batch of entities. Batches are cut by an upper bound of
+	 * their size already, nevertheless the serialized data is checked against
+	 * the maximum block size allowed by the format and batches exceeding it
+	 * are split in halves.
+	 */
+	private static void serialize(BlockSerializer serializer, List<OsmNode> nodes,
+			List<OsmWay> ways, List<OsmRelation> relations,
+			List<ByteString> blocks) throws IOException
 	{
-		for (OsmEntity entity : entities) {
-			OsmMetadata metadata = entity.getMetadata();
-			if (metadata == null) {
-				continue;
-			}
-			String user = metadata.getUser();
-			if (user == null) {
-				continue;
-			}
-			stringTable.incr(user);
+		PrimitiveBlock block = serializer.serialize(nodes, ways, relations);
+		ByteString data = block.toByteString();
+		if (data.size() <= Constants.MAX_BLOCK_SIZE) {
+			blocks.add(data);
+			return;
 		}
-	}
 
-	private Osmformat.Info.Builder serializeMetadata(OsmEntity entity)
-	{
-		Osmformat.Info.Builder b = Osmformat.Info.newBuilder();
-		if (writeMetadata) {
-			OsmMetadata metadata = entity.getMetadata();
-			if (metadata == null) {
-				return b;
-			}
-			if (metadata.getUid() >= 0) {
-				b.setUid((int) metadata.getUid());
-				b.setUserSid(stringTable.getIndex(metadata.getUser()));
-			}
-			b.setTimestamp((int) (metadata.getTimestamp() / dateGranularity));
-			b.setVersion(metadata.getVersion());
-			b.setChangeset(metadata.getChangeset());
-			b.setVisible(metadata.isVisible());
+		int numNodes = nodes.size();
+		int numWays = ways.size();
+		int numRelations = relations.size();
+		int total = numNodes + numWays + numRelations;
+		if (total == 1) {
+			throw new IOException("Entity exceeds the maximum block size: "
+					+ data.size() + " > " + Constants.MAX_BLOCK_SIZE);
 		}
-		return b;
-	}
 
-	private void serializeMetadataDense(Osmformat.DenseInfo.Builder b,
-			Collection<? extends OsmEntity> entities)
-	{
-		long lasttimestamp = 0, lastchangeset = 0;
-		int lastuserSid = 0, lastuid = 0;
-		for (OsmEntity e : entities) {
-			OsmMetadata metadata = e.getMetadata();
-			if (metadata == null) {
-				metadata = new Metadata(-1, -1, -1, "", -1);
-			}
-			int uid = (int) metadata.getUid();
-			int userSid = stringTable.getIndex(metadata.getUser());
-			int timestamp = (int) (metadata.getTimestamp() / dateGranularity);
-			int version = metadata.getVersion();
-			long changeset = metadata.getChangeset();
-			boolean visible = metadata.isVisible();
-
-			b.addVersion(version);
-			b.addTimestamp(timestamp - lasttimestamp);
-			lasttimestamp = timestamp;
-			b.addChangeset(changeset - lastchangeset);
-			lastchangeset = changeset;
-			b.addUid(uid - lastuid);
-			lastuid = uid;
-			b.addUserSid(userSid - lastuserSid);
-			lastuserSid = userSid;
-			b.addVisible(visible);
-		}
+		// Split the sequence of nodes, ways and relations in the middle
+		int half = total / 2;
+		int splitNodes = Math.min(half, numNodes);
+		int splitWays = Math.max(0, Math.min(half - numNodes, numWays));
+		int splitRelations = Math.max(0,
+				Math.min(half - numNodes - numWays, numRelations));
+
+		serialize(serializer, nodes.subList(0, splitNodes),
+				ways.subList(0, splitWays),
+				relations.subList(0, splitRelations), blocks);
+		serialize(serializer, nodes.subList(splitNodes, numNodes),
+				ways.subList(splitWays, numWays),
+				relations.subList(splitRelations, numRelations), blocks);
 	}
 
-	private int mapDegrees(double degrees)
+	private void submitBatch() throws IOException
 	{
-		return (int) ((degrees / .0000001) / (granularity / 100));
-	}
-
-	private Osmformat.PrimitiveGroup serializeDense(Collection<OsmNode> nodes)
-	{
-		Osmformat.PrimitiveGroup.Builder builder = Osmformat.PrimitiveGroup
-				.newBuilder();
-
-		long lastlat = 0, lastlon = 0, lastid = 0;
-		Osmformat.DenseNodes.Builder bi = Osmformat.DenseNodes.newBuilder();
-
-		// Does anything in this block have tags?
-		boolean doesBlockHaveTags = false;
-		for (OsmNode node : nodes) {
-			if (node.getNumberOfTags() != 0) {
-				doesBlockHaveTags = true;
-				break;
-			}
-		}
-
-		// Find out if any of the nodes has metadata. If none does, we can omit
-		// the metadata completely.
-		boolean hasMetadata = false;
-		for (OsmNode node : nodes) {
-			if (node.getMetadata() != null) {
-				hasMetadata = true;
-			}
+		if (workers == null) {
+			workers = Executors.newFixedThreadPool(numThreads,
+					new ThreadFactory() {
+
+						@Override
+						public Thread newThread(Runnable runnable)
+						{
+							Thread thread = new Thread(runnable,
+									"pbf-writer");
+							thread.setDaemon(true);
+							return thread;
+						}
+
+					});
 		}
 
-		if (writeMetadata && hasMetadata) {
-			Osmformat.DenseInfo.Builder bdi = Osmformat.DenseInfo.newBuilder();
-			serializeMetadataDense(bdi, nodes);
-			bi.setDenseinfo(bdi);
-		}
-
-		for (OsmNode node : nodes) {
-			long id = node.getId();
-			int lat = mapDegrees(node.getLatitude());
-			int lon = mapDegrees(node.getLongitude());
-			bi.addId(id - lastid);
-			lastid = id;
-			bi.addLon(lon - lastlon);
-			lastlon = lon;
-			bi.addLat(lat - lastlat);
-			lastlat = lat;
-
-			// Then we must include tag information.
-			if (doesBlockHaveTags) {
-				for (int k = 0; k < node.getNumberOfTags(); k++) {
-					OsmTag t = node.getTag(k);
-					bi.addKeysVals(stringTable.getIndex(t.getKey()));
-					bi.addKeysVals(stringTable.getIndex(t.getValue()));
+		int limit = maxBlocksInFlight > 0 ? maxBlocksInFlight
+				: 2 * numThreads;
+		writePending(limit - 1);
+
+		final List<OsmNode> nodes = bufNodes;
+		final List<OsmWay> ways = bufWays;
+		final List<OsmRelation> relations = bufRelations;
+		final BlockSerializer serializer = createSerializer();
+		final Compression compression = this.compression;
+
+		pending.add(workers.submit(new Callable<List<Fileformat.Blob>>() {
+
+			@Override
+			public List<Fileformat.Blob> call() throws IOException
+			{
+				List<ByteString> blocks = new ArrayList<>(1);
+				serialize(serializer, nodes, ways, relations, blocks);
+				List<Fileformat.Blob> blobs = new ArrayList<>(blocks.size());
+				for (ByteString data : blocks) {
+					blobs.add(createBlob(compression, data));
 				}
-				bi.addKeysVals(0); // Add delimiter.
+				return blobs;
 			}
-		}
 
-		builder.setDense(bi);
-		return builder.build();
-	}
+		}));
 
-	private Osmformat.PrimitiveGroup serializeNonDense(Collection<OsmNode> nodes)
-	{
-		Osmformat.PrimitiveGroup.Builder builder = Osmformat.PrimitiveGroup
-				.newBuilder();
-		for (OsmNode node : nodes) {
-			Osmformat.Node.Builder bi = Osmformat.Node.newBuilder();
-			bi.setId(node.getId());
-			bi.setLon(mapDegrees(node.getLongitude()));
-			bi.setLat(mapDegrees(node.getLatitude()));
-			for (int k = 0; k < node.getNumberOfTags(); k++) {
-				OsmTag t = node.getTag(k);
-				bi.addKeys(stringTable.getIndex(t.getKey()));
-				bi.addVals(stringTable.getIndex(t.getValue()));
-			}
-			if (writeMetadata && node.getMetadata() != null) {
-				bi.setInfo(serializeMetadata(node));
-			}
-			builder.addNodes(bi);
-		}
-		return builder.build();
-	}
+		bufNodes = new ArrayList<>();
+		bufWays = new ArrayList<>();
+		bufRelations = new ArrayList<>();
+		counter = 0;
+		bufferedSize = 0;
 
-	private Osmformat.PrimitiveGroup serializeWays(Collection<OsmWay> ways)
-	{
-		Osmformat.PrimitiveGroup.Builder builder = Osmformat.PrimitiveGroup
-				.newBuilder();
-		for (OsmWay way : ways) {
-			Osmformat.Way.Builder bi = Osmformat.Way.newBuilder();
-			bi.setId(way.getId());
-			long lastid = 0;
-			for (int k = 0; k < way.getNumberOfNodes(); k++) {
-				long id = way.getNodeId(k);
-				bi.addRefs(id - lastid);
-				lastid = id;
-			}
-			for (int k = 0; k < way.getNumberOfTags(); k++) {
-				OsmTag t = way.getTag(k);
-				bi.addKeys(stringTable.getIndex(t.getKey()));
-				bi.addVals(stringTable.getIndex(t.getValue()));
-			}
-			if (writeMetadata && way.getMetadata() != null) {
-				bi.setInfo(serializeMetadata(way));
-			}
-			builder.addWays(bi);
+		// Write any blocks that are already done without waiting
+		while (!pending.isEmpty() && pending.peek().isDone()) {
+			writeBlob(pending.poll());
 		}
-		return builder.build();
 	}
 
-	private void addMemberRolesToStringTable(Collection<OsmRelation> relations)
+	/**
+	 * Write pending blocks in order, waiting for them to be finished, until at
+	 * most the specified number of blocks is left pending.
+	 */
+	private void writePending(int remaining) throws IOException
 	{
-		for (OsmRelation relation : relations) {
-			for (int k = 0; k < relation.getNumberOfMembers(); k++) {
-				OsmRelationMember j = relation.getMember(k);
-				stringTable.incr(j.getRole());
-			}
+		while (pending.size() > remaining) {
+			writeBlob(pending.poll());
 		}
 	}
 
-	private Osmformat.PrimitiveGroup serializeRelations(
-			Collection<OsmRelation> relations)
-	{
-		Osmformat.PrimitiveGroup.Builder builder = Osmformat.PrimitiveGroup
-				.newBuilder();
-		for (OsmRelation relation : relations) {
-			Osmformat.Relation.Builder bi = Osmformat.Relation.newBuilder();
-			bi.setId(relation.getId());
-			long lastid = 0;
-			for (int k = 0; k < relation.getNumberOfMembers(); k++) {
-				OsmRelationMember j = relation.getMember(k);
-				long id = j.getId();
-				bi.addMemids(id - lastid);
-				lastid = id;
-				EntityType t = j.getType();
-				Osmformat.Relation.MemberType type = getType(t);
-				bi.addTypes(type);
-				bi.addRolesSid(stringTable.getIndex(j.getRole()));
-			}
-
-			for (int k = 0; k < relation.getNumberOfTags(); k++) {
-				OsmTag t = relation.getTag(k);
-				bi.addKeys(stringTable.getIndex(t.getKey()));
-				bi.addVals(stringTable.getIndex(t.getValue()));
-			}
-			if (writeMetadata && relation.getMetadata() != null) {
-				bi.setInfo(serializeMetadata(relation));
-			}
-			builder.addRelations(bi);
-		}
-		return builder.build();
-	}
-
-	private Osmformat.Relation.MemberType getType(EntityType t)
+	private void writeBlob(Future<List<Fileformat.Blob>> future)
+			throws IOException
 	{
-		switch (t) {
-		default:
-		case Node:
-			return Osmformat.Relation.MemberType.NODE;
-		case Way:
-			return Osmformat.Relation.MemberType.WAY;
-		case Relation:
-			return Osmformat.Relation.MemberType.RELATION;
+		List<Fileformat.Blob> blobs;
+		try {
+			blobs = future.get();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException(
+					"interrupted while waiting for block");
+		} catch (ExecutionException e) {
+			throw new IOException("error while serializing block",
+					e.getCause());
+		}
+		for (Fileformat.Blob blob : blobs) {
+			write(Constants.BLOCK_TYPE_DATA, null, blob);
 		}
 	}
 
@@ -41,8 +41,10 @@ package de.topobyte.osm4j.pbf.seq;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
+import com.google.protobuf.ByteString;
 import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
 
 import de.topobyte.osm4j.core.access.OsmHandler;
@@ -52,13 +54,21 @@ import de.topobyte.osm4j.core.model.iface.OsmNode;
 import de.topobyte.osm4j.core.model.iface.OsmRelation;
 import de.topobyte.osm4j.core.model.iface.OsmTag;
 import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.impl.LocatedWay;
 import de.topobyte.osm4j.core.model.impl.Metadata;
+import de.topobyte.osm4j.core.model.impl.MutableEntity;
+import de.topobyte.osm4j.core.model.impl.MutableLocatedWay;
+import de.topobyte.osm4j.core.model.impl.MutableNode;
+import de.topobyte.osm4j.core.model.impl.MutableRelation;
+import de.topobyte.osm4j.core.model.impl.MutableWay;
 import de.topobyte.osm4j.core.model.impl.Node;
 import de.topobyte.osm4j.core.model.impl.Relation;
 import de.topobyte.osm4j.core.model.impl.RelationMember;
 import de.topobyte.osm4j.core.model.impl.Tag;
 import de.topobyte.osm4j.core.model.impl.Way;
+import de.topobyte.osm4j.core.model.util.ReusableEntities;
 import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+import de.topobyte.osm4j.pbf.util.StringCache;
 
 public class PrimParser
 {
@@ -67,25 +77,123 @@ public class PrimParser
 	private long latOffset;
 	private long lonOffset;
 	private int dateGranularity;
+	private Osmformat.StringTable stringTable;
 	private String[] strings;
+	private StringCache cache;
 
 	private boolean fetchMetadata;
 
+	// Projection applied to tags, null to accept all
+	private TagProjection projection = null;
+	// Indices of strings that have been checked against the projection
+	private BitSet resolvedKeys = null;
+	// Indices of strings that are accepted as tag keys
+	private BitSet acceptedKeys = null;
+
 	public PrimParser(Osmformat.PrimitiveBlock block, boolean fetchMetadata)
+	{
+		this(block, fetchMetadata, null);
+	}
+
+	/**
+	 * Create a parser that only materializes tags with keys accepted by the
+	 * specified projection.
+	 * 
+	 * @param projection
+	 *            the projection to apply or null to retain all tags.
+	 */
+	public PrimParser(Osmformat.PrimitiveBlock block, boolean fetchMetadata,
+			TagProjection projection)
+	{
+		this(block, fetchMetadata, projection, StringCache.getShared());
+	}
+
+	/**
+	 * Create a parser that only materializes tags with keys accepted by the
+	 * specified projection and that looks up strings in the specified cache.
+	 * Strings of the block's string table are decoded lazily, on first use.
+	 * Only tag keys and member roles, which recur across blocks, are looked up
+	 * in the cache.
+	 * 
+	 * @param projection
+	 *            the projection to apply or null to retain all tags.
+	 * @param cache
+	 *            the cache to share strings across blocks with or null to
+	 *            decode each string independently.
+	 */
+	public PrimParser(Osmformat.PrimitiveBlock block, boolean fetchMetadata,
+			TagProjection projection, StringCache cache)
 	{
 		this.fetchMetadata = fetchMetadata;
+		this.projection = projection;
+		this.cache = cache;
 
-		Osmformat.StringTable stringTable = block.getStringtable();
+		stringTable = block.getStringtable();
 		strings = new String[stringTable.getSCount()];
 
-		for (int i = 0; i < strings.length; i++) {
-			strings[i] = stringTable.getS(i).toStringUtf8();
-		}
-
 		granularity = block.getGranularity();
 		latOffset = block.getLatOffset();
 		lonOffset = block.getLonOffset();
 		dateGranularity = block.getDateGranularity();
+
+		if (projection != null) {
+			resolvedKeys = new BitSet(strings.length);
+			acceptedKeys = new BitSet(strings.length);
+		}
+	}
+
+	private String string(int index)
+	{
+		String string = strings[index];
+		if (string == null) {
+			string = stringTable.getS(index).toStringUtf8();
+			strings[index] = string;
+		}
+		return string;
+	}
+
+	// Like string(), but shares instances of frequent strings across blocks
+	private String sharedString(int index)
+	{
+		String string = strings[index];
+		if (string == null) {
+			ByteString bytes = stringTable.getS(index);
+			if (cache != null) {
+				string = cache.get(bytes);
+			} else {
+				string = bytes.toStringUtf8();
+			}
+			strings[index] = string;
+		}
+		return string;
+	}
+
+	private boolean isAccepted(int key)
+	{
+		if (projection == null) {
+			return true;
+		}
+		if (!resolvedKeys.get(key)) {
+			resolvedKeys.set(key);
+			if (projection.acceptKey(sharedString(key))) {
+				acceptedKeys.set(key);
+			}
+		}
+		return acceptedKeys.get(key);
+	}
+
+	private void addTag(List<OsmTag> tags, int key, int value)
+	{
+		if (isAccepted(key)) {
+			tags.add(new Tag(sharedString(key), string(value)));
+		}
+	}
+
+	private void addTag(MutableEntity entity, int key, int value)
+	{
+		if (isAccepted(key)) {
+			entity.addTag(sharedString(key), string(value));
+		}
 	}
 
 	/**
@@ -156,7 +264,7 @@ public class PrimParser
 
 		List<OsmTag> tags = new ArrayList<>();
 		for (int j = 0; j < n.getKeysCount(); j++) {
-			tags.add(new Tag(strings[n.getKeys(j)], strings[n.getVals(j)]));
+			addTag(tags, n.getKeys(j), n.getVals(j));
 		}
 
 		OsmMetadata metadata = null;
@@ -181,7 +289,7 @@ public class PrimParser
 
 		List<OsmTag> tags = new ArrayList<>();
 		for (int j = 0; j < w.getKeysCount(); j++) {
-			tags.add(new Tag(strings[w.getKeys(j)], strings[w.getVals(j)]));
+			addTag(tags, w.getKeys(j), w.getVals(j));
 		}
 
 		OsmMetadata metadata = null;
@@ -190,6 +298,23 @@ public class PrimParser
 			metadata = convertMetadata(info);
 		}
 
+		// Ways may carry the locations of their nodes (LocationsOnWays)
+		int numNodes = nodes.size();
+		if (numNodes > 0 && w.getLatCount() == numNodes
+				&& w.getLonCount() == numNodes) {
+			double[] lons = new double[numNodes];
+			double[] lats = new double[numNodes];
+			long lastLat = 0;
+			long lastLon = 0;
+			for (int j = 0; j < numNodes; j++) {
+				lastLat += w.getLat(j);
+				lastLon += w.getLon(j);
+				lats[j] = parseLat(lastLat);
+				lons[j] = parseLon(lastLon);
+			}
+			return new LocatedWay(id, nodes, lons, lats, tags, metadata);
+		}
+
 		return new Way(id, nodes, tags, metadata);
 	}
 
@@ -200,14 +325,14 @@ public class PrimParser
 
 		List<OsmTag> tags = new ArrayList<>();
 		for (int j = 0; j < r.getKeysCount(); j++) {
-			tags.add(new Tag(strings[r.getKeys(j)], strings[r.getVals(j)]));
+			addTag(tags, r.getKeys(j), r.getVals(j));
 		}
 
 		List<RelationMember> members = new ArrayList<>();
 		for (int j = 0; j < r.getMemidsCount(); j++) {
 			long mid = lastMid + r.getMemids(j);
 			lastMid = mid;
-			String role = strings[r.getRolesSid(j)];
+			String role = sharedString(r.getRolesSid(j));
 			Osmformat.Relation.MemberType type = r.getTypes(j);
 
 			EntityType t = getType(type);
@@ -225,6 +350,124 @@ public class PrimParser
 		return new Relation(id, members, tags, metadata);
 	}
 
+	/**
+	 * Convert a node into the reusable node of the specified set of entities.
+	 */
+	public OsmNode convert(Osmformat.Node n, ReusableEntities entities)
+	{
+		MutableNode node = entities.node();
+		node.setId(n.getId());
+		node.setLatitude(Double.NaN);
+		node.setLongitude(Double.NaN);
+
+		if (n.getLat() != Integer.MAX_VALUE) {
+			node.setLatitude(parseLat(n.getLat()));
+		}
+
+		if (n.getLon() != Integer.MAX_VALUE) {
+			node.setLongitude(parseLon(n.getLon()));
+		}
+
+		for (int j = 0; j < n.getKeysCount(); j++) {
+			addTag(node, n.getKeys(j), n.getVals(j));
+		}
+
+		if (fetchMetadata && n.hasInfo()) {
+			convertMetadata(n.getInfo(), node);
+		}
+
+		return node;
+	}
+
+	/**
+	 * Convert a way into one of the reusable ways of the specified set of
+	 * entities.
+	 */
+	public OsmWay convert(Osmformat.Way w, ReusableEntities entities)
+	{
+		// Ways may carry the locations of their nodes (LocationsOnWays)
+		int numNodes = w.getRefsCount();
+		boolean located = numNodes > 0 && w.getLatCount() == numNodes
+				&& w.getLonCount() == numNodes;
+
+		MutableWay way;
+		if (located) {
+			MutableLocatedWay locatedWay = entities.locatedWay();
+			long lastId = 0;
+			long lastLat = 0;
+			long lastLon = 0;
+			for (int j = 0; j < numNodes; j++) {
+				lastId += w.getRefs(j);
+				lastLat += w.getLat(j);
+				lastLon += w.getLon(j);
+				locatedWay.addNode(lastId, parseLon(lastLon),
+						parseLat(lastLat));
+			}
+			way = locatedWay;
+		} else {
+			way = entities.way();
+			long lastId = 0;
+			for (int j = 0; j < numNodes; j++) {
+				lastId += w.getRefs(j);
+				way.addNode(lastId);
+			}
+		}
+		way.setId(w.getId());
+
+		for (int j = 0; j < w.getKeysCount(); j++) {
+			addTag(way, w.getKeys(j), w.getVals(j));
+		}
+
+		if (fetchMetadata && w.hasInfo()) {
+			convertMetadata(w.getInfo(), way);
+		}
+
+		return way;
+	}
+
+	/**
+	 * Convert a relation into the reusable relation of the specified set of
+	 * entities.
+	 */
+	public OsmRelation convert(Osmformat.Relation r,
+			ReusableEntities entities)
+	{
+		MutableRelation relation = entities.relation();
+		relation.setId(r.getId());
+
+		for (int j = 0; j < r.getKeysCount(); j++) {
+			addTag(relation, r.getKeys(j), r.getVals(j));
+		}
+
+		long lastMid = 0;
+		for (int j = 0; j < r.getMemidsCount(); j++) {
+			long mid = lastMid + r.getMemids(j);
+			lastMid = mid;
+			String role = sharedString(r.getRolesSid(j));
+			EntityType t = getType(r.getTypes(j));
+			relation.addMember(mid, t, role);
+		}
+
+		if (fetchMetadata && r.hasInfo()) {
+			convertMetadata(r.getInfo(), relation);
+		}
+
+		return relation;
+	}
+
+	private void convertMetadata(Osmformat.Info info, MutableEntity entity)
+	{
+		boolean visible = true;
+
+		if (info.hasVisible() && !info.getVisible()) {
+			visible = info.getVisible();
+		}
+
+		entity.setMetadata(info.getVersion(), getTimestamp(info),
+				info.getUid(), string(info.getUserSid()), info.getChangeset(),
+				visible);
+	}
+
 	public OsmMetadata convertMetadata(Osmformat.Info info)
 	{
 		boolean visible = true;
@@ -234,7 +477,7 @@ public class PrimParser
 		}
 
 		Metadata metadata = new Metadata(info.getVersion(), getTimestamp(info),
-				info.getUid(), strings[info.getUserSid()], info.getChangeset(),
+				info.getUid(), string(info.getUserSid()), info.getChangeset(),
 				visible);
 		return metadata;
 	}
@@ -299,7 +542,7 @@ public class PrimParser
 					visible = denseInfo.getVisible(i);
 				}
 				metadata = new Metadata(version, timestamp * dateGranularity,
-						uid, strings[userSid], changeset, visible);
+						uid, string(userSid), changeset, visible);
 			}
 
 			// If empty, assume that nothing here has keys or vals.
@@ -307,7 +550,7 @@ public class PrimParser
 				while (nodes.getKeysVals(j) != 0) {
 					int keyid = nodes.getKeysVals(j++);
 					int valid = nodes.getKeysVals(j++);
-					tags.add(new Tag(strings[keyid], strings[valid]));
+					addTag(tags, keyid, valid);
 				}
 				j++; // Skip over the '0' delimiter.
 			}
@@ -365,7 +608,7 @@ public class PrimParser
 					visible = denseInfo.getVisible(i);
 				}
 				metadata = new Metadata(version, timestamp * dateGranularity,
-						uid, strings[userSid], changeset, visible);
+						uid, string(userSid), changeset, visible);
 			}
 
 			// If empty, assume that nothing here has keys or vals.
@@ -373,7 +616,7 @@ public class PrimParser
 				while (nodes.getKeysVals(j) != 0) {
 					int keyid = nodes.getKeysVals(j++);
 					int valid = nodes.getKeysVals(j++);
-					tags.add(new Tag(strings[keyid], strings[valid]));
+					addTag(tags, keyid, valid);
 				}
 				j++; // Skip over the '0' delimiter.
 			}
@@ -384,4 +627,91 @@ public class PrimParser
 		return results;
 	}
 
+	/**
+	 * Create a cursor that converts the specified dense nodes one at a time
+	 * into the reusable node of a set of entities.
+	 */
+	DenseNodeCursor cursor(Osmformat.DenseNodes nodes)
+	{
+		return new DenseNodeCursor(nodes);
+	}
+
+	class DenseNodeCursor
+	{
+
+		private Osmformat.DenseNodes nodes;
+		private Osmformat.DenseInfo denseInfo = null;
+		private boolean hasVisible = false;
+
+		private int i = 0; // Index of the next node
+		private int j = 0; // Index into the keysvals array.
+
+		private long id = 0, lat = 0, lon = 0;
+
+		private int version = 0, uid = 0, userSid = 0;
+		private long timestamp = 0, changeset = 0;
+
+		DenseNodeCursor(Osmformat.DenseNodes nodes)
+		{
+			this.nodes = nodes;
+			if (fetchMetadata && nodes.hasDenseinfo()) {
+				denseInfo = nodes.getDenseinfo();
+				hasVisible = denseInfo.getVisibleCount() != 0;
+			}
+		}
+
+		boolean hasNext()
+		{
+			return i < nodes.getIdCount();
+		}
+
+		OsmNode next(ReusableEntities entities)
+		{
+			id += nodes.getId(i);
+			lat += nodes.getLat(i);
+			lon += nodes.getLon(i);
+
+			MutableNode node = entities.node();
+			node.setId(id);
+			node.setLatitude(Double.NaN);
+			node.setLongitude(Double.NaN);
+
+			if (lat != Integer.MAX_VALUE) {
+				node.setLatitude(parseLat(lat));
+			}
+
+			if (lon != Integer.MAX_VALUE) {
+				node.setLongitude(parseLon(lon));
+			}
+
+			if (denseInfo != null) {
+				version = denseInfo.getVersion(i);
+				timestamp += denseInfo.getTimestamp(i);
+				uid += denseInfo.getUid(i);
+				userSid += denseInfo.getUserSid(i);
+				changeset += denseInfo.getChangeset(i);
+				boolean visible = true;
+				if (hasVisible) {
+					visible = denseInfo.getVisible(i);
+				}
+				node.setMetadata(version, timestamp * dateGranularity, uid,
+						string(userSid), changeset, visible);
+			}
+
+			// If empty, assume that nothing here has keys or vals.
+			if (nodes.getKeysValsCount() > 0) {
+				while (nodes.getKeysVals(j) != 0) {
+					int keyid = nodes.getKeysVals(j++);
+					int valid = nodes.getKeysVals(j++);
+					addTag(node, keyid, valid);
+				}
+				j++; // Skip over the '0' delimiter.
+			}
+
+			i++;
+			return node;
+		}
+
+	}
+
 }
@@ -0,0 +1,38 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.seq;
+
+/**
+ * Selects the tags that are materialized when decoding entities. Tags with
+ * keys that are not accepted are skipped and never converted into tag
+ * objects.
+ * 
+ * The predicate is evaluated once per distinct string of a block's string
+ * table, not once per tag.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public interface TagProjection
+{
+
+	/**
+	 * @return whether tags with the specified key should be retained.
+	 */
+	public boolean acceptKey(String key);
+
+}
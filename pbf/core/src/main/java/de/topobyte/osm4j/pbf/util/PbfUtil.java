@@ -26,7 +26,10 @@ import java.util.zip.Inflater;
 import net.jpountz.lz4.LZ4Factory;
 import net.jpountz.lz4.LZ4FastDecompressor;
 
+import com.github.luben.zstd.Zstd;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.UnsafeByteOperations;
 
 import de.topobyte.osm4j.core.model.iface.OsmBounds;
 import de.topobyte.osm4j.core.model.impl.Bounds;
@@ -41,6 +44,12 @@ public class PbfUtil
 
 	public static Osmformat.HeaderBlock createHeader(String writingProgram,
 			boolean requiresDense, OsmBounds bound)
+	{
+		return createHeader(writingProgram, requiresDense, false, bound);
+	}
+
+	public static Osmformat.HeaderBlock createHeader(String writingProgram,
+			boolean requiresDense, boolean locationsOnWays, OsmBounds bound)
 	{
 		Osmformat.HeaderBlock.Builder headerblock = Osmformat.HeaderBlock
 				.newBuilder();
@@ -60,6 +69,10 @@ public class PbfUtil
 		if (requiresDense) {
 			headerblock.addRequiredFeatures(Constants.FEATURE_DENSE_NODES);
 		}
+		if (locationsOnWays) {
+			headerblock
+					.addOptionalFeatures(Constants.FEATURE_LOCATIONS_ON_WAYS);
+		}
 		return headerblock.build();
 	}
 
@@ -102,13 +115,17 @@ public class PbfUtil
 		byte buf[] = new byte[lengthData];
 		data.readFully(buf);
 
-		Fileformat.Blob blob = Fileformat.Blob.parseFrom(buf);
+		// The buffer is owned by the blob from now on, so let the compressed
+		// data reference it instead of copying it
+		CodedInputStream cis = CodedInputStream.newInstance(buf);
+		cis.enableAliasing(true);
+		Fileformat.Blob blob = Fileformat.Blob.parseFrom(cis);
 		return blob;
 	}
 
 	private static LZ4FastDecompressor lz4Decompressor = null;
 
-	private static void initLz4()
+	private static synchronized void initLz4()
 	{
 		if (lz4Decompressor == null) {
 			LZ4Factory factory = LZ4Factory.fastestInstance();
@@ -116,6 +133,42 @@ public class PbfUtil
 		}
 	}
 
+	/*
+	 * Each thread keeps its own Inflater and a buffer for compressed input, so
+	 * that decompressing a block does not allocate anything beyond the array
+	 * for the uncompressed data.
+	 */
+
+	private static ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>() {
+
+		@Override
+		protected Inflater initialValue()
+		{
+			return new Inflater();
+		}
+
+	};
+
+	private static ThreadLocal<byte[]> inputBuffers = new ThreadLocal<byte[]>() {
+
+		@Override
+		protected byte[] initialValue()
+		{
+			return new byte[0];
+		}
+
+	};
+
+	private static byte[] inputBuffer(int size)
+	{
+		byte[] buffer = inputBuffers.get();
+		if (buffer.length < size) {
+			buffer = new byte[Math.max(size, buffer.length * 3 / 2)];
+			inputBuffers.set(buffer);
+		}
+		return buffer;
+	}
+
 	public static BlockData getBlockData(Fileformat.Blob blob)
 			throws IOException
 	{
@@ -128,26 +181,54 @@ public class PbfUtil
 			compression = Compression.DEFLATE;
 			byte uncompressed[] = new byte[blob.getRawSize()];
 
-			Inflater decompresser = new Inflater();
-			decompresser.setInput(blob.getZlibData().toByteArray());
+			ByteString zlibData = blob.getZlibData();
+			byte[] input = inputBuffer(zlibData.size());
+			zlibData.copyTo(input, 0);
+
+			Inflater decompresser = inflaters.get();
+			decompresser.reset();
+			decompresser.setInput(input, 0, zlibData.size());
 			try {
 				decompresser.inflate(uncompressed);
 			} catch (DataFormatException e) {
 				throw new IOException("Error while decompressing gzipped data",
 						e);
 			}
-			decompresser.end();
 
-			blobData = ByteString.copyFrom(uncompressed);
+			blobData = UnsafeByteOperations.unsafeWrap(uncompressed);
 		} else if (blob.hasLz4Data()) {
 			compression = Compression.LZ4;
 			byte uncompressed[] = new byte[blob.getRawSize()];
 
+			ByteString lz4Data = blob.getLz4Data();
+			byte[] input = inputBuffer(lz4Data.size());
+			lz4Data.copyTo(input, 0);
+
 			initLz4();
-			lz4Decompressor.decompress(blob.getLz4Data().toByteArray(), 0,
-					uncompressed, 0, blob.getRawSize());
+			lz4Decompressor.decompress(input, 0, uncompressed, 0,
+					blob.getRawSize());
+
+			blobData = UnsafeByteOperations.unsafeWrap(uncompressed);
+		} else if (blob.hasZstdData()) {
+			compression = Compression.ZSTD;
+			byte uncompressed[] = new byte[blob.getRawSize()];
+
+			ByteString zstdData = blob.getZstdData();
+			byte[] input = inputBuffer(zstdData.size());
+			zstdData.copyTo(input, 0);
+
+			long length = Zstd.decompressByteArray(uncompressed, 0,
+					uncompressed.length, input, 0, zstdData.size());
+			if (Zstd.isError(length)) {
+				throw new IOException("Error while decompressing zstd data: "
+						+ Zstd.getErrorName(length));
+			}
+			if (length != blob.getRawSize()) {
+				throw new IOException("Corrupt zstd data: expected "
+						+ blob.getRawSize() + " bytes, got " + length);
+			}
 
-			blobData = ByteString.copyFrom(uncompressed);
+			blobData = UnsafeByteOperations.unsafeWrap(uncompressed);
 		} else {
 			throw new IOException("Encountered block without data");
 		}
@@ -0,0 +1,170 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+/**
+ * A bounded, thread-safe cache that maps the UTF-8 encoded bytes of strings
+ * from PBF string tables to decoded {@link String} instances. Strings such as
+ * common tag keys occur in the string table of almost every block of a file,
+ * using a cache they are decoded once and the same instance is shared by all
+ * entities referencing them.
+ * 
+ * Only strings up to a maximum encoded length are cached. Once the cache
+ * holds the maximum number of entries, entries are evicted with a second
+ * chance policy: entries that have not been requested again since they have
+ * been added or since the previous eviction are removed, so that frequently
+ * requested strings stay in the cache while strings that occur only once are
+ * dropped.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class StringCache
+{
+
+	public static final int DEFAULT_MAX_ENTRIES = 1 << 16;
+	public static final int DEFAULT_MAX_LENGTH = 64;
+
+	private static final StringCache SHARED = new StringCache(
+			DEFAULT_MAX_ENTRIES, DEFAULT_MAX_LENGTH);
+
+	/**
+	 * @return a cache instance shared by all parsers that have not been
+	 *         configured with a specific cache.
+	 */
+	public static StringCache getShared()
+	{
+		return SHARED;
+	}
+
+	private static class Entry
+	{
+
+		private final String string;
+		private volatile boolean referenced = false;
+
+		Entry(String string)
+		{
+			this.string = string;
+		}
+
+	}
+
+	private final int maxEntries;
+	private final int maxLength;
+
+	private final ConcurrentHashMap<ByteString, Entry> map;
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * @param maxEntries
+	 *            the maximum number of strings to retain.
+	 * @param maxLength
+	 *            the maximum length in bytes of encoded strings to cache.
+	 */
+	public StringCache(int maxEntries, int maxLength)
+	{
+		this.maxEntries = maxEntries;
+		this.maxLength = maxLength;
+		map = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Get the string encoded by the specified UTF-8 bytes.
+	 */
+	public String get(ByteString bytes)
+	{
+		if (bytes.size() > maxLength) {
+			return bytes.toStringUtf8();
+		}
+
+		Entry entry = map.get(bytes);
+		if (entry != null) {
+			if (!entry.referenced) {
+				entry.referenced = true;
+			}
+			return entry.string;
+		}
+
+		String string = bytes.toStringUtf8();
+
+		if (size.incrementAndGet() > maxEntries) {
+			evict();
+		}
+
+		/*
+		 * The bytes passed in may alias the buffer of a whole decompressed
+		 * block, hence we store a copy in order not to keep that buffer alive.
+		 */
+		ByteString key = UnsafeByteOperations.unsafeWrap(bytes.toByteArray());
+		Entry previous = map.putIfAbsent(key, new Entry(string));
+		if (previous != null) {
+			size.decrementAndGet();
+			return previous.string;
+		}
+		return string;
+	}
+
+	/*
+	 * Remove the entries that have not been requested since the last eviction
+	 * and reset the mark of the others. If all entries have been requested,
+	 * remove entries until the cache is filled to three quarters.
+	 */
+	private synchronized void evict()
+	{
+		if (size.get() <= maxEntries) {
+			// Another thread evicted entries in the meantime
+			return;
+		}
+
+		for (Map.Entry<ByteString, Entry> e : map.entrySet()) {
+			Entry entry = e.getValue();
+			if (entry.referenced) {
+				entry.referenced = false;
+			} else if (map.remove(e.getKey(), entry)) {
+				size.decrementAndGet();
+			}
+		}
+
+		int target = maxEntries - maxEntries / 4;
+		for (Map.Entry<ByteString, Entry> e : map.entrySet()) {
+			if (size.get() <= target) {
+				break;
+			}
+			if (map.remove(e.getKey(), e.getValue())) {
+				size.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Remove all entries from the cache.
+	 */
+	public synchronized void clear()
+	{
+		map.clear();
+		size.set(0);
+	}
+
+}
@@ -0,0 +1,174 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.slimjars.dist.gnu.trove.list.TLongList;
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.pbf.protobuf.Fileformat;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.pbf.seq.PbfWriter;
+import de.topobyte.osm4j.pbf.util.BlobHeader;
+import de.topobyte.osm4j.pbf.util.PbfUtil;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+import de.topobyte.osm4j.testing.model.TestMetadata;
+import de.topobyte.osm4j.testing.model.TestNode;
+import de.topobyte.osm4j.testing.model.TestRelation;
+import de.topobyte.osm4j.testing.model.TestRelationMember;
+import de.topobyte.osm4j.testing.model.TestTag;
+import de.topobyte.osm4j.testing.model.TestWay;
+
+public class TestBlockSize
+{
+
+	private void test(String resource, int blockSize) throws IOException
+	{
+		TestDataSet input = DataSetHelper.read(Util.iterator(resource, true));
+		test(input, blockSize);
+	}
+
+	private void test(TestDataSet input, int blockSize) throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		PbfWriter writer = new PbfWriter(baos, true);
+		writer.setBatchLimit(Integer.MAX_VALUE);
+		writer.setBlockSize(blockSize);
+		DataSetHelper.write(input, writer);
+		writer.complete();
+		byte[] bytes = baos.toByteArray();
+
+		int numBlocks = 0;
+		DataInputStream data = new DataInputStream(
+				new ByteArrayInputStream(bytes));
+		while (true) {
+			try {
+				BlobHeader header = PbfUtil.parseHeader(data);
+				Fileformat.Blob blob = PbfUtil.parseBlock(data,
+						header.getDataLength());
+				if (header.getType().equals(Constants.BLOCK_TYPE_DATA)) {
+					numBlocks++;
+					Assert.assertTrue(blob.getRawSize() <= blockSize);
+				}
+			} catch (EOFException eof) {
+				break;
+			}
+		}
+		Assert.assertTrue(numBlocks > 1);
+
+		OsmIterator iterator = new PbfIterator(new ByteArrayInputStream(bytes),
+				true);
+		TestDataSet output = DataSetHelper.read(iterator);
+
+		Assert.assertTrue("Comparison with input data",
+				DataSetHelper.equals(input, output));
+	}
+
+	@Test
+	public void testWithMetadata() throws IOException
+	{
+		test("data-with-metadata.pbf", 4096);
+	}
+
+	@Test
+	public void testWithoutMetadata() throws IOException
+	{
+		test("data-without-metadata.pbf", 2048);
+	}
+
+	@Test
+	public void testNonAscii() throws IOException
+	{
+		Random random = new Random(1);
+		TestDataSet input = new TestDataSet();
+		long nodeId = 0;
+		for (int i = 0; i < 2000; i++) {
+			nodeId += 1 + random.nextInt(Integer.MAX_VALUE);
+			List<TestTag> tags = new ArrayList<>();
+			tags.add(new TestTag("name", cjk(random, 20)));
+			tags.add(new TestTag("name:ko", hangul(random, 10)));
+			TestMetadata metadata = new TestMetadata(1 + random.nextInt(100),
+					random.nextInt(Integer.MAX_VALUE) * 1000L,
+					random.nextInt(Integer.MAX_VALUE), cjk(random, 8),
+					random.nextInt(Integer.MAX_VALUE));
+			input.getNodes().add(new TestNode(nodeId,
+					random.nextDouble() * 360 - 180,
+					random.nextDouble() * 180 - 90, tags, metadata));
+		}
+		for (int i = 0; i < 200; i++) {
+			TLongList nodes = new TLongArrayList();
+			for (int k = 0; k < 20; k++) {
+				nodes.add(random.nextInt(Integer.MAX_VALUE));
+			}
+			List<TestTag> tags = new ArrayList<>();
+			tags.add(new TestTag("name", cjk(random, 20)));
+			input.getWays().add(new TestWay(i + 1, nodes, tags));
+		}
+		for (int i = 0; i < 50; i++) {
+			List<TestRelationMember> members = new ArrayList<>();
+			for (int k = 0; k < 20; k++) {
+				members.add(new TestRelationMember(
+						random.nextInt(Integer.MAX_VALUE), EntityType.Way,
+						cjk(random, 4)));
+			}
+			input.getRelations().add(new TestRelation(i + 1, members));
+		}
+		test(input, 8192);
+	}
+
+	private static String cjk(Random random, int length)
+	{
+		return string(random, length, 0x4E00, 0x9FFF);
+	}
+
+	private static String hangul(Random random, int length)
+	{
+		return string(random, length, 0xAC00, 0xD7A3);
+	}
+
+	private static String string(Random random, int length, int min, int max)
+	{
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			buffer.append((char) (min + random.nextInt(max - min + 1)));
+		}
+		return buffer.toString();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testExceedsFormatLimit()
+	{
+		PbfWriter writer = new PbfWriter(new ByteArrayOutputStream(), true);
+		writer.setBlockSize(Constants.MAX_BLOCK_SIZE + 1);
+	}
+
+}
@@ -0,0 +1,111 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.access.OsmInputException;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.pbf.raf.PbfFile;
+import de.topobyte.osm4j.pbf.raf.PbfFileIterator;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.pbf.seq.PbfReader;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+
+public class TestEntityTypeSelection
+{
+
+	private String resource = "data-with-metadata.pbf";
+
+	private TestDataSet expected(TestDataSet data, Set<EntityType> types)
+	{
+		TestDataSet result = new TestDataSet(data);
+		if (!types.contains(EntityType.Node)) {
+			result.setNodes(new ArrayList<>());
+		}
+		if (!types.contains(EntityType.Way)) {
+			result.setWays(new ArrayList<>());
+		}
+		if (!types.contains(EntityType.Relation)) {
+			result.setRelations(new ArrayList<>());
+		}
+		return result;
+	}
+
+	private void test(Set<EntityType> types)
+			throws IOException, OsmInputException
+	{
+		TestDataSet data = DataSetHelper.read(Util.iterator(resource, true));
+		TestDataSet expected = expected(data, types);
+
+		PbfIterator iterator = (PbfIterator) Util.iterator(resource, true);
+		iterator.setEntityTypes(types);
+		Assert.assertTrue(DataSetHelper.equals(expected,
+				DataSetHelper.read(iterator)));
+
+		PbfIterator parallel = (PbfIterator) Util.iterator(resource, true, 2);
+		parallel.setEntityTypes(types);
+		Assert.assertTrue(DataSetHelper.equals(expected,
+				DataSetHelper.read(parallel)));
+
+		PbfReader reader = Util.reader(resource, true);
+		reader.setEntityTypes(types);
+		Assert.assertTrue(DataSetHelper.equals(expected,
+				DataSetHelper.read(reader)));
+
+		File file = Util.writeWithSmallBlocks(resource, 40);
+		PbfFile pbfFile = new PbfFile(file);
+		PbfFileIterator fileIterator = PbfFileIterator.forTypes(pbfFile, true,
+				types);
+		Assert.assertTrue(DataSetHelper.equals(expected,
+				DataSetHelper.read(fileIterator)));
+	}
+
+	@Test
+	public void testNodes() throws IOException, OsmInputException
+	{
+		test(EnumSet.of(EntityType.Node));
+	}
+
+	@Test
+	public void testWays() throws IOException, OsmInputException
+	{
+		test(EnumSet.of(EntityType.Way));
+	}
+
+	@Test
+	public void testRelations() throws IOException, OsmInputException
+	{
+		test(EnumSet.of(EntityType.Relation));
+	}
+
+	@Test
+	public void testNodesAndRelations() throws IOException, OsmInputException
+	{
+		test(EnumSet.of(EntityType.Node, EntityType.Relation));
+	}
+
+}
@@ -0,0 +1,101 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.access.OsmIdIterator;
+import de.topobyte.osm4j.core.access.OsmInputException;
+import de.topobyte.osm4j.core.access.wrapper.OsmElementCounterIteratorAdapter;
+import de.topobyte.osm4j.core.access.wrapper.OsmIdIteratorAdapter;
+import de.topobyte.osm4j.core.model.iface.IdContainer;
+import de.topobyte.osm4j.pbf.seq.PbfElementCounter;
+import de.topobyte.osm4j.pbf.seq.PbfIdIterator;
+
+public class TestIdIteratorAndCounter
+{
+
+	private List<String> ids(OsmIdIterator iterator)
+	{
+		List<String> ids = new ArrayList<>();
+		for (IdContainer container : iterator) {
+			ids.add(container.getType() + ":" + container.getId());
+		}
+		return ids;
+	}
+
+	private InputStream open(String resource)
+	{
+		return Thread.currentThread().getContextClassLoader()
+				.getResourceAsStream(resource);
+	}
+
+	private void test(String resource) throws IOException, OsmInputException
+	{
+		OsmIdIterator expectedIds = new OsmIdIteratorAdapter(
+				Util.iterator(resource, false));
+		PbfIdIterator ids = new PbfIdIterator(open(resource));
+		Assert.assertEquals(expectedIds.hasBounds(), ids.hasBounds());
+		Assert.assertEquals(ids(expectedIds), ids(ids));
+
+		OsmElementCounterIteratorAdapter expectedCounts = new OsmElementCounterIteratorAdapter(
+				Util.iterator(resource, false));
+		expectedCounts.count();
+		PbfElementCounter counter = new PbfElementCounter(open(resource));
+		counter.count();
+		Assert.assertEquals(expectedCounts.getNumberOfNodes(),
+				counter.getNumberOfNodes());
+		Assert.assertEquals(expectedCounts.getNumberOfWays(),
+				counter.getNumberOfWays());
+		Assert.assertEquals(expectedCounts.getNumberOfRelations(),
+				counter.getNumberOfRelations());
+	}
+
+	@Test
+	public void testWithMetadata() throws IOException, OsmInputException
+	{
+		test("data-with-metadata.pbf");
+	}
+
+	@Test
+	public void testWithoutMetadata() throws IOException, OsmInputException
+	{
+		test("data-without-metadata.pbf");
+	}
+
+	@Test
+	public void testSmallBlocks() throws IOException, OsmInputException
+	{
+		File file = Util.writeWithSmallBlocks("data-with-metadata.pbf", 40);
+
+		List<String> expected = ids(new OsmIdIteratorAdapter(
+				Util.iterator("data-with-metadata.pbf", false)));
+		try (InputStream input = new FileInputStream(file)) {
+			Assert.assertEquals(expected, ids(new PbfIdIterator(input)));
+		}
+	}
+
+}
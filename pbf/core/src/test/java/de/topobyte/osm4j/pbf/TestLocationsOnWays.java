@@ -0,0 +1,131 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.core.dataset.InMemoryMapDataSet;
+import de.topobyte.osm4j.core.dataset.MapDataSetLoader;
+import de.topobyte.osm4j.core.model.iface.EntityContainer;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmLocatedWay;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.pbf.protobuf.Fileformat;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.pbf.seq.PbfWriter;
+import de.topobyte.osm4j.pbf.util.BlobHeader;
+import de.topobyte.osm4j.pbf.util.PbfUtil;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+import de.topobyte.osm4j.testing.model.TestWay;
+
+public class TestLocationsOnWays
+{
+
+	private byte[] write(TestDataSet data, InMemoryMapDataSet locations)
+			throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		PbfWriter writer = new PbfWriter(baos, true);
+		writer.setLocationsOnWays(true);
+		writer.setNodeLocations(locations);
+		DataSetHelper.write(data, writer);
+		writer.complete();
+		return baos.toByteArray();
+	}
+
+	private void checkLocations(OsmIterator iterator,
+			InMemoryMapDataSet locations) throws EntityNotFoundException
+	{
+		int numWays = 0;
+		for (EntityContainer container : iterator) {
+			if (container.getType() != EntityType.Way) {
+				continue;
+			}
+			numWays++;
+			OsmWay way = (OsmWay) container.getEntity();
+			Assert.assertTrue(way instanceof OsmLocatedWay);
+			OsmLocatedWay located = (OsmLocatedWay) way;
+			for (int i = 0; i < way.getNumberOfNodes(); i++) {
+				OsmNode node = locations.getNode(way.getNodeId(i));
+				Assert.assertEquals(node.getLongitude(),
+						located.getLongitude(i), 1e-7);
+				Assert.assertEquals(node.getLatitude(),
+						located.getLatitude(i), 1e-7);
+			}
+		}
+		Assert.assertTrue(numWays > 0);
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException, EntityNotFoundException
+	{
+		String resource = "data-with-metadata.pbf";
+		TestDataSet input = DataSetHelper.read(Util.iterator(resource, true));
+		InMemoryMapDataSet locations = MapDataSetLoader
+				.read(Util.iterator(resource, true), false, false, false);
+
+		byte[] bytes = write(input, locations);
+
+		DataInputStream data = new DataInputStream(
+				new ByteArrayInputStream(bytes));
+		BlobHeader header = PbfUtil.parseHeader(data);
+		Assert.assertEquals(Constants.BLOCK_TYPE_HEADER, header.getType());
+		Fileformat.Blob blob = PbfUtil.parseBlock(data,
+				header.getDataLength());
+		Osmformat.HeaderBlock headerBlock = Osmformat.HeaderBlock
+				.parseFrom(PbfUtil.getBlockData(blob).getBlobData());
+		Assert.assertTrue(headerBlock.getOptionalFeaturesList()
+				.contains(Constants.FEATURE_LOCATIONS_ON_WAYS));
+
+		checkLocations(new PbfIterator(new ByteArrayInputStream(bytes), true),
+				locations);
+
+		PbfIterator reusing = new PbfIterator(new ByteArrayInputStream(bytes),
+				true);
+		reusing.setReuseEntities(true);
+		checkLocations(reusing, locations);
+
+		TestDataSet output = DataSetHelper
+				.read(new PbfIterator(new ByteArrayInputStream(bytes), true));
+		Assert.assertTrue("Comparison with input data",
+				DataSetHelper.equals(input, output));
+	}
+
+	@Test(expected = IOException.class)
+	public void testMissingNode() throws IOException
+	{
+		TestDataSet input = new TestDataSet();
+		input.getWays()
+				.add(new TestWay(1, new TLongArrayList(new long[] { 1, 2 })));
+		write(input, new InMemoryMapDataSet());
+	}
+
+}
@@ -0,0 +1,126 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.pbf.raf.BlockIndex;
+import de.topobyte.osm4j.pbf.raf.IndexedBlockInfo;
+import de.topobyte.osm4j.pbf.raf.MappedPbfFile;
+import de.topobyte.osm4j.pbf.raf.PbfFile;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+
+public class TestMappedPbfFile
+{
+
+	private File createFile() throws IOException
+	{
+		return Util.writeWithSmallBlocks("data-with-metadata.pbf", 50);
+	}
+
+	@Test
+	public void testBlocks() throws IOException
+	{
+		File file = createFile();
+
+		PbfFile pbfFile = new PbfFile(file);
+		pbfFile.buildBlockIndex();
+
+		try (MappedPbfFile mapped = new MappedPbfFile(file)) {
+			Assert.assertFalse(mapped.isIndexLoadedFromSidecar());
+			Assert.assertTrue(mapped.hasHeader());
+			Assert.assertEquals(pbfFile.getNumberOfDataBlocks(),
+					mapped.getNumberOfDataBlocks());
+			Assert.assertTrue(mapped.getNumberOfDataBlocks() > 1);
+
+			for (int i = 0; i < mapped.getNumberOfDataBlocks(); i++) {
+				Assert.assertEquals(pbfFile.getDataBlock(i),
+						mapped.getDataBlock(i));
+
+				IndexedBlockInfo info = mapped.getDataBlockInfo(i);
+				Assert.assertEquals(pbfFile.getDataBlockInfo(i).getPosition(),
+						info.getPosition());
+				ByteBuffer raw = mapped.getRawDataBlockWithHeader(i);
+				Assert.assertEquals(4 + info.getLengthHeader()
+						+ info.getLengthData(), raw.remaining());
+				Assert.assertEquals(info.getLengthHeader(), raw.getInt());
+			}
+
+			Assert.assertEquals(pbfFile.getHeaderBlock(),
+					mapped.getHeaderBlock());
+		}
+	}
+
+	@Test
+	public void testIndexEntries() throws IOException
+	{
+		File file = createFile();
+
+		TestDataSet data = DataSetHelper.read(Util.iterator(
+				"data-with-metadata.pbf", true));
+
+		try (MappedPbfFile mapped = new MappedPbfFile(file)) {
+			IndexedBlockInfo first = mapped.getDataBlockInfo(0);
+			Assert.assertEquals(EntityType.Node, first.getFirstType());
+			Assert.assertEquals(data.getNodes().get(0).getId(),
+					first.getFirstId());
+
+			int n = mapped.getNumberOfDataBlocks();
+			IndexedBlockInfo last = mapped.getDataBlockInfo(n - 1);
+			Assert.assertEquals(EntityType.Relation, last.getLastType());
+			Assert.assertEquals(
+					data.getRelations().get(data.getRelations().size() - 1)
+							.getId(), last.getLastId());
+		}
+	}
+
+	@Test
+	public void testSidecar() throws IOException
+	{
+		File file = createFile();
+
+		try (MappedPbfFile mapped = new MappedPbfFile(file)) {
+			Assert.assertFalse(mapped.isIndexLoadedFromSidecar());
+		}
+		Assert.assertTrue(BlockIndex.sidecarFor(file).exists());
+
+		int numBlocks;
+		try (MappedPbfFile mapped = new MappedPbfFile(file)) {
+			Assert.assertTrue(mapped.isIndexLoadedFromSidecar());
+			numBlocks = mapped.getNumberOfDataBlocks();
+		}
+
+		// A changed file invalidates the sidecar
+		file.setLastModified(file.lastModified() - 10000);
+		try (MappedPbfFile mapped = new MappedPbfFile(file)) {
+			Assert.assertFalse(mapped.isIndexLoadedFromSidecar());
+			Assert.assertEquals(numBlocks, mapped.getNumberOfDataBlocks());
+		}
+		try (MappedPbfFile mapped = new MappedPbfFile(file)) {
+			Assert.assertTrue(mapped.isIndexLoadedFromSidecar());
+		}
+	}
+
+}
@@ -0,0 +1,219 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.slimjars.dist.gnu.trove.set.hash.TLongHashSet;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmBounds;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+import de.topobyte.osm4j.core.model.impl.Bounds;
+import de.topobyte.osm4j.pbf.raf.BlockIndex;
+import de.topobyte.osm4j.pbf.raf.NodeBoundsIndex;
+import de.topobyte.osm4j.pbf.raf.PbfBboxFilter;
+import de.topobyte.osm4j.pbf.raf.PbfFile;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.pbf.seq.PbfWriter;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+import de.topobyte.osm4j.testing.model.TestNode;
+import de.topobyte.osm4j.testing.model.TestRelation;
+import de.topobyte.osm4j.testing.model.TestWay;
+
+public class TestPbfBboxFilter
+{
+
+	private String resource = "data-with-metadata.pbf";
+
+	private TestDataSet expected(TestDataSet data, OsmBounds bbox)
+	{
+		TestDataSet result = new TestDataSet();
+		TLongHashSet nodeIds = new TLongHashSet();
+		TLongHashSet wayIds = new TLongHashSet();
+		for (TestNode node : data.getNodes()) {
+			if (node.getLongitude() >= bbox.getLeft()
+					&& node.getLongitude() <= bbox.getRight()
+					&& node.getLatitude() >= bbox.getBottom()
+					&& node.getLatitude() <= bbox.getTop()) {
+				nodeIds.add(node.getId());
+				result.getNodes().add(node);
+			}
+		}
+		for (TestWay way : data.getWays()) {
+			for (int i = 0; i < way.getNumberOfNodes(); i++) {
+				if (nodeIds.contains(way.getNodeId(i))) {
+					wayIds.add(way.getId());
+					result.getWays().add(way);
+					break;
+				}
+			}
+		}
+		for (TestRelation relation : data.getRelations()) {
+			for (int i = 0; i < relation.getNumberOfMembers(); i++) {
+				OsmRelationMember member = relation.getMember(i);
+				if (member.getType() == EntityType.Node
+						&& nodeIds.contains(member.getId())
+						|| member.getType() == EntityType.Way
+						&& wayIds.contains(member.getId())) {
+					result.getRelations().add(relation);
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	private PbfBboxFilter test(OsmBounds bbox) throws IOException
+	{
+		TestDataSet data = DataSetHelper.read(Util.iterator(resource, true));
+		File file = Util.writeWithSmallBlocks(resource, 20);
+		return test(data, file, bbox);
+	}
+
+	private PbfBboxFilter test(TestDataSet data, File file, OsmBounds bbox)
+			throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		PbfWriter writer = new PbfWriter(baos, true);
+		PbfBboxFilter filter = PbfBboxFilter.create(file, writer, bbox, false,
+				true);
+		filter.run();
+
+		TestDataSet result = DataSetHelper.read(new PbfIterator(
+				new ByteArrayInputStream(baos.toByteArray()), true));
+		Assert.assertTrue(DataSetHelper.equals(expected(data, bbox), result));
+		return filter;
+	}
+
+	private OsmBounds dataBounds() throws IOException
+	{
+		TestDataSet data = DataSetHelper.read(Util.iterator(resource, true));
+		double left = 180, right = -180, top = -90, bottom = 90;
+		for (TestNode node : data.getNodes()) {
+			left = Math.min(left, node.getLongitude());
+			right = Math.max(right, node.getLongitude());
+			bottom = Math.min(bottom, node.getLatitude());
+			top = Math.max(top, node.getLatitude());
+		}
+		return new Bounds(left, right, top, bottom);
+	}
+
+	@Test
+	public void testPartial() throws IOException
+	{
+		OsmBounds bounds = dataBounds();
+		double midLon = (bounds.getLeft() + bounds.getRight()) / 2;
+		double midLat = (bounds.getBottom() + bounds.getTop()) / 2;
+		test(new Bounds(bounds.getLeft(), midLon, midLat, bounds.getBottom()));
+	}
+
+	@Test
+	public void testEverything() throws IOException
+	{
+		PbfBboxFilter filter = test(new Bounds(-180, 180, 90, -90));
+		Assert.assertTrue(filter.getNumberOfBlocksCopied() > 0);
+		Assert.assertEquals(0, filter.getNumberOfBlocksSkipped());
+	}
+
+	@Test
+	public void testUnsorted() throws IOException
+	{
+		// Nodes in descending order, so that copied blocks have to be decoded
+		TestDataSet data = DataSetHelper.read(Util.iterator(resource, true));
+		Collections.reverse(data.getNodes());
+
+		File file = File.createTempFile("osm4j-test", ".pbf");
+		file.deleteOnExit();
+		BlockIndex.sidecarFor(file).deleteOnExit();
+		NodeBoundsIndex.sidecarFor(file).deleteOnExit();
+		try (OutputStream output = new FileOutputStream(file)) {
+			PbfWriter writer = new PbfWriter(output, true);
+			writer.setBatchLimit(20);
+			DataSetHelper.write(data, writer);
+			writer.complete();
+		}
+
+		PbfBboxFilter filter = test(data, file,
+				new Bounds(-180, 180, 90, -90));
+		Assert.assertTrue(filter.getNumberOfBlocksCopied() > 0);
+	}
+
+	@Test
+	public void testNothing() throws IOException
+	{
+		OsmBounds bounds = dataBounds();
+		double lon = bounds.getRight() + 1;
+		double lat = bounds.getTop() + 1;
+		PbfBboxFilter filter = test(new Bounds(lon, lon + 1, lat + 1, lat));
+		Assert.assertTrue(filter.getNumberOfBlocksSkipped() > 0);
+		Assert.assertEquals(0, filter.getNumberOfBlocksCopied());
+	}
+
+	@Test
+	public void testMissingCoordinates() throws IOException
+	{
+		String resource = "data-with-missing-coordinates.pbf";
+		File file = File.createTempFile("osm4j-test", ".pbf");
+		file.deleteOnExit();
+		try (InputStream input = Thread.currentThread()
+				.getContextClassLoader().getResourceAsStream(resource)) {
+			Files.copy(input, file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		TestDataSet data = DataSetHelper.read(Util.iterator(resource, true));
+		double left = 180, right = -180, top = -90, bottom = 90;
+		for (TestNode node : data.getNodes()) {
+			if (Double.isNaN(node.getLongitude())
+					|| Double.isNaN(node.getLatitude())) {
+				continue;
+			}
+			left = Math.min(left, node.getLongitude());
+			right = Math.max(right, node.getLongitude());
+			bottom = Math.min(bottom, node.getLatitude());
+			top = Math.max(top, node.getLatitude());
+		}
+
+		NodeBoundsIndex index = NodeBoundsIndex.compute(new PbfFile(file),
+				file.length(), file.lastModified());
+		for (int i = 0; i < index.getNumberOfDataBlocks(); i++) {
+			if (!index.hasNodes(i)) {
+				continue;
+			}
+			Assert.assertTrue(index.getMinLon(i) >= left);
+			Assert.assertTrue(index.getMaxLon(i) <= right);
+			Assert.assertTrue(index.getMinLat(i) >= bottom);
+			Assert.assertTrue(index.getMaxLat(i) <= top);
+		}
+	}
+
+}
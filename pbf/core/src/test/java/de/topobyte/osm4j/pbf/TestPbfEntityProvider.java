@@ -0,0 +1,77 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.pbf.raf.MappedPbfFile;
+import de.topobyte.osm4j.pbf.raf.PbfEntityProvider;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+
+public class TestPbfEntityProvider
+{
+
+	@Test
+	public void test() throws IOException, EntityNotFoundException
+	{
+		String resource = "data-with-metadata.pbf";
+		TestDataSet data = DataSetHelper.read(Util.iterator(resource, true));
+
+		File file = Util.writeWithSmallBlocks(resource, 30);
+
+		try (MappedPbfFile mapped = new MappedPbfFile(file)) {
+			PbfEntityProvider provider = new PbfEntityProvider(mapped, true, 2);
+
+			for (OsmNode node : data.getNodes()) {
+				Assert.assertTrue(DataSetHelper.equals(node,
+						provider.getNode(node.getId())));
+			}
+			for (OsmWay way : data.getWays()) {
+				Assert.assertTrue(DataSetHelper.equals(way,
+						provider.getWay(way.getId())));
+			}
+			for (OsmRelation relation : data.getRelations()) {
+				Assert.assertTrue(DataSetHelper.equals(relation,
+						provider.getRelation(relation.getId())));
+			}
+
+			assertMissingNode(provider, data.getNodes().get(0).getId() - 1);
+			assertMissingNode(provider, Long.MAX_VALUE);
+		}
+	}
+
+	private void assertMissingNode(PbfEntityProvider provider, long id)
+	{
+		try {
+			provider.getNode(id);
+			Assert.fail("node should not be found: " + id);
+		} catch (EntityNotFoundException e) {
+			// expected
+		}
+	}
+
+}
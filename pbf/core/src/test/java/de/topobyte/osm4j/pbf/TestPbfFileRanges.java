@@ -0,0 +1,106 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.pbf.raf.Interval;
+import de.topobyte.osm4j.pbf.raf.PbfFile;
+import de.topobyte.osm4j.pbf.raf.PbfFileRanges;
+import de.topobyte.osm4j.pbf.seq.PbfConcatenator;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.pbf.seq.PbfWriter;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+
+public class TestPbfFileRanges
+{
+
+	private String resource = "data-with-metadata.pbf";
+
+	private void test(boolean byType, int n) throws IOException
+	{
+		TestDataSet input = DataSetHelper.read(Util.iterator(resource, true));
+		File file = Util.writeWithSmallBlocks(resource, 20);
+
+		PbfFile pbfFile = new PbfFile(file);
+		List<Interval> ranges = byType ? PbfFileRanges.splitByType(pbfFile,
+				n) : PbfFileRanges.split(pbfFile, n);
+
+		Assert.assertTrue(ranges.size() >= Math.min(n,
+				pbfFile.getNumberOfDataBlocks()));
+		int next = 0;
+		for (Interval range : ranges) {
+			Assert.assertEquals(next, range.getStart());
+			Assert.assertTrue(range.getEnd() >= range.getStart());
+			next = range.getEnd() + 1;
+		}
+		Assert.assertEquals(pbfFile.getNumberOfDataBlocks(), next);
+
+		// Process each range with a separate instance and join the results
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		PbfConcatenator concatenator = new PbfConcatenator(baos);
+		for (Interval range : ranges) {
+			PbfFile rangeFile = new PbfFile(file);
+			rangeFile.copyBlockIndex(pbfFile);
+			OsmIterator iterator = PbfFileRanges.iterator(rangeFile, range,
+					true);
+			Assert.assertTrue(iterator.hasBounds());
+
+			ByteArrayOutputStream rangeOutput = new ByteArrayOutputStream();
+			PbfWriter writer = new PbfWriter(rangeOutput, true);
+			DataSetHelper.write(DataSetHelper.read(iterator), writer);
+			writer.complete();
+
+			concatenator.append(new ByteArrayInputStream(
+					rangeOutput.toByteArray()));
+		}
+
+		TestDataSet output = DataSetHelper.read(new PbfIterator(
+				new ByteArrayInputStream(baos.toByteArray()), true));
+		Assert.assertTrue("Comparison with input data",
+				DataSetHelper.equals(input, output));
+
+		file.delete();
+	}
+
+	@Test
+	public void testSplit() throws IOException
+	{
+		test(false, 1);
+		test(false, 4);
+		test(false, 10000);
+	}
+
+	@Test
+	public void testSplitByType() throws IOException
+	{
+		test(true, 1);
+		test(true, 5);
+		test(true, 10000);
+	}
+
+}
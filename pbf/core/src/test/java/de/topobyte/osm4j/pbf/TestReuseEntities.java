@@ -0,0 +1,86 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+
+public class TestReuseEntities
+{
+
+	private PbfIterator iterator(String resource, boolean fetchMetadata,
+			int numThreads) throws IOException
+	{
+		PbfIterator iterator = (PbfIterator) Util.iterator(resource,
+				fetchMetadata, numThreads);
+		iterator.setReuseEntities(true);
+		return iterator;
+	}
+
+	private void test(String resource, boolean fetchMetadata, int numThreads)
+			throws IOException
+	{
+		TestDataSet expected = DataSetHelper
+				.read(Util.iterator(resource, fetchMetadata));
+
+		PbfIterator iterator = iterator(resource, fetchMetadata, numThreads);
+		Assert.assertTrue(DataSetHelper.equals(expected,
+				DataSetHelper.read(iterator)));
+
+		iterator = iterator(resource, fetchMetadata, numThreads);
+		Assert.assertTrue(DataSetHelper.equals(expected,
+				DataSetHelper.readCopies(iterator)));
+
+		iterator = iterator(resource, fetchMetadata, numThreads);
+		Assert.assertSame(iterator.next(), iterator.next());
+		iterator.close();
+	}
+
+	@Test
+	public void testWithMetadata() throws IOException
+	{
+		test("data-with-metadata.pbf", true, 1);
+	}
+
+	@Test
+	public void testWithoutMetadata() throws IOException
+	{
+		test("data-with-metadata.pbf", false, 1);
+		test("data-without-metadata.pbf", false, 1);
+	}
+
+	@Test
+	public void testMissingCoordinates() throws IOException
+	{
+		test("data-with-missing-coordinates.pbf", true, 1);
+	}
+
+	@Test
+	public void testParallel() throws IOException
+	{
+		test("data-with-metadata.pbf", true, 2);
+		test("data-with-metadata.pbf", false, 3);
+	}
+
+}
@@ -0,0 +1,74 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.protobuf.ByteString;
+
+import de.topobyte.osm4j.pbf.util.StringCache;
+
+public class TestStringCache
+{
+
+	@Test
+	public void testSameInstance()
+	{
+		StringCache cache = new StringCache(16, 8);
+		String a = cache.get(ByteString.copyFromUtf8("highway"));
+		String b = cache.get(ByteString.copyFromUtf8("highway"));
+		Assert.assertEquals("highway", a);
+		Assert.assertSame(a, b);
+	}
+
+	@Test
+	public void testLongStringsNotCached()
+	{
+		StringCache cache = new StringCache(16, 8);
+		String a = cache.get(ByteString.copyFromUtf8("addr:housenumber"));
+		String b = cache.get(ByteString.copyFromUtf8("addr:housenumber"));
+		Assert.assertEquals(a, b);
+		Assert.assertNotSame(a, b);
+	}
+
+	@Test
+	public void testBounded()
+	{
+		StringCache cache = new StringCache(4, 8);
+		String a = cache.get(ByteString.copyFromUtf8("a"));
+		for (int i = 0; i < 4; i++) {
+			cache.get(ByteString.copyFromUtf8("k" + i));
+		}
+		String b = cache.get(ByteString.copyFromUtf8("a"));
+		Assert.assertEquals(a, b);
+		Assert.assertNotSame(a, b);
+	}
+
+	@Test
+	public void testFrequentStringsRetained()
+	{
+		StringCache cache = new StringCache(4, 8);
+		String a = cache.get(ByteString.copyFromUtf8("a"));
+		for (int i = 0; i < 100; i++) {
+			Assert.assertSame(a, cache.get(ByteString.copyFromUtf8("a")));
+			cache.get(ByteString.copyFromUtf8("k" + i));
+		}
+	}
+
+}
@@ -0,0 +1,123 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.access.OsmInputException;
+import de.topobyte.osm4j.pbf.raf.Interval;
+import de.topobyte.osm4j.pbf.raf.PbfFile;
+import de.topobyte.osm4j.pbf.raf.PbfFileIterator;
+import de.topobyte.osm4j.pbf.seq.KeyWhitelistProjection;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.pbf.seq.PbfReader;
+import de.topobyte.osm4j.pbf.seq.TagProjection;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+import de.topobyte.osm4j.testing.model.TestEntity;
+import de.topobyte.osm4j.testing.model.TestTag;
+
+public class TestTagProjection
+{
+
+	private String resource = "data-with-metadata.pbf";
+
+	private TagProjection projection = new KeyWhitelistProjection("name",
+			"amenity");
+
+	private int project(List<? extends TestEntity> entities)
+	{
+		int count = 0;
+		for (TestEntity entity : entities) {
+			List<TestTag> tags = new ArrayList<>();
+			for (TestTag tag : entity.getTags()) {
+				if (projection.acceptKey(tag.getKey())) {
+					tags.add(tag);
+				}
+			}
+			entity.setTags(tags);
+			count += tags.size();
+		}
+		return count;
+	}
+
+	private TestDataSet expected() throws IOException
+	{
+		TestDataSet data = DataSetHelper.read(Util.iterator(resource, true));
+		int count = project(data.getNodes()) + project(data.getWays())
+				+ project(data.getRelations());
+		Assert.assertTrue(count > 0);
+		return data;
+	}
+
+	@Test
+	public void testIterator() throws IOException
+	{
+		PbfIterator iterator = (PbfIterator) Util.iterator(resource, true);
+		iterator.setTagProjection(projection);
+		Assert.assertTrue(DataSetHelper.equals(expected(),
+				DataSetHelper.read(iterator)));
+	}
+
+	@Test
+	public void testParallelIterator() throws IOException
+	{
+		PbfIterator iterator = (PbfIterator) Util.iterator(resource, true, 2);
+		iterator.setTagProjection(projection);
+		Assert.assertTrue(DataSetHelper.equals(expected(),
+				DataSetHelper.read(iterator)));
+	}
+
+	@Test
+	public void testReader() throws IOException, OsmInputException
+	{
+		PbfReader reader = Util.reader(resource, true);
+		reader.setTagProjection(projection);
+		Assert.assertTrue(DataSetHelper.equals(expected(),
+				DataSetHelper.read(reader)));
+	}
+
+	@Test
+	public void testParallelReader() throws IOException, OsmInputException
+	{
+		PbfReader reader = Util.reader(resource, true, 2);
+		reader.setTagProjection(projection);
+		Assert.assertTrue(DataSetHelper.equals(expected(),
+				DataSetHelper.read(reader)));
+	}
+
+	@Test
+	public void testFileIterator() throws IOException
+	{
+		File file = Util.writeWithSmallBlocks(resource, 40);
+		PbfFile pbfFile = new PbfFile(file);
+		pbfFile.buildBlockIndex();
+		PbfFileIterator iterator = new PbfFileIterator(pbfFile, true,
+				new Interval(0, pbfFile.getNumberOfDataBlocks() - 1));
+		iterator.setTagProjection(projection);
+		Assert.assertTrue(DataSetHelper.equals(expected(),
+				DataSetHelper.read(iterator)));
+	}
+
+}
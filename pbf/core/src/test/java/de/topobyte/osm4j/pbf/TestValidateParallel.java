@@ -0,0 +1,106 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.access.OsmInputException;
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.pbf.seq.PbfReader;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+
+public class TestValidateParallel extends TestValidateData
+{
+
+	public TestValidateParallel()
+	{
+		super("data-with-metadata.pbf", "data-with-metadata.osm", true);
+	}
+
+	private void validateUsingIterator(int numThreads) throws IOException
+	{
+		TestDataSet xmlData = xmlData(resourceXML, fetchMetadata);
+
+		OsmIterator iterator = Util.iterator(resourcePBF, fetchMetadata,
+				numThreads);
+		TestDataSet pbfData = DataSetHelper.read(iterator);
+
+		Assert.assertNotNull(pbfData.getBounds());
+		boolean equals = DataSetHelper.equals(xmlData, pbfData);
+		Assert.assertTrue("Comparison with XML data", equals);
+	}
+
+	private void validateUsingReader(int numThreads)
+			throws IOException, OsmInputException
+	{
+		TestDataSet xmlData = xmlData(resourceXML, fetchMetadata);
+
+		PbfReader reader = Util.reader(resourcePBF, fetchMetadata, numThreads);
+		TestDataSet pbfData = DataSetHelper.read(reader);
+
+		boolean equals = DataSetHelper.equals(xmlData, pbfData);
+		Assert.assertTrue("Comparison with XML data", equals);
+	}
+
+	@Test
+	public void testIterator() throws IOException
+	{
+		validateUsingIterator(2);
+		validateUsingIterator(4);
+	}
+
+	@Test
+	public void testReader() throws IOException, OsmInputException
+	{
+		validateUsingReader(2);
+		validateUsingReader(4);
+	}
+
+	// A negative header length that makes parsing fail with an unchecked
+	// exception
+	private static InputStream corruptInput()
+	{
+		byte[] bytes = new byte[] { (byte) 0xff, (byte) 0xff, (byte) 0xff,
+				(byte) 0xf0 };
+		return new ByteArrayInputStream(bytes);
+	}
+
+	@Test(timeout = 10000, expected = RuntimeException.class)
+	public void testIteratorCorruptInput()
+	{
+		OsmIterator iterator = new PbfIterator(corruptInput(), true, 4);
+		while (iterator.hasNext()) {
+			iterator.next();
+		}
+	}
+
+	@Test(timeout = 10000, expected = OsmInputException.class)
+	public void testReaderCorruptInput() throws OsmInputException
+	{
+		PbfReader reader = new PbfReader(corruptInput(), true, 4);
+		reader.read();
+	}
+
+}
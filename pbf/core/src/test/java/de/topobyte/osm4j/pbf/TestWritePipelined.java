@@ -0,0 +1,76 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.pbf.seq.PbfWriter;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+
+public class TestWritePipelined
+{
+
+	private void test(String resource, Compression compression,
+			int numThreads, int batchLimit) throws IOException
+	{
+		TestDataSet input = DataSetHelper.read(Util.iterator(resource, true));
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		PbfWriter writer = new PbfWriter(baos, true);
+		writer.setCompression(compression);
+		writer.setBatchLimit(batchLimit);
+		writer.setNumThreads(numThreads);
+		writer.setMaxBlocksInFlight(numThreads);
+		DataSetHelper.write(input, writer);
+		writer.complete();
+
+		OsmIterator iterator = new PbfIterator(
+				new ByteArrayInputStream(baos.toByteArray()), true);
+		TestDataSet output = DataSetHelper.read(iterator);
+
+		Assert.assertTrue("Comparison with input data",
+				DataSetHelper.equals(input, output));
+	}
+
+	@Test
+	public void testDeflate() throws IOException
+	{
+		test("data-with-metadata.pbf", Compression.DEFLATE, 4, 7);
+	}
+
+	@Test
+	public void testLz4() throws IOException
+	{
+		test("data-with-metadata.pbf", Compression.LZ4, 2, 13);
+	}
+
+	@Test
+	public void testNone() throws IOException
+	{
+		test("data-with-metadata.pbf", Compression.NONE, 3, 100);
+	}
+
+}
@@ -0,0 +1,113 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.luben.zstd.Zstd;
+import com.google.protobuf.ByteString;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.pbf.protobuf.Fileformat;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.pbf.seq.PbfWriter;
+import de.topobyte.osm4j.pbf.util.BlobHeader;
+import de.topobyte.osm4j.pbf.util.PbfUtil;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
+
+public class TestZstd
+{
+
+	private void test(String resource, int level, int numThreads)
+			throws IOException
+	{
+		TestDataSet input = DataSetHelper.read(Util.iterator(resource, true));
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		PbfWriter writer = new PbfWriter(baos, true);
+		writer.setCompression(Compression.ZSTD);
+		writer.setZstdLevel(level);
+		writer.setBatchLimit(50);
+		writer.setNumThreads(numThreads);
+		DataSetHelper.write(input, writer);
+		writer.complete();
+		byte[] bytes = baos.toByteArray();
+
+		int numBlocks = 0;
+		DataInputStream data = new DataInputStream(
+				new ByteArrayInputStream(bytes));
+		while (true) {
+			try {
+				BlobHeader header = PbfUtil.parseHeader(data);
+				Fileformat.Blob blob = PbfUtil.parseBlock(data,
+						header.getDataLength());
+				Assert.assertTrue(blob.hasZstdData());
+				Assert.assertEquals(Compression.ZSTD,
+						PbfUtil.getBlockData(blob).getCompression());
+				numBlocks++;
+			} catch (EOFException eof) {
+				break;
+			}
+		}
+		Assert.assertTrue(numBlocks > 1);
+
+		OsmIterator iterator = new PbfIterator(new ByteArrayInputStream(bytes),
+				true);
+		TestDataSet output = DataSetHelper.read(iterator);
+
+		Assert.assertTrue("Comparison with input data",
+				DataSetHelper.equals(input, output));
+	}
+
+	@Test
+	public void testDefaultLevel() throws IOException
+	{
+		test("data-with-metadata.pbf", PbfWriter.DEFAULT_ZSTD_LEVEL, 1);
+	}
+
+	@Test
+	public void testHighLevel() throws IOException
+	{
+		test("data-with-metadata.pbf", 19, 1);
+	}
+
+	@Test
+	public void testPipelined() throws IOException
+	{
+		test("data-without-metadata.pbf", 1, 3);
+	}
+
+	@Test(expected = IOException.class)
+	public void testRawSizeMismatch() throws IOException
+	{
+		byte[] data = new byte[1000];
+		Fileformat.Blob blob = Fileformat.Blob.newBuilder()
+				.setRawSize(data.length + 1)
+				.setZstdData(ByteString.copyFrom(Zstd.compress(data))).build();
+		PbfUtil.getBlockData(blob);
+	}
+
+}
@@ -35,7 +35,11 @@ import de.topobyte.osm4j.core.model.iface.OsmWay;
 import de.topobyte.osm4j.pbf.seq.PbfIterator;
 import de.topobyte.osm4j.pbf.seq.PbfParser;
 import de.topobyte.osm4j.pbf.seq.PbfReader;
+import de.topobyte.osm4j.pbf.raf.BlockIndex;
+import de.topobyte.osm4j.pbf.raf.NodeBoundsIndex;
 import de.topobyte.osm4j.pbf.seq.PbfWriter;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.TestDataSet;
 import de.topobyte.osm4j.xml.dynsax.OsmXmlIterator;
 
 public class Util
@@ -52,6 +56,18 @@ public class Util
 		return iterator;
 	}
 
+	public static OsmIterator iterator(String resource, boolean fetchMetadata,
+			int numThreads) throws IOException
+	{
+		InputStream input = Thread.currentThread().getContextClassLoader()
+				.getResourceAsStream(resource);
+
+		OsmIterator iterator = new PbfIterator(input, fetchMetadata,
+				numThreads);
+
+		return iterator;
+	}
+
 	public static OsmIterator xmlIterator(String resource,
 			boolean fetchMetadata) throws IOException
 	{
@@ -72,6 +88,16 @@ public class Util
 		return parser;
 	}
 
+	public static PbfReader reader(String resource, boolean fetchMetadata,
+			int numThreads)
+	{
+		InputStream input = Thread.currentThread().getContextClassLoader()
+				.getResourceAsStream(resource);
+
+		PbfReader parser = new PbfReader(input, fetchMetadata, numThreads);
+		return parser;
+	}
+
 	public static void iterate(String resource, boolean fetchMetadata)
 			throws IOException
 	{
@@ -163,4 +189,27 @@ public class Util
 		file.delete();
 	}
 
+	/**
+	 * Copy the data of the specified resource into a temporary file, using
+	 * small blocks in order to produce a file with a number of blocks.
+	 */
+	public static File writeWithSmallBlocks(String resource, int batchLimit)
+			throws IOException
+	{
+		TestDataSet data = DataSetHelper.read(iterator(resource, true));
+
+		File file = File.createTempFile("osm4j-test", ".pbf");
+		file.deleteOnExit();
+		BlockIndex.sidecarFor(file).deleteOnExit();
+		NodeBoundsIndex.sidecarFor(file).deleteOnExit();
+
+		try (OutputStream output = new FileOutputStream(file)) {
+			PbfWriter writer = new PbfWriter(output, true);
+			writer.setBatchLimit(batchLimit);
+			DataSetHelper.write(data, writer);
+			writer.complete();
+		}
+		return file;
+	}
+
 }
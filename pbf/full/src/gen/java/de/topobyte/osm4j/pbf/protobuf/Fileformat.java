@@ -121,6 +121,23 @@ public final class Fileformat {
      * <code>optional bytes lz4_data = 6;</code>
      */
     com.google.protobuf.ByteString getLz4Data();
+
+    /**
+     * <pre>
+     * zstd compressed data.
+     * </pre>
+     *
+     * <code>optional bytes zstd_data = 7;</code>
+     */
+    boolean hasZstdData();
+    /**
+     * <pre>
+     * zstd compressed data.
+     * </pre>
+     *
+     * <code>optional bytes zstd_data = 7;</code>
+     */
+    com.google.protobuf.ByteString getZstdData();
   }
   /**
    * Protobuf type {@code OSMPBF.Blob}
@@ -140,6 +157,7 @@ public final class Fileformat {
       lzmaData_ = com.google.protobuf.ByteString.EMPTY;
       oBSOLETEBzip2Data_ = com.google.protobuf.ByteString.EMPTY;
       lz4Data_ = com.google.protobuf.ByteString.EMPTY;
+      zstdData_ = com.google.protobuf.ByteString.EMPTY;
     }
 
     @java.lang.Override
@@ -203,6 +221,11 @@ public final class Fileformat {
               lz4Data_ = input.readBytes();
               break;
             }
+            case 58: {
+              bitField0_ |= 0x00000040;
+              zstdData_ = input.readBytes();
+              break;
+            }
             default: {
               if (!parseUnknownField(
                   input, unknownFields, extensionRegistry, tag)) {
@@ -376,6 +399,29 @@ public final class Fileformat {
       return lz4Data_;
     }
 
+    public static final int ZSTD_DATA_FIELD_NUMBER = 7;
+    private com.google.protobuf.ByteString zstdData_;
+    /**
+     * <pre>
+     * zstd compressed data.
+     * </pre>
+     *
+     * <code>optional bytes zstd_data = 7;</code>
+     */
+    public boolean hasZstdData() {
+      return ((bitField0_ & 0x00000040) != 0);
+    }
+    /**
+     * <pre>
+     * zstd compressed data.
+     * </pre>
+     *
+     * <code>optional bytes zstd_data = 7;</code>
+     */
+    public com.google.protobuf.ByteString getZstdData() {
+      return zstdData_;
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -408,6 +454,9 @@ public final class Fileformat {
       if (((bitField0_ & 0x00000020) != 0)) {
         output.writeBytes(6, lz4Data_);
       }
+      if (((bitField0_ & 0x00000040) != 0)) {
+        output.writeBytes(7, zstdData_);
+      }
       unknownFields.writeTo(output);
     }
 
@@ -441,6 +490,10 @@ public final class Fileformat {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(6, lz4Data_);
       }
+      if (((bitField0_ & 0x00000040) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(7, zstdData_);
+      }
       size += unknownFields.getSerializedSize();
       memoizedSize = size;
       return size;
@@ -486,6 +539,11 @@ public final class Fileformat {
         if (!getLz4Data()
             .equals(other.getLz4Data())) return false;
       }
+      if (hasZstdData() != other.hasZstdData()) return false;
+      if (hasZstdData()) {
+        if (!getZstdData()
+            .equals(other.getZstdData())) return false;
+      }
       if (!unknownFields.equals(other.unknownFields)) return false;
       return true;
     }
@@ -521,6 +579,10 @@ public final class Fileformat {
         hash = (37 * hash) + LZ4_DATA_FIELD_NUMBER;
         hash = (53 * hash) + getLz4Data().hashCode();
       }
+      if (hasZstdData()) {
+        hash = (37 * hash) + ZSTD_DATA_FIELD_NUMBER;
+        hash = (53 * hash) + getZstdData().hashCode();
+      }
       hash = (29 * hash) + unknownFields.hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -666,6 +728,8 @@ public final class Fileformat {
         bitField0_ = (bitField0_ & ~0x00000010);
         lz4Data_ = com.google.protobuf.ByteString.EMPTY;
         bitField0_ = (bitField0_ & ~0x00000020);
+        zstdData_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000040);
         return this;
       }
 
@@ -718,6 +782,10 @@ public final class Fileformat {
           to_bitField0_ |= 0x00000020;
         }
         result.lz4Data_ = lz4Data_;
+        if (((from_bitField0_ & 0x00000040) != 0)) {
+          to_bitField0_ |= 0x00000040;
+        }
+        result.zstdData_ = zstdData_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -785,6 +853,9 @@ public final class Fileformat {
         if (other.hasLz4Data()) {
           setLz4Data(other.getLz4Data());
         }
+        if (other.hasZstdData()) {
+          setZstdData(other.getZstdData());
+        }
         this.mergeUnknownFields(other.unknownFields);
         onChanged();
         return this;
@@ -1121,6 +1192,57 @@ public final class Fileformat {
         onChanged();
         return this;
       }
+
+      private com.google.protobuf.ByteString zstdData_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <pre>
+       * zstd compressed data.
+       * </pre>
+       *
+       * <code>optional bytes zstd_data = 7;</code>
+       */
+      public boolean hasZstdData() {
+        return ((bitField0_ & 0x00000040) != 0);
+      }
+      /**
+       * <pre>
+       * zstd compressed data.
+       * </pre>
+       *
+       * <code>optional bytes zstd_data = 7;</code>
+       */
+      public com.google.protobuf.ByteString getZstdData() {
+        return zstdData_;
+      }
+      /**
+       * <pre>
+       * zstd compressed data.
+       * </pre>
+       *
+       * <code>optional bytes zstd_data = 7;</code>
+       */
+      public Builder setZstdData(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000040;
+        zstdData_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * zstd compressed data.
+       * </pre>
+       *
+       * <code>optional bytes zstd_data = 7;</code>
+       */
+      public Builder clearZstdData() {
+        bitField0_ = (bitField0_ & ~0x00000040);
+        zstdData_ = getDefaultInstance().getZstdData();
+        onChanged();
+        return this;
+      }
       @java.lang.Override
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -1972,13 +2094,14 @@ public final class Fileformat {
       descriptor;
   static {
     java.lang.String[] descriptorData = {
-      "\n\032res/proto/fileformat.proto\022\006OSMPBF\"~\n\004" +
-      "Blob\022\013\n\003raw\030\001 \001(\014\022\020\n\010raw_size\030\002 \001(\005\022\021\n\tz" +
-      "lib_data\030\003 \001(\014\022\021\n\tlzma_data\030\004 \001(\014\022\037\n\023OBS" +
-      "OLETE_bzip2_data\030\005 \001(\014B\002\030\001\022\020\n\010lz4_data\030\006" +
-      " \001(\014\"?\n\nBlobHeader\022\014\n\004type\030\001 \002(\t\022\021\n\tinde" +
-      "xdata\030\002 \001(\014\022\020\n\010datasize\030\003 \002(\005B \n\036de.topo" +
-      "byte.osm4j.pbf.protobuf"
+      "\n\032res/proto/fileformat.proto\022\006OSMPBF\"\221\001\n" +
+      "\004Blob\022\013\n\003raw\030\001 \001(\014\022\020\n\010raw_size\030\002 \001(\005\022\021\n\t" +
+      "zlib_data\030\003 \001(\014\022\021\n\tlzma_data\030\004 \001(\014\022\037\n\023OB" +
+      "SOLETE_bzip2_data\030\005 \001(\014B\002\030\001\022\020\n\010lz4_data\030" +
+      "\006 \001(\014\022\021\n\tzstd_data\030\007 \001(\014\"?\n\nBlobHeader\022\014" +
+      "\n\004type\030\001 \002(\t\022\021\n\tindexdata\030\002 \001(\014\022\020\n\010datas" +
+      "ize\030\003 \002(\005B \n\036de.topobyte.osm4j.pbf.proto" +
+      "buf"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -1989,7 +2112,7 @@ public final class Fileformat {
     internal_static_OSMPBF_Blob_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_OSMPBF_Blob_descriptor,
-        new java.lang.String[] { "Raw", "RawSize", "ZlibData", "LzmaData", "OBSOLETEBzip2Data", "Lz4Data", });
+        new java.lang.String[] { "Raw", "RawSize", "ZlibData", "LzmaData", "OBSOLETEBzip2Data", "Lz4Data", "ZstdData", });
     internal_static_OSMPBF_BlobHeader_descriptor =
       getDescriptor().getMessageTypes().get(1);
     internal_static_OSMPBF_BlobHeader_fieldAccessorTable = new
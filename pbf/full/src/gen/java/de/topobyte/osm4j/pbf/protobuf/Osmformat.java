@@ -13009,6 +13009,68 @@ public final class Osmformat {
      * <code>repeated sint64 refs = 8 [packed = true];</code>
      */
     long getRefs(int index);
+
+    /**
+     * <pre>
+     * The following two fields are optional. They are only used in a special
+     * format where node locations are also added to the ways. This makes the
+     * files larger, but allows creating way geometries directly.
+     * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+     * and the number of values in refs, lat, and lon MUST be the same.
+     * </pre>
+     *
+     * <code>repeated sint64 lat = 9 [packed = true];</code>
+     */
+    java.util.List<java.lang.Long> getLatList();
+    /**
+     * <pre>
+     * The following two fields are optional. They are only used in a special
+     * format where node locations are also added to the ways. This makes the
+     * files larger, but allows creating way geometries directly.
+     * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+     * and the number of values in refs, lat, and lon MUST be the same.
+     * </pre>
+     *
+     * <code>repeated sint64 lat = 9 [packed = true];</code>
+     */
+    int getLatCount();
+    /**
+     * <pre>
+     * The following two fields are optional. They are only used in a special
+     * format where node locations are also added to the ways. This makes the
+     * files larger, but allows creating way geometries directly.
+     * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+     * and the number of values in refs, lat, and lon MUST be the same.
+     * </pre>
+     *
+     * <code>repeated sint64 lat = 9 [packed = true];</code>
+     */
+    long getLat(int index);
+
+    /**
+     * <pre>
+     * DELTA coded, optional
+     * </pre>
+     *
+     * <code>repeated sint64 lon = 10 [packed = true];</code>
+     */
+    java.util.List<java.lang.Long> getLonList();
+    /**
+     * <pre>
+     * DELTA coded, optional
+     * </pre>
+     *
+     * <code>repeated sint64 lon = 10 [packed = true];</code>
+     */
+    int getLonCount();
+    /**
+     * <pre>
+     * DELTA coded, optional
+     * </pre>
+     *
+     * <code>repeated sint64 lon = 10 [packed = true];</code>
+     */
+    long getLon(int index);
   }
   /**
    * Protobuf type {@code OSMPBF.Way}
@@ -13026,6 +13088,8 @@ public final class Osmformat {
       keys_ = emptyIntList();
       vals_ = emptyIntList();
       refs_ = emptyLongList();
+      lat_ = emptyLongList();
+      lon_ = emptyLongList();
     }
 
     @java.lang.Override
@@ -13140,6 +13204,48 @@ public final class Osmformat {
               input.popLimit(limit);
               break;
             }
+            case 72: {
+              if (!((mutable_bitField0_ & 0x00000020) != 0)) {
+                lat_ = newLongList();
+                mutable_bitField0_ |= 0x00000020;
+              }
+              lat_.addLong(input.readSInt64());
+              break;
+            }
+            case 74: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000020) != 0) && input.getBytesUntilLimit() > 0) {
+                lat_ = newLongList();
+                mutable_bitField0_ |= 0x00000020;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                lat_.addLong(input.readSInt64());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 80: {
+              if (!((mutable_bitField0_ & 0x00000040) != 0)) {
+                lon_ = newLongList();
+                mutable_bitField0_ |= 0x00000040;
+              }
+              lon_.addLong(input.readSInt64());
+              break;
+            }
+            case 82: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000040) != 0) && input.getBytesUntilLimit() > 0) {
+                lon_ = newLongList();
+                mutable_bitField0_ |= 0x00000040;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                lon_.addLong(input.readSInt64());
+              }
+              input.popLimit(limit);
+              break;
+            }
             default: {
               if (!parseUnknownField(
                   input, unknownFields, extensionRegistry, tag)) {
@@ -13164,6 +13270,12 @@ public final class Osmformat {
         if (((mutable_bitField0_ & 0x00000010) != 0)) {
           refs_.makeImmutable(); // C
         }
+        if (((mutable_bitField0_ & 0x00000020) != 0)) {
+          lat_.makeImmutable(); // C
+        }
+        if (((mutable_bitField0_ & 0x00000040) != 0)) {
+          lon_.makeImmutable(); // C
+        }
         this.unknownFields = unknownFields.build();
         makeExtensionsImmutable();
       }
@@ -13311,6 +13423,88 @@ public final class Osmformat {
     }
     private int refsMemoizedSerializedSize = -1;
 
+    public static final int LAT_FIELD_NUMBER = 9;
+    private com.google.protobuf.Internal.LongList lat_;
+    /**
+     * <pre>
+     * The following two fields are optional. They are only used in a special
+     * format where node locations are also added to the ways. This makes the
+     * files larger, but allows creating way geometries directly.
+     * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+     * and the number of values in refs, lat, and lon MUST be the same.
+     * </pre>
+     *
+     * <code>repeated sint64 lat = 9 [packed = true];</code>
+     */
+    public java.util.List<java.lang.Long>
+        getLatList() {
+      return lat_;
+    }
+    /**
+     * <pre>
+     * The following two fields are optional. They are only used in a special
+     * format where node locations are also added to the ways. This makes the
+     * files larger, but allows creating way geometries directly.
+     * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+     * and the number of values in refs, lat, and lon MUST be the same.
+     * </pre>
+     *
+     * <code>repeated sint64 lat = 9 [packed = true];</code>
+     */
+    public int getLatCount() {
+      return lat_.size();
+    }
+    /**
+     * <pre>
+     * The following two fields are optional. They are only used in a special
+     * format where node locations are also added to the ways. This makes the
+     * files larger, but allows creating way geometries directly.
+     * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+     * and the number of values in refs, lat, and lon MUST be the same.
+     * </pre>
+     *
+     * <code>repeated sint64 lat = 9 [packed = true];</code>
+     */
+    public long getLat(int index) {
+      return lat_.getLong(index);
+    }
+    private int latMemoizedSerializedSize = -1;
+
+    public static final int LON_FIELD_NUMBER = 10;
+    private com.google.protobuf.Internal.LongList lon_;
+    /**
+     * <pre>
+     * DELTA coded, optional
+     * </pre>
+     *
+     * <code>repeated sint64 lon = 10 [packed = true];</code>
+     */
+    public java.util.List<java.lang.Long>
+        getLonList() {
+      return lon_;
+    }
+    /**
+     * <pre>
+     * DELTA coded, optional
+     * </pre>
+     *
+     * <code>repeated sint64 lon = 10 [packed = true];</code>
+     */
+    public int getLonCount() {
+      return lon_.size();
+    }
+    /**
+     * <pre>
+     * DELTA coded, optional
+     * </pre>
+     *
+     * <code>repeated sint64 lon = 10 [packed = true];</code>
+     */
+    public long getLon(int index) {
+      return lon_.getLong(index);
+    }
+    private int lonMemoizedSerializedSize = -1;
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -13357,6 +13551,20 @@ public final class Osmformat {
       for (int i = 0; i < refs_.size(); i++) {
         output.writeSInt64NoTag(refs_.getLong(i));
       }
+      if (getLatList().size() > 0) {
+        output.writeUInt32NoTag(74);
+        output.writeUInt32NoTag(latMemoizedSerializedSize);
+      }
+      for (int i = 0; i < lat_.size(); i++) {
+        output.writeSInt64NoTag(lat_.getLong(i));
+      }
+      if (getLonList().size() > 0) {
+        output.writeUInt32NoTag(82);
+        output.writeUInt32NoTag(lonMemoizedSerializedSize);
+      }
+      for (int i = 0; i < lon_.size(); i++) {
+        output.writeSInt64NoTag(lon_.getLong(i));
+      }
       unknownFields.writeTo(output);
     }
 
@@ -13416,6 +13624,34 @@ public final class Osmformat {
         }
         refsMemoizedSerializedSize = dataSize;
       }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < lat_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeSInt64SizeNoTag(lat_.getLong(i));
+        }
+        size += dataSize;
+        if (!getLatList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        latMemoizedSerializedSize = dataSize;
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < lon_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeSInt64SizeNoTag(lon_.getLong(i));
+        }
+        size += dataSize;
+        if (!getLonList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        lonMemoizedSerializedSize = dataSize;
+      }
       size += unknownFields.getSerializedSize();
       memoizedSize = size;
       return size;
@@ -13447,6 +13683,10 @@ public final class Osmformat {
       }
       if (!getRefsList()
           .equals(other.getRefsList())) return false;
+      if (!getLatList()
+          .equals(other.getLatList())) return false;
+      if (!getLonList()
+          .equals(other.getLonList())) return false;
       if (!unknownFields.equals(other.unknownFields)) return false;
       return true;
     }
@@ -13479,6 +13719,14 @@ public final class Osmformat {
         hash = (37 * hash) + REFS_FIELD_NUMBER;
         hash = (53 * hash) + getRefsList().hashCode();
       }
+      if (getLatCount() > 0) {
+        hash = (37 * hash) + LAT_FIELD_NUMBER;
+        hash = (53 * hash) + getLatList().hashCode();
+      }
+      if (getLonCount() > 0) {
+        hash = (37 * hash) + LON_FIELD_NUMBER;
+        hash = (53 * hash) + getLonList().hashCode();
+      }
       hash = (29 * hash) + unknownFields.hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -13627,6 +13875,10 @@ public final class Osmformat {
         bitField0_ = (bitField0_ & ~0x00000008);
         refs_ = emptyLongList();
         bitField0_ = (bitField0_ & ~0x00000010);
+        lat_ = emptyLongList();
+        bitField0_ = (bitField0_ & ~0x00000020);
+        lon_ = emptyLongList();
+        bitField0_ = (bitField0_ & ~0x00000040);
         return this;
       }
 
@@ -13682,6 +13934,16 @@ public final class Osmformat {
           bitField0_ = (bitField0_ & ~0x00000010);
         }
         result.refs_ = refs_;
+        if (((bitField0_ & 0x00000020) != 0)) {
+          lat_.makeImmutable();
+          bitField0_ = (bitField0_ & ~0x00000020);
+        }
+        result.lat_ = lat_;
+        if (((bitField0_ & 0x00000040) != 0)) {
+          lon_.makeImmutable();
+          bitField0_ = (bitField0_ & ~0x00000040);
+        }
+        result.lon_ = lon_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -13767,6 +14029,26 @@ public final class Osmformat {
           }
           onChanged();
         }
+        if (!other.lat_.isEmpty()) {
+          if (lat_.isEmpty()) {
+            lat_ = other.lat_;
+            bitField0_ = (bitField0_ & ~0x00000020);
+          } else {
+            ensureLatIsMutable();
+            lat_.addAll(other.lat_);
+          }
+          onChanged();
+        }
+        if (!other.lon_.isEmpty()) {
+          if (lon_.isEmpty()) {
+            lon_ = other.lon_;
+            bitField0_ = (bitField0_ & ~0x00000040);
+          } else {
+            ensureLonIsMutable();
+            lon_.addAll(other.lon_);
+          }
+          onChanged();
+        }
         this.mergeUnknownFields(other.unknownFields);
         onChanged();
         return this;
@@ -14206,6 +14488,224 @@ public final class Osmformat {
         onChanged();
         return this;
       }
+
+      private com.google.protobuf.Internal.LongList lat_ = emptyLongList();
+      private void ensureLatIsMutable() {
+        if (!((bitField0_ & 0x00000020) != 0)) {
+          lat_ = mutableCopy(lat_);
+          bitField0_ |= 0x00000020;
+         }
+      }
+      /**
+       * <pre>
+       * The following two fields are optional. They are only used in a special
+       * format where node locations are also added to the ways. This makes the
+       * files larger, but allows creating way geometries directly.
+       * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+       * and the number of values in refs, lat, and lon MUST be the same.
+       * </pre>
+       *
+       * <code>repeated sint64 lat = 9 [packed = true];</code>
+       */
+      public java.util.List<java.lang.Long>
+          getLatList() {
+        return ((bitField0_ & 0x00000020) != 0) ?
+                 java.util.Collections.unmodifiableList(lat_) : lat_;
+      }
+      /**
+       * <pre>
+       * The following two fields are optional. They are only used in a special
+       * format where node locations are also added to the ways. This makes the
+       * files larger, but allows creating way geometries directly.
+       * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+       * and the number of values in refs, lat, and lon MUST be the same.
+       * </pre>
+       *
+       * <code>repeated sint64 lat = 9 [packed = true];</code>
+       */
+      public int getLatCount() {
+        return lat_.size();
+      }
+      /**
+       * <pre>
+       * The following two fields are optional. They are only used in a special
+       * format where node locations are also added to the ways. This makes the
+       * files larger, but allows creating way geometries directly.
+       * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+       * and the number of values in refs, lat, and lon MUST be the same.
+       * </pre>
+       *
+       * <code>repeated sint64 lat = 9 [packed = true];</code>
+       */
+      public long getLat(int index) {
+        return lat_.getLong(index);
+      }
+      /**
+       * <pre>
+       * The following two fields are optional. They are only used in a special
+       * format where node locations are also added to the ways. This makes the
+       * files larger, but allows creating way geometries directly.
+       * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+       * and the number of values in refs, lat, and lon MUST be the same.
+       * </pre>
+       *
+       * <code>repeated sint64 lat = 9 [packed = true];</code>
+       */
+      public Builder setLat(
+          int index, long value) {
+        ensureLatIsMutable();
+        lat_.setLong(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The following two fields are optional. They are only used in a special
+       * format where node locations are also added to the ways. This makes the
+       * files larger, but allows creating way geometries directly.
+       * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+       * and the number of values in refs, lat, and lon MUST be the same.
+       * </pre>
+       *
+       * <code>repeated sint64 lat = 9 [packed = true];</code>
+       */
+      public Builder addLat(long value) {
+        ensureLatIsMutable();
+        lat_.addLong(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The following two fields are optional. They are only used in a special
+       * format where node locations are also added to the ways. This makes the
+       * files larger, but allows creating way geometries directly.
+       * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+       * and the number of values in refs, lat, and lon MUST be the same.
+       * </pre>
+       *
+       * <code>repeated sint64 lat = 9 [packed = true];</code>
+       */
+      public Builder addAllLat(
+          java.lang.Iterable<? extends java.lang.Long> values) {
+        ensureLatIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, lat_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The following two fields are optional. They are only used in a special
+       * format where node locations are also added to the ways. This makes the
+       * files larger, but allows creating way geometries directly.
+       * If this is used, you MUST set the optional_features tag "LocationsOnWays"
+       * and the number of values in refs, lat, and lon MUST be the same.
+       * </pre>
+       *
+       * <code>repeated sint64 lat = 9 [packed = true];</code>
+       */
+      public Builder clearLat() {
+        lat_ = emptyLongList();
+        bitField0_ = (bitField0_ & ~0x00000020);
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.Internal.LongList lon_ = emptyLongList();
+      private void ensureLonIsMutable() {
+        if (!((bitField0_ & 0x00000040) != 0)) {
+          lon_ = mutableCopy(lon_);
+          bitField0_ |= 0x00000040;
+         }
+      }
+      /**
+       * <pre>
+       * DELTA coded, optional
+       * </pre>
+       *
+       * <code>repeated sint64 lon = 10 [packed = true];</code>
+       */
+      public java.util.List<java.lang.Long>
+          getLonList() {
+        return ((bitField0_ & 0x00000040) != 0) ?
+                 java.util.Collections.unmodifiableList(lon_) : lon_;
+      }
+      /**
+       * <pre>
+       * DELTA coded, optional
+       * </pre>
+       *
+       * <code>repeated sint64 lon = 10 [packed = true];</code>
+       */
+      public int getLonCount() {
+        return lon_.size();
+      }
+      /**
+       * <pre>
+       * DELTA coded, optional
+       * </pre>
+       *
+       * <code>repeated sint64 lon = 10 [packed = true];</code>
+       */
+      public long getLon(int index) {
+        return lon_.getLong(index);
+      }
+      /**
+       * <pre>
+       * DELTA coded, optional
+       * </pre>
+       *
+       * <code>repeated sint64 lon = 10 [packed = true];</code>
+       */
+      public Builder setLon(
+          int index, long value) {
+        ensureLonIsMutable();
+        lon_.setLong(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * DELTA coded, optional
+       * </pre>
+       *
+       * <code>repeated sint64 lon = 10 [packed = true];</code>
+       */
+      public Builder addLon(long value) {
+        ensureLonIsMutable();
+        lon_.addLong(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * DELTA coded, optional
+       * </pre>
+       *
+       * <code>repeated sint64 lon = 10 [packed = true];</code>
+       */
+      public Builder addAllLon(
+          java.lang.Iterable<? extends java.lang.Long> values) {
+        ensureLonIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, lon_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * DELTA coded, optional
+       * </pre>
+       *
+       * <code>repeated sint64 lon = 10 [packed = true];</code>
+       */
+      public Builder clearLon() {
+        lon_ = emptyLongList();
+        bitField0_ = (bitField0_ & ~0x00000040);
+        onChanged();
+        return this;
+      }
       @java.lang.Override
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -16218,16 +16718,17 @@ public final class Osmformat {
       "o\022\013\n\003lat\030\010 \002(\022\022\013\n\003lon\030\t \002(\022\"{\n\nDenseNode" +
       "s\022\016\n\002id\030\001 \003(\022B\002\020\001\022$\n\tdenseinfo\030\005 \001(\0132\021.O" +
       "SMPBF.DenseInfo\022\017\n\003lat\030\010 \003(\022B\002\020\001\022\017\n\003lon\030" +
-      "\t \003(\022B\002\020\001\022\025\n\tkeys_vals\030\n \003(\005B\002\020\001\"c\n\003Way\022" +
-      "\n\n\002id\030\001 \002(\003\022\020\n\004keys\030\002 \003(\rB\002\020\001\022\020\n\004vals\030\003 " +
-      "\003(\rB\002\020\001\022\032\n\004info\030\004 \001(\0132\014.OSMPBF.Info\022\020\n\004r" +
-      "efs\030\010 \003(\022B\002\020\001\"\340\001\n\010Relation\022\n\n\002id\030\001 \002(\003\022\020" +
-      "\n\004keys\030\002 \003(\rB\002\020\001\022\020\n\004vals\030\003 \003(\rB\002\020\001\022\032\n\004in" +
-      "fo\030\004 \001(\0132\014.OSMPBF.Info\022\025\n\troles_sid\030\010 \003(" +
-      "\005B\002\020\001\022\022\n\006memids\030\t \003(\022B\002\020\001\022.\n\005types\030\n \003(\016" +
-      "2\033.OSMPBF.Relation.MemberTypeB\002\020\001\"-\n\nMem" +
-      "berType\022\010\n\004NODE\020\000\022\007\n\003WAY\020\001\022\014\n\010RELATION\020\002" +
-      "B \n\036de.topobyte.osm4j.pbf.protobuf"
+      "\t \003(\022B\002\020\001\022\025\n\tkeys_vals\030\n \003(\005B\002\020\001\"\205\001\n\003Way" +
+      "\022\n\n\002id\030\001 \002(\003\022\020\n\004keys\030\002 \003(\rB\002\020\001\022\020\n\004vals\030\003" +
+      " \003(\rB\002\020\001\022\032\n\004info\030\004 \001(\0132\014.OSMPBF.Info\022\020\n\004" +
+      "refs\030\010 \003(\022B\002\020\001\022\017\n\003lat\030\t \003(\022B\002\020\001\022\017\n\003lon\030\n" +
+      " \003(\022B\002\020\001\"\340\001\n\010Relation\022\n\n\002id\030\001 \002(\003\022\020\n\004key" +
+      "s\030\002 \003(\rB\002\020\001\022\020\n\004vals\030\003 \003(\rB\002\020\001\022\032\n\004info\030\004 " +
+      "\001(\0132\014.OSMPBF.Info\022\025\n\troles_sid\030\010 \003(\005B\002\020\001" +
+      "\022\022\n\006memids\030\t \003(\022B\002\020\001\022.\n\005types\030\n \003(\0162\033.OS" +
+      "MPBF.Relation.MemberTypeB\002\020\001\"-\n\nMemberTy" +
+      "pe\022\010\n\004NODE\020\000\022\007\n\003WAY\020\001\022\014\n\010RELATION\020\002B \n\036d" +
+      "e.topobyte.osm4j.pbf.protobuf"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -16298,7 +16799,7 @@ public final class Osmformat {
     internal_static_OSMPBF_Way_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_OSMPBF_Way_descriptor,
-        new java.lang.String[] { "Id", "Keys", "Vals", "Info", "Refs", });
+        new java.lang.String[] { "Id", "Keys", "Vals", "Info", "Refs", "Lat", "Lon", });
     internal_static_OSMPBF_Relation_descriptor =
       getDescriptor().getMessageTypes().get(11);
     internal_static_OSMPBF_Relation_fieldAccessorTable = new
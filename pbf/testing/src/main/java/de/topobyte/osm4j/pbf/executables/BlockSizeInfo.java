@@ -64,6 +64,11 @@ public class BlockSizeInfo extends BlobParser
 			System.out.println(String.format(
 					"Block %d (lz4): raw size: %d, compressed: %d", nBlocks,
 					rawSize, lz4Size));
+		} else if (blob.hasZstdData()) {
+			int zstdSize = blob.getZstdData().size();
+			System.out.println(String.format(
+					"Block %d (zstd): raw size: %d, compressed: %d", nBlocks,
+					rawSize, zstdSize));
 		}
 		nBlocks++;
 	}
@@ -0,0 +1,126 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.pbf.test;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+
+/**
+ * Iterates a PBF file a number of times and reports the time spent, the time
+ * spent in garbage collection and the number of bytes allocated by the
+ * iterating thread per run and per block. With more than one thread, decoding
+ * happens on worker threads and only the garbage collection figures cover the
+ * complete decoding work.
+ */
+public class BenchmarkDecode
+{
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1 || args.length > 3) {
+			System.out.println("usage: "
+					+ BenchmarkDecode.class.getSimpleName()
+					+ " <filename> [runs] [threads]");
+			System.exit(1);
+		}
+
+		String filename = args[0];
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+		for (int i = 1; i <= runs; i++) {
+			System.out.println(String.format("run %d/%d", i, runs));
+			run(filename, threads);
+		}
+	}
+
+	private static void run(String filename, int threads) throws IOException
+	{
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		long gcCount0 = gcCount();
+		long gcTime0 = gcTime();
+		long allocated0 = allocatedBytes(threadBean, threadId);
+		long start = System.currentTimeMillis();
+
+		InputStream input = new BufferedInputStream(
+				new FileInputStream(filename));
+		PbfIterator iterator = new PbfIterator(input, true, threads);
+
+		long entities = 0;
+		while (iterator.hasNext()) {
+			iterator.next();
+			entities++;
+		}
+		input.close();
+
+		long time = System.currentTimeMillis() - start;
+		long allocated = allocatedBytes(threadBean, threadId) - allocated0;
+		long gcCount = gcCount() - gcCount0;
+		long gcTime = gcTime() - gcTime0;
+
+		System.out.println(String.format("entities: %d", entities));
+		System.out.println(String.format("time: %d ms", time));
+		System.out.println(String.format("gc: %d collections, %d ms",
+				gcCount, gcTime));
+		if (allocated >= 0) {
+			System.out.println(String.format(
+					"allocated by iterating thread: %d MiB (%.1f bytes/entity)",
+					allocated / 1024 / 1024,
+					entities == 0 ? 0 : allocated / (double) entities));
+		}
+	}
+
+	private static long gcCount()
+	{
+		long sum = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			sum += Math.max(0, bean.getCollectionCount());
+		}
+		return sum;
+	}
+
+	private static long gcTime()
+	{
+		long sum = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			sum += Math.max(0, bean.getCollectionTime());
+		}
+		return sum;
+	}
+
+	private static long allocatedBytes(ThreadMXBean bean, long threadId)
+	{
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean)
+					.getThreadAllocatedBytes(threadId);
+		}
+		return -1;
+	}
+
+}
@@ -252,7 +252,7 @@ class OsmChangesetsSaxHandler extends DynamicSaxHandler
 		if (value == null) {
 			return defaultValue;
 		}
-		return dateParser.parse(value).getMillis();
+		return dateParser.parseMillis(value);
 	}
 
 }
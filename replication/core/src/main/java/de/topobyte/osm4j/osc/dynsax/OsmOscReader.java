@@ -28,6 +28,8 @@ import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
 import de.topobyte.osm4j.core.access.OsmInputException;
+import de.topobyte.osm4j.core.io.InputCompression;
+import de.topobyte.osm4j.core.io.ParallelDecompressionInputStream;
 
 /**
  * This is a SAX-based parser for OSM OSC data.
@@ -52,7 +54,10 @@ public class OsmOscReader
 			throws FileNotFoundException
 	{
 		InputStream fis = new FileInputStream(file);
-		inputStream = new BufferedInputStream(fis);
+		// Decompress '.gz' and '.bz2' files using multiple threads
+		inputStream = ParallelDecompressionInputStream.decompress(
+				new BufferedInputStream(fis),
+				InputCompression.fromFileName(file.getName()));
 		this.parseMetadata = parseMetadata;
 	}
 
@@ -22,8 +22,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import org.joda.time.DateTime;
-
 import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
 
 import de.topobyte.osm4j.core.model.iface.EntityType;
@@ -374,8 +372,7 @@ class OsmOscSaxHandler extends DynamicSaxHandler
 
 		long timestamp = -1;
 		if (aTimestamp != null) {
-			DateTime date = dateParser.parse(aTimestamp);
-			timestamp = date.getMillis();
+			timestamp = dateParser.parseMillis(aTimestamp);
 		}
 
 		boolean visible = true;
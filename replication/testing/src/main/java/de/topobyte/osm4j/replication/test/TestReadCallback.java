@@ -25,10 +25,10 @@ import java.nio.file.Paths;
 
 import javax.xml.parsers.ParserConfigurationException;
 
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
-
 import de.topobyte.osm4j.core.access.OsmInputException;
 import de.topobyte.osm4j.core.dataset.InMemoryListDataSet;
+import de.topobyte.osm4j.core.io.InputCompression;
+import de.topobyte.osm4j.core.io.ParallelDecompressionInputStream;
 import de.topobyte.osm4j.osc.OsmChange;
 import de.topobyte.osm4j.osc.dynsax.OsmChangeHandler;
 import de.topobyte.osm4j.osc.dynsax.OsmOscReader;
@@ -50,7 +50,8 @@ public class TestReadCallback implements OsmChangeHandler
 
 		Path path = Paths.get(pathInput);
 		InputStream cinput = Files.newInputStream(path);
-		InputStream input = new GzipCompressorInputStream(cinput);
+		InputStream input = ParallelDecompressionInputStream.decompress(cinput,
+				InputCompression.fromFileName(pathInput));
 
 		TestReadCallback test = new TestReadCallback();
 		OsmOscReader reader = new OsmOscReader(input, false);
@@ -29,4 +29,13 @@ public interface BlockWriter
 
 	public void writeBlock(FileBlock block) throws IOException;
 
+	/**
+	 * Called after the last block has been written. Does nothing by default,
+	 * so that implementations without trailing data need not implement it.
+	 */
+	public default void complete() throws IOException
+	{
+		// nothing to do by default
+	}
+
 }
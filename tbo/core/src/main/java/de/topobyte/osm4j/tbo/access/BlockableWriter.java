@@ -20,6 +20,9 @@ package de.topobyte.osm4j.tbo.access;
 import java.io.IOException;
 import java.util.zip.DeflaterOutputStream;
 
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+
 import de.topobyte.compactio.CompactWriter;
 import de.topobyte.compactio.OutputStreamCompactWriter;
 import de.topobyte.osm4j.tbo.ByteArrayOutputStream;
@@ -32,10 +35,15 @@ import net.jpountz.lz4.LZ4Factory;
 public class BlockableWriter
 {
 
+	public static final int DEFAULT_ZSTD_LEVEL = 3;
+
 	private ByteArrayOutputStream baos;
 
 	private boolean lowMemoryFootprint;
 
+	private int zstdLevel = DEFAULT_ZSTD_LEVEL;
+	private ZstdDictCompress zstdDictionary = null;
+
 	public BlockableWriter(boolean lowMemoryFootprint)
 	{
 		this.lowMemoryFootprint = lowMemoryFootprint;
@@ -44,6 +52,38 @@ public class BlockableWriter
 		}
 	}
 
+	public int getZstdLevel()
+	{
+		return zstdLevel;
+	}
+
+	/**
+	 * Set the level to use with {@link Compression#ZSTD}. Higher levels result
+	 * in smaller blocks at the cost of slower compression, decompression speed
+	 * is mostly unaffected. Has no effect on blocks compressed with a
+	 * dictionary, whose level is determined by the dictionary.
+	 */
+	public void setZstdLevel(int zstdLevel)
+	{
+		this.zstdLevel = zstdLevel;
+	}
+
+	public ZstdDictCompress getZstdDictionary()
+	{
+		return zstdDictionary;
+	}
+
+	/**
+	 * Compress blocks using {@link Compression#ZSTD} with the specified
+	 * dictionary. Readers need the same dictionary to decompress the blocks,
+	 * so it has to be stored in the file header. The dictionary can be shared
+	 * between multiple writers.
+	 */
+	public void setZstdDictionary(ZstdDictCompress zstdDictionary)
+	{
+		this.zstdDictionary = zstdDictionary;
+	}
+
 	public FileBlock writeBlock(Blockable blockable, int type, int count,
 			Compression compression) throws IOException
 	{
@@ -80,6 +120,24 @@ public class BlockableWriter
 			compressed = new byte[estimate];
 			length = lz4Compressor.compress(uncompressed, compressed);
 			break;
+		case ZSTD:
+			compressed = new byte[(int) Zstd
+					.compressBound(uncompressed.length)];
+			long result;
+			if (zstdDictionary != null) {
+				result = Zstd.compressFastDict(compressed, 0, uncompressed, 0,
+						uncompressed.length, zstdDictionary);
+			} else {
+				result = Zstd.compressByteArray(compressed, 0,
+						compressed.length, uncompressed, 0,
+						uncompressed.length, zstdLevel);
+			}
+			if (Zstd.isError(result)) {
+				throw new IOException("Error while compressing zstd data: "
+						+ Zstd.getErrorName(result));
+			}
+			length = (int) result;
+			break;
 		}
 
 		FileBlock block = new FileBlock(type, compression, uncompressed.length,
@@ -0,0 +1,250 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.access;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.slimjars.dist.gnu.trove.list.TLongList;
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.compactio.CompactReader;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.tbo.data.Definitions;
+import de.topobyte.osm4j.tbo.data.FileBlock;
+import de.topobyte.osm4j.tbo.io.BitPacking;
+
+/**
+ * Parsing of blocks in the columnar layout of
+ * {@link Definitions#VERSION_COLUMNAR}. Every column is prefixed with its
+ * length, so that columns that are not requested are skipped without decoding
+ * them.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class ColumnarReaderUtil
+{
+
+	static EntityColumns parseNodes(CompactReader reader, FileBlock block,
+			boolean fetchTags, boolean hasMetadata, boolean fetchMetadata)
+			throws IOException
+	{
+		List<String> poolTags = fetchTags ? parsePool(reader)
+				: skip(reader, 1);
+
+		int n = block.getNumObjects();
+		EntityColumns columns = new EntityColumns(EntityType.Node, n);
+		columns.ids = parseIds(reader, n);
+
+		reader.readVariableLengthUnsignedInteger();
+		columns.lats = ReaderUtil.parseDeltaLongs(reader, n);
+		reader.readVariableLengthUnsignedInteger();
+		columns.lons = ReaderUtil.parseDeltaLongs(reader, n);
+
+		parseTags(reader, columns, poolTags);
+		if (hasMetadata && fetchMetadata) {
+			parseMetadata(reader, columns);
+		}
+
+		return columns;
+	}
+
+	static EntityColumns parseWays(CompactReader reader, FileBlock block,
+			boolean fetchTags, boolean hasMetadata, boolean fetchMetadata)
+			throws IOException
+	{
+		List<String> poolTags = fetchTags ? parsePool(reader)
+				: skip(reader, 1);
+
+		int n = block.getNumObjects();
+		EntityColumns columns = new EntityColumns(EntityType.Way, n);
+		columns.ids = parseIds(reader, n);
+
+		reader.readVariableLengthUnsignedInteger();
+		int[] numNodes = ReaderUtil.parseInts(reader, n);
+		columns.numNodes = numNodes;
+
+		reader.readVariableLengthUnsignedInteger();
+		columns.nodeIds = ReaderUtil.parseDeltaLongs(reader, sum(numNodes));
+
+		parseTags(reader, columns, poolTags);
+		if (hasMetadata && fetchMetadata) {
+			parseMetadata(reader, columns);
+		}
+
+		return columns;
+	}
+
+	static EntityColumns parseRelations(CompactReader reader,
+			FileBlock block, boolean fetchTags, boolean hasMetadata,
+			boolean fetchMetadata) throws IOException
+	{
+		List<String> poolTags = fetchTags ? parsePool(reader)
+				: skip(reader, 1);
+		List<String> poolMembers = parsePool(reader);
+
+		int n = block.getNumObjects();
+		EntityColumns columns = new EntityColumns(EntityType.Relation, n);
+		columns.ids = parseIds(reader, n);
+
+		reader.readVariableLengthUnsignedInteger();
+		int[] numMembers = ReaderUtil.parseInts(reader, n);
+		int total = sum(numMembers);
+
+		reader.readVariableLengthUnsignedInteger();
+		int[] types = new int[total];
+		for (int i = 0; i < total; i++) {
+			types[i] = reader.readByte();
+		}
+
+		columns.poolMembers = poolMembers;
+		columns.numMembers = numMembers;
+		columns.memberTypes = types;
+
+		reader.readVariableLengthUnsignedInteger();
+		columns.memberIds = ReaderUtil.parseDeltaLongs(reader, total);
+
+		reader.readVariableLengthUnsignedInteger();
+		columns.memberRoles = ReaderUtil.parseInts(reader, total);
+
+		parseTags(reader, columns, poolTags);
+		if (hasMetadata && fetchMetadata) {
+			parseMetadata(reader, columns);
+		}
+
+		return columns;
+	}
+
+	/**
+	 * Parse only the id column of a block.
+	 * 
+	 * @param numPools
+	 *            the number of string pools in front of the id column.
+	 */
+	static TLongList parseIds(CompactReader reader, FileBlock block,
+			int numPools) throws IOException
+	{
+		skip(reader, numPools);
+		int n = block.getNumObjects();
+		return TLongArrayList.wrap(parseIds(reader, n));
+	}
+
+	private static long[] parseIds(CompactReader reader, int n)
+			throws IOException
+	{
+		reader.readVariableLengthUnsignedInteger();
+		return BitPacking.readDeltas(reader, n);
+	}
+
+	private static List<String> parsePool(CompactReader reader)
+			throws IOException
+	{
+		reader.readVariableLengthUnsignedInteger();
+		return ReaderUtil.parsePool(reader);
+	}
+
+	/**
+	 * Skip the specified number of columns.
+	 * 
+	 * @return always null.
+	 */
+	private static <T> T skip(CompactReader reader, int numColumns)
+			throws IOException
+	{
+		for (int i = 0; i < numColumns; i++) {
+			long len = reader.readVariableLengthUnsignedInteger();
+			reader.skip(len);
+		}
+		return null;
+	}
+
+	private static int sum(int[] values)
+	{
+		int sum = 0;
+		for (int value : values) {
+			sum += value;
+		}
+		return sum;
+	}
+
+	/**
+	 * Parse the tag columns, i.e. the number of tags per element and the pool
+	 * indices of keys and values. The columns are skipped if the tag pool is
+	 * null because tags have not been requested.
+	 */
+	private static void parseTags(CompactReader reader,
+			EntityColumns columns, List<String> pool) throws IOException
+	{
+		if (pool == null) {
+			skip(reader, 3);
+			return;
+		}
+
+		reader.readVariableLengthUnsignedInteger();
+		int[] numTags = ReaderUtil.parseInts(reader, columns.n);
+		int total = sum(numTags);
+
+		columns.poolTags = pool;
+		columns.numTags = numTags;
+		reader.readVariableLengthUnsignedInteger();
+		columns.tagKeys = ReaderUtil.parseInts(reader, total);
+		reader.readVariableLengthUnsignedInteger();
+		columns.tagValues = ReaderUtil.parseInts(reader, total);
+	}
+
+	private static void parseMetadata(CompactReader reader,
+			EntityColumns columns) throws IOException
+	{
+		int numElements = columns.n;
+
+		reader.readVariableLengthUnsignedInteger();
+		int situation = reader.readByte();
+		if (situation != Definitions.METADATA_ALL
+				&& situation != Definitions.METADATA_MIXED) {
+			return;
+		}
+
+		int numMetaData = numElements;
+		boolean[] hasMeta = null;
+		if (situation == Definitions.METADATA_MIXED) {
+			numMetaData = 0;
+			hasMeta = new boolean[numElements];
+			for (int i = 0; i < numElements; i++) {
+				hasMeta[i] = reader.readByte() == Definitions.METADATA_YES;
+				if (hasMeta[i]) {
+					numMetaData++;
+				}
+			}
+		}
+
+		columns.hasMeta = hasMeta;
+		columns.poolUsernames = parsePool(reader);
+
+		reader.readVariableLengthUnsignedInteger();
+		columns.versions = ReaderUtil.parseDeltaInts(reader, numMetaData);
+		reader.readVariableLengthUnsignedInteger();
+		columns.timestamps = ReaderUtil.parseDeltaLongs(reader, numMetaData);
+		reader.readVariableLengthUnsignedInteger();
+		columns.changesets = ReaderUtil.parseDeltaLongs(reader, numMetaData);
+		reader.readVariableLengthUnsignedInteger();
+		columns.userIds = ReaderUtil.parseDeltaLongs(reader, numMetaData);
+		reader.readVariableLengthUnsignedInteger();
+		columns.userNameIds = ReaderUtil.parseInts(reader, numMetaData);
+	}
+
+}
@@ -0,0 +1,144 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.access;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.tbo.data.Definitions;
+import de.topobyte.osm4j.tbo.data.FileBlock;
+import de.topobyte.osm4j.tbo.data.FileHeader;
+import de.topobyte.osm4j.tbo.io.Decompression;
+
+/**
+ * The decoded contents of a single TBO file block, i.e. the contained entities
+ * in the order they appear in the block.
+ * 
+ * Each block carries its own compression settings and string pool, so decoding
+ * a block does not depend on any other block of the file, which makes it
+ * possible to decode multiple blocks concurrently.
+ * 
+ * Blocks created using {@link #parse} only carry the decoded columns of the
+ * entities, which are filled one at a time into a set of reusable entities
+ * while iterating.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class DecodedBlock
+{
+
+	private final EntityType type;
+	private final List<? extends OsmEntity> entities;
+	private final EntityColumns columns;
+
+	private DecodedBlock(EntityType type, List<? extends OsmEntity> entities)
+	{
+		this.type = type;
+		this.entities = entities;
+		this.columns = null;
+	}
+
+	private DecodedBlock(EntityColumns columns)
+	{
+		this.type = columns.type;
+		this.entities = new ArrayList<OsmEntity>(0);
+		this.columns = columns;
+	}
+
+	public static DecodedBlock decode(FileBlock block, FileHeader header,
+			boolean fetchTags, boolean fetchMetadata) throws IOException
+	{
+		switch (block.getType()) {
+		case Definitions.BLOCK_TYPE_NODES:
+			return new DecodedBlock(EntityType.Node,
+					ReaderUtil.parseNodes(Decompression.reader(block, header),
+							header, block, fetchTags, fetchMetadata));
+		case Definitions.BLOCK_TYPE_WAYS:
+			return new DecodedBlock(EntityType.Way,
+					ReaderUtil.parseWays(Decompression.reader(block, header),
+							header, block, fetchTags, fetchMetadata));
+		case Definitions.BLOCK_TYPE_RELATIONS:
+			return new DecodedBlock(EntityType.Relation,
+					ReaderUtil.parseRelations(
+							Decompression.reader(block, header), header,
+							block, fetchTags, fetchMetadata));
+		default:
+			// Blocks without entities, such as the block index
+			return new DecodedBlock(null, new ArrayList<OsmEntity>(0));
+		}
+	}
+
+	/**
+	 * Decompress and parse a block without creating entity objects. The
+	 * entities are filled into reusable entities while iterating, see
+	 * {@link TboIterator#setReuseEntities(boolean)}.
+	 */
+	public static DecodedBlock parse(FileBlock block, FileHeader header,
+			boolean fetchTags, boolean fetchMetadata) throws IOException
+	{
+		EntityType type;
+		switch (block.getType()) {
+		case Definitions.BLOCK_TYPE_NODES:
+			type = EntityType.Node;
+			break;
+		case Definitions.BLOCK_TYPE_WAYS:
+			type = EntityType.Way;
+			break;
+		case Definitions.BLOCK_TYPE_RELATIONS:
+			type = EntityType.Relation;
+			break;
+		default:
+			// Blocks without entities, such as the block index
+			return new DecodedBlock(null, new ArrayList<OsmEntity>(0));
+		}
+		return new DecodedBlock(ReaderUtil.parseColumns(
+				Decompression.reader(block, header), header, block, type,
+				fetchTags, fetchMetadata));
+	}
+
+	/**
+	 * @return the type of entities contained in this block or null if the
+	 *         block does not contain entities.
+	 */
+	public EntityType getType()
+	{
+		return type;
+	}
+
+	/**
+	 * @return the entities of this block, which is an empty list for blocks
+	 *         created using {@link #parse}.
+	 */
+	public List<? extends OsmEntity> getEntities()
+	{
+		return entities;
+	}
+
+	/**
+	 * @return the decoded columns of a block created using {@link #parse} or
+	 *         null otherwise.
+	 */
+	EntityColumns getColumns()
+	{
+		return columns;
+	}
+
+}
@@ -23,6 +23,9 @@ import de.topobyte.compactio.CompactWriter;
 import de.topobyte.compactio.OutputStreamCompactWriter;
 import de.topobyte.osm4j.tbo.ByteArrayOutputStream;
 import de.topobyte.osm4j.tbo.Compression;
+import de.topobyte.osm4j.tbo.data.BlockIndex;
+import de.topobyte.osm4j.tbo.data.BlockIndexEntry;
+import de.topobyte.osm4j.tbo.data.Definitions;
 import de.topobyte.osm4j.tbo.data.FileBlock;
 import de.topobyte.osm4j.tbo.data.FileHeader;
 
@@ -31,14 +34,46 @@ public class DefaultBlockWriter implements BlockWriter
 
 	protected final CompactWriter writer;
 
+	private boolean writeIndex = false;
+	private BlockIndex index = null;
+	private long position = 0;
+
 	public DefaultBlockWriter(CompactWriter writer)
 	{
 		this.writer = writer;
 	}
 
+	public DefaultBlockWriter(CompactWriter writer, boolean writeIndex)
+	{
+		this.writer = writer;
+		this.writeIndex = writeIndex;
+	}
+
+	public boolean isWriteIndex()
+	{
+		return writeIndex;
+	}
+
+	/**
+	 * Append a {@link BlockIndex} to the file that allows random access to
+	 * blocks using {@link TboFile}. Must be set before writing the header.
+	 */
+	public void setWriteIndex(boolean writeIndex)
+	{
+		this.writeIndex = writeIndex;
+	}
+
 	@Override
 	public void writeHeader(FileHeader header) throws IOException
 	{
+		if (writeIndex) {
+			index = new BlockIndex();
+			header.setHasIndex(true);
+
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			header.write(new OutputStreamCompactWriter(baos));
+			position = baos.size();
+		}
 		header.write(writer);
 	}
 
@@ -51,6 +86,14 @@ public class DefaultBlockWriter implements BlockWriter
 		writeBlockInfo(new OutputStreamCompactWriter(baos), block);
 		int total = baos.size() + block.getLength();
 
+		if (index != null && block.getType() != Definitions.BLOCK_TYPE_INDEX) {
+			long minId = block.hasIdRange() ? block.getMinId() : 0;
+			long maxId = block.hasIdRange() ? block.getMaxId() : 0;
+			index.add(new BlockIndexEntry(position, block.getType(),
+					block.getNumObjects(), minId, maxId));
+		}
+		position += 1 + CompactWriter.getNumberOfBytesUnsigned(total) + total;
+
 		// Type of the block
 		writer.writeByte(block.getType());
 		// Length of chunk
@@ -62,6 +105,22 @@ public class DefaultBlockWriter implements BlockWriter
 		writer.write(block.getBuffer(), 0, block.getLength());
 	}
 
+	@Override
+	public void complete() throws IOException
+	{
+		if (index == null) {
+			return;
+		}
+
+		index.setPosition(position);
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		index.write(new OutputStreamCompactWriter(baos));
+		byte[] data = baos.toByteArray();
+		writeBlock(new FileBlock(Definitions.BLOCK_TYPE_INDEX,
+				Compression.NONE, data.length, 0, data, data.length));
+		index = null;
+	}
+
 	private void writeBlockInfo(CompactWriter writer, FileBlock block)
 			throws IOException
 	{
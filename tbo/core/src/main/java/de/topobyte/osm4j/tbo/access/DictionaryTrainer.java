@@ -0,0 +1,144 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.access;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.github.luben.zstd.ZstdException;
+
+import de.topobyte.osm4j.tbo.data.Definitions;
+import de.topobyte.osm4j.tbo.data.FileBlock;
+import de.topobyte.osm4j.tbo.data.FileHeader;
+import de.topobyte.osm4j.tbo.io.Decompression;
+
+/**
+ * Train a Zstandard dictionary from the uncompressed data of sample blocks,
+ * to be used with {@link TboWriter#setDictionary(byte[])}.
+ * 
+ * Blocks are compressed independently of each other, so small blocks compress
+ * poorly because each of them has to build up its own statistics. A dictionary
+ * trained on blocks similar to the ones being written, for example blocks from
+ * other files of the same data set, provides these statistics up front. Since
+ * the dictionary is stored in the header of each file, its size should be
+ * small compared to the size of the files written with it.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class DictionaryTrainer
+{
+
+	public static final int DEFAULT_SAMPLE_BUFFER_SIZE = 16 * 1024 * 1024;
+	public static final int DEFAULT_DICTIONARY_SIZE = 16 * 1024;
+
+	private ZstdDictTrainer trainer;
+	private int numSamples = 0;
+
+	public DictionaryTrainer()
+	{
+		this(DEFAULT_SAMPLE_BUFFER_SIZE, DEFAULT_DICTIONARY_SIZE);
+	}
+
+	/**
+	 * @param sampleBufferSize
+	 *            the maximum number of bytes of sample data to collect.
+	 * @param dictionarySize
+	 *            the maximum size of the dictionary in bytes.
+	 */
+	public DictionaryTrainer(int sampleBufferSize, int dictionarySize)
+	{
+		trainer = new ZstdDictTrainer(sampleBufferSize, dictionarySize);
+	}
+
+	public int getNumberOfSamples()
+	{
+		return numSamples;
+	}
+
+	/**
+	 * Add the uncompressed data of a block as a sample.
+	 * 
+	 * @return false if the sample buffer is full and the sample has not been
+	 *         added.
+	 */
+	public boolean addSample(byte[] data)
+	{
+		boolean added = trainer.addSample(data);
+		if (added) {
+			numSamples++;
+		}
+		return added;
+	}
+
+	/**
+	 * Add the data of the specified block as a sample. Blocks that do not
+	 * contain entities are ignored.
+	 * 
+	 * @return false if the sample buffer is full and the block has not been
+	 *         added.
+	 */
+	public boolean addBlock(FileBlock block, FileHeader header)
+			throws IOException
+	{
+		switch (block.getType()) {
+		case Definitions.BLOCK_TYPE_NODES:
+		case Definitions.BLOCK_TYPE_WAYS:
+		case Definitions.BLOCK_TYPE_RELATIONS:
+			return addSample(Decompression.decompress(block, header));
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * Add the blocks of the TBO file read from the specified stream as
+	 * samples, until the end of the stream is reached or the sample buffer is
+	 * full.
+	 * 
+	 * @return false if the sample buffer is full.
+	 */
+	public boolean addFile(InputStream input) throws IOException
+	{
+		BlockReader reader = new BlockReader(input);
+		FileHeader header = reader.parseHeader();
+		while (true) {
+			FileBlock block = reader.readBlock();
+			if (block == null) {
+				return true;
+			}
+			if (!addBlock(block, header)) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Train a dictionary from the samples added so far.
+	 */
+	public byte[] train() throws IOException
+	{
+		try {
+			return trainer.trainSamples();
+		} catch (ZstdException e) {
+			throw new IOException("Unable to train dictionary from "
+					+ numSamples + " samples", e);
+		}
+	}
+
+}
@@ -0,0 +1,220 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.access;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.impl.Entity;
+import de.topobyte.osm4j.core.model.impl.MutableEntity;
+import de.topobyte.osm4j.core.model.impl.MutableNode;
+import de.topobyte.osm4j.core.model.impl.MutableRelation;
+import de.topobyte.osm4j.core.model.impl.MutableWay;
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Relation;
+import de.topobyte.osm4j.core.model.impl.RelationMember;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
+import de.topobyte.osm4j.core.model.util.ReusableEntities;
+import de.topobyte.osm4j.tbo.writerhelper.EntityTypeHelper;
+
+/**
+ * The fields of all entities of a block, decoded into one array per field
+ * independent of the block layout. From these columns, either a list of
+ * entity objects is created or the entities are filled one at a time into a
+ * set of {@link ReusableEntities}.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class EntityColumns
+{
+
+	final EntityType type;
+	final int n;
+
+	long[] ids;
+
+	// Nodes: coordinates as stored in the file
+	long[] lats;
+	long[] lons;
+
+	// Ways: the number of nodes per way and the node ids of all ways
+	int[] numNodes;
+	long[] nodeIds;
+
+	// Relations: the number of members per relation and the members of all
+	// relations
+	List<String> poolMembers;
+	int[] numMembers;
+	int[] memberTypes;
+	long[] memberIds;
+	int[] memberRoles;
+
+	// Tags: the number of tags per entity and the pool indices of the keys
+	// and values of all entities. The pool is null if tags are not available.
+	List<String> poolTags = null;
+	int[] numTags;
+	int[] tagKeys;
+	int[] tagValues;
+
+	// Metadata: whether each entity has metadata, or null if all entities do,
+	// and the fields of all metadata entries. The versions are null if
+	// metadata is not available.
+	List<String> poolUsernames;
+	boolean[] hasMeta = null;
+	int[] versions = null;
+	long[] timestamps;
+	long[] changesets;
+	long[] userIds;
+	int[] userNameIds;
+
+	// Positions of the next entity when filling reusable entities
+	private int index = 0;
+	private int nodeOffset = 0;
+	private int memberOffset = 0;
+	private int tagOffset = 0;
+	private int metaIndex = 0;
+
+	EntityColumns(EntityType type, int n)
+	{
+		this.type = type;
+		this.n = n;
+	}
+
+	List<Node> nodes()
+	{
+		List<Node> nodes = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			nodes.add(new Node(ids[i], ReaderUtil.fromLong(lons[i]),
+					ReaderUtil.fromLong(lats[i])));
+		}
+		assignTagsAndMetadata(nodes);
+		return nodes;
+	}
+
+	List<Way> ways()
+	{
+		List<Way> ways = new ArrayList<>(n);
+		int k = 0;
+		for (int i = 0; i < n; i++) {
+			TLongArrayList nodes = new TLongArrayList(numNodes[i]);
+			nodes.add(nodeIds, k, numNodes[i]);
+			k += numNodes[i];
+			ways.add(new Way(ids[i], nodes));
+		}
+		assignTagsAndMetadata(ways);
+		return ways;
+	}
+
+	List<Relation> relations()
+	{
+		List<Relation> relations = new ArrayList<>(n);
+		int m = 0;
+		for (int i = 0; i < n; i++) {
+			List<RelationMember> members = new ArrayList<>(numMembers[i]);
+			for (int k = 0; k < numMembers[i]; k++, m++) {
+				EntityType type = EntityTypeHelper.getType(memberTypes[m]);
+				members.add(new RelationMember(memberIds[m], type,
+						poolMembers.get(memberRoles[m])));
+			}
+			relations.add(new Relation(ids[i], members));
+		}
+		assignTagsAndMetadata(relations);
+		return relations;
+	}
+
+	private void assignTagsAndMetadata(List<? extends Entity> elements)
+	{
+		if (poolTags != null) {
+			int t = 0;
+			for (int i = 0; i < n; i++) {
+				List<Tag> tags = new ArrayList<>(numTags[i]);
+				for (int k = 0; k < numTags[i]; k++, t++) {
+					tags.add(new Tag(poolTags.get(tagKeys[t]),
+							poolTags.get(tagValues[t])));
+				}
+				elements.get(i).setTags(tags);
+			}
+		}
+
+		if (versions != null) {
+			ReaderUtil.assignMetadata(elements, hasMeta, poolUsernames,
+					versions, timestamps, changesets, userIds, userNameIds);
+		}
+	}
+
+	boolean hasNext()
+	{
+		return index < n;
+	}
+
+	/**
+	 * Fill the next entity into the respective reusable entity.
+	 */
+	OsmEntity next(ReusableEntities entities)
+	{
+		MutableEntity entity;
+		switch (type) {
+		default:
+		case Node:
+			MutableNode node = entities.node();
+			node.setLongitude(ReaderUtil.fromLong(lons[index]));
+			node.setLatitude(ReaderUtil.fromLong(lats[index]));
+			entity = node;
+			break;
+		case Way:
+			MutableWay way = entities.way();
+			for (int k = 0; k < numNodes[index]; k++) {
+				way.addNode(nodeIds[nodeOffset++]);
+			}
+			entity = way;
+			break;
+		case Relation:
+			MutableRelation relation = entities.relation();
+			for (int k = 0; k < numMembers[index]; k++, memberOffset++) {
+				relation.addMember(memberIds[memberOffset],
+						EntityTypeHelper.getType(memberTypes[memberOffset]),
+						poolMembers.get(memberRoles[memberOffset]));
+			}
+			entity = relation;
+			break;
+		}
+		entity.setId(ids[index]);
+
+		if (poolTags != null) {
+			for (int k = 0; k < numTags[index]; k++, tagOffset++) {
+				entity.addTag(poolTags.get(tagKeys[tagOffset]),
+						poolTags.get(tagValues[tagOffset]));
+			}
+		}
+
+		if (versions != null && (hasMeta == null || hasMeta[index])) {
+			int m = metaIndex++;
+			entity.setMetadata(versions[m], timestamps[m], userIds[m],
+					poolUsernames.get(userNameIds[m]), changesets[m], true);
+		}
+
+		index++;
+		return entity;
+	}
+
+}
@@ -0,0 +1,130 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.access;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+import de.topobyte.osm4j.core.util.OrderedPipeline;
+import de.topobyte.osm4j.tbo.data.FileBlock;
+import de.topobyte.osm4j.tbo.data.FileHeader;
+
+/**
+ * Decodes the blocks of a TBO stream using multiple threads while still
+ * delivering them in file order.
+ * 
+ * The raw blocks are read using a {@link BlockReader} by a single reader
+ * thread and decompressed and parsed by a pool of worker threads, using an
+ * {@link OrderedPipeline}. At most <code>maxBlocksInFlight</code> blocks are
+ * being decoded or are waiting to be consumed at any time. Calls to
+ * {@link #next()} return the blocks in the order they appear in the file.
+ * 
+ * The file header has to be consumed from the underlying reader before the
+ * first call to {@link #next()}. Threads are started lazily on the first call
+ * to {@link #next()}. They are shut down once the end of the stream has been
+ * reached, when an error occurs or when {@link #close()} is called.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class ParallelBlockDecoder
+{
+
+	private final FileHeader header;
+	private final boolean fetchTags;
+	private final boolean fetchMetadata;
+	private volatile boolean reuseEntities = false;
+
+	private final OrderedPipeline<FileBlock, DecodedBlock> pipeline;
+
+	public ParallelBlockDecoder(BlockReader blockReader, FileHeader header,
+			boolean fetchTags, boolean fetchMetadata, int numThreads)
+	{
+		this(blockReader, header, fetchTags, fetchMetadata, numThreads,
+				2 * numThreads);
+	}
+
+	public ParallelBlockDecoder(final BlockReader blockReader,
+			FileHeader header, boolean fetchTags, boolean fetchMetadata,
+			int numThreads, int maxBlocksInFlight)
+	{
+		this.header = header;
+		this.fetchTags = fetchTags;
+		this.fetchMetadata = fetchMetadata;
+		pipeline = new OrderedPipeline<>("tbo", new Callable<FileBlock>() {
+
+			@Override
+			public FileBlock call() throws IOException
+			{
+				return blockReader.readBlock();
+			}
+
+		}, new OrderedPipeline.Worker<FileBlock, DecodedBlock>() {
+
+			@Override
+			public DecodedBlock process(FileBlock block) throws IOException
+			{
+				return decode(block);
+			}
+
+		}, numThreads, maxBlocksInFlight);
+	}
+
+	/**
+	 * Only decompress and parse blocks into columns without creating entity
+	 * objects, so that the consumer can fill them into reusable entities, see
+	 * {@link DecodedBlock#parse}.
+	 * 
+	 * @param reuseEntities
+	 *            whether entities will be reused by the consumer.
+	 */
+	public void setReuseEntities(boolean reuseEntities)
+	{
+		this.reuseEntities = reuseEntities;
+	}
+
+	/**
+	 * Get the next block of the file.
+	 * 
+	 * @return the next decoded block or null if the end of the stream has been
+	 *         reached.
+	 * @throws IOException
+	 *             if reading or decoding the block failed.
+	 */
+	public DecodedBlock next() throws IOException
+	{
+		return pipeline.next();
+	}
+
+	/**
+	 * Stop the reader thread and the worker threads. Subsequent calls to
+	 * {@link #next()} will return null.
+	 */
+	public void close()
+	{
+		pipeline.close();
+	}
+
+	private DecodedBlock decode(FileBlock block) throws IOException
+	{
+		if (reuseEntities) {
+			return DecodedBlock.parse(block, header, fetchTags, fetchMetadata);
+		}
+		return DecodedBlock.decode(block, header, fetchTags, fetchMetadata);
+	}
+
+}
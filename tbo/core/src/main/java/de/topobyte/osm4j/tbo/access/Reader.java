@@ -17,7 +17,6 @@
 
 package de.topobyte.osm4j.tbo.access;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -37,7 +36,7 @@ public class Reader extends BlockReader
 
 	private boolean fetchTags;
 
-	private boolean hasMetadata;
+	private FileHeader header;
 	private boolean fetchMetadata;
 
 	private final Handler handler;
@@ -60,8 +59,7 @@ public class Reader extends BlockReader
 
 	public void run() throws IOException
 	{
-		FileHeader header = ReaderUtil.parseHeader(reader);
-		hasMetadata = header.hasMetadata();
+		header = ReaderUtil.parseHeader(reader);
 		handler.handle(header);
 
 		long notifysize = 100 * 1024 * 1024;
@@ -97,10 +95,7 @@ public class Reader extends BlockReader
 
 	private void parseBlock(FileBlock block) throws IOException
 	{
-		byte[] uncompressed = Decompression.decompress(block);
-
-		ByteArrayInputStream bais = new ByteArrayInputStream(uncompressed);
-		CompactReader compactReader = new InputStreamCompactReader(bais);
+		CompactReader compactReader = Decompression.reader(block, header);
 
 		parseBlock(compactReader, block);
 	}
@@ -111,20 +106,20 @@ public class Reader extends BlockReader
 
 		// read objects
 		if (block.getType() == Definitions.BLOCK_TYPE_NODES) {
-			List<Node> nodes = ReaderUtil.parseNodes(reader, block, fetchTags,
-					hasMetadata, fetchMetadata);
+			List<Node> nodes = ReaderUtil.parseNodes(reader, header, block,
+					fetchTags, fetchMetadata);
 			for (Node node : nodes) {
 				handler.handle(node);
 			}
 		} else if (block.getType() == Definitions.BLOCK_TYPE_WAYS) {
-			List<Way> ways = ReaderUtil.parseWays(reader, block, fetchTags,
-					hasMetadata, fetchMetadata);
+			List<Way> ways = ReaderUtil.parseWays(reader, header, block,
+					fetchTags, fetchMetadata);
 			for (Way way : ways) {
 				handler.handle(way);
 			}
 		} else if (block.getType() == Definitions.BLOCK_TYPE_RELATIONS) {
-			List<Relation> relations = ReaderUtil.parseRelations(reader, block,
-					fetchTags, hasMetadata, fetchMetadata);
+			List<Relation> relations = ReaderUtil.parseRelations(reader,
+					header, block, fetchTags, fetchMetadata);
 			for (Relation relation : relations) {
 				handler.handle(relation);
 			}
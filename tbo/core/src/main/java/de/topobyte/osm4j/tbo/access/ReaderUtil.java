@@ -25,6 +25,7 @@ import java.util.Map;
 import java.util.TreeMap;
 
 import com.slimjars.dist.gnu.trove.list.TLongList;
+import com.slimjars.dist.gnu.trove.list.array.TIntArrayList;
 import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
 
 import de.topobyte.compactio.CompactReader;
@@ -36,14 +37,11 @@ import de.topobyte.osm4j.core.model.impl.Entity;
 import de.topobyte.osm4j.core.model.impl.Metadata;
 import de.topobyte.osm4j.core.model.impl.Node;
 import de.topobyte.osm4j.core.model.impl.Relation;
-import de.topobyte.osm4j.core.model.impl.RelationMember;
-import de.topobyte.osm4j.core.model.impl.Tag;
 import de.topobyte.osm4j.core.model.impl.Way;
 import de.topobyte.osm4j.tbo.data.BlockMetadataInfo;
 import de.topobyte.osm4j.tbo.data.Definitions;
 import de.topobyte.osm4j.tbo.data.FileBlock;
 import de.topobyte.osm4j.tbo.data.FileHeader;
-import de.topobyte.osm4j.tbo.writerhelper.EntityTypeHelper;
 
 public class ReaderUtil
 {
@@ -58,6 +56,9 @@ public class ReaderUtil
 		}
 
 		int version = (int) reader.readVariableLengthUnsignedInteger();
+		if (version > Definitions.VERSION_COLUMNAR) {
+			throw new IOException("Unsupported TBO version: " + version);
+		}
 
 		Map<String, String> tags = new TreeMap<>();
 		int numTags = (int) reader.readVariableLengthUnsignedInteger();
@@ -70,6 +71,8 @@ public class ReaderUtil
 		int flags = reader.readByte();
 		boolean hasMetadata = (flags & FileHeader.FLAG_HAS_METADATA) != 0;
 		boolean hasBounds = (flags & FileHeader.FLAG_HAS_BOUNDS) != 0;
+		boolean hasIndex = (flags & FileHeader.FLAG_HAS_INDEX) != 0;
+		boolean hasDictionary = (flags & FileHeader.FLAG_HAS_DICTIONARY) != 0;
 
 		OsmBounds bounds = null;
 		if (hasBounds) {
@@ -80,14 +83,122 @@ public class ReaderUtil
 			bounds = new Bounds(left, right, top, bottom);
 		}
 
-		return new FileHeader(version, tags, hasMetadata, bounds);
+		byte[] dictionary = null;
+		if (hasDictionary) {
+			int length = (int) reader.readVariableLengthUnsignedInteger();
+			dictionary = new byte[length];
+			reader.readFully(dictionary);
+		}
+
+		FileHeader header = new FileHeader(version, tags, hasMetadata, bounds);
+		header.setHasIndex(hasIndex);
+		header.setDictionary(dictionary);
+		return header;
+	}
+
+	/*
+	 * Parse methods that choose the block layout based on the version of the
+	 * file.
+	 */
+
+	private static boolean isColumnar(FileHeader header)
+	{
+		return header.getVersion() >= Definitions.VERSION_COLUMNAR;
+	}
+
+	public static List<Node> parseNodes(CompactReader reader,
+			FileHeader header, FileBlock block, boolean fetchTags,
+			boolean fetchMetadata) throws IOException
+	{
+		return parseColumns(reader, header, block, EntityType.Node,
+				fetchTags, fetchMetadata).nodes();
 	}
 
-	private static List<String> parsePool(CompactReader reader)
+	public static List<Way> parseWays(CompactReader reader, FileHeader header,
+			FileBlock block, boolean fetchTags, boolean fetchMetadata)
 			throws IOException
 	{
-		List<String> pool = new ArrayList<>();
-		long size = reader.readVariableLengthUnsignedInteger();
+		return parseColumns(reader, header, block, EntityType.Way, fetchTags,
+				fetchMetadata).ways();
+	}
+
+	public static List<Relation> parseRelations(CompactReader reader,
+			FileHeader header, FileBlock block, boolean fetchTags,
+			boolean fetchMetadata) throws IOException
+	{
+		return parseColumns(reader, header, block, EntityType.Relation,
+				fetchTags, fetchMetadata).relations();
+	}
+
+	/**
+	 * Parse a block of entities of the specified type into columns, using the
+	 * block layout of the file's version.
+	 */
+	static EntityColumns parseColumns(CompactReader reader, FileHeader header,
+			FileBlock block, EntityType type, boolean fetchTags,
+			boolean fetchMetadata) throws IOException
+	{
+		boolean hasMetadata = header.hasMetadata();
+		if (isColumnar(header)) {
+			switch (type) {
+			default:
+			case Node:
+				return ColumnarReaderUtil.parseNodes(reader, block, fetchTags,
+						hasMetadata, fetchMetadata);
+			case Way:
+				return ColumnarReaderUtil.parseWays(reader, block, fetchTags,
+						hasMetadata, fetchMetadata);
+			case Relation:
+				return ColumnarReaderUtil.parseRelations(reader, block,
+						fetchTags, hasMetadata, fetchMetadata);
+			}
+		}
+		switch (type) {
+		default:
+		case Node:
+			return parseNodeColumns(reader, block, fetchTags, hasMetadata,
+					fetchMetadata);
+		case Way:
+			return parseWayColumns(reader, block, fetchTags, hasMetadata,
+					fetchMetadata);
+		case Relation:
+			return parseRelationColumns(reader, block, fetchTags,
+					hasMetadata, fetchMetadata);
+		}
+	}
+
+	public static TLongList parseNodeIds(CompactReader reader,
+			FileHeader header, FileBlock block) throws IOException
+	{
+		if (isColumnar(header)) {
+			return ColumnarReaderUtil.parseIds(reader, block, 1);
+		}
+		return parseNodeIds(reader, block);
+	}
+
+	public static TLongList parseWayIds(CompactReader reader,
+			FileHeader header, FileBlock block) throws IOException
+	{
+		if (isColumnar(header)) {
+			return ColumnarReaderUtil.parseIds(reader, block, 1);
+		}
+		return parseWayIds(reader, block);
+	}
+
+	public static TLongList parseRelationIds(CompactReader reader,
+			FileHeader header, FileBlock block) throws IOException
+	{
+		if (isColumnar(header)) {
+			return ColumnarReaderUtil.parseIds(reader, block, 2);
+		}
+		return parseRelationIds(reader, block);
+	}
+
+	static List<String> parsePool(CompactReader reader)
+			throws IOException
+	{
+		int size = (int) reader.readVariableLengthUnsignedInteger();
+		List<String> pool = new ArrayList<>(size);
 		for (int i = 0; i < size; i++) {
 			String string = reader.readString();
 			pool.add(string);
@@ -95,87 +206,87 @@ public class ReaderUtil
 		return pool;
 	}
 
-	private static double fromLong(long value)
+	static double fromLong(long value)
 	{
 		return value * .0000001;
 	}
 
-	private static List<Tag> parseTags(CompactReader reader, List<String> pool)
-			throws IOException
+	/**
+	 * Parse the tags of all elements, i.e. for each element the number of tags
+	 * and the pool indices of keys and values. The tags are skipped if the tag
+	 * pool is null because tags have not been requested.
+	 */
+	private static void parseTags(CompactReader reader, EntityColumns columns,
+			List<String> pool) throws IOException
 	{
-		int num = (int) reader.readVariableLengthUnsignedInteger();
-		List<Tag> tags = new ArrayList<>();
-		for (int i = 0; i < num; i++) {
-			int k = (int) reader.readVariableLengthUnsignedInteger();
-			int v = (int) reader.readVariableLengthUnsignedInteger();
-			String key = pool.get(k);
-			String value = pool.get(v);
-			Tag tag = new Tag(key, value);
-			tags.add(tag);
+		long len = reader.readVariableLengthUnsignedInteger();
+		if (pool == null) {
+			reader.skip(len);
+			return;
+		}
+
+		int n = columns.n;
+		int[] numTags = new int[n];
+		TIntArrayList keys = new TIntArrayList();
+		TIntArrayList values = new TIntArrayList();
+		for (int i = 0; i < n; i++) {
+			int num = (int) reader.readVariableLengthUnsignedInteger();
+			numTags[i] = num;
+			for (int k = 0; k < num; k++) {
+				keys.add((int) reader.readVariableLengthUnsignedInteger());
+				values.add((int) reader.readVariableLengthUnsignedInteger());
+			}
 		}
-		return tags;
+
+		columns.poolTags = pool;
+		columns.numTags = numTags;
+		columns.tagKeys = keys.toArray();
+		columns.tagValues = values.toArray();
 	}
 
 	public static List<Node> parseNodes(CompactReader reader, FileBlock block,
 			boolean fetchTags, boolean hasMetadata, boolean fetchMetadata)
 			throws IOException
 	{
-		long len = reader.readVariableLengthUnsignedInteger();
-		List<String> poolTags = null;
-		if (fetchTags) {
-			poolTags = parsePool(reader);
-		} else {
-			reader.skip(len);
-		}
+		return parseNodeColumns(reader, block, fetchTags, hasMetadata,
+				fetchMetadata).nodes();
+	}
+
+	static EntityColumns parseNodeColumns(CompactReader reader,
+			FileBlock block, boolean fetchTags, boolean hasMetadata,
+			boolean fetchMetadata) throws IOException
+	{
+		List<String> poolTags = parseTagPool(reader, fetchTags);
 
 		int n = block.getNumObjects();
-		List<Node> nodes = new ArrayList<>(n);
+		EntityColumns columns = new EntityColumns(EntityType.Node, n);
 
-		long idOffset = 0;
+		reader.readVariableLengthUnsignedInteger();
+		columns.ids = parseDeltaLongs(reader, n);
+
+		long[] lats = new long[n];
+		long[] lons = new long[n];
 		long latOffset = 0;
 		long lonOffset = 0;
 
-		long[] ids = new long[n];
-		double[] lats = new double[n];
-		double[] lons = new double[n];
-
-		reader.readVariableLengthUnsignedInteger();
-		for (int i = 0; i < n; i++) {
-			long id = idOffset + reader.readVariableLengthSignedInteger();
-			ids[i] = idOffset = id;
-		}
-
 		reader.readVariableLengthUnsignedInteger();
 		for (int i = 0; i < n; i++) {
 			long mlat = latOffset + reader.readVariableLengthSignedInteger();
 			long mlon = lonOffset + reader.readVariableLengthSignedInteger();
-			lats[i] = fromLong(mlat);
-			lons[i] = fromLong(mlon);
-			latOffset = mlat;
-			lonOffset = mlon;
+			lats[i] = latOffset = mlat;
+			lons[i] = lonOffset = mlon;
 		}
+		columns.lats = lats;
+		columns.lons = lons;
 
-		for (int i = 0; i < n; i++) {
-			Node node = new Node(ids[i], lons[i], lats[i]);
-			nodes.add(node);
-		}
-
-		len = reader.readVariableLengthUnsignedInteger();
-		if (fetchTags) {
-			for (int i = 0; i < n; i++) {
-				List<Tag> tags = parseTags(reader, poolTags);
-				nodes.get(i).setTags(tags);
-			}
-		} else {
-			reader.skip(len);
-		}
+		parseTags(reader, columns, poolTags);
 
 		if (hasMetadata && fetchMetadata) {
 			reader.readVariableLengthUnsignedInteger();
-			parseMetadata(reader, nodes);
+			parseMetadata(reader, columns);
 		}
 
-		return nodes;
+		return columns;
 	}
 
 	public static TLongList parseNodeIds(CompactReader reader, FileBlock block)
@@ -204,58 +315,46 @@ public class ReaderUtil
 			boolean fetchTags, boolean hasMetadata, boolean fetchMetadata)
 			throws IOException
 	{
-		long len = reader.readVariableLengthUnsignedInteger();
-		List<String> poolTags = null;
-		if (fetchTags) {
-			poolTags = parsePool(reader);
-		} else {
-			reader.skip(len);
-		}
-
-		int n = block.getNumObjects();
-		List<Way> ways = new ArrayList<>(n);
+		return parseWayColumns(reader, block, fetchTags, hasMetadata,
+				fetchMetadata).ways();
+	}
 
-		long idOffset = 0;
-		long nidOffset = 0;
+	static EntityColumns parseWayColumns(CompactReader reader,
+			FileBlock block, boolean fetchTags, boolean hasMetadata,
+			boolean fetchMetadata) throws IOException
+	{
+		List<String> poolTags = parseTagPool(reader, fetchTags);
 
-		long[] ids = new long[n];
+		int n = block.getNumObjects();
+		EntityColumns columns = new EntityColumns(EntityType.Way, n);
 
 		reader.readVariableLengthUnsignedInteger();
-		for (int i = 0; i < n; i++) {
-			long id = idOffset + reader.readVariableLengthSignedInteger();
-			ids[i] = idOffset = id;
-		}
+		columns.ids = parseDeltaLongs(reader, n);
+
+		int[] numNodes = new int[n];
+		TLongArrayList nodeIds = new TLongArrayList();
+		long nidOffset = 0;
 
 		reader.readVariableLengthUnsignedInteger();
 		for (int i = 0; i < n; i++) {
-			TLongArrayList nodeIds = new TLongArrayList();
-			long numNodes = reader.readVariableLengthUnsignedInteger();
-			for (int k = 0; k < numNodes; k++) {
+			numNodes[i] = (int) reader.readVariableLengthUnsignedInteger();
+			for (int k = 0; k < numNodes[i]; k++) {
 				long nid = nidOffset + reader.readVariableLengthSignedInteger();
 				nodeIds.add(nid);
 				nidOffset = nid;
 			}
-
-			Way way = new Way(ids[i], nodeIds);
-			ways.add(way);
 		}
+		columns.numNodes = numNodes;
+		columns.nodeIds = nodeIds.toArray();
 
-		len = reader.readVariableLengthUnsignedInteger();
-		if (fetchTags) {
-			for (int i = 0; i < n; i++) {
-				List<Tag> tags = parseTags(reader, poolTags);
-				ways.get(i).setTags(tags);
-			}
-		} else {
-			reader.skip(len);
-		}
+		parseTags(reader, columns, poolTags);
 
 		if (hasMetadata && fetchMetadata) {
 			reader.readVariableLengthUnsignedInteger();
-			parseMetadata(reader, ways);
+			parseMetadata(reader, columns);
 		}
 
-		return ways;
+		return columns;
 	}
 
 	public static TLongList parseWayIds(CompactReader reader, FileBlock block)
@@ -284,66 +383,73 @@ public class ReaderUtil
 			FileBlock block, boolean fetchTags, boolean hasMetadata,
 			boolean fetchMetadata) throws IOException
 	{
-		long len = reader.readVariableLengthUnsignedInteger();
-		List<String> poolTags = null;
-		if (fetchTags) {
-			poolTags = parsePool(reader);
-		} else {
-			reader.skip(len);
-		}
+		return parseRelationColumns(reader, block, fetchTags, hasMetadata,
+				fetchMetadata).relations();
+	}
+
+	static EntityColumns parseRelationColumns(CompactReader reader,
+			FileBlock block, boolean fetchTags, boolean hasMetadata,
+			boolean fetchMetadata) throws IOException
+	{
+		List<String> poolTags = parseTagPool(reader, fetchTags);
 
 		reader.readVariableLengthUnsignedInteger();
 		List<String> poolMembers = parsePool(reader);
 
 		int n = block.getNumObjects();
-		List<Relation> relations = new ArrayList<>(n);
-
-		long idOffset = 0;
-		long midOffset = 0;
-
-		long[] ids = new long[n];
+		EntityColumns columns = new EntityColumns(EntityType.Relation, n);
 
 		reader.readVariableLengthUnsignedInteger();
-		for (int i = 0; i < n; i++) {
-			long id = idOffset + reader.readVariableLengthSignedInteger();
-			ids[i] = idOffset = id;
-		}
+		columns.ids = parseDeltaLongs(reader, n);
+
+		int[] numMembers = new int[n];
+		TIntArrayList types = new TIntArrayList();
+		TLongArrayList memberIds = new TLongArrayList();
+		TIntArrayList roles = new TIntArrayList();
+		long midOffset = 0;
 
 		reader.readVariableLengthUnsignedInteger();
 		for (int i = 0; i < n; i++) {
-			List<RelationMember> members = new ArrayList<>();
-			long numMembers = reader.readVariableLengthUnsignedInteger();
-			for (int k = 0; k < numMembers; k++) {
-				int typeByte = reader.readByte();
+			numMembers[i] = (int) reader.readVariableLengthUnsignedInteger();
+			for (int k = 0; k < numMembers[i]; k++) {
+				types.add(reader.readByte());
 				long mid = midOffset + reader.readVariableLengthSignedInteger();
+				memberIds.add(mid);
 				midOffset = mid;
-				int roleIndex = (int) reader
-						.readVariableLengthUnsignedInteger();
-				String role = poolMembers.get(roleIndex);
-				EntityType type = EntityTypeHelper.getType(typeByte);
-				members.add(new RelationMember(mid, type, role));
+				roles.add((int) reader.readVariableLengthUnsignedInteger());
 			}
-
-			Relation relation = new Relation(ids[i], members);
-			relations.add(relation);
 		}
+		columns.poolMembers = poolMembers;
+		columns.numMembers = numMembers;
+		columns.memberTypes = types.toArray();
+		columns.memberIds = memberIds.toArray();
+		columns.memberRoles = roles.toArray();
 
-		len = reader.readVariableLengthUnsignedInteger();
-		if (fetchTags) {
-			for (int i = 0; i < n; i++) {
-				List<Tag> tags = parseTags(reader, poolTags);
-				relations.get(i).setTags(tags);
-			}
-		} else {
-			reader.skip(len);
-		}
+		parseTags(reader, columns, poolTags);
 
 		if (hasMetadata && fetchMetadata) {
 			reader.readVariableLengthUnsignedInteger();
-			parseMetadata(reader, relations);
+			parseMetadata(reader, columns);
 		}
 
-		return relations;
+		return columns;
+	}
+
+	/**
+	 * Parse the tag pool at the start of a block if tags have been requested
+	 * or skip it otherwise.
+	 * 
+	 * @return the tag pool or null if tags have not been requested.
+	 */
+	private static List<String> parseTagPool(CompactReader reader,
+			boolean fetchTags) throws IOException
+	{
+		long len = reader.readVariableLengthUnsignedInteger();
+		if (fetchTags) {
+			return parsePool(reader);
+		}
+		reader.skip(len);
+		return null;
 	}
 
 	public static TLongList parseRelationIds(CompactReader reader,
@@ -372,7 +478,7 @@ public class ReaderUtil
 	}
 
 	private static void parseMetadata(CompactReader reader,
-			List<? extends Entity> elements) throws IOException
+			EntityColumns columns) throws IOException
 	{
 		int situationByte = reader.readByte();
 		BlockMetadataInfo situation = null;
@@ -391,7 +497,7 @@ public class ReaderUtil
 		List<String> poolUsernames = parsePool(reader);
 
 		// number of elements in the block
-		int numElements = elements.size();
+		int numElements = columns.n;
 		// number of meta data entries to follow
 		int numMetaData;
 
@@ -413,18 +519,36 @@ public class ReaderUtil
 			}
 		} else {
 			// all entries have meta data
-			numMetaData = elements.size();
+			numMetaData = numElements;
 		}
 
 		// parse data entries
-		int[] versions = parseDeltaInts(reader, numMetaData);
-		long[] timestamps = parseDeltaLongs(reader, numMetaData);
-		long[] changesets = parseDeltaLongs(reader, numMetaData);
-		long[] userIds = parseDeltaLongs(reader, numMetaData);
-		int[] userNameIds = parseInts(reader, numMetaData);
+		columns.hasMeta = hasMeta;
+		columns.poolUsernames = poolUsernames;
+		columns.versions = parseDeltaInts(reader, numMetaData);
+		columns.timestamps = parseDeltaLongs(reader, numMetaData);
+		columns.changesets = parseDeltaLongs(reader, numMetaData);
+		columns.userIds = parseDeltaLongs(reader, numMetaData);
+		columns.userNameIds = parseInts(reader, numMetaData);
+	}
+
+	/**
+	 * Create metadata objects from the parsed fields and add them to the
+	 * entities.
+	 * 
+	 * @param hasMeta
+	 *            for each element whether it has metadata or null if all
+	 *            elements have metadata.
+	 */
+	static void assignMetadata(List<? extends Entity> elements,
+			boolean[] hasMeta, List<String> poolUsernames, int[] versions,
+			long[] timestamps, long[] changesets, long[] userIds,
+			int[] userNameIds)
+	{
+		int numElements = elements.size();
 
 		// Create meta data objects and add to entity objects
-		if (situation == BlockMetadataInfo.ALL) {
+		if (hasMeta == null) {
 			// simple loop since every element has meta data
 			for (int i = 0; i < numElements; i++) {
 				Entity entity = elements.get(i);
@@ -453,7 +577,7 @@ public class ReaderUtil
 		}
 	}
 
-	private static int[] parseDeltaInts(CompactReader reader, int n)
+	static int[] parseDeltaInts(CompactReader reader, int n)
 			throws IOException
 	{
 		int[] values = new int[n];
@@ -467,7 +591,7 @@ public class ReaderUtil
 		return values;
 	}
 
-	private static long[] parseDeltaLongs(CompactReader reader, int n)
+	static long[] parseDeltaLongs(CompactReader reader, int n)
 			throws IOException
 	{
 		long[] values = new long[n];
@@ -481,7 +605,7 @@ public class ReaderUtil
 		return values;
 	}
 
-	private static int[] parseInts(CompactReader reader, int n)
+	static int[] parseInts(CompactReader reader, int n)
 			throws IOException
 	{
 		int[] values = new int[n];
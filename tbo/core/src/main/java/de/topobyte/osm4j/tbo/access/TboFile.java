@@ -0,0 +1,553 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.access;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.util.List;
+
+import com.slimjars.dist.gnu.trove.list.TLongList;
+
+import de.topobyte.compactio.CompactReader;
+import de.topobyte.compactio.CompactWriter;
+import de.topobyte.compactio.InputStreamCompactReader;
+import de.topobyte.compactio.OutputStreamCompactWriter;
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.core.resolve.OsmEntityProvider;
+import de.topobyte.osm4j.tbo.ByteArrayOutputStream;
+import de.topobyte.osm4j.tbo.Compression;
+import de.topobyte.osm4j.tbo.data.BlockIndex;
+import de.topobyte.osm4j.tbo.data.BlockIndexEntry;
+import de.topobyte.osm4j.tbo.data.Definitions;
+import de.topobyte.osm4j.tbo.data.FileBlock;
+import de.topobyte.osm4j.tbo.data.FileHeader;
+import de.topobyte.osm4j.tbo.io.Decompression;
+
+/**
+ * Random access to the blocks of a TBO file.
+ * 
+ * If the file has been written with a block index (see
+ * {@link TboWriter#setWriteIndex(boolean)}), the index is read from the end of
+ * the file. Otherwise the index is built by scanning the file once, which
+ * requires decoding the ids of each block.
+ * 
+ * Since blocks of the same entity type are stored contiguously, the blocks of
+ * a single type can be iterated without reading any other blocks using
+ * {@link #iterator(EntityType, boolean, boolean)}. If the entities of each
+ * type are sorted by id, this class can also be used as an
+ * {@link OsmEntityProvider} that finds the block containing an entity by
+ * binary search on the id ranges recorded in the index. The most recently
+ * decoded block is cached.
+ * 
+ * Instances are not safe for concurrent use.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class TboFile implements OsmEntityProvider
+{
+
+	private RandomAccessFile file;
+
+	private FileHeader header = null;
+	private long headerLength;
+
+	private BlockIndex index = null;
+	// The position just after the last data block
+	private long dataEnd;
+
+	private int cachedBlock = -1;
+	private List<? extends OsmEntity> cachedEntities = null;
+
+	public TboFile(File file) throws FileNotFoundException
+	{
+		this(new RandomAccessFile(file, "r"));
+	}
+
+	public TboFile(RandomAccessFile file)
+	{
+		this.file = file;
+	}
+
+	public void close() throws IOException
+	{
+		file.close();
+	}
+
+	public FileHeader getHeader() throws IOException
+	{
+		if (header == null) {
+			file.seek(0);
+			header = ReaderUtil.parseHeader(new InputStreamCompactReader(
+					stream()));
+			// The encoded length does not depend on the order of the tags
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			header.write(new OutputStreamCompactWriter(baos));
+			headerLength = baos.size();
+		}
+		return header;
+	}
+
+	/**
+	 * Load the block index from the end of the file if it has one or build
+	 * it by scanning the file otherwise.
+	 */
+	public void buildBlockIndex() throws IOException
+	{
+		getHeader();
+		if (header.hasIndex() && readIndex()) {
+			return;
+		}
+		scanIndex();
+	}
+
+	public boolean isBlockIndexInitialized()
+	{
+		return index != null;
+	}
+
+	private boolean readIndex() throws IOException
+	{
+		long length = file.length();
+		if (length < headerLength + BlockIndex.TRAILER_LENGTH) {
+			return false;
+		}
+		byte[] trailer = new byte[BlockIndex.TRAILER_LENGTH];
+		file.seek(length - trailer.length);
+		file.readFully(trailer);
+		long position = BlockIndex.parseTrailer(trailer);
+		if (position < headerLength || position >= length) {
+			return false;
+		}
+
+		FileBlock block = readBlock(position, length);
+		if (block.getType() != Definitions.BLOCK_TYPE_INDEX) {
+			return false;
+		}
+		CompactReader reader = new InputStreamCompactReader(
+				new ByteArrayInputStream(block.getBuffer(), 0,
+						block.getLength()));
+		index = BlockIndex.read(reader);
+		dataEnd = position;
+		return true;
+	}
+
+	private void scanIndex() throws IOException
+	{
+		BlockIndex index = new BlockIndex();
+
+		file.seek(headerLength);
+		BlockReader blockReader = new BlockReader(stream());
+		long position = headerLength;
+		while (true) {
+			FileBlock block = blockReader.readBlock();
+			if (block == null) {
+				break;
+			}
+			if (block.getType() == Definitions.BLOCK_TYPE_INDEX) {
+				break;
+			}
+			TLongList ids = parseIds(block);
+			long minId = 0, maxId = 0;
+			if (ids != null && !ids.isEmpty()) {
+				minId = ids.min();
+				maxId = ids.max();
+			}
+			index.add(new BlockIndexEntry(position, block.getType(),
+					block.getNumObjects(), minId, maxId));
+			position += size(block);
+		}
+
+		this.index = index;
+		dataEnd = position;
+	}
+
+	// The number of bytes the block occupies in the file
+	private static long size(FileBlock block)
+	{
+		int total = 1 + CompactWriter.getNumberOfBytesUnsigned(block
+				.getNumObjects()) + block.getLength();
+		if (block.getCompression() != Compression.NONE) {
+			total += CompactWriter.getNumberOfBytesUnsigned(block
+					.getUncompressedLength());
+		}
+		return 1 + CompactWriter.getNumberOfBytesUnsigned(total) + total;
+	}
+
+	private TLongList parseIds(FileBlock block) throws IOException
+	{
+		CompactReader reader = Decompression.reader(block, header);
+		switch (block.getType()) {
+		case Definitions.BLOCK_TYPE_NODES:
+			return ReaderUtil.parseNodeIds(reader, header, block);
+		case Definitions.BLOCK_TYPE_WAYS:
+			return ReaderUtil.parseWayIds(reader, header, block);
+		case Definitions.BLOCK_TYPE_RELATIONS:
+			return ReaderUtil.parseRelationIds(reader, header, block);
+		default:
+			return null;
+		}
+	}
+
+	private void ensureIndex() throws IOException
+	{
+		if (index == null) {
+			buildBlockIndex();
+		}
+	}
+
+	/*
+	 * Block info
+	 */
+
+	public BlockIndex getBlockIndex() throws IOException
+	{
+		ensureIndex();
+		return index;
+	}
+
+	public int getNumberOfBlocks() throws IOException
+	{
+		ensureIndex();
+		return index.getEntries().size();
+	}
+
+	public BlockIndexEntry getBlockIndexEntry(int i) throws IOException
+	{
+		ensureIndex();
+		return index.getEntries().get(i);
+	}
+
+	/**
+	 * Get the index of the first block that contains entities of the
+	 * specified type.
+	 * 
+	 * @return the index of the block or -1 if there is no such block.
+	 */
+	public int getFirstBlock(EntityType type) throws IOException
+	{
+		ensureIndex();
+		int blockType = blockType(type);
+		List<BlockIndexEntry> entries = index.getEntries();
+		for (int i = 0; i < entries.size(); i++) {
+			if (entries.get(i).getType() == blockType) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the index of the last block that contains entities of the specified
+	 * type.
+	 * 
+	 * @return the index of the block or -1 if there is no such block.
+	 */
+	public int getLastBlock(EntityType type) throws IOException
+	{
+		ensureIndex();
+		int blockType = blockType(type);
+		List<BlockIndexEntry> entries = index.getEntries();
+		for (int i = entries.size() - 1; i >= 0; i--) {
+			if (entries.get(i).getType() == blockType) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int blockType(EntityType type)
+	{
+		switch (type) {
+		default:
+		case Node:
+			return Definitions.BLOCK_TYPE_NODES;
+		case Way:
+			return Definitions.BLOCK_TYPE_WAYS;
+		case Relation:
+			return Definitions.BLOCK_TYPE_RELATIONS;
+		}
+	}
+
+	/*
+	 * Data access
+	 */
+
+	public FileBlock readBlock(int i) throws IOException
+	{
+		ensureIndex();
+		return readBlock(start(i), end(i));
+	}
+
+	private long start(int i)
+	{
+		return index.getEntries().get(i).getPosition();
+	}
+
+	private long end(int i)
+	{
+		List<BlockIndexEntry> entries = index.getEntries();
+		if (i + 1 < entries.size()) {
+			return entries.get(i + 1).getPosition();
+		}
+		return dataEnd;
+	}
+
+	private FileBlock readBlock(long start, long end) throws IOException
+	{
+		byte[] buffer = new byte[(int) (end - start)];
+		file.seek(start);
+		file.readFully(buffer);
+		BlockReader reader = new BlockReader(new ByteArrayInputStream(buffer));
+		return reader.readBlock();
+	}
+
+	/**
+	 * Decode the entities of the specified block.
+	 */
+	public List<? extends OsmEntity> readEntities(int i, boolean fetchTags,
+			boolean fetchMetadata) throws IOException
+	{
+		FileBlock block = readBlock(i);
+		CompactReader reader = Decompression.reader(block, header);
+		switch (block.getType()) {
+		case Definitions.BLOCK_TYPE_NODES:
+			return ReaderUtil.parseNodes(reader, header, block, fetchTags,
+					fetchMetadata);
+		case Definitions.BLOCK_TYPE_WAYS:
+			return ReaderUtil.parseWays(reader, header, block, fetchTags,
+					fetchMetadata);
+		case Definitions.BLOCK_TYPE_RELATIONS:
+			return ReaderUtil.parseRelations(reader, header, block,
+					fetchTags, fetchMetadata);
+		default:
+			throw new IOException("Not a data block: " + i);
+		}
+	}
+
+	/**
+	 * Create an iterator over the entities of the specified type only. Blocks
+	 * of other types are not read.
+	 */
+	public OsmIterator iterator(EntityType type, boolean fetchTags,
+			boolean fetchMetadata) throws IOException
+	{
+		ensureIndex();
+
+		file.seek(0);
+		byte[] headerBytes = new byte[(int) headerLength];
+		file.readFully(headerBytes);
+
+		int first = getFirstBlock(type);
+		long start = first < 0 ? dataEnd : start(first);
+		long end = first < 0 ? dataEnd : end(getLastBlock(type));
+
+		// The iterator reads from the file's channel, which shares its
+		// position with the file, so this instance must not be used while
+		// iterating
+		file.seek(start);
+		InputStream blocks = new LimitedInputStream(stream(), end - start);
+		InputStream input = new SequenceInputStream(
+				new ByteArrayInputStream(headerBytes), blocks);
+		return new TboIterator(input, fetchTags, fetchMetadata);
+	}
+
+	/*
+	 * Entity lookup
+	 */
+
+	@Override
+	public OsmNode getNode(long id) throws EntityNotFoundException
+	{
+		return (OsmNode) find(EntityType.Node, id);
+	}
+
+	@Override
+	public OsmWay getWay(long id) throws EntityNotFoundException
+	{
+		return (OsmWay) find(EntityType.Way, id);
+	}
+
+	@Override
+	public OsmRelation getRelation(long id) throws EntityNotFoundException
+	{
+		return (OsmRelation) find(EntityType.Relation, id);
+	}
+
+	private OsmEntity find(EntityType type, long id)
+			throws EntityNotFoundException
+	{
+		try {
+			int candidate = findCandidate(type, id);
+			if (candidate < 0) {
+				throw new EntityNotFoundException(name(type, id)
+						+ " not found");
+			}
+			return find(getEntities(candidate), type, id);
+		} catch (IOException e) {
+			throw new EntityNotFoundException(
+					"error while reading block for " + name(type, id), e);
+		}
+	}
+
+	/**
+	 * Find the block that may contain the specified entity, i.e. the last
+	 * block of the entity's type whose minimum id is not larger than the id.
+	 * 
+	 * @return the index of the block or -1 if no block may contain the entity.
+	 */
+	private int findCandidate(EntityType type, long id) throws IOException
+	{
+		int low = getFirstBlock(type);
+		if (low < 0) {
+			return -1;
+		}
+		int high = getLastBlock(type);
+		List<BlockIndexEntry> entries = index.getEntries();
+
+		int candidate = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (entries.get(mid).getMinId() <= id) {
+				candidate = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+
+		if (candidate < 0 || entries.get(candidate).getMaxId() < id) {
+			return -1;
+		}
+		return candidate;
+	}
+
+	private List<? extends OsmEntity> getEntities(int i) throws IOException
+	{
+		if (cachedBlock != i) {
+			cachedEntities = readEntities(i, true, true);
+			cachedBlock = i;
+		}
+		return cachedEntities;
+	}
+
+	private static OsmEntity find(List<? extends OsmEntity> list,
+			EntityType type, long id) throws EntityNotFoundException
+	{
+		int low = 0;
+		int high = list.size() - 1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			OsmEntity entity = list.get(mid);
+			long midId = entity.getId();
+
+			if (midId < id) {
+				low = mid + 1;
+			} else if (midId > id) {
+				high = mid - 1;
+			} else {
+				return entity;
+			}
+		}
+		throw new EntityNotFoundException(name(type, id) + " not found");
+	}
+
+	private static String name(EntityType type, long id)
+	{
+		return String.format("%s %d", type, id);
+	}
+
+	/*
+	 * Streams on top of the random access file
+	 */
+
+	private InputStream stream()
+	{
+		// The channel shares its position with the file
+		return new BufferedInputStream(Channels.newInputStream(file
+				.getChannel()));
+	}
+
+	private static class LimitedInputStream extends FilterInputStream
+	{
+
+		private long remaining;
+
+		LimitedInputStream(InputStream in, long limit)
+		{
+			super(in);
+			remaining = limit;
+		}
+
+		@Override
+		public int read() throws IOException
+		{
+			if (remaining <= 0) {
+				return -1;
+			}
+			int b = super.read();
+			if (b >= 0) {
+				remaining--;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException
+		{
+			if (remaining <= 0) {
+				return -1;
+			}
+			int n = super.read(b, off, (int) Math.min(len, remaining));
+			if (n > 0) {
+				remaining -= n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException
+		{
+			long skipped = super.skip(Math.min(n, remaining));
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public void close()
+		{
+			// Closing the channel's stream would close the file
+		}
+
+	}
+
+}
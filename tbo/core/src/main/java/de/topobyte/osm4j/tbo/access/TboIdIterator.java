@@ -17,7 +17,6 @@
 
 package de.topobyte.osm4j.tbo.access;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Iterator;
@@ -98,23 +97,20 @@ public class TboIdIterator extends BlockReader implements OsmIdIterator
 		pointer = 0;
 		available = block.getNumObjects();
 
-		byte[] uncompressed = Decompression.decompress(block);
-
-		ByteArrayInputStream bais = new ByteArrayInputStream(uncompressed);
-		CompactReader reader = new InputStreamCompactReader(bais);
+		CompactReader reader = Decompression.reader(block, header);
 
 		switch (block.getType()) {
 		case Definitions.BLOCK_TYPE_NODES:
 			entityType = EntityType.Node;
-			ids = ReaderUtil.parseNodeIds(reader, block);
+			ids = ReaderUtil.parseNodeIds(reader, header, block);
 			break;
 		case Definitions.BLOCK_TYPE_WAYS:
 			entityType = EntityType.Way;
-			ids = ReaderUtil.parseWayIds(reader, block);
+			ids = ReaderUtil.parseWayIds(reader, header, block);
 			break;
 		case Definitions.BLOCK_TYPE_RELATIONS:
 			entityType = EntityType.Relation;
-			ids = ReaderUtil.parseRelationIds(reader, block);
+			ids = ReaderUtil.parseRelationIds(reader, header, block);
 			break;
 		}
 	}
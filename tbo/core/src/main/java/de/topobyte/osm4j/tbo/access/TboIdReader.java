@@ -17,7 +17,6 @@
 
 package de.topobyte.osm4j.tbo.access;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -38,6 +37,7 @@ public class TboIdReader extends BlockReader implements OsmIdReader
 {
 
 	private OsmIdHandler handler;
+	private FileHeader header;
 
 	public TboIdReader(InputStream is)
 	{
@@ -59,7 +59,7 @@ public class TboIdReader extends BlockReader implements OsmIdReader
 	public void read() throws OsmInputException
 	{
 		try {
-			FileHeader header = ReaderUtil.parseHeader(reader);
+			header = ReaderUtil.parseHeader(reader);
 			if (header.hasBounds()) {
 				handler.handle(header.getBounds());
 			}
@@ -94,10 +94,7 @@ public class TboIdReader extends BlockReader implements OsmIdReader
 
 	private void parseBlock(FileBlock block) throws IOException
 	{
-		byte[] uncompressed = Decompression.decompress(block);
-
-		ByteArrayInputStream bais = new ByteArrayInputStream(uncompressed);
-		CompactReader compactReader = new InputStreamCompactReader(bais);
+		CompactReader compactReader = Decompression.reader(block, header);
 
 		parseBlock(compactReader, block);
 	}
@@ -107,19 +104,20 @@ public class TboIdReader extends BlockReader implements OsmIdReader
 	{
 		// read objects
 		if (block.getType() == Definitions.BLOCK_TYPE_NODES) {
-			TLongList nodes = ReaderUtil.parseNodeIds(reader, block);
+			TLongList nodes = ReaderUtil.parseNodeIds(reader, header, block);
 			TLongIterator iterator = nodes.iterator();
 			while (iterator.hasNext()) {
 				handler.handleNode(iterator.next());
 			}
 		} else if (block.getType() == Definitions.BLOCK_TYPE_WAYS) {
-			TLongList ways = ReaderUtil.parseWayIds(reader, block);
+			TLongList ways = ReaderUtil.parseWayIds(reader, header, block);
 			TLongIterator iterator = ways.iterator();
 			while (iterator.hasNext()) {
 				handler.handleWay(iterator.next());
 			}
 		} else if (block.getType() == Definitions.BLOCK_TYPE_RELATIONS) {
-			TLongList relations = ReaderUtil.parseRelationIds(reader, block);
+			TLongList relations = ReaderUtil.parseRelationIds(reader,
+					header, block);
 			TLongIterator iterator = relations.iterator();
 			while (iterator.hasNext()) {
 				handler.handleRelation(iterator.next());
@@ -17,11 +17,11 @@
 
 package de.topobyte.osm4j.tbo.access;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import de.topobyte.compactio.CompactReader;
 import de.topobyte.compactio.InputStreamCompactReader;
@@ -30,16 +30,14 @@ import de.topobyte.osm4j.core.model.iface.EntityContainer;
 import de.topobyte.osm4j.core.model.iface.EntityType;
 import de.topobyte.osm4j.core.model.iface.OsmBounds;
 import de.topobyte.osm4j.core.model.iface.OsmEntity;
-import de.topobyte.osm4j.tbo.data.Definitions;
+import de.topobyte.osm4j.core.model.util.ReusableEntities;
 import de.topobyte.osm4j.tbo.data.FileBlock;
 import de.topobyte.osm4j.tbo.data.FileHeader;
-import de.topobyte.osm4j.tbo.io.Decompression;
 
 public class TboIterator extends BlockReader implements OsmIterator
 {
 
 	private FileHeader header;
-	private boolean hasMetadata;
 
 	private boolean fetchTags;
 	private boolean fetchMetadata;
@@ -48,10 +46,16 @@ public class TboIterator extends BlockReader implements OsmIterator
 	private int pointer = 0;
 
 	private boolean valid = true;
-	private FileBlock block = null;
 	private EntityType entityType = EntityType.Node;
 	private List<? extends OsmEntity> entities = null;
 
+	private boolean reuseEntities = false;
+	// The columns of the current block when reusing entities
+	private EntityColumns columns = null;
+	private ReusableEntities reusable = null;
+
+	private ParallelBlockDecoder decoder = null;
+
 	public TboIterator(InputStream input, boolean fetchTags,
 			boolean fetchMetadata) throws IOException
 	{
@@ -66,25 +70,123 @@ public class TboIterator extends BlockReader implements OsmIterator
 		this.fetchMetadata = fetchMetadata;
 
 		header = ReaderUtil.parseHeader(reader);
-		hasMetadata = header.hasMetadata();
+	}
+
+	/**
+	 * Create an iterator that decodes blocks using the specified number of
+	 * threads. With more than one thread, raw blocks are read from the input
+	 * on a separate thread and decompressed and parsed by a pool of worker
+	 * threads while entities are still returned in file order. The number of
+	 * blocks decoded ahead of the consumer is limited to twice the number of
+	 * threads.
+	 * 
+	 * @param input
+	 *            the stream to read data from.
+	 * @param fetchTags
+	 *            whether to read entity tags.
+	 * @param fetchMetadata
+	 *            whether to read entity metadata.
+	 * @param numThreads
+	 *            the number of threads to decode blocks with.
+	 */
+	public TboIterator(InputStream input, boolean fetchTags,
+			boolean fetchMetadata, int numThreads) throws IOException
+	{
+		this(new InputStreamCompactReader(input), fetchTags, fetchMetadata,
+				numThreads, 2 * numThreads);
+	}
+
+	/**
+	 * Create an iterator that decodes blocks using the specified number of
+	 * threads, decoding at most <code>maxBlocksInFlight</code> blocks ahead of
+	 * the consumer.
+	 * 
+	 * @param reader
+	 *            the reader to read data from.
+	 * @param fetchTags
+	 *            whether to read entity tags.
+	 * @param fetchMetadata
+	 *            whether to read entity metadata.
+	 * @param numThreads
+	 *            the number of threads to decode blocks with.
+	 * @param maxBlocksInFlight
+	 *            the maximum number of blocks being decoded or waiting to be
+	 *            consumed at any time.
+	 */
+	public TboIterator(CompactReader reader, boolean fetchTags,
+			boolean fetchMetadata, int numThreads, int maxBlocksInFlight)
+			throws IOException
+	{
+		this(reader, fetchTags, fetchMetadata);
+		if (numThreads > 1) {
+			decoder = new ParallelBlockDecoder(this, header, fetchTags,
+					fetchMetadata, numThreads, maxBlocksInFlight);
+		}
+	}
+
+	/**
+	 * Hand out mutable entities and containers that are reused across calls
+	 * to {@link #next()} instead of allocating new objects for each element.
+	 * An entity and its container are only valid until the next call to
+	 * {@link #next()}, use
+	 * {@link de.topobyte.osm4j.core.model.util.ImplUtil#copy} to retain them.
+	 * Must be called before starting iteration.
+	 * 
+	 * @param reuseEntities
+	 *            whether to reuse entities.
+	 */
+	public void setReuseEntities(boolean reuseEntities)
+	{
+		this.reuseEntities = reuseEntities;
+		if (decoder != null) {
+			decoder.setReuseEntities(reuseEntities);
+		}
+	}
+
+	/**
+	 * Stop any decoding threads used by this iterator. This is only necessary
+	 * when the iterator is abandoned before reaching the end of the data,
+	 * threads are shut down automatically otherwise.
+	 */
+	public void close()
+	{
+		valid = false;
+		if (decoder != null) {
+			decoder.close();
+		}
 	}
 
 	@Override
 	public boolean hasNext()
 	{
-		if (available == 0) {
+		while (valid && !hasAvailable()) {
 			try {
 				advanceBlock();
 			} catch (IOException e) {
-				return false;
+				close();
+				throw new RuntimeException("error while reading block", e);
 			}
 		}
-		return valid && available > 0;
+		return valid && hasAvailable();
+	}
+
+	private boolean hasAvailable()
+	{
+		if (columns != null) {
+			return columns.hasNext();
+		}
+		return available > 0;
 	}
 
 	@Override
 	public EntityContainer next()
 	{
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		if (columns != null) {
+			return reusable.container(columns.next(reusable));
+		}
 		OsmEntity entity = entities.get(pointer);
 		pointer += 1;
 		available -= 1;
@@ -99,36 +201,35 @@ public class TboIterator extends BlockReader implements OsmIterator
 
 	private void advanceBlock() throws IOException
 	{
-		block = readBlock();
+		DecodedBlock block = nextBlock();
 		if (block == null) {
 			valid = false;
+			columns = null;
 			return;
 		}
 		pointer = 0;
-		available = block.getNumObjects();
-
-		byte[] uncompressed = Decompression.decompress(block);
-
-		ByteArrayInputStream bais = new ByteArrayInputStream(uncompressed);
-		CompactReader reader = new InputStreamCompactReader(bais);
-
-		switch (block.getType()) {
-		case Definitions.BLOCK_TYPE_NODES:
-			entityType = EntityType.Node;
-			entities = ReaderUtil.parseNodes(reader, block, fetchTags,
-					hasMetadata, fetchMetadata);
-			break;
-		case Definitions.BLOCK_TYPE_WAYS:
-			entityType = EntityType.Way;
-			entities = ReaderUtil.parseWays(reader, block, fetchTags,
-					hasMetadata, fetchMetadata);
-			break;
-		case Definitions.BLOCK_TYPE_RELATIONS:
-			entityType = EntityType.Relation;
-			entities = ReaderUtil.parseRelations(reader, block, fetchTags,
-					hasMetadata, fetchMetadata);
-			break;
+		entityType = block.getType();
+		entities = block.getEntities();
+		available = entities.size();
+		columns = block.getColumns();
+		if (columns != null && reusable == null) {
+			reusable = new ReusableEntities();
+		}
+	}
+
+	private DecodedBlock nextBlock() throws IOException
+	{
+		if (decoder != null) {
+			return decoder.next();
+		}
+		FileBlock block = readBlock();
+		if (block == null) {
+			return null;
+		}
+		if (reuseEntities) {
+			return DecodedBlock.parse(block, header, fetchTags, fetchMetadata);
 		}
+		return DecodedBlock.decode(block, header, fetchTags, fetchMetadata);
 	}
 
 	@Override
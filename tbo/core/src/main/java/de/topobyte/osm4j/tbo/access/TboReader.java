@@ -17,7 +17,6 @@
 
 package de.topobyte.osm4j.tbo.access;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -27,6 +26,10 @@ import de.topobyte.compactio.InputStreamCompactReader;
 import de.topobyte.osm4j.core.access.OsmHandler;
 import de.topobyte.osm4j.core.access.OsmInputException;
 import de.topobyte.osm4j.core.access.OsmReader;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
 import de.topobyte.osm4j.core.model.impl.Node;
 import de.topobyte.osm4j.core.model.impl.Relation;
 import de.topobyte.osm4j.core.model.impl.Way;
@@ -40,9 +43,11 @@ public class TboReader extends BlockReader implements OsmReader
 
 	private boolean fetchTags;
 
-	private boolean hasMetadata;
+	private FileHeader header;
 	private boolean fetchMetadata;
 
+	private int numThreads = 1;
+
 	private OsmHandler handler;
 
 	public TboReader(InputStream is, boolean fetchTags, boolean fetchMetadata)
@@ -50,6 +55,18 @@ public class TboReader extends BlockReader implements OsmReader
 		this(new InputStreamCompactReader(is), fetchTags, fetchMetadata);
 	}
 
+	/**
+	 * Create a reader that decodes blocks using the specified number of
+	 * threads. The handler is always invoked from the thread calling
+	 * {@link #read()}, with entities in file order.
+	 */
+	public TboReader(InputStream is, boolean fetchTags, boolean fetchMetadata,
+			int numThreads)
+	{
+		this(is, fetchTags, fetchMetadata);
+		this.numThreads = numThreads;
+	}
+
 	public TboReader(CompactReader reader, boolean fetchTags,
 			boolean fetchMetadata)
 	{
@@ -68,15 +85,81 @@ public class TboReader extends BlockReader implements OsmReader
 	public void read() throws OsmInputException
 	{
 		try {
-			FileHeader header = ReaderUtil.parseHeader(reader);
+			header = ReaderUtil.parseHeader(reader);
 			if (header.hasBounds()) {
 				handler.handle(header.getBounds());
 			}
-			hasMetadata = header.hasMetadata();
 		} catch (IOException e) {
 			throw new OsmInputException("error while reading header", e);
 		}
 
+		if (numThreads > 1) {
+			readParallel();
+		} else {
+			readSequential();
+		}
+
+		try {
+			handler.complete();
+		} catch (IOException e) {
+			throw new OsmInputException("error while completing handler", e);
+		}
+	}
+
+	private void readParallel() throws OsmInputException
+	{
+		ParallelBlockDecoder decoder = new ParallelBlockDecoder(this,
+				header, fetchTags, fetchMetadata, numThreads);
+		try {
+			while (true) {
+				DecodedBlock block;
+				try {
+					block = decoder.next();
+				} catch (IOException e) {
+					throw new OsmInputException("error while reading block",
+							e);
+				}
+				if (block == null) {
+					break;
+				}
+				try {
+					handle(block);
+				} catch (IOException e) {
+					throw new OsmInputException("error while handling block",
+							e);
+				}
+			}
+		} finally {
+			decoder.close();
+		}
+	}
+
+	private void handle(DecodedBlock block) throws IOException
+	{
+		if (block.getType() == null) {
+			return;
+		}
+		switch (block.getType()) {
+		case Node:
+			for (OsmEntity node : block.getEntities()) {
+				handler.handle((OsmNode) node);
+			}
+			break;
+		case Way:
+			for (OsmEntity way : block.getEntities()) {
+				handler.handle((OsmWay) way);
+			}
+			break;
+		case Relation:
+			for (OsmEntity relation : block.getEntities()) {
+				handler.handle((OsmRelation) relation);
+			}
+			break;
+		}
+	}
+
+	private void readSequential() throws OsmInputException
+	{
 		long notifysize = 100 * 1024 * 1024;
 		long processed = 0;
 		long lastMessage = 0;
@@ -113,20 +196,11 @@ public class TboReader extends BlockReader implements OsmReader
 				throw new OsmInputException("error while parsing block", e);
 			}
 		}
-
-		try {
-			handler.complete();
-		} catch (IOException e) {
-			throw new OsmInputException("error while completing handler", e);
-		}
 	}
 
 	private void parseBlock(FileBlock block) throws IOException
 	{
-		byte[] uncompressed = Decompression.decompress(block);
-
-		ByteArrayInputStream bais = new ByteArrayInputStream(uncompressed);
-		CompactReader compactReader = new InputStreamCompactReader(bais);
+		CompactReader compactReader = Decompression.reader(block, header);
 
 		parseBlock(compactReader, block);
 	}
@@ -136,20 +210,20 @@ public class TboReader extends BlockReader implements OsmReader
 	{
 		// read objects
 		if (block.getType() == Definitions.BLOCK_TYPE_NODES) {
-			List<Node> nodes = ReaderUtil.parseNodes(reader, block, fetchTags,
-					hasMetadata, fetchMetadata);
+			List<Node> nodes = ReaderUtil.parseNodes(reader, header, block,
+					fetchTags, fetchMetadata);
 			for (Node node : nodes) {
 				handler.handle(node);
 			}
 		} else if (block.getType() == Definitions.BLOCK_TYPE_WAYS) {
-			List<Way> ways = ReaderUtil.parseWays(reader, block, fetchTags,
-					hasMetadata, fetchMetadata);
+			List<Way> ways = ReaderUtil.parseWays(reader, header, block,
+					fetchTags, fetchMetadata);
 			for (Way way : ways) {
 				handler.handle(way);
 			}
 		} else if (block.getType() == Definitions.BLOCK_TYPE_RELATIONS) {
-			List<Relation> relations = ReaderUtil.parseRelations(reader, block,
-					fetchTags, hasMetadata, fetchMetadata);
+			List<Relation> relations = ReaderUtil.parseRelations(reader,
+					header, block, fetchTags, fetchMetadata);
 			for (Relation relation : relations) {
 				handler.handle(relation);
 			}
@@ -18,7 +18,18 @@
 package de.topobyte.osm4j.tbo.access;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.github.luben.zstd.ZstdDictCompress;
 
 import de.topobyte.compactio.CompactWriter;
 import de.topobyte.compactio.OutputStreamCompactWriter;
@@ -30,12 +41,14 @@ import de.topobyte.osm4j.core.model.iface.OsmRelation;
 import de.topobyte.osm4j.core.model.iface.OsmWay;
 import de.topobyte.osm4j.tbo.Compression;
 import de.topobyte.osm4j.tbo.batching.BatchBuilder;
+import de.topobyte.osm4j.tbo.batching.ByteSizeBatchBuilder;
 import de.topobyte.osm4j.tbo.batching.ElementCountBatchBuilder;
 import de.topobyte.osm4j.tbo.batching.MemberCountBatchBuilder;
 import de.topobyte.osm4j.tbo.batching.WayNodeCountBatchBuilder;
 import de.topobyte.osm4j.tbo.data.Definitions;
 import de.topobyte.osm4j.tbo.data.FileBlock;
 import de.topobyte.osm4j.tbo.data.FileHeader;
+import de.topobyte.osm4j.tbo.writerhelper.EntityBatch;
 import de.topobyte.osm4j.tbo.writerhelper.NodeBatch;
 import de.topobyte.osm4j.tbo.writerhelper.RelationBatch;
 import de.topobyte.osm4j.tbo.writerhelper.WayBatch;
@@ -55,11 +68,21 @@ public class TboWriter implements OsmOutputStream
 
 	private Compression compression = Compression.NONE;
 	private boolean writeMetadata;
+	private boolean columnar = false;
+	private byte[] dictionary = null;
 
 	private NodeBatch nodeBatch;
 	private WayBatch wayBatch;
 	private RelationBatch relationBatch;
 
+	// Pipelined mode: batches are encoded and compressed on a pool of worker
+	// threads, finished blocks are written in submission order
+	private int numThreads = 1;
+	private int maxBlocksInFlight = 0;
+	private ExecutorService workers = null;
+	private boolean ownWorkers = false;
+	private Deque<Future<FileBlock>> pending = new ArrayDeque<>();
+
 	public TboWriter(OutputStream output, boolean writeMetadata)
 	{
 		this(new OutputStreamCompactWriter(output), writeMetadata);
@@ -112,6 +135,111 @@ public class TboWriter implements OsmOutputStream
 		this.compression = compression;
 	}
 
+	public int getZstdLevel()
+	{
+		return blockableWriter.getZstdLevel();
+	}
+
+	/**
+	 * Set the level to use with {@link Compression#ZSTD}.
+	 */
+	public void setZstdLevel(int zstdLevel)
+	{
+		blockableWriter.setZstdLevel(zstdLevel);
+	}
+
+	public byte[] getDictionary()
+	{
+		return dictionary;
+	}
+
+	/**
+	 * Compress blocks with the specified Zstandard dictionary, which can be
+	 * created using {@link DictionaryTrainer}. The dictionary is stored in the
+	 * file header, so it is only used with {@link Compression#ZSTD}. Must be
+	 * called before writing any data.
+	 */
+	public void setDictionary(byte[] dictionary)
+	{
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * Append a block index to the output, see
+	 * {@link DefaultBlockWriter#setWriteIndex(boolean)}. Only supported if
+	 * the writer uses a {@link DefaultBlockWriter}. Must be called before
+	 * writing any data.
+	 */
+	public void setWriteIndex(boolean writeIndex)
+	{
+		if (!(blockWriter instanceof DefaultBlockWriter)) {
+			throw new UnsupportedOperationException(
+					"block writer does not support writing an index");
+		}
+		((DefaultBlockWriter) blockWriter).setWriteIndex(writeIndex);
+	}
+
+	public int getNumThreads()
+	{
+		return numThreads;
+	}
+
+	/**
+	 * Set the number of threads used to encode and compress blocks. With more
+	 * than one thread, completed batches are handed off to a pool of worker
+	 * threads and the resulting blocks are passed to the block writer in
+	 * order. Must be set before the first entity is written.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Encode and compress blocks using the specified executor instead of a
+	 * pool owned by this writer. This allows many writers that are open at the
+	 * same time to share a single pool of threads. The executor is not shut
+	 * down by this writer. Must be set before the first entity is written.
+	 */
+	public void setExecutor(ExecutorService executor)
+	{
+		this.workers = executor;
+		ownWorkers = false;
+	}
+
+	public int getMaxBlocksInFlight()
+	{
+		return maxBlocksInFlight;
+	}
+
+	/**
+	 * Set the maximum number of blocks being processed by worker threads or
+	 * waiting to be written at any time. This bounds memory usage in
+	 * pipelined mode. Defaults to twice the number of threads if not set.
+	 */
+	public void setMaxBlocksInFlight(int maxBlocksInFlight)
+	{
+		this.maxBlocksInFlight = maxBlocksInFlight;
+	}
+
+	public boolean isColumnar()
+	{
+		return columnar;
+	}
+
+	/**
+	 * Write blocks using the columnar layout of
+	 * {@link Definitions#VERSION_COLUMNAR}. Must be called before writing any
+	 * data.
+	 */
+	public void setColumnar(boolean columnar)
+	{
+		this.columnar = columnar;
+		nodeBatch = new NodeBatch(writeMetadata, columnar);
+		wayBatch = new WayBatch(writeMetadata, columnar);
+		relationBatch = new RelationBatch(writeMetadata, columnar);
+	}
+
 	public boolean isWriteMetadata()
 	{
 		return writeMetadata;
@@ -163,6 +291,33 @@ public class TboWriter implements OsmOutputStream
 		batchBuilderRelations = new MemberCountBatchBuilder(batchSize);
 	}
 
+	/**
+	 * Limit blocks of all entity types by their estimated uncompressed size
+	 * in bytes.
+	 */
+	public void setBatchSizeByBytes(int maxBytes)
+	{
+		setBatchSizeNodesByBytes(maxBytes);
+		setBatchSizeWaysByBytes(maxBytes);
+		setBatchSizeRelationsByBytes(maxBytes);
+	}
+
+	public void setBatchSizeNodesByBytes(int maxBytes)
+	{
+		batchBuilderNodes = new ByteSizeBatchBuilder<>(maxBytes, writeMetadata);
+	}
+
+	public void setBatchSizeWaysByBytes(int maxBytes)
+	{
+		batchBuilderWays = new ByteSizeBatchBuilder<>(maxBytes, writeMetadata);
+	}
+
+	public void setBatchSizeRelationsByBytes(int maxBytes)
+	{
+		batchBuilderRelations = new ByteSizeBatchBuilder<>(maxBytes,
+				writeMetadata);
+	}
+
 	private enum Mode {
 		HEADER,
 		NODE,
@@ -236,6 +391,10 @@ public class TboWriter implements OsmOutputStream
 						"wrong entity order while processing node");
 			}
 		}
+		if (nodeBatch.size() > 0 && !batchBuilderNodes.fits(node)) {
+			batchBuilderNodes.clear();
+			writeNodeBatch();
+		}
 		nodeBatch.put(node);
 		if (checkBatch(node, batchBuilderNodes)) {
 			writeNodeBatch();
@@ -254,6 +413,10 @@ public class TboWriter implements OsmOutputStream
 						"wrong entity order while processing way");
 			}
 		}
+		if (wayBatch.size() > 0 && !batchBuilderWays.fits(way)) {
+			batchBuilderWays.clear();
+			writeWayBatch();
+		}
 		wayBatch.put(way);
 		if (checkBatch(way, batchBuilderWays)) {
 			writeWayBatch();
@@ -272,6 +435,11 @@ public class TboWriter implements OsmOutputStream
 				finishWays();
 			}
 		}
+		if (relationBatch.size() > 0
+				&& !batchBuilderRelations.fits(relation)) {
+			batchBuilderRelations.clear();
+			writeRelationBatch();
+		}
 		relationBatch.put(relation);
 		if (checkBatch(relation, batchBuilderRelations)) {
 			writeRelationBatch();
@@ -291,29 +459,130 @@ public class TboWriter implements OsmOutputStream
 
 	private void writeNodeBatch() throws IOException
 	{
+		if (isPipelined()) {
+			submitBatch(nodeBatch, Definitions.BLOCK_TYPE_NODES);
+			nodeBatch = new NodeBatch(writeMetadata, columnar);
+			return;
+		}
 		FileBlock block = blockableWriter.writeBlock(nodeBatch,
 				Definitions.BLOCK_TYPE_NODES, nodeBatch.size(), compression);
+		block.setIdRange(nodeBatch.getMinId(), nodeBatch.getMaxId());
 		blockWriter.writeBlock(block);
 		nodeBatch.clear();
 	}
 
 	private void writeWayBatch() throws IOException
 	{
+		if (isPipelined()) {
+			submitBatch(wayBatch, Definitions.BLOCK_TYPE_WAYS);
+			wayBatch = new WayBatch(writeMetadata, columnar);
+			return;
+		}
 		FileBlock block = blockableWriter.writeBlock(wayBatch,
 				Definitions.BLOCK_TYPE_WAYS, wayBatch.size(), compression);
+		block.setIdRange(wayBatch.getMinId(), wayBatch.getMaxId());
 		blockWriter.writeBlock(block);
 		wayBatch.clear();
 	}
 
 	private void writeRelationBatch() throws IOException
 	{
+		if (isPipelined()) {
+			submitBatch(relationBatch, Definitions.BLOCK_TYPE_RELATIONS);
+			relationBatch = new RelationBatch(writeMetadata, columnar);
+			return;
+		}
 		FileBlock block = blockableWriter.writeBlock(relationBatch,
 				Definitions.BLOCK_TYPE_RELATIONS, relationBatch.size(),
 				compression);
+		block.setIdRange(relationBatch.getMinId(), relationBatch.getMaxId());
 		blockWriter.writeBlock(block);
 		relationBatch.clear();
 	}
 
+	private boolean isPipelined()
+	{
+		return numThreads > 1 || workers != null;
+	}
+
+	private void submitBatch(final EntityBatch<?> batch, final int type)
+			throws IOException
+	{
+		if (workers == null) {
+			workers = Executors.newFixedThreadPool(numThreads,
+					new ThreadFactory() {
+
+						@Override
+						public Thread newThread(Runnable runnable)
+						{
+							Thread thread = new Thread(runnable,
+									"tbo-writer");
+							thread.setDaemon(true);
+							return thread;
+						}
+
+					});
+			ownWorkers = true;
+		}
+
+		int limit = maxBlocksInFlight > 0 ? maxBlocksInFlight
+				: 2 * Math.max(numThreads, 1);
+		writePending(limit - 1);
+
+		final Compression compression = this.compression;
+		final int zstdLevel = blockableWriter.getZstdLevel();
+		final ZstdDictCompress zstdDictionary = blockableWriter
+				.getZstdDictionary();
+
+		pending.add(workers.submit(new Callable<FileBlock>() {
+
+			@Override
+			public FileBlock call() throws IOException
+			{
+				// The shared block writer reuses its buffer, use a separate one
+				BlockableWriter writer = new BlockableWriter(true);
+				writer.setZstdLevel(zstdLevel);
+				writer.setZstdDictionary(zstdDictionary);
+				FileBlock block = writer.writeBlock(batch, type, batch.size(),
+						compression);
+				block.setIdRange(batch.getMinId(), batch.getMaxId());
+				return block;
+			}
+
+		}));
+
+		// Write any blocks that are already done without waiting
+		while (!pending.isEmpty() && pending.peek().isDone()) {
+			writeBlock(pending.poll());
+		}
+	}
+
+	/**
+	 * Write pending blocks in order, waiting for them to be finished, until at
+	 * most the specified number of blocks is left pending.
+	 */
+	private void writePending(int remaining) throws IOException
+	{
+		while (pending.size() > remaining) {
+			writeBlock(pending.poll());
+		}
+	}
+
+	private void writeBlock(Future<FileBlock> future) throws IOException
+	{
+		FileBlock block;
+		try {
+			block = future.get();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException(
+					"interrupted while waiting for block");
+		} catch (ExecutionException e) {
+			throw new IOException("error while compressing block",
+					e.getCause());
+		}
+		blockWriter.writeBlock(block);
+	}
+
 	@Override
 	public void complete() throws IOException
 	{
@@ -321,6 +590,16 @@ public class TboWriter implements OsmOutputStream
 		finishNodes();
 		finishWays();
 		finishRelations();
+		try {
+			writePending(0);
+		} finally {
+			if (ownWorkers) {
+				workers.shutdownNow();
+				workers = null;
+				ownWorkers = false;
+			}
+		}
+		blockWriter.complete();
 	}
 
 	private void finishHeader() throws IOException
@@ -329,6 +608,14 @@ public class TboWriter implements OsmOutputStream
 			if (header == null) {
 				header = WriterUtil.createHeader(writeMetadata, null);
 			}
+			// The version determines the layout of the blocks that follow
+			header.setVersion(columnar ? Definitions.VERSION_COLUMNAR
+					: Definitions.VERSION);
+			if (compression == Compression.ZSTD && dictionary != null) {
+				header.setDictionary(dictionary);
+				blockableWriter.setZstdDictionary(new ZstdDictCompress(
+						dictionary, blockableWriter.getZstdLevel()));
+			}
 			blockWriter.writeHeader(header);
 			mode = Mode.NODE;
 		}
@@ -0,0 +1,74 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.batching;
+
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.util.EntitySizeEstimator;
+
+/**
+ * A batch builder that limits batches by the estimated size of the contained
+ * entities in bytes, using {@link EntitySizeEstimator}.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class ByteSizeBatchBuilder<T extends OsmEntity>
+		implements BatchBuilder<T>
+{
+
+	private int maxBytes;
+	private boolean metadata;
+	private long size = 0;
+
+	public ByteSizeBatchBuilder(int maxBytes, boolean metadata)
+	{
+		this.maxBytes = maxBytes;
+		this.metadata = metadata;
+	}
+
+	@Override
+	public void add(T element)
+	{
+		size += EntitySizeEstimator.estimate(element, metadata);
+	}
+
+	@Override
+	public boolean full()
+	{
+		return size >= maxBytes;
+	}
+
+	@Override
+	public boolean fits(T element)
+	{
+		int elementSize = EntitySizeEstimator.estimate(element, metadata);
+		return size + elementSize <= maxBytes;
+	}
+
+	@Override
+	public void clear()
+	{
+		size = 0;
+	}
+
+	@Override
+	public int bufferSizeHint()
+	{
+		return maxBytes / 64;
+	}
+
+}
@@ -0,0 +1,123 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.topobyte.compactio.CompactReader;
+import de.topobyte.compactio.CompactWriter;
+import de.topobyte.compactio.InputStreamCompactReader;
+import de.topobyte.osm4j.tbo.writerhelper.Blockable;
+
+/**
+ * An index of the data blocks of a file. It can be stored as the last block
+ * of a file (of type {@link Definitions#BLOCK_TYPE_INDEX}, uncompressed and
+ * with zero objects, so that sequential readers simply skip it). The block's
+ * data ends with the position of the index block within the file and a magic
+ * code, so that the index can be located by reading the last
+ * {@link #TRAILER_LENGTH} bytes of a file.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class BlockIndex implements Blockable
+{
+
+	public static final byte[] MAGIC = "tbi!".getBytes();
+
+	public static final int TRAILER_LENGTH = 8 + MAGIC.length;
+
+	private List<BlockIndexEntry> entries = new ArrayList<>();
+
+	// Only used when writing: the position of the index block itself
+	private long position = 0;
+
+	public List<BlockIndexEntry> getEntries()
+	{
+		return entries;
+	}
+
+	public void add(BlockIndexEntry entry)
+	{
+		entries.add(entry);
+	}
+
+	public void setPosition(long position)
+	{
+		this.position = position;
+	}
+
+	@Override
+	public void write(CompactWriter writer) throws IOException
+	{
+		writer.writeVariableLengthUnsignedInteger(entries.size());
+		long lastPosition = 0;
+		for (BlockIndexEntry entry : entries) {
+			writer.writeVariableLengthUnsignedInteger(
+					entry.getPosition() - lastPosition);
+			writer.writeByte(entry.getType());
+			writer.writeVariableLengthUnsignedInteger(entry.getNumObjects());
+			writer.writeVariableLengthSignedInteger(entry.getMinId());
+			writer.writeVariableLengthUnsignedInteger(
+					entry.getMaxId() - entry.getMinId());
+			lastPosition = entry.getPosition();
+		}
+		writer.writeLong(position);
+		writer.write(MAGIC);
+	}
+
+	public static BlockIndex read(CompactReader reader) throws IOException
+	{
+		BlockIndex index = new BlockIndex();
+		int n = (int) reader.readVariableLengthUnsignedInteger();
+		long position = 0;
+		for (int i = 0; i < n; i++) {
+			position += reader.readVariableLengthUnsignedInteger();
+			int type = reader.readByte();
+			int numObjects = (int) reader.readVariableLengthUnsignedInteger();
+			long minId = reader.readVariableLengthSignedInteger();
+			long maxId = minId + reader.readVariableLengthUnsignedInteger();
+			index.add(new BlockIndexEntry(position, type, numObjects, minId,
+					maxId));
+		}
+		return index;
+	}
+
+	/**
+	 * Get the position of the index block from the trailing bytes of a file.
+	 * 
+	 * @param trailer
+	 *            the last {@link #TRAILER_LENGTH} bytes of a file.
+	 * @return the position of the index block or -1 if the trailer is not
+	 *         valid.
+	 */
+	public static long parseTrailer(byte[] trailer) throws IOException
+	{
+		byte[] magic = Arrays.copyOfRange(trailer, 8, TRAILER_LENGTH);
+		if (!Arrays.equals(magic, MAGIC)) {
+			return -1;
+		}
+		CompactReader reader = new InputStreamCompactReader(
+				new ByteArrayInputStream(trailer));
+		return reader.readLong();
+	}
+
+}
@@ -0,0 +1,67 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.data;
+
+public class BlockIndexEntry
+{
+
+	private final long position;
+	private final int type;
+	private final int numObjects;
+	private final long minId;
+	private final long maxId;
+
+	public BlockIndexEntry(long position, int type, int numObjects,
+			long minId, long maxId)
+	{
+		this.position = position;
+		this.type = type;
+		this.numObjects = numObjects;
+		this.minId = minId;
+		this.maxId = maxId;
+	}
+
+	/**
+	 * The position of the block's type byte within the file.
+	 */
+	public long getPosition()
+	{
+		return position;
+	}
+
+	public int getType()
+	{
+		return type;
+	}
+
+	public int getNumObjects()
+	{
+		return numObjects;
+	}
+
+	public long getMinId()
+	{
+		return minId;
+	}
+
+	public long getMaxId()
+	{
+		return maxId;
+	}
+
+}
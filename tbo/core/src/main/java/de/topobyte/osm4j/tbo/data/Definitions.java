@@ -23,6 +23,7 @@ public class Definitions
 	public static final int BLOCK_TYPE_NODES = 1;
 	public static final int BLOCK_TYPE_WAYS = 2;
 	public static final int BLOCK_TYPE_RELATIONS = 3;
+	public static final int BLOCK_TYPE_INDEX = 4;
 
 	public static final int DEFAULT_BATCH_SIZE_NODES = 4096;
 	public static final int DEFAULT_BATCH_SIZE_WAY_NODES = 6144;
@@ -30,6 +31,13 @@ public class Definitions
 
 	public static final int VERSION = 2;
 
+	/*
+	 * Blocks of files with this version store each field of the entities in
+	 * a separate, length-prefixed column, so that readers can skip columns
+	 * they are not interested in.
+	 */
+	public static final int VERSION_COLUMNAR = 3;
+
 	public static final String KEY_CREATION_TIME = "creation-time";
 
 	// Metadata situation of a whole block
@@ -29,6 +29,10 @@ public class FileBlock
 	private final byte[] buffer;
 	private final int length;
 
+	private boolean hasIdRange = false;
+	private long minId;
+	private long maxId;
+
 	public FileBlock(int type, Compression compression, int uncompressedLength,
 			int numObjects, byte[] buffer, int length)
 	{
@@ -70,4 +74,30 @@ public class FileBlock
 		return length;
 	}
 
+	/**
+	 * Whether the range of entity ids within this block is known. This is
+	 * set by the writer for building a {@link BlockIndex}.
+	 */
+	public boolean hasIdRange()
+	{
+		return hasIdRange;
+	}
+
+	public long getMinId()
+	{
+		return minId;
+	}
+
+	public long getMaxId()
+	{
+		return maxId;
+	}
+
+	public void setIdRange(long minId, long maxId)
+	{
+		this.hasIdRange = true;
+		this.minId = minId;
+		this.maxId = maxId;
+	}
+
 }
@@ -33,6 +33,8 @@ public class FileHeader implements Blockable
 
 	public static final int FLAG_HAS_METADATA = 0x1;
 	public static final int FLAG_HAS_BOUNDS = 0x2;
+	public static final int FLAG_HAS_INDEX = 0x4;
+	public static final int FLAG_HAS_DICTIONARY = 0x8;
 
 	private int version;
 
@@ -40,6 +42,8 @@ public class FileHeader implements Blockable
 
 	private boolean hasMetadata;
 	private OsmBounds bounds;
+	private boolean hasIndex = false;
+	private byte[] dictionary = null;
 
 	public FileHeader(int version, Map<String, String> tags,
 			boolean hasMetadata, OsmBounds bounds)
@@ -55,6 +59,11 @@ public class FileHeader implements Blockable
 		return version;
 	}
 
+	public void setVersion(int version)
+	{
+		this.version = version;
+	}
+
 	public Map<String, String> getTags()
 	{
 		return tags;
@@ -90,6 +99,39 @@ public class FileHeader implements Blockable
 		this.bounds = bounds;
 	}
 
+	/**
+	 * Whether the file ends with a block index, see {@link BlockIndex}.
+	 */
+	public boolean hasIndex()
+	{
+		return hasIndex;
+	}
+
+	public void setHasIndex(boolean hasIndex)
+	{
+		this.hasIndex = hasIndex;
+	}
+
+	public boolean hasDictionary()
+	{
+		return dictionary != null;
+	}
+
+	/**
+	 * The Zstandard dictionary that blocks compressed with
+	 * {@link de.topobyte.osm4j.tbo.Compression#ZSTD} have been compressed
+	 * with, or null if no dictionary has been used.
+	 */
+	public byte[] getDictionary()
+	{
+		return dictionary;
+	}
+
+	public void setDictionary(byte[] dictionary)
+	{
+		this.dictionary = dictionary;
+	}
+
 	@Override
 	public void write(CompactWriter writer) throws IOException
 	{
@@ -107,6 +149,12 @@ public class FileHeader implements Blockable
 		if (hasBounds()) {
 			flags |= FLAG_HAS_BOUNDS;
 		}
+		if (hasIndex) {
+			flags |= FLAG_HAS_INDEX;
+		}
+		if (hasDictionary()) {
+			flags |= FLAG_HAS_DICTIONARY;
+		}
 		writer.writeByte(flags);
 		if (hasBounds()) {
 			writer.writeLong(Double.doubleToLongBits(bounds.getLeft()));
@@ -114,6 +162,10 @@ public class FileHeader implements Blockable
 			writer.writeLong(Double.doubleToLongBits(bounds.getBottom()));
 			writer.writeLong(Double.doubleToLongBits(bounds.getTop()));
 		}
+		if (hasDictionary()) {
+			writer.writeVariableLengthUnsignedInteger(dictionary.length);
+			writer.write(dictionary);
+		}
 	}
 
 }
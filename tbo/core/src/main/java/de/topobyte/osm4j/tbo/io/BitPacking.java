@@ -0,0 +1,120 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.io;
+
+import java.io.IOException;
+
+import de.topobyte.compactio.CompactReader;
+import de.topobyte.compactio.CompactWriter;
+
+/**
+ * Codec for sequences of longs such as sorted entity ids. The first value is
+ * stored as a signed variable length integer. The differences between
+ * consecutive values are zigzag encoded and bit-packed using the number of bits
+ * required for the largest difference, which is stored as a single byte in
+ * front of the packed data.
+ * 
+ * For sorted ids the differences are small, so that typically only a few bits
+ * are used per value.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class BitPacking
+{
+
+	public static void writeDeltas(CompactWriter writer, long[] values, int n)
+			throws IOException
+	{
+		if (n == 0) {
+			return;
+		}
+		writer.writeVariableLengthSignedInteger(values[0]);
+
+		long max = 0;
+		for (int i = 1; i < n; i++) {
+			max |= zigzag(values[i] - values[i - 1]);
+		}
+		int width = 64 - Long.numberOfLeadingZeros(max);
+		writer.writeByte(width);
+
+		int buffer = 0;
+		int bits = 0;
+		for (int i = 1; i < n; i++) {
+			long value = zigzag(values[i] - values[i - 1]);
+			int remaining = width;
+			while (remaining > 0) {
+				int take = Math.min(remaining, 8 - bits);
+				buffer |= (int) (value & ((1 << take) - 1)) << bits;
+				value >>>= take;
+				remaining -= take;
+				bits += take;
+				if (bits == 8) {
+					writer.writeByte(buffer);
+					buffer = 0;
+					bits = 0;
+				}
+			}
+		}
+		if (bits > 0) {
+			writer.writeByte(buffer);
+		}
+	}
+
+	public static long[] readDeltas(CompactReader reader, int n)
+			throws IOException
+	{
+		long[] values = new long[n];
+		if (n == 0) {
+			return values;
+		}
+		values[0] = reader.readVariableLengthSignedInteger();
+
+		int width = reader.readByte();
+
+		int buffer = 0;
+		int bits = 0;
+		for (int i = 1; i < n; i++) {
+			long value = 0;
+			int filled = 0;
+			while (filled < width) {
+				if (bits == 0) {
+					buffer = reader.readByte();
+					bits = 8;
+				}
+				int take = Math.min(width - filled, bits);
+				value |= (long) (buffer & ((1 << take) - 1)) << filled;
+				buffer >>>= take;
+				bits -= take;
+				filled += take;
+			}
+			values[i] = values[i - 1] + unzigzag(value);
+		}
+		return values;
+	}
+
+	private static long zigzag(long value)
+	{
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unzigzag(long value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+}
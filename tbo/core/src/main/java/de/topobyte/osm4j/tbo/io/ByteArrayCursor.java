@@ -0,0 +1,87 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.io;
+
+import java.io.InputStream;
+
+/**
+ * An input stream over a region of a byte array. In contrast to
+ * {@link java.io.ByteArrayInputStream}, none of the methods are synchronized
+ * and the region does not need to start at the beginning of the array, so that
+ * a block can be read from a larger, reused buffer without copying it.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class ByteArrayCursor extends InputStream
+{
+
+	private final byte[] buffer;
+	private final int limit;
+	private int position;
+
+	public ByteArrayCursor(byte[] buffer, int offset, int length)
+	{
+		this.buffer = buffer;
+		this.position = offset;
+		this.limit = offset + length;
+	}
+
+	public int getPosition()
+	{
+		return position;
+	}
+
+	@Override
+	public int read()
+	{
+		if (position >= limit) {
+			return -1;
+		}
+		return buffer[position++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len)
+	{
+		if (position >= limit) {
+			return -1;
+		}
+		int n = Math.min(len, limit - position);
+		System.arraycopy(buffer, position, b, off, n);
+		position += n;
+		return n;
+	}
+
+	@Override
+	public long skip(long n)
+	{
+		if (n <= 0) {
+			return 0;
+		}
+		int skipped = (int) Math.min(n, limit - position);
+		position += skipped;
+		return skipped;
+	}
+
+	@Override
+	public int available()
+	{
+		return limit - position;
+	}
+
+}
@@ -21,48 +21,237 @@ import java.io.IOException;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
+import net.jpountz.lz4.LZ4Exception;
 import net.jpountz.lz4.LZ4Factory;
 import net.jpountz.lz4.LZ4FastDecompressor;
+
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdException;
+
+import de.topobyte.compactio.CompactReader;
+import de.topobyte.compactio.InputStreamCompactReader;
+import de.topobyte.osm4j.tbo.Compression;
 import de.topobyte.osm4j.tbo.data.FileBlock;
+import de.topobyte.osm4j.tbo.data.FileHeader;
 
 public class Decompression
 {
 
 	public static byte[] decompress(FileBlock block) throws IOException
+	{
+		if (block.getCompression() == Compression.NONE) {
+			return block.getBuffer();
+		}
+		byte[] uncompressed = new byte[block.getUncompressedLength()];
+		decompress(block, uncompressed, null);
+		return uncompressed;
+	}
+
+	/**
+	 * Decompress the specified block using the dictionary from the header of
+	 * the file the block belongs to, if any.
+	 */
+	public static byte[] decompress(FileBlock block, FileHeader header)
+			throws IOException
+	{
+		if (block.getCompression() != Compression.ZSTD
+				|| !header.hasDictionary()) {
+			return decompress(block);
+		}
+		byte[] uncompressed = new byte[block.getUncompressedLength()];
+		decompress(block, uncompressed, header.getDictionary());
+		return uncompressed;
+	}
+
+	/**
+	 * Get a reader for the uncompressed data of the specified block. The data
+	 * is decompressed into a buffer owned by the calling thread, so the reader
+	 * is only valid until the next call to this method on the same thread.
+	 * Uncompressed blocks are read directly from the block's buffer.
+	 */
+	public static CompactReader reader(FileBlock block) throws IOException
+	{
+		return reader(block, (byte[]) null);
+	}
+
+	/**
+	 * Like {@link #reader(FileBlock)}, but use the dictionary from the header
+	 * of the file the block belongs to, if any.
+	 */
+	public static CompactReader reader(FileBlock block, FileHeader header)
+			throws IOException
+	{
+		return reader(block, header.getDictionary());
+	}
+
+	private static CompactReader reader(FileBlock block, byte[] dictionary)
+			throws IOException
+	{
+		ByteArrayCursor cursor;
+		if (block.getCompression() == Compression.NONE) {
+			cursor = new ByteArrayCursor(block.getBuffer(), 0,
+					block.getLength());
+		} else {
+			int length = block.getUncompressedLength();
+			byte[] buffer = outputBuffer(length);
+			decompress(block, buffer, dictionary);
+			cursor = new ByteArrayCursor(buffer, 0, length);
+		}
+		return new InputStreamCompactReader(cursor);
+	}
+
+	private static void decompress(FileBlock block, byte[] uncompressed,
+			byte[] dictionary) throws IOException
 	{
 		byte[] compressed = block.getBuffer();
-		byte[] uncompressed;
 		switch (block.getCompression()) {
 		default:
 		case NONE:
-			uncompressed = compressed;
 			break;
 		case DEFLATE:
-			uncompressed = new byte[block.getUncompressedLength()];
-
-			Inflater decompresser = new Inflater();
-			decompresser.setInput(compressed);
+			Inflater decompresser = inflaters.get();
+			decompresser.reset();
+			decompresser.setInput(compressed, 0, block.getLength());
 			try {
-				decompresser.inflate(uncompressed);
+				int length = decompresser.inflate(uncompressed, 0,
+						block.getUncompressedLength());
+				if (length != block.getUncompressedLength()
+						|| !finished(decompresser)) {
+					throw new IOException(
+							"Corrupt deflate data: expected "
+									+ block.getUncompressedLength()
+									+ " bytes, got " + length);
+				}
 			} catch (DataFormatException e) {
 				throw new IOException("Error while decompressing gzipped data",
 						e);
 			}
-			decompresser.end();
 			break;
 		case LZ4:
-			uncompressed = new byte[block.getUncompressedLength()];
-
 			initLz4();
-			lz4Decompressor.decompress(compressed, uncompressed);
+			try {
+				int read = lz4Decompressor.decompress(compressed, 0,
+						uncompressed, 0, block.getUncompressedLength());
+				if (read != block.getLength()) {
+					throw new IOException("Corrupt lz4 data: expected "
+							+ block.getLength() + " compressed bytes, read "
+							+ read);
+				}
+			} catch (LZ4Exception e) {
+				throw new IOException("Error while decompressing lz4 data", e);
+			}
+			break;
+		case ZSTD:
+			ZstdDecompressCtx context = zstdContext(dictionary);
+			try {
+				int length = context.decompressByteArray(uncompressed, 0,
+						block.getUncompressedLength(), compressed, 0,
+						block.getLength());
+				if (length != block.getUncompressedLength()) {
+					throw new IOException("Corrupt zstd data: expected "
+							+ block.getUncompressedLength() + " bytes, got "
+							+ length);
+				}
+			} catch (ZstdException e) {
+				throw new IOException("Error while decompressing zstd data",
+						e);
+			}
 			break;
 		}
-		return uncompressed;
+	}
+
+	/**
+	 * Check whether the inflater reached the end of the deflate stream. When
+	 * the output is filled exactly, the end of the stream may not have been
+	 * consumed yet, so try to inflate once more, which must not produce any
+	 * further bytes.
+	 */
+	private static boolean finished(Inflater inflater)
+			throws DataFormatException
+	{
+		if (inflater.finished()) {
+			return true;
+		}
+		int extra = inflater.inflate(new byte[1]);
+		return extra == 0 && inflater.finished();
+	}
+
+	/*
+	 * Each thread keeps its own Inflater and a buffer for uncompressed data,
+	 * so that decoding a block does not allocate anything beyond the decoded
+	 * entities.
+	 */
+
+	private static ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>() {
+
+		@Override
+		protected Inflater initialValue()
+		{
+			return new Inflater();
+		}
+
+	};
+
+	private static class ZstdState
+	{
+
+		ZstdDecompressCtx context = new ZstdDecompressCtx();
+		byte[] dictionary = null;
+
+	}
+
+	private static ThreadLocal<ZstdState> zstdStates = new ThreadLocal<ZstdState>() {
+
+		@Override
+		protected ZstdState initialValue()
+		{
+			return new ZstdState();
+		}
+
+	};
+
+	/**
+	 * Get the calling thread's zstd context with the specified dictionary
+	 * loaded. Loading a dictionary is comparatively expensive, so it is only
+	 * reloaded when a block of a file with a different dictionary is decoded.
+	 */
+	private static ZstdDecompressCtx zstdContext(byte[] dictionary)
+	{
+		ZstdState state = zstdStates.get();
+		if (state.dictionary != dictionary) {
+			if (dictionary == null) {
+				state.context.reset();
+			} else {
+				state.context.loadDict(dictionary);
+			}
+			state.dictionary = dictionary;
+		}
+		return state.context;
+	}
+
+	private static ThreadLocal<byte[]> outputBuffers = new ThreadLocal<byte[]>() {
+
+		@Override
+		protected byte[] initialValue()
+		{
+			return new byte[0];
+		}
+
+	};
+
+	private static byte[] outputBuffer(int size)
+	{
+		byte[] buffer = outputBuffers.get();
+		if (buffer.length < size) {
+			buffer = new byte[Math.max(size, buffer.length * 3 / 2)];
+			outputBuffers.set(buffer);
+		}
+		return buffer;
 	}
 
 	private static LZ4FastDecompressor lz4Decompressor = null;
 
-	private static void initLz4()
+	private static synchronized void initLz4()
 	{
 		if (lz4Decompressor == null) {
 			LZ4Factory factory = LZ4Factory.fastestInstance();
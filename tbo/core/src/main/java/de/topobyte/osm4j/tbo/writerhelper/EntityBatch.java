@@ -29,11 +29,13 @@ import de.topobyte.osm4j.tbo.ByteArrayOutputStream;
 import de.topobyte.osm4j.tbo.data.Definitions;
 import de.topobyte.osm4j.tbo.data.StringPool;
 import de.topobyte.osm4j.tbo.data.StringPoolBuilder;
+import de.topobyte.osm4j.tbo.io.BitPacking;
 
 public abstract class EntityBatch<T extends OsmEntity> implements Blockable
 {
 
 	private boolean writeMetadata;
+	protected boolean columnar;
 
 	protected List<T> elements;
 
@@ -43,8 +45,19 @@ public abstract class EntityBatch<T extends OsmEntity> implements Blockable
 	protected StringPool stringPoolUsernames;
 
 	public EntityBatch(boolean writeMetadata)
+	{
+		this(writeMetadata, false);
+	}
+
+	/**
+	 * @param columnar
+	 *            whether to write blocks using the columnar layout of
+	 *            {@link Definitions#VERSION_COLUMNAR}.
+	 */
+	public EntityBatch(boolean writeMetadata, boolean columnar)
 	{
 		this.writeMetadata = writeMetadata;
+		this.columnar = columnar;
 		elements = new ArrayList<>();
 	}
 
@@ -64,6 +77,24 @@ public abstract class EntityBatch<T extends OsmEntity> implements Blockable
 		return elements.size();
 	}
 
+	public long getMinId()
+	{
+		long min = Long.MAX_VALUE;
+		for (OsmEntity entity : elements) {
+			min = Math.min(min, entity.getId());
+		}
+		return min;
+	}
+
+	public long getMaxId()
+	{
+		long max = Long.MIN_VALUE;
+		for (OsmEntity entity : elements) {
+			max = Math.max(max, entity.getId());
+		}
+		return max;
+	}
+
 	public void writeAndReset(CompactWriter writer, ByteArrayOutputStream baos)
 			throws IOException
 	{
@@ -147,13 +178,93 @@ public abstract class EntityBatch<T extends OsmEntity> implements Blockable
 		}
 	}
 
-	protected void writeMetadata(CompactWriter writer) throws IOException
+	public void writeIdColumn(CompactWriter writer) throws IOException
+	{
+		int n = elements.size();
+		long[] ids = new long[n];
+		for (int i = 0; i < n; i++) {
+			ids[i] = elements.get(i).getId();
+		}
+		BitPacking.writeDeltas(writer, ids, n);
+	}
+
+	/**
+	 * Write the tags of all elements as three separate columns: the number of
+	 * tags per element, the pool indices of the keys and the pool indices of
+	 * the values.
+	 */
+	protected void writeTagColumns(CompactWriter writer,
+			ByteArrayOutputStream baos, CompactWriter bwriter)
+			throws IOException
+	{
+		for (OsmEntity entity : elements) {
+			bwriter.writeVariableLengthUnsignedInteger(
+					entity.getNumberOfTags());
+		}
+		writeAndReset(writer, baos);
+
+		for (OsmEntity entity : elements) {
+			int nTags = entity.getNumberOfTags();
+			for (int i = 0; i < nTags; i++) {
+				String key = entity.getTag(i).getKey();
+				bwriter.writeVariableLengthUnsignedInteger(
+						stringPoolTags.getId(key));
+			}
+		}
+		writeAndReset(writer, baos);
+
+		for (OsmEntity entity : elements) {
+			int nTags = entity.getNumberOfTags();
+			for (int i = 0; i < nTags; i++) {
+				String value = entity.getTag(i).getValue();
+				bwriter.writeVariableLengthUnsignedInteger(
+						stringPoolTags.getId(value));
+			}
+		}
+		writeAndReset(writer, baos);
+	}
+
+	/**
+	 * Write the metadata of all elements with each field in a separate
+	 * column. The first column contains the metadata situation of the block
+	 * and, in case of mixed metadata, the flags of the elements. Nothing
+	 * follows if none of the elements has metadata.
+	 */
+	protected void writeMetadataColumns(CompactWriter writer,
+			ByteArrayOutputStream baos, CompactWriter bwriter)
+			throws IOException
 	{
 		if (!writeMetadata) {
 			return;
 		}
 
-		// Determine the situation among all elements
+		int situation = metadataSituation();
+		bwriter.writeByte(situation);
+		if (situation == Definitions.METADATA_MIXED) {
+			writeFlags(bwriter);
+		}
+		writeAndReset(writer, baos);
+
+		if (situation == Definitions.METADATA_NONE) {
+			return;
+		}
+
+		writeUsernameStringPool(bwriter);
+		writeAndReset(writer, baos);
+		writeVersions(bwriter);
+		writeAndReset(writer, baos);
+		writeTimestamps(bwriter);
+		writeAndReset(writer, baos);
+		writeChangesets(bwriter);
+		writeAndReset(writer, baos);
+		writerUserIds(bwriter);
+		writeAndReset(writer, baos);
+		writeUsernames(bwriter);
+		writeAndReset(writer, baos);
+	}
+
+	private int metadataSituation()
+	{
 		boolean none = true;
 		boolean all = true;
 		for (OsmEntity element : elements) {
@@ -163,29 +274,33 @@ public abstract class EntityBatch<T extends OsmEntity> implements Blockable
 				none = false;
 			}
 			if (!all && !none) {
-				// mixed
-				break;
+				return Definitions.METADATA_MIXED;
 			}
 		}
-
-		int situation;
 		if (all) {
-			situation = Definitions.METADATA_ALL;
-		} else if (none) {
-			situation = Definitions.METADATA_NONE;
-		} else {
-			situation = Definitions.METADATA_MIXED;
+			return Definitions.METADATA_ALL;
+		}
+		return Definitions.METADATA_NONE;
+	}
+
+	protected void writeMetadata(CompactWriter writer) throws IOException
+	{
+		if (!writeMetadata) {
+			return;
 		}
 
+		// Determine the situation among all elements
+		int situation = metadataSituation();
+
 		writer.writeByte(situation);
 
-		if (none) {
+		if (situation == Definitions.METADATA_NONE) {
 			return;
 		}
 
 		writeUsernameStringPool(writer);
 
-		if (!all) {
+		if (situation == Definitions.METADATA_MIXED) {
 			writeFlags(writer);
 		}
 
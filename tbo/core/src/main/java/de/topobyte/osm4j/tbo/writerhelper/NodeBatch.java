@@ -32,12 +32,22 @@ public class NodeBatch extends EntityBatch<OsmNode>
 		super(writeMetadata);
 	}
 
+	public NodeBatch(boolean writeMetadata, boolean columnar)
+	{
+		super(writeMetadata, columnar);
+	}
+
 	@Override
 	public void write(CompactWriter writer) throws IOException
 	{
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
 		CompactWriter bwriter = new OutputStreamCompactWriter(baos);
 
+		if (columnar) {
+			writeColumns(writer, baos, bwriter);
+			return;
+		}
+
 		writeTagStringPool(bwriter);
 		writeAndReset(writer, baos);
 
@@ -54,6 +64,36 @@ public class NodeBatch extends EntityBatch<OsmNode>
 		writeAndReset(writer, baos);
 	}
 
+	private void writeColumns(CompactWriter writer,
+			ByteArrayOutputStream baos, CompactWriter bwriter)
+			throws IOException
+	{
+		writeTagStringPool(bwriter);
+		writeAndReset(writer, baos);
+
+		writeIdColumn(bwriter);
+		writeAndReset(writer, baos);
+
+		long offset = 0;
+		for (OsmNode node : elements) {
+			long mlat = toLong(node.getLatitude());
+			bwriter.writeVariableLengthSignedInteger(mlat - offset);
+			offset = mlat;
+		}
+		writeAndReset(writer, baos);
+
+		offset = 0;
+		for (OsmNode node : elements) {
+			long mlon = toLong(node.getLongitude());
+			bwriter.writeVariableLengthSignedInteger(mlon - offset);
+			offset = mlon;
+		}
+		writeAndReset(writer, baos);
+
+		writeTagColumns(writer, baos, bwriter);
+		writeMetadataColumns(writer, baos, bwriter);
+	}
+
 	private long latOffset = 0;
 	private long lonOffset = 0;
 
@@ -38,12 +38,22 @@ public class RelationBatch extends EntityBatch<OsmRelation>
 		super(writeMetadata);
 	}
 
+	public RelationBatch(boolean writeMetadata, boolean columnar)
+	{
+		super(writeMetadata, columnar);
+	}
+
 	@Override
 	public void write(CompactWriter writer) throws IOException
 	{
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
 		CompactWriter bwriter = new OutputStreamCompactWriter(baos);
 
+		if (columnar) {
+			writeColumns(writer, baos, bwriter);
+			return;
+		}
+
 		writeTagStringPool(bwriter);
 		writeAndReset(writer, baos);
 
@@ -63,6 +73,59 @@ public class RelationBatch extends EntityBatch<OsmRelation>
 		writeAndReset(writer, baos);
 	}
 
+	private void writeColumns(CompactWriter writer,
+			ByteArrayOutputStream baos, CompactWriter bwriter)
+			throws IOException
+	{
+		writeTagStringPool(bwriter);
+		writeAndReset(writer, baos);
+
+		writeMemberStringPool(bwriter);
+		writeAndReset(writer, baos);
+
+		writeIdColumn(bwriter);
+		writeAndReset(writer, baos);
+
+		for (OsmRelation relation : elements) {
+			bwriter.writeVariableLengthUnsignedInteger(
+					relation.getNumberOfMembers());
+		}
+		writeAndReset(writer, baos);
+
+		for (OsmRelation relation : elements) {
+			int nMembers = relation.getNumberOfMembers();
+			for (int i = 0; i < nMembers; i++) {
+				EntityType type = relation.getMember(i).getType();
+				bwriter.writeByte(EntityTypeHelper.getByte(type));
+			}
+		}
+		writeAndReset(writer, baos);
+
+		long offset = 0;
+		for (OsmRelation relation : elements) {
+			int nMembers = relation.getNumberOfMembers();
+			for (int i = 0; i < nMembers; i++) {
+				long mid = relation.getMember(i).getId();
+				bwriter.writeVariableLengthSignedInteger(mid - offset);
+				offset = mid;
+			}
+		}
+		writeAndReset(writer, baos);
+
+		for (OsmRelation relation : elements) {
+			int nMembers = relation.getNumberOfMembers();
+			for (int i = 0; i < nMembers; i++) {
+				String role = relation.getMember(i).getRole();
+				bwriter.writeVariableLengthUnsignedInteger(
+						stringPoolMembers.getId(role));
+			}
+		}
+		writeAndReset(writer, baos);
+
+		writeTagColumns(writer, baos, bwriter);
+		writeMetadataColumns(writer, baos, bwriter);
+	}
+
 	private long midOffset = 0;
 
 	private void writeMembers(CompactWriter writer) throws IOException
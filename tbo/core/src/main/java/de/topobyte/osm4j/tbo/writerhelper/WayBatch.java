@@ -32,12 +32,22 @@ public class WayBatch extends EntityBatch<OsmWay>
 		super(writeMetadata);
 	}
 
+	public WayBatch(boolean writeMetadata, boolean columnar)
+	{
+		super(writeMetadata, columnar);
+	}
+
 	@Override
 	public void write(CompactWriter writer) throws IOException
 	{
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
 		CompactWriter bwriter = new OutputStreamCompactWriter(baos);
 
+		if (columnar) {
+			writeColumns(writer, baos, bwriter);
+			return;
+		}
+
 		writeTagStringPool(bwriter);
 		writeAndReset(writer, baos);
 
@@ -54,6 +64,36 @@ public class WayBatch extends EntityBatch<OsmWay>
 		writeAndReset(writer, baos);
 	}
 
+	private void writeColumns(CompactWriter writer,
+			ByteArrayOutputStream baos, CompactWriter bwriter)
+			throws IOException
+	{
+		writeTagStringPool(bwriter);
+		writeAndReset(writer, baos);
+
+		writeIdColumn(bwriter);
+		writeAndReset(writer, baos);
+
+		for (OsmWay way : elements) {
+			bwriter.writeVariableLengthUnsignedInteger(way.getNumberOfNodes());
+		}
+		writeAndReset(writer, baos);
+
+		long offset = 0;
+		for (OsmWay way : elements) {
+			int nNodes = way.getNumberOfNodes();
+			for (int i = 0; i < nNodes; i++) {
+				long nid = way.getNodeId(i);
+				bwriter.writeVariableLengthSignedInteger(nid - offset);
+				offset = nid;
+			}
+		}
+		writeAndReset(writer, baos);
+
+		writeTagColumns(writer, baos, bwriter);
+		writeMetadataColumns(writer, baos, bwriter);
+	}
+
 	private long nidOffset = 0;
 
 	private void writeNodes(CompactWriter writer) throws IOException
@@ -0,0 +1,270 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.core.dataset.InMemoryListDataSet;
+import de.topobyte.osm4j.core.dataset.ListDataSetLoader;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.IdContainer;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.tbo.access.TboFile;
+import de.topobyte.osm4j.tbo.access.TboIdIterator;
+import de.topobyte.osm4j.tbo.access.TboIterator;
+import de.topobyte.osm4j.tbo.access.TboWriter;
+import de.topobyte.osm4j.tbo.data.Definitions;
+import de.topobyte.osm4j.testing.DataSetGenerator;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.EntityGenerator;
+import de.topobyte.osm4j.testing.TestDataSet;
+import de.topobyte.osm4j.testing.model.TestNode;
+import de.topobyte.osm4j.testing.model.TestRelation;
+import de.topobyte.osm4j.testing.model.TestWay;
+
+public class TestColumnar
+{
+
+	private EntityGenerator entityGenerator = new EntityGenerator(100, true);
+	private DataSetGenerator dataSetGenerator = new DataSetGenerator(
+			entityGenerator);
+
+	private File file;
+
+	@Before
+	public void createTestFile() throws IOException
+	{
+		file = File.createTempFile("test", ".tbo");
+	}
+
+	@After
+	public void deleteTestFile()
+	{
+		file.delete();
+	}
+
+	@Test
+	public void testCompleteMetadata() throws IOException
+	{
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+		write(generated, true, false);
+		compare(generated, read(1));
+	}
+
+	@Test
+	public void testNoMetadata() throws IOException
+	{
+		entityGenerator.setGenerateMetadata(false);
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+		write(generated, true, false);
+		compare(generated, read(1));
+	}
+
+	@Test
+	public void testPartialMetadata() throws IOException
+	{
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+
+		generated.getNodes().get(2).setMetadata(null);
+		generated.getWays().get(2).setMetadata(null);
+		generated.getRelations().get(0).setMetadata(null);
+
+		write(generated, true, false);
+		compare(generated, read(1));
+	}
+
+	@Test
+	public void testVersions() throws IOException
+	{
+		TestDataSet generated = dataSetGenerator.generate(10, 3, 2);
+
+		write(generated, false, false);
+		Assert.assertEquals(Definitions.VERSION, readVersion());
+
+		write(generated, true, false);
+		Assert.assertEquals(Definitions.VERSION_COLUMNAR, readVersion());
+	}
+
+	@Test
+	public void testSkipTagsAndMetadata() throws IOException
+	{
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+		write(generated, true, false);
+
+		InputStream input = new FileInputStream(file);
+		OsmIterator iterator = new TboIterator(input, false, false);
+		InMemoryListDataSet data = ListDataSetLoader.read(iterator, true,
+				true, true);
+		input.close();
+
+		Assert.assertEquals(generated.getNodes().size(),
+				data.getNodes().size());
+		for (int i = 0; i < data.getNodes().size(); i++) {
+			TestNode expected = generated.getNodes().get(i);
+			OsmNode node = data.getNodes().get(i);
+			Assert.assertEquals(expected.getId(), node.getId());
+			Assert.assertEquals(expected.getLatitude(), node.getLatitude(),
+					1e-7);
+			Assert.assertEquals(expected.getLongitude(), node.getLongitude(),
+					1e-7);
+			assertNoTagsAndMetadata(node);
+		}
+
+		Assert.assertEquals(generated.getWays().size(), data.getWays().size());
+		for (int i = 0; i < data.getWays().size(); i++) {
+			TestWay expected = generated.getWays().get(i);
+			OsmWay way = data.getWays().get(i);
+			Assert.assertEquals(expected.getId(), way.getId());
+			Assert.assertEquals(expected.getNumberOfNodes(),
+					way.getNumberOfNodes());
+			assertNoTagsAndMetadata(way);
+		}
+
+		Assert.assertEquals(generated.getRelations().size(),
+				data.getRelations().size());
+		for (int i = 0; i < data.getRelations().size(); i++) {
+			TestRelation expected = generated.getRelations().get(i);
+			OsmRelation relation = data.getRelations().get(i);
+			Assert.assertEquals(expected.getId(), relation.getId());
+			Assert.assertEquals(expected.getNumberOfMembers(),
+					relation.getNumberOfMembers());
+			assertNoTagsAndMetadata(relation);
+		}
+	}
+
+	@Test
+	public void testIds() throws IOException
+	{
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+		write(generated, true, false);
+
+		List<IdContainer> expected = new ArrayList<>();
+		for (TestNode node : generated.getNodes()) {
+			expected.add(new IdContainer(EntityType.Node, node.getId()));
+		}
+		for (TestWay way : generated.getWays()) {
+			expected.add(new IdContainer(EntityType.Way, way.getId()));
+		}
+		for (TestRelation relation : generated.getRelations()) {
+			expected.add(
+					new IdContainer(EntityType.Relation, relation.getId()));
+		}
+
+		InputStream input = new FileInputStream(file);
+		TboIdIterator iterator = new TboIdIterator(input);
+		int i = 0;
+		for (IdContainer container : iterator) {
+			Assert.assertEquals(expected.get(i).getType(),
+					container.getType());
+			Assert.assertEquals(expected.get(i).getId(), container.getId());
+			i++;
+		}
+		input.close();
+		Assert.assertEquals(expected.size(), i);
+	}
+
+	@Test
+	public void testParallel() throws IOException
+	{
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+		write(generated, true, false);
+		compare(generated, read(4));
+	}
+
+	@Test
+	public void testTboFile() throws IOException, EntityNotFoundException
+	{
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+		write(generated, true, true);
+
+		TboFile tboFile = new TboFile(file);
+		for (TestNode node : generated.getNodes()) {
+			Assert.assertTrue(DataSetHelper.equals(node,
+					tboFile.getNode(node.getId())));
+		}
+		for (TestWay way : generated.getWays()) {
+			Assert.assertTrue(
+					DataSetHelper.equals(way, tboFile.getWay(way.getId())));
+		}
+		for (TestRelation relation : generated.getRelations()) {
+			Assert.assertTrue(DataSetHelper.equals(relation,
+					tboFile.getRelation(relation.getId())));
+		}
+		tboFile.close();
+	}
+
+	private void assertNoTagsAndMetadata(OsmEntity entity)
+	{
+		Assert.assertEquals(0, entity.getNumberOfTags());
+		Assert.assertNull(entity.getMetadata());
+	}
+
+	private void write(TestDataSet data, boolean columnar, boolean writeIndex)
+			throws IOException
+	{
+		OutputStream output = new FileOutputStream(file);
+		TboWriter writer = new TboWriter(output, true);
+		writer.setBatchSizeByElementCount(7);
+		writer.setColumnar(columnar);
+		writer.setWriteIndex(writeIndex);
+		DataSetHelper.write(data, writer);
+		writer.complete();
+		output.close();
+	}
+
+	private int readVersion() throws IOException
+	{
+		TboFile tboFile = new TboFile(file);
+		int version = tboFile.getHeader().getVersion();
+		tboFile.close();
+		return version;
+	}
+
+	private TestDataSet read(int numThreads) throws IOException
+	{
+		InputStream input = new FileInputStream(file);
+		OsmIterator iterator = new TboIterator(input, true, true, numThreads);
+		InMemoryListDataSet data = ListDataSetLoader.read(iterator, true, true,
+				true);
+		input.close();
+		return new TestDataSet(data);
+	}
+
+	private void compare(TestDataSet generated, TestDataSet read)
+	{
+		Assert.assertTrue(DataSetHelper.equals(generated, read));
+	}
+
+}
@@ -0,0 +1,123 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+import com.github.luben.zstd.Zstd;
+
+import de.topobyte.osm4j.tbo.Compression;
+import de.topobyte.osm4j.tbo.data.Definitions;
+import de.topobyte.osm4j.tbo.data.FileBlock;
+import de.topobyte.osm4j.tbo.io.Decompression;
+
+public class TestDecompression
+{
+
+	private byte[] data = createData();
+
+	@Test
+	public void testDeflate() throws IOException
+	{
+		test(Compression.DEFLATE, deflate(data));
+	}
+
+	@Test
+	public void testLz4() throws IOException
+	{
+		LZ4Compressor compressor = LZ4Factory.fastestInstance()
+				.fastCompressor();
+		byte[] compressed = new byte[compressor
+				.maxCompressedLength(data.length)];
+		int length = compressor.compress(data, compressed);
+		test(Compression.LZ4, Arrays.copyOf(compressed, length));
+	}
+
+	@Test
+	public void testZstd() throws IOException
+	{
+		test(Compression.ZSTD, Zstd.compress(data));
+	}
+
+	private void test(Compression compression, byte[] compressed)
+			throws IOException
+	{
+		FileBlock block = block(compression, data.length, compressed,
+				compressed.length);
+		Assert.assertArrayEquals(data, Decompression.decompress(block));
+
+		assertCorrupt(block(compression, data.length + 1, compressed,
+				compressed.length));
+		assertCorrupt(block(compression, data.length - 1, compressed,
+				compressed.length));
+		assertCorrupt(block(compression, data.length, compressed,
+				compressed.length - 1));
+	}
+
+	private void assertCorrupt(FileBlock block)
+	{
+		try {
+			Decompression.decompress(block);
+			Assert.fail("no exception for corrupt block");
+		} catch (IOException e) {
+			// expected
+		}
+		try {
+			Decompression.reader(block);
+			Assert.fail("no exception for corrupt block");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	private static FileBlock block(Compression compression,
+			int uncompressedLength, byte[] compressed, int length)
+	{
+		return new FileBlock(Definitions.BLOCK_TYPE_NODES, compression,
+				uncompressedLength, 1, Arrays.copyOf(compressed, length),
+				length);
+	}
+
+	private static byte[] createData()
+	{
+		byte[] data = new byte[10000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i % 251 ^ i / 97);
+		}
+		return data;
+	}
+
+	private static byte[] deflate(byte[] data) throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DeflaterOutputStream out = new DeflaterOutputStream(baos);
+		out.write(data);
+		out.close();
+		return baos.toByteArray();
+	}
+
+}
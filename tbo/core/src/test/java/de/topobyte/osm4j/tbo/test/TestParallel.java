@@ -0,0 +1,248 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.access.OsmInputException;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.tbo.Compression;
+import de.topobyte.osm4j.tbo.access.TboFile;
+import de.topobyte.osm4j.tbo.access.TboIterator;
+import de.topobyte.osm4j.tbo.access.TboReader;
+import de.topobyte.osm4j.tbo.access.TboWriter;
+import de.topobyte.osm4j.testing.DataSetGenerator;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.EntityGenerator;
+import de.topobyte.osm4j.testing.TestDataSet;
+import de.topobyte.osm4j.testing.model.TestNode;
+
+public class TestParallel
+{
+
+	private EntityGenerator entityGenerator = new EntityGenerator(100, true);
+	private DataSetGenerator dataSetGenerator = new DataSetGenerator(
+			entityGenerator);
+
+	private File file;
+
+	@Before
+	public void createTestFile() throws IOException
+	{
+		file = File.createTempFile("test", ".tbo");
+	}
+
+	@After
+	public void deleteTestFile()
+	{
+		file.delete();
+	}
+
+	@Test
+	public void testIterator() throws IOException
+	{
+		for (Compression compression : Compression.values()) {
+			TestDataSet generated = dataSetGenerator.generate(500, 200, 100);
+			write(generated, compression);
+
+			for (int numThreads : new int[] { 2, 4 }) {
+				InputStream input = new FileInputStream(file);
+				TboIterator iterator = new TboIterator(input, true, true,
+						numThreads);
+				TestDataSet read = DataSetHelper.read(iterator);
+				input.close();
+
+				Assert.assertTrue(DataSetHelper.equals(generated, read));
+			}
+		}
+	}
+
+	@Test
+	public void testReader() throws IOException, OsmInputException
+	{
+		for (Compression compression : Compression.values()) {
+			TestDataSet generated = dataSetGenerator.generate(500, 200, 100);
+			write(generated, compression);
+
+			for (int numThreads : new int[] { 2, 4 }) {
+				InputStream input = new FileInputStream(file);
+				TboReader reader = new TboReader(input, true, true,
+						numThreads);
+				TestDataSet read = DataSetHelper.read(reader);
+				input.close();
+
+				Assert.assertTrue(DataSetHelper.equals(generated, read));
+			}
+		}
+	}
+
+	@Test
+	public void testWithIndex() throws IOException
+	{
+		TestDataSet generated = dataSetGenerator.generate(500, 200, 100);
+
+		OutputStream output = new FileOutputStream(file);
+		TboWriter writer = new TboWriter(output, true);
+		writer.setBatchSizeByElementCount(50);
+		writer.setWriteIndex(true);
+		DataSetHelper.write(generated, writer);
+		writer.complete();
+		output.close();
+
+		InputStream input = new FileInputStream(file);
+		TboIterator iterator = new TboIterator(input, true, true, 3);
+		TestDataSet read = DataSetHelper.read(iterator);
+		input.close();
+
+		Assert.assertTrue(DataSetHelper.equals(generated, read));
+	}
+
+	@Test
+	public void testPipelinedWriter() throws IOException
+	{
+		for (Compression compression : Compression.values()) {
+			TestDataSet generated = dataSetGenerator.generate(500, 200, 100);
+
+			OutputStream output = new FileOutputStream(file);
+			TboWriter writer = new TboWriter(output, true);
+			writer.setCompression(compression);
+			writer.setBatchSizeByElementCount(20);
+			writer.setNumThreads(4);
+			writer.setMaxBlocksInFlight(3);
+			DataSetHelper.write(generated, writer);
+			writer.complete();
+			output.close();
+
+			InputStream input = new FileInputStream(file);
+			TboIterator iterator = new TboIterator(input, true, true);
+			TestDataSet read = DataSetHelper.read(iterator);
+			input.close();
+
+			Assert.assertTrue(DataSetHelper.equals(generated, read));
+		}
+	}
+
+	@Test
+	public void testSharedExecutor() throws IOException,
+			EntityNotFoundException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		TestDataSet generated = dataSetGenerator.generate(500, 200, 100);
+
+		OutputStream output = new FileOutputStream(file);
+		TboWriter writer = new TboWriter(output, true);
+		writer.setCompression(Compression.DEFLATE);
+		writer.setBatchSizeByElementCount(20);
+		writer.setExecutor(executor);
+		writer.setWriteIndex(true);
+		DataSetHelper.write(generated, writer);
+		writer.complete();
+		output.close();
+
+		Assert.assertFalse(executor.isShutdown());
+		executor.shutdown();
+
+		InputStream input = new FileInputStream(file);
+		TboIterator iterator = new TboIterator(input, true, true);
+		TestDataSet read = DataSetHelper.read(iterator);
+		input.close();
+
+		Assert.assertTrue(DataSetHelper.equals(generated, read));
+
+		TboFile tboFile = new TboFile(file);
+		Assert.assertTrue(tboFile.getHeader().hasIndex());
+		for (TestNode node : generated.getNodes()) {
+			Assert.assertTrue(DataSetHelper.equals(node,
+					tboFile.getNode(node.getId())));
+		}
+		tboFile.close();
+	}
+
+	@Test(timeout = 10000)
+	public void testCorruptBlockLength() throws IOException
+	{
+		// The header is followed by the first block's type byte and its
+		// length, which is replaced with a negative value here
+		int headerLength = serialize(new TestDataSet()).length;
+		byte[] valid = serialize(dataSetGenerator.generate(500, 200, 100));
+		int lengthStart = headerLength + 1;
+		int lengthEnd = lengthStart;
+		while ((valid[lengthEnd] & 0x80) != 0) {
+			lengthEnd++;
+		}
+		lengthEnd++;
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		baos.write(valid, 0, lengthStart);
+		baos.write(new byte[] { (byte) 0xff, (byte) 0xff, (byte) 0xff,
+				(byte) 0xff, 0x0f });
+		baos.write(valid, lengthEnd, valid.length - lengthEnd);
+		byte[] corrupt = baos.toByteArray();
+
+		for (int numThreads : new int[] { 1, 4 }) {
+			TboIterator iterator = new TboIterator(
+					new ByteArrayInputStream(corrupt), true, true, numThreads);
+			try {
+				while (iterator.hasNext()) {
+					iterator.next();
+				}
+				Assert.fail("corrupt block not detected");
+			} catch (RuntimeException e) {
+				// expected
+			}
+		}
+	}
+
+	private byte[] serialize(TestDataSet data) throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		TboWriter writer = new TboWriter(baos, true);
+		writer.setCompression(Compression.NONE);
+		DataSetHelper.write(data, writer);
+		writer.complete();
+		return baos.toByteArray();
+	}
+
+	private void write(TestDataSet data, Compression compression)
+			throws IOException
+	{
+		OutputStream output = new FileOutputStream(file);
+		TboWriter writer = new TboWriter(output, true);
+		writer.setCompression(compression);
+		writer.setBatchSizeByElementCount(50);
+		DataSetHelper.write(data, writer);
+		writer.complete();
+		output.close();
+	}
+
+}
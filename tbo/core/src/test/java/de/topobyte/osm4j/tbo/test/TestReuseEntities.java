@@ -0,0 +1,139 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.topobyte.osm4j.tbo.access.TboIterator;
+import de.topobyte.osm4j.tbo.access.TboWriter;
+import de.topobyte.osm4j.testing.DataSetGenerator;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.EntityGenerator;
+import de.topobyte.osm4j.testing.TestDataSet;
+
+public class TestReuseEntities
+{
+
+	private EntityGenerator entityGenerator = new EntityGenerator(100, true);
+	private DataSetGenerator dataSetGenerator = new DataSetGenerator(
+			entityGenerator);
+
+	private File file;
+
+	@Before
+	public void createTestFile() throws IOException
+	{
+		file = File.createTempFile("test", ".tbo");
+	}
+
+	@After
+	public void deleteTestFile()
+	{
+		file.delete();
+	}
+
+	@Test
+	public void testCompleteMetadata() throws IOException
+	{
+		test(dataSetGenerator.generate(100, 30, 20));
+	}
+
+	@Test
+	public void testNoMetadata() throws IOException
+	{
+		entityGenerator.setGenerateMetadata(false);
+		test(dataSetGenerator.generate(100, 30, 20));
+	}
+
+	@Test
+	public void testPartialMetadata() throws IOException
+	{
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+
+		generated.getNodes().get(2).setMetadata(null);
+		generated.getWays().get(2).setMetadata(null);
+		generated.getRelations().get(0).setMetadata(null);
+
+		test(generated);
+	}
+
+	@Test
+	public void testWithoutTags() throws IOException
+	{
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+		write(generated, true);
+
+		TestDataSet expected = DataSetHelper.read(iterator(1, false, false));
+		Assert.assertTrue(DataSetHelper.equals(expected,
+				DataSetHelper.readCopies(reusing(1, false, false))));
+	}
+
+	private void test(TestDataSet generated) throws IOException
+	{
+		for (boolean columnar : new boolean[] { false, true }) {
+			write(generated, columnar);
+			for (int numThreads : new int[] { 1, 3 }) {
+				Assert.assertTrue(DataSetHelper.equals(generated,
+						DataSetHelper.read(reusing(numThreads, true, true))));
+				Assert.assertTrue(DataSetHelper.equals(generated, DataSetHelper
+						.readCopies(reusing(numThreads, true, true))));
+
+				TboIterator iterator = reusing(numThreads, true, true);
+				Assert.assertSame(iterator.next(), iterator.next());
+				iterator.close();
+			}
+		}
+	}
+
+	private void write(TestDataSet data, boolean columnar) throws IOException
+	{
+		OutputStream output = new FileOutputStream(file);
+		TboWriter writer = new TboWriter(output, true);
+		writer.setBatchSizeByElementCount(7);
+		writer.setColumnar(columnar);
+		DataSetHelper.write(data, writer);
+		writer.complete();
+		output.close();
+	}
+
+	private TboIterator iterator(int numThreads, boolean fetchTags,
+			boolean fetchMetadata) throws IOException
+	{
+		InputStream input = new FileInputStream(file);
+		return new TboIterator(input, fetchTags, fetchMetadata, numThreads);
+	}
+
+	private TboIterator reusing(int numThreads, boolean fetchTags,
+			boolean fetchMetadata) throws IOException
+	{
+		TboIterator iterator = iterator(numThreads, fetchTags, fetchMetadata);
+		iterator.setReuseEntities(true);
+		return iterator;
+	}
+
+}
@@ -0,0 +1,151 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.tbo.access.TboFile;
+import de.topobyte.osm4j.tbo.access.TboIterator;
+import de.topobyte.osm4j.tbo.access.TboWriter;
+import de.topobyte.osm4j.testing.DataSetGenerator;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.EntityGenerator;
+import de.topobyte.osm4j.testing.TestDataSet;
+import de.topobyte.osm4j.testing.model.TestNode;
+import de.topobyte.osm4j.testing.model.TestRelation;
+import de.topobyte.osm4j.testing.model.TestWay;
+
+public class TestTboFile
+{
+
+	private EntityGenerator entityGenerator = new EntityGenerator(100, true);
+	private DataSetGenerator dataSetGenerator = new DataSetGenerator(
+			entityGenerator);
+
+	private File file;
+
+	@Before
+	public void createTestFile() throws IOException
+	{
+		file = File.createTempFile("test", ".tbo");
+	}
+
+	@After
+	public void deleteTestFile()
+	{
+		file.delete();
+	}
+
+	private void write(TestDataSet data, boolean writeIndex)
+			throws IOException
+	{
+		OutputStream output = new FileOutputStream(file);
+		TboWriter writer = new TboWriter(output, true);
+		writer.setBatchSizeByElementCount(7);
+		writer.setWriteIndex(writeIndex);
+		DataSetHelper.write(data, writer);
+		writer.complete();
+		output.close();
+	}
+
+	private void test(boolean writeIndex)
+			throws IOException, EntityNotFoundException
+	{
+		TestDataSet data = dataSetGenerator.generate(50, 30, 20);
+		write(data, writeIndex);
+
+		// Sequential readers skip the index
+		InputStream input = new FileInputStream(file);
+		TestDataSet read = DataSetHelper
+				.read(new TboIterator(input, true, true));
+		input.close();
+		Assert.assertTrue(DataSetHelper.equals(data, read));
+
+		TboFile tboFile = new TboFile(file);
+		Assert.assertEquals(writeIndex, tboFile.getHeader().hasIndex());
+		Assert.assertEquals(8 + 5 + 3, tboFile.getNumberOfBlocks());
+		Assert.assertEquals(0, tboFile.getFirstBlock(EntityType.Node));
+		Assert.assertEquals(7, tboFile.getLastBlock(EntityType.Node));
+		Assert.assertEquals(8, tboFile.getFirstBlock(EntityType.Way));
+		Assert.assertEquals(13, tboFile.getFirstBlock(EntityType.Relation));
+
+		// Per type iteration
+		TestDataSet ways = DataSetHelper
+				.read(tboFile.iterator(EntityType.Way, true, true));
+		Assert.assertTrue(ways.getNodes().isEmpty());
+		Assert.assertTrue(ways.getRelations().isEmpty());
+		Assert.assertTrue(
+				DataSetHelper.waysEqual(data.getWays(), ways.getWays()));
+
+		// Lookup by id
+		for (TestNode node : data.getNodes()) {
+			Assert.assertTrue(DataSetHelper.equals(node,
+					tboFile.getNode(node.getId())));
+		}
+		for (TestWay way : data.getWays()) {
+			Assert.assertTrue(
+					DataSetHelper.equals(way, tboFile.getWay(way.getId())));
+		}
+		for (TestRelation relation : data.getRelations()) {
+			Assert.assertTrue(DataSetHelper.equals(relation,
+					tboFile.getRelation(relation.getId())));
+		}
+
+		tboFile.close();
+	}
+
+	@Test
+	public void testWithIndex() throws IOException, EntityNotFoundException
+	{
+		test(true);
+	}
+
+	@Test
+	public void testWithoutIndex() throws IOException, EntityNotFoundException
+	{
+		test(false);
+	}
+
+	@Test(expected = EntityNotFoundException.class)
+	public void testMissing() throws IOException, EntityNotFoundException
+	{
+		TestDataSet data = dataSetGenerator.generate(10, 0, 0);
+		write(data, true);
+
+		TboFile tboFile = new TboFile(file);
+		try {
+			long last = data.getNodes().get(9).getId();
+			tboFile.getNode(last + 1);
+		} finally {
+			tboFile.close();
+		}
+	}
+
+}
@@ -30,7 +30,6 @@ import org.junit.Before;
 import org.junit.Test;
 
 import de.topobyte.osm4j.core.access.OsmIterator;
-import de.topobyte.osm4j.core.access.OsmOutputStream;
 import de.topobyte.osm4j.core.dataset.InMemoryListDataSet;
 import de.topobyte.osm4j.core.dataset.ListDataSetLoader;
 import de.topobyte.osm4j.tbo.access.TboIterator;
@@ -162,10 +161,34 @@ public class TestWriteRead
 		compare(generated, read);
 	}
 
+	@Test
+	public void testBatchSizeByBytes() throws IOException
+	{
+		// Generate some data
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+
+		// Write to file, using blocks much smaller than a single relation
+		write(generated, 1000);
+
+		// Read from file
+		TestDataSet read = read();
+
+		// Compare data
+		compare(generated, read);
+	}
+
 	private void write(TestDataSet data) throws IOException
+	{
+		write(data, 0);
+	}
+
+	private void write(TestDataSet data, int maxBytes) throws IOException
 	{
 		OutputStream output = new FileOutputStream(file);
-		OsmOutputStream osmOutput = new TboWriter(output, true);
+		TboWriter osmOutput = new TboWriter(output, true);
+		if (maxBytes > 0) {
+			osmOutput.setBatchSizeByBytes(maxBytes);
+		}
 		DataSetHelper.write(data, osmOutput);
 		osmOutput.complete();
 		output.close();
@@ -0,0 +1,188 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.core.dataset.InMemoryListDataSet;
+import de.topobyte.osm4j.core.dataset.ListDataSetLoader;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.tbo.Compression;
+import de.topobyte.osm4j.tbo.access.DictionaryTrainer;
+import de.topobyte.osm4j.tbo.access.TboFile;
+import de.topobyte.osm4j.tbo.access.TboIterator;
+import de.topobyte.osm4j.tbo.access.TboWriter;
+import de.topobyte.osm4j.testing.DataSetGenerator;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.EntityGenerator;
+import de.topobyte.osm4j.testing.TestDataSet;
+import de.topobyte.osm4j.testing.model.TestNode;
+import de.topobyte.osm4j.testing.model.TestWay;
+
+public class TestZstd
+{
+
+	private EntityGenerator entityGenerator = new EntityGenerator(100, true);
+	private DataSetGenerator dataSetGenerator = new DataSetGenerator(
+			entityGenerator);
+
+	private File file;
+
+	@Before
+	public void createTestFile() throws IOException
+	{
+		file = File.createTempFile("test", ".tbo");
+	}
+
+	@After
+	public void deleteTestFile()
+	{
+		file.delete();
+	}
+
+	@Test
+	public void testZstd() throws IOException
+	{
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+		write(generated, null, 1, false);
+		Assert.assertTrue(DataSetHelper.equals(generated, read(1)));
+	}
+
+	@Test
+	public void testDictionary() throws IOException
+	{
+		byte[] dictionary = trainDictionary();
+
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+		write(generated, dictionary, 1, false);
+
+		TboFile tboFile = new TboFile(file);
+		Assert.assertArrayEquals(dictionary,
+				tboFile.getHeader().getDictionary());
+		tboFile.close();
+
+		Assert.assertTrue(DataSetHelper.equals(generated, read(1)));
+		Assert.assertTrue(DataSetHelper.equals(generated, read(4)));
+	}
+
+	@Test
+	public void testDictionaryPipelined() throws IOException
+	{
+		byte[] dictionary = trainDictionary();
+
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+		write(generated, dictionary, 4, false);
+
+		Assert.assertTrue(DataSetHelper.equals(generated, read(1)));
+	}
+
+	@Test
+	public void testDictionaryTboFile()
+			throws IOException, EntityNotFoundException
+	{
+		byte[] dictionary = trainDictionary();
+
+		TestDataSet generated = dataSetGenerator.generate(100, 30, 20);
+		write(generated, dictionary, 1, true);
+
+		TboFile tboFile = new TboFile(file);
+		for (TestNode node : generated.getNodes()) {
+			Assert.assertTrue(DataSetHelper.equals(node,
+					tboFile.getNode(node.getId())));
+		}
+		for (TestWay way : generated.getWays()) {
+			Assert.assertTrue(
+					DataSetHelper.equals(way, tboFile.getWay(way.getId())));
+		}
+		tboFile.close();
+	}
+
+	@Test
+	public void testDictionaryIgnoredWithoutZstd() throws IOException
+	{
+		byte[] dictionary = trainDictionary();
+
+		TestDataSet generated = dataSetGenerator.generate(10, 3, 2);
+		OutputStream output = new FileOutputStream(file);
+		TboWriter writer = new TboWriter(output, true);
+		writer.setCompression(Compression.LZ4);
+		writer.setDictionary(dictionary);
+		DataSetHelper.write(generated, writer);
+		writer.complete();
+		output.close();
+
+		TboFile tboFile = new TboFile(file);
+		Assert.assertFalse(tboFile.getHeader().hasDictionary());
+		tboFile.close();
+
+		Assert.assertTrue(DataSetHelper.equals(generated, read(1)));
+	}
+
+	/**
+	 * Train a dictionary from blocks of another data set with the same
+	 * characteristics.
+	 */
+	private byte[] trainDictionary() throws IOException
+	{
+		TestDataSet samples = dataSetGenerator.generate(2000, 500, 200);
+		write(samples, null, 1, false);
+
+		DictionaryTrainer trainer = new DictionaryTrainer(1024 * 1024, 4096);
+		InputStream input = new FileInputStream(file);
+		trainer.addFile(input);
+		input.close();
+		return trainer.train();
+	}
+
+	private void write(TestDataSet data, byte[] dictionary, int numThreads,
+			boolean writeIndex) throws IOException
+	{
+		OutputStream output = new FileOutputStream(file);
+		TboWriter writer = new TboWriter(output, true);
+		writer.setBatchSizeByElementCount(7);
+		writer.setCompression(Compression.ZSTD);
+		writer.setDictionary(dictionary);
+		writer.setNumThreads(numThreads);
+		writer.setWriteIndex(writeIndex);
+		DataSetHelper.write(data, writer);
+		writer.complete();
+		output.close();
+	}
+
+	private TestDataSet read(int numThreads) throws IOException
+	{
+		InputStream input = new FileInputStream(file);
+		OsmIterator iterator = new TboIterator(input, true, true, numThreads);
+		InMemoryListDataSet data = ListDataSetLoader.read(iterator, true, true,
+				true);
+		input.close();
+		return new TestDataSet(data);
+	}
+
+}
@@ -46,6 +46,7 @@ public class BlockSizeInfo extends BlockReader
 	private static final String patternUncompressed = "Block %d [%s] (uncompressed): raw size: %d";
 	private static final String patternDeflate = "Block %d [%s] (deflate): raw size: %d, compressed: %d";
 	private static final String patternLz4 = "Block %d [%s] (lz4): raw size: %d, compressed: %d";
+	private static final String patternZstd = "Block %d [%s] (zstd): raw size: %d, compressed: %d";
 
 	private long nBlocks = 0;
 
@@ -87,6 +88,9 @@ public class BlockSizeInfo extends BlockReader
 			} else if (compression == Compression.LZ4) {
 				System.out.println(String.format(patternLz4, nBlocks, type,
 						block.getUncompressedLength(), block.getLength()));
+			} else if (compression == Compression.ZSTD) {
+				System.out.println(String.format(patternZstd, nBlocks, type,
+						block.getUncompressedLength(), block.getLength()));
 			}
 
 			nBlocks++;
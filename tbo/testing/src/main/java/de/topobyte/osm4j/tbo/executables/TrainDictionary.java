@@ -0,0 +1,65 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.executables;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import de.topobyte.osm4j.tbo.access.DictionaryTrainer;
+
+public class TrainDictionary
+{
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 3) {
+			System.out.println("usage: "
+					+ TrainDictionary.class.getSimpleName()
+					+ " <output> <dictionary size> <sample file...>");
+			System.exit(1);
+		}
+
+		int dictionarySize = Integer.parseInt(args[1]);
+		DictionaryTrainer trainer = new DictionaryTrainer(
+				DictionaryTrainer.DEFAULT_SAMPLE_BUFFER_SIZE, dictionarySize);
+
+		for (int i = 2; i < args.length; i++) {
+			InputStream input = new BufferedInputStream(
+					new FileInputStream(args[i]));
+			boolean full = !trainer.addFile(input);
+			input.close();
+			if (full) {
+				break;
+			}
+		}
+
+		byte[] dictionary = trainer.train();
+		System.out.println(String.format(
+				"trained dictionary of %d bytes from %d blocks",
+				dictionary.length, trainer.getNumberOfSamples()));
+
+		OutputStream output = new FileOutputStream(args[0]);
+		output.write(dictionary);
+		output.close();
+	}
+
+}
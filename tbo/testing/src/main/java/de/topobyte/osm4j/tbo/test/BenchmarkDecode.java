@@ -0,0 +1,169 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.tbo.test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.List;
+
+import de.topobyte.compactio.CompactReader;
+import de.topobyte.compactio.InputStreamCompactReader;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.tbo.access.BlockReader;
+import de.topobyte.osm4j.tbo.access.ReaderUtil;
+import de.topobyte.osm4j.tbo.data.Definitions;
+import de.topobyte.osm4j.tbo.data.FileBlock;
+import de.topobyte.osm4j.tbo.data.FileHeader;
+import de.topobyte.osm4j.tbo.io.Decompression;
+
+/**
+ * Decodes all blocks of a TBO file a number of times and reports the time
+ * spent, the time spent in garbage collection and the number of bytes
+ * allocated per run and per entity.
+ * 
+ * In 'pooled' mode, blocks are decompressed into per-thread buffers and read
+ * through {@link Decompression#reader(FileBlock)}, which is what the readers
+ * and iterators use. In 'copy' mode, each block is decompressed into a new
+ * array and read through a {@link ByteArrayInputStream} for comparison.
+ */
+public class BenchmarkDecode
+{
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1 || args.length > 3) {
+			System.out.println("usage: "
+					+ BenchmarkDecode.class.getSimpleName()
+					+ " <filename> [runs] [pooled|copy]");
+			System.exit(1);
+		}
+
+		String filename = args[0];
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		boolean pooled = args.length > 2 ? args[2].equals("pooled") : true;
+
+		for (int i = 1; i <= runs; i++) {
+			System.out.println(String.format("run %d/%d", i, runs));
+			run(filename, pooled);
+		}
+	}
+
+	private static void run(String filename, boolean pooled)
+			throws IOException
+	{
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		long gcCount0 = gcCount();
+		long gcTime0 = gcTime();
+		long allocated0 = allocatedBytes(threadBean, threadId);
+		long start = System.currentTimeMillis();
+
+		InputStream input = new BufferedInputStream(
+				new FileInputStream(filename));
+		BlockReader blockReader = new BlockReader(input);
+		FileHeader header = blockReader.parseHeader();
+
+		long entities = 0;
+		while (true) {
+			FileBlock block = blockReader.readBlock();
+			if (block == null) {
+				break;
+			}
+			CompactReader reader;
+			if (pooled) {
+				reader = Decompression.reader(block, header);
+			} else {
+				byte[] uncompressed = Decompression.decompress(block, header);
+				reader = new InputStreamCompactReader(
+						new ByteArrayInputStream(uncompressed));
+			}
+			entities += parse(reader, header, block).size();
+		}
+		input.close();
+
+		long time = System.currentTimeMillis() - start;
+		long allocated = allocatedBytes(threadBean, threadId) - allocated0;
+		long gcCount = gcCount() - gcCount0;
+		long gcTime = gcTime() - gcTime0;
+
+		System.out.println(String.format("entities: %d", entities));
+		System.out.println(String.format("time: %d ms", time));
+		System.out.println(String.format("gc: %d collections, %d ms",
+				gcCount, gcTime));
+		if (allocated >= 0) {
+			System.out.println(String.format(
+					"allocated: %d MiB (%.1f bytes/entity)",
+					allocated / 1024 / 1024,
+					entities == 0 ? 0 : allocated / (double) entities));
+		}
+	}
+
+	private static List<? extends OsmEntity> parse(CompactReader reader,
+			FileHeader header, FileBlock block) throws IOException
+	{
+		switch (block.getType()) {
+		case Definitions.BLOCK_TYPE_NODES:
+			return ReaderUtil.parseNodes(reader, header, block, true, true);
+		case Definitions.BLOCK_TYPE_WAYS:
+			return ReaderUtil.parseWays(reader, header, block, true, true);
+		case Definitions.BLOCK_TYPE_RELATIONS:
+			return ReaderUtil.parseRelations(reader, header, block, true,
+					true);
+		default:
+			return Collections.emptyList();
+		}
+	}
+
+	private static long gcCount()
+	{
+		long sum = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			sum += Math.max(0, bean.getCollectionCount());
+		}
+		return sum;
+	}
+
+	private static long gcTime()
+	{
+		long sum = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			sum += Math.max(0, bean.getCollectionTime());
+		}
+		return sum;
+	}
+
+	private static long allocatedBytes(ThreadMXBean bean, long threadId)
+	{
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean)
+					.getThreadAllocatedBytes(threadId);
+		}
+		return -1;
+	}
+
+}
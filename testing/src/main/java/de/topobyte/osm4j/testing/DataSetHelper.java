@@ -18,6 +18,7 @@
 package de.topobyte.osm4j.testing;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -38,6 +39,7 @@ import de.topobyte.osm4j.core.model.iface.OsmNode;
 import de.topobyte.osm4j.core.model.iface.OsmRelation;
 import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
 import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.util.ImplUtil;
 import de.topobyte.osm4j.core.model.util.OsmModelUtil;
 import de.topobyte.osm4j.testing.model.TestNode;
 import de.topobyte.osm4j.testing.model.TestRelation;
@@ -91,6 +93,45 @@ public class DataSetHelper
 		return dataSet;
 	}
 
+	/**
+	 * Read the data of an iterator that reuses its entities by retaining a
+	 * copy of each element using {@link ImplUtil#copy(EntityContainer)}
+	 * before requesting the next one.
+	 */
+	public static TestDataSet readCopies(OsmIterator iterator)
+			throws IOException
+	{
+		TestDataSet dataSet = new TestDataSet();
+
+		if (iterator.hasBounds()) {
+			dataSet.setBounds(EntityHelper.clone(iterator.getBounds()));
+		}
+
+		List<EntityContainer> copies = new ArrayList<>();
+		while (iterator.hasNext()) {
+			copies.add(ImplUtil.copy(iterator.next()));
+		}
+
+		for (EntityContainer container : copies) {
+			switch (container.getType()) {
+			case Node:
+				OsmNode node = (OsmNode) container.getEntity();
+				dataSet.getNodes().add(EntityHelper.clone(node));
+				break;
+			case Way:
+				OsmWay way = (OsmWay) container.getEntity();
+				dataSet.getWays().add(EntityHelper.clone(way));
+				break;
+			case Relation:
+				OsmRelation relation = (OsmRelation) container.getEntity();
+				dataSet.getRelations().add(EntityHelper.clone(relation));
+				break;
+			}
+		}
+
+		return dataSet;
+	}
+
 	public static TestDataSet read(OsmReader reader) throws IOException,
 			OsmInputException
 	{
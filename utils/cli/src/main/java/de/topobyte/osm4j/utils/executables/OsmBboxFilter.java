@@ -17,6 +17,7 @@
 
 package de.topobyte.osm4j.utils.executables;
 
+import java.io.File;
 import java.io.IOException;
 
 import org.locationtech.jts.geom.Envelope;
@@ -26,7 +27,10 @@ import de.topobyte.adt.geo.BBoxString;
 import de.topobyte.osm4j.core.access.OsmIterator;
 import de.topobyte.osm4j.core.model.iface.OsmBounds;
 import de.topobyte.osm4j.core.model.impl.Bounds;
+import de.topobyte.osm4j.pbf.raf.PbfBboxFilter;
+import de.topobyte.osm4j.pbf.seq.PbfWriter;
 import de.topobyte.osm4j.utils.AbstractAreaFilter;
+import de.topobyte.osm4j.utils.FileFormat;
 import de.topobyte.osm4j.utils.OsmBoundsUtil;
 import de.topobyte.osm4j.utils.areafilter.BboxFilter;
 import de.topobyte.utilities.apache.commons.cli.OptionHelper;
@@ -35,6 +39,7 @@ public class OsmBboxFilter extends AbstractAreaFilter
 {
 
 	private static final String OPTION_BBOX = "bbox";
+	private static final String OPTION_BLOCKWISE = "blockwise";
 
 	@Override
 	protected String getHelpMessage()
@@ -56,11 +61,13 @@ public class OsmBboxFilter extends AbstractAreaFilter
 	}
 
 	private BBox bbox;
+	private boolean blockwise;
 
 	public OsmBboxFilter()
 	{
 		// @formatter:off
 		OptionHelper.addL(options, OPTION_BBOX, true, true, "the bbox to extract (lon1,lat1,lon2,lat2)");
+		OptionHelper.addL(options, OPTION_BLOCKWISE, false, false, "copy PBF blocks within the bbox without decoding (PBF input file and PBF output only)");
 		// @formatter:on
 	}
 
@@ -78,10 +85,23 @@ public class OsmBboxFilter extends AbstractAreaFilter
 			System.out.println("invalid bounding box");
 			System.exit(1);
 		}
+
+		blockwise = line.hasOption(OPTION_BLOCKWISE);
+		if (blockwise && (pathInput == null || inputFormat != FileFormat.PBF
+				|| outputFormat != FileFormat.PBF)) {
+			System.out.println(
+					"blockwise mode requires a PBF input file and PBF output");
+			System.exit(1);
+		}
 	}
 
 	protected void run() throws IOException
 	{
+		if (blockwise) {
+			runBlockwise();
+			return;
+		}
+
 		OsmIterator iterator = createIterator();
 
 		OsmBounds oldBounds = iterator.getBounds();
@@ -98,4 +118,21 @@ public class OsmBboxFilter extends AbstractAreaFilter
 		filter.run();
 	}
 
+	private void runBlockwise() throws IOException
+	{
+		Bounds bounds = new Bounds(bbox.getLon1(), bbox.getLon2(),
+				bbox.getLat1(), bbox.getLat2());
+
+		PbfBboxFilter filter = PbfBboxFilter.create(new File(pathInput),
+				(PbfWriter) osmOutputStream, bounds, onlyNodes, readMetadata);
+		filter.run();
+
+		// The output may go to stdout
+		System.err.println(String.format(
+				"blocks copied: %d, skipped: %d, decoded: %d",
+				filter.getNumberOfBlocksCopied(),
+				filter.getNumberOfBlocksSkipped(),
+				filter.getNumberOfBlocksDecoded()));
+	}
+
 }
@@ -40,6 +40,7 @@ public class OsmCalculateBbox extends AbstractExecutableSingleInputStream
 		task.setup(args);
 
 		task.readMetadata = false;
+		task.reuseEntities = true;
 		task.readTags = false;
 		task.init();
 
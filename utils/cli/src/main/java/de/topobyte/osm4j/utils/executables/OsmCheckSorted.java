@@ -38,6 +38,7 @@ public class OsmCheckSorted extends AbstractExecutableSingleInputStream
 		task.setup(args);
 
 		task.readMetadata = false;
+		task.reuseEntities = true;
 		task.init();
 
 		task.run();
@@ -41,6 +41,7 @@ public class OsmCount extends AbstractExecutableSingleInputStream
 		task.setup(args);
 
 		task.readMetadata = false;
+		task.reuseEntities = true;
 		task.init();
 
 		task.run();
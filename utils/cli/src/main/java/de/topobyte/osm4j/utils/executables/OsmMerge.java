@@ -17,12 +17,12 @@
 
 package de.topobyte.osm4j.utils.executables;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import de.topobyte.melon.io.StreamUtil;
 import de.topobyte.osm4j.core.access.OsmIterator;
 import de.topobyte.osm4j.utils.AbstractExecutableSingleOutput;
 import de.topobyte.osm4j.utils.FileFormat;
@@ -105,7 +105,7 @@ public class OsmMerge extends AbstractExecutableSingleOutput
 		super.init();
 
 		for (String path : additionalPaths) {
-			inputs.add(StreamUtil.bufferedInputStream(path));
+			inputs.add(OsmIoUtils.openInput(new File(path)));
 		}
 
 		for (InputStream input : inputs) {
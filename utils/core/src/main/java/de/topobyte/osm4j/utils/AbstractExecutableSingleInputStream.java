@@ -22,7 +22,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
-import de.topobyte.melon.io.StreamUtil;
 import de.topobyte.osm4j.core.access.OsmIterator;
 import de.topobyte.osm4j.core.access.OsmReader;
 import de.topobyte.utilities.apache.commons.cli.OptionHelper;
@@ -38,6 +37,10 @@ public abstract class AbstractExecutableSingleInputStream extends
 	protected boolean closeInput = true;
 	protected OsmInputStream osmStream;
 
+	// Whether iterators may reuse their entities, for tasks that do not
+	// retain entities beyond a single iteration step
+	protected boolean reuseEntities = false;
+
 	public AbstractExecutableSingleInputStream()
 	{
 		// @formatter:off
@@ -62,7 +65,7 @@ public abstract class AbstractExecutableSingleInputStream extends
 		} else {
 			closeInput = true;
 			File file = new File(pathInput);
-			in = StreamUtil.bufferedInputStream(file);
+			in = OsmIoUtils.openInput(file);
 		}
 
 		osmStream = new OsmInputStream(in, inputFormat);
@@ -70,8 +73,9 @@ public abstract class AbstractExecutableSingleInputStream extends
 
 	protected OsmIterator createIterator() throws IOException
 	{
-		OsmStreamInput input = new OsmStreamInput(osmStream);
-		return input.createIterator(readTags, readMetadata).getIterator();
+		return OsmIoUtils.setupOsmIterator(osmStream.getInputStream(),
+				osmStream.getFileFormat(), readTags, readMetadata,
+				reuseEntities);
 	}
 
 	protected OsmReader createReader() throws IOException
@@ -22,7 +22,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
-import de.topobyte.melon.io.StreamUtil;
 import de.topobyte.osm4j.core.access.OsmIterator;
 import de.topobyte.osm4j.core.access.OsmReader;
 import de.topobyte.utilities.apache.commons.cli.OptionHelper;
@@ -62,7 +61,7 @@ public abstract class AbstractExecutableSingleInputStreamOutput extends
 		} else {
 			closeInput = true;
 			File file = new File(pathInput);
-			in = StreamUtil.bufferedInputStream(file);
+			in = OsmIoUtils.openInput(file);
 		}
 
 		osmStream = new OsmInputStream(in, inputFormat);
@@ -31,7 +31,7 @@ import de.topobyte.osm4j.utils.config.PbfConfig;
 import de.topobyte.osm4j.utils.config.PbfOptions;
 import de.topobyte.osm4j.utils.config.TboConfig;
 import de.topobyte.osm4j.utils.config.TboOptions;
-import de.topobyte.osm4j.xml.output.OsmXmlOutputStream;
+import de.topobyte.osm4j.xml.output.OsmXmlByteOutputStream;
 import de.topobyte.utilities.apache.commons.cli.OptionHelper;
 
 public abstract class AbstractExecutableSingleOutput extends AbstractExecutable
@@ -109,17 +109,16 @@ public abstract class AbstractExecutableSingleOutput extends AbstractExecutable
 
 		switch (outputFormat) {
 		case XML:
-			osmOutputStream = new OsmXmlOutputStream(out, writeMetadata);
+			osmOutputStream = new OsmXmlByteOutputStream(out, writeMetadata);
 			break;
 		case TBO:
 			TboWriter tboWriter = new TboWriter(out, writeMetadata);
-			tboWriter.setCompression(tboConfig.getCompression());
+			OsmIoUtils.applyTboConfig(tboWriter, tboConfig);
 			osmOutputStream = tboWriter;
 			break;
 		case PBF:
 			PbfWriter pbfWriter = new PbfWriter(out, writeMetadata);
-			pbfWriter.setCompression(pbfConfig.getCompression());
-			pbfWriter.setUseDense(pbfConfig.isUseDenseNodes());
+			OsmIoUtils.applyPbfConfig(pbfWriter, pbfConfig);
 			osmOutputStream = pbfWriter;
 			break;
 		}
@@ -31,30 +31,57 @@ import de.topobyte.osm4j.core.access.OsmIterator;
 import de.topobyte.osm4j.core.access.OsmIteratorInput;
 import de.topobyte.osm4j.core.access.OsmReader;
 import de.topobyte.osm4j.core.access.OsmReaderInput;
+import de.topobyte.osm4j.core.io.InputCompression;
+import de.topobyte.osm4j.core.io.ParallelDecompressionInputStream;
 
 public class OsmFileInput implements OsmInputAccessFactory
 {
 
 	private Path path;
 	private FileFormat fileFormat;
+	private InputCompression compression;
 
 	public OsmFileInput(OsmFile osmFile)
 	{
-		this.path = osmFile.getPath();
-		this.fileFormat = osmFile.getFileFormat();
+		this(osmFile.getPath(), osmFile.getFileFormat());
 	}
 
+	/**
+	 * Create an input for the specified file. Files with a '.gz' or '.bz2'
+	 * suffix will be decompressed using multiple threads, see
+	 * {@link ParallelDecompressionInputStream}.
+	 */
 	public OsmFileInput(Path path, FileFormat fileFormat)
+	{
+		this(path, fileFormat,
+				InputCompression.fromFileName(path.getFileName().toString()));
+	}
+
+	/**
+	 * Create an input for a file with the specified compression. Compressed
+	 * files will be decompressed using multiple threads, see
+	 * {@link ParallelDecompressionInputStream}.
+	 */
+	public OsmFileInput(Path path, FileFormat fileFormat,
+			InputCompression compression)
 	{
 		this.path = path;
 		this.fileFormat = fileFormat;
+		this.compression = compression;
+	}
+
+	private InputStream open() throws IOException
+	{
+		InputStream input = StreamUtil.bufferedInputStream(path.toFile());
+		return ParallelDecompressionInputStream.decompress(input,
+				compression);
 	}
 
 	@Override
 	public OsmIteratorInput createIterator(boolean readTags,
 			boolean readMetadata) throws IOException
 	{
-		InputStream input = StreamUtil.bufferedInputStream(path.toFile());
+		InputStream input = open();
 		OsmIterator iterator = OsmIoUtils.setupOsmIterator(input, fileFormat,
 				readTags, readMetadata);
 		return new OsmSingleIteratorInput(input, iterator);
@@ -64,7 +91,7 @@ public class OsmFileInput implements OsmInputAccessFactory
 	public OsmReaderInput createReader(boolean readTags, boolean readMetadata)
 			throws IOException
 	{
-		InputStream input = StreamUtil.bufferedInputStream(path.toFile());
+		InputStream input = open();
 		OsmReader reader = OsmIoUtils.setupOsmReader(input, fileFormat,
 				readTags, readMetadata);
 		return new OsmSingleReaderInput(input, reader);
@@ -73,7 +100,7 @@ public class OsmFileInput implements OsmInputAccessFactory
 	@Override
 	public OsmIdIteratorInput createIdIterator() throws IOException
 	{
-		InputStream input = StreamUtil.bufferedInputStream(path.toFile());
+		InputStream input = open();
 		OsmIdIterator iterator = OsmIoUtils.setupOsmIdIterator(input,
 				fileFormat);
 		return new OsmSingleIdIteratorInput(input, iterator);
@@ -82,7 +109,7 @@ public class OsmFileInput implements OsmInputAccessFactory
 	@Override
 	public OsmIdReaderInput createIdReader() throws IOException
 	{
-		InputStream input = StreamUtil.bufferedInputStream(path.toFile());
+		InputStream input = open();
 		OsmIdReader reader = OsmIoUtils.setupOsmIdReader(input, fileFormat);
 		return new OsmSingleIdReaderInput(input, reader);
 	}
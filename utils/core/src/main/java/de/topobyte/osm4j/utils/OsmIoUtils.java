@@ -17,10 +17,12 @@
 
 package de.topobyte.osm4j.utils;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
+import de.topobyte.melon.io.StreamUtil;
 import de.topobyte.osm4j.core.access.OsmElementCounter;
 import de.topobyte.osm4j.core.access.OsmIdIterator;
 import de.topobyte.osm4j.core.access.OsmIdReader;
@@ -30,6 +32,10 @@ import de.topobyte.osm4j.core.access.OsmReader;
 import de.topobyte.osm4j.core.access.wrapper.OsmElementCounterReaderAdapter;
 import de.topobyte.osm4j.core.access.wrapper.OsmIdIteratorAdapter;
 import de.topobyte.osm4j.core.access.wrapper.OsmIdReaderAdapter;
+import de.topobyte.osm4j.core.io.InputCompression;
+import de.topobyte.osm4j.core.io.ParallelDecompressionInputStream;
+import de.topobyte.osm4j.pbf.seq.PbfElementCounter;
+import de.topobyte.osm4j.pbf.seq.PbfIdIterator;
 import de.topobyte.osm4j.pbf.seq.PbfIterator;
 import de.topobyte.osm4j.pbf.seq.PbfReader;
 import de.topobyte.osm4j.pbf.seq.PbfWriter;
@@ -40,19 +46,32 @@ import de.topobyte.osm4j.tbo.access.TboReader;
 import de.topobyte.osm4j.tbo.access.TboWriter;
 import de.topobyte.osm4j.utils.config.PbfConfig;
 import de.topobyte.osm4j.utils.config.TboConfig;
+import de.topobyte.osm4j.utils.config.limit.ByteSizeLimit;
 import de.topobyte.osm4j.utils.config.limit.ElementCountLimit;
 import de.topobyte.osm4j.utils.config.limit.NodeLimit;
 import de.topobyte.osm4j.utils.config.limit.RelationLimit;
 import de.topobyte.osm4j.utils.config.limit.RelationMemberLimit;
 import de.topobyte.osm4j.utils.config.limit.WayLimit;
 import de.topobyte.osm4j.utils.config.limit.WayNodeLimit;
-import de.topobyte.osm4j.xml.dynsax.OsmXmlIterator;
 import de.topobyte.osm4j.xml.dynsax.OsmXmlReader;
-import de.topobyte.osm4j.xml.output.OsmXmlOutputStream;
+import de.topobyte.osm4j.xml.output.OsmXmlByteOutputStream;
+import de.topobyte.osm4j.xml.stax.OsmXmlStaxIterator;
 
 public class OsmIoUtils
 {
 
+	/**
+	 * Open the specified file for reading. Files with a '.gz' or '.bz2'
+	 * suffix are decompressed using multiple threads, see
+	 * {@link ParallelDecompressionInputStream}.
+	 */
+	public static InputStream openInput(File file) throws IOException
+	{
+		InputStream input = StreamUtil.bufferedInputStream(file);
+		return ParallelDecompressionInputStream.decompress(input,
+				InputCompression.fromFileName(file.getName()));
+	}
+
 	public static OsmIterator setupOsmIterator(InputStream in,
 			FileFormat format, boolean readMetadata) throws IOException
 	{
@@ -62,15 +81,35 @@ public class OsmIoUtils
 	public static OsmIterator setupOsmIterator(InputStream in,
 			FileFormat format, boolean readTags, boolean readMetadata)
 			throws IOException
+	{
+		return setupOsmIterator(in, format, readTags, readMetadata, false);
+	}
+
+	/**
+	 * Create an iterator that optionally reuses its entities and containers
+	 * across calls to <code>next()</code>, in which case they are only valid
+	 * until the next element is requested.
+	 */
+	public static OsmIterator setupOsmIterator(InputStream in,
+			FileFormat format, boolean readTags, boolean readMetadata,
+			boolean reuseEntities) throws IOException
 	{
 		switch (format) {
 		default:
 		case PBF:
-			return new PbfIterator(in, readMetadata);
+			PbfIterator pbfIterator = new PbfIterator(in, readMetadata);
+			pbfIterator.setReuseEntities(reuseEntities);
+			return pbfIterator;
 		case TBO:
-			return new TboIterator(in, readTags, readMetadata);
+			TboIterator tboIterator = new TboIterator(in, readTags,
+					readMetadata);
+			tboIterator.setReuseEntities(reuseEntities);
+			return tboIterator;
 		case XML:
-			return new OsmXmlIterator(in, readMetadata);
+			OsmXmlStaxIterator xmlIterator = new OsmXmlStaxIterator(in,
+					readMetadata);
+			xmlIterator.setReuseEntities(reuseEntities);
+			return xmlIterator;
 		}
 	}
 
@@ -100,12 +139,11 @@ public class OsmIoUtils
 		switch (format) {
 		default:
 		case PBF:
-			OsmIterator pbfIterator = new PbfIterator(in, false);
-			return new OsmIdIteratorAdapter(pbfIterator);
+			return new PbfIdIterator(in);
 		case TBO:
 			return new TboIdIterator(in);
 		case XML:
-			OsmIterator xmlIterator = new OsmXmlIterator(in, false);
+			OsmIterator xmlIterator = new OsmXmlStaxIterator(in, false);
 			return new OsmIdIteratorAdapter(xmlIterator);
 		}
 	}
@@ -132,8 +170,7 @@ public class OsmIoUtils
 		switch (format) {
 		default:
 		case PBF:
-			OsmReader pbfReader = new PbfReader(in, false);
-			return new OsmElementCounterReaderAdapter(pbfReader);
+			return new PbfElementCounter(in);
 		case TBO:
 			TboReader tboReader = new TboReader(in, false, false);
 			return new OsmElementCounterReaderAdapter(tboReader);
@@ -166,7 +203,7 @@ public class OsmIoUtils
 			applyTboConfig(tboWriter, tboConfig);
 			return tboWriter;
 		case XML:
-			return new OsmXmlOutputStream(out, writeMetadata);
+			return new OsmXmlByteOutputStream(out, writeMetadata);
 		}
 	}
 
@@ -194,7 +231,7 @@ public class OsmIoUtils
 			applyTboConfig(tboWriter, tboConfig);
 			return tboWriter;
 		case XML:
-			return new OsmXmlOutputStream(out, writeMetadata);
+			return new OsmXmlByteOutputStream(out, writeMetadata);
 		}
 	}
 
@@ -212,15 +249,33 @@ public class OsmIoUtils
 		}
 	}
 
-	private static void applyPbfConfig(PbfWriter pbfWriter, PbfConfig pbfConfig)
+	/**
+	 * Apply all options of the specified configuration to the writer.
+	 */
+	public static void applyPbfConfig(PbfWriter pbfWriter, PbfConfig pbfConfig)
 	{
 		pbfWriter.setCompression(pbfConfig.getCompression());
+		pbfWriter.setZstdLevel(pbfConfig.getZstdLevel());
+		pbfWriter.setBlockSize(pbfConfig.getBlockSize());
 		pbfWriter.setUseDense(pbfConfig.isUseDenseNodes());
+		pbfWriter.setNumThreads(pbfConfig.getNumThreads());
 	}
 
-	private static void applyTboConfig(TboWriter tboWriter, TboConfig tboConfig)
+	/**
+	 * Apply all options of the specified configuration to the writer.
+	 */
+	public static void applyTboConfig(TboWriter tboWriter, TboConfig tboConfig)
 	{
 		tboWriter.setCompression(tboConfig.getCompression());
+		tboWriter.setZstdLevel(tboConfig.getZstdLevel());
+		tboWriter.setDictionary(tboConfig.getDictionary());
+		tboWriter.setWriteIndex(tboConfig.isWriteIndex());
+		tboWriter.setColumnar(tboConfig.isColumnar());
+		if (tboConfig.getExecutor() != null) {
+			tboWriter.setExecutor(tboConfig.getExecutor());
+		} else {
+			tboWriter.setNumThreads(tboConfig.getNumThreads());
+		}
 
 		NodeLimit nodeLimit = tboConfig.getLimitNodes();
 		WayLimit wayLimit = tboConfig.getLimitWays();
@@ -229,6 +284,9 @@ public class OsmIoUtils
 		if (nodeLimit instanceof ElementCountLimit) {
 			ElementCountLimit limit = (ElementCountLimit) nodeLimit;
 			tboWriter.setBatchSizeNodesByElementCount(limit.getMaxElements());
+		} else if (nodeLimit instanceof ByteSizeLimit) {
+			ByteSizeLimit limit = (ByteSizeLimit) nodeLimit;
+			tboWriter.setBatchSizeNodesByBytes(limit.getMaxBytes());
 		}
 
 		if (wayLimit instanceof ElementCountLimit) {
@@ -237,6 +295,9 @@ public class OsmIoUtils
 		} else if (wayLimit instanceof WayNodeLimit) {
 			WayNodeLimit limit = (WayNodeLimit) wayLimit;
 			tboWriter.setBatchSizeWaysByNodes(limit.getMaxWayNodes());
+		} else if (wayLimit instanceof ByteSizeLimit) {
+			ByteSizeLimit limit = (ByteSizeLimit) wayLimit;
+			tboWriter.setBatchSizeWaysByBytes(limit.getMaxBytes());
 		}
 
 		if (relationLimit instanceof ElementCountLimit) {
@@ -246,6 +307,9 @@ public class OsmIoUtils
 		} else if (relationLimit instanceof RelationMemberLimit) {
 			RelationMemberLimit limit = (RelationMemberLimit) relationLimit;
 			tboWriter.setBatchSizeRelationsByMembers(limit.getMaxMembers());
+		} else if (relationLimit instanceof ByteSizeLimit) {
+			ByteSizeLimit limit = (ByteSizeLimit) relationLimit;
+			tboWriter.setBatchSizeRelationsByBytes(limit.getMaxBytes());
 		}
 	}
 
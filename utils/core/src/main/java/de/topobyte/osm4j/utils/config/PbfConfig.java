@@ -18,12 +18,17 @@
 package de.topobyte.osm4j.utils.config;
 
 import de.topobyte.osm4j.pbf.Compression;
+import de.topobyte.osm4j.pbf.seq.BlockWriter;
+import de.topobyte.osm4j.pbf.seq.PbfWriter;
 
 public class PbfConfig
 {
 
 	private Compression compression = Compression.DEFLATE;
+	private int zstdLevel = BlockWriter.DEFAULT_ZSTD_LEVEL;
+	private int blockSize = PbfWriter.DEFAULT_BLOCK_SIZE;
 	private boolean useDenseNodes = true;
+	private int numThreads = 1;
 
 	public Compression getCompression()
 	{
@@ -35,6 +40,26 @@ public class PbfConfig
 		this.compression = compression;
 	}
 
+	public int getZstdLevel()
+	{
+		return zstdLevel;
+	}
+
+	public void setZstdLevel(int zstdLevel)
+	{
+		this.zstdLevel = zstdLevel;
+	}
+
+	public int getBlockSize()
+	{
+		return blockSize;
+	}
+
+	public void setBlockSize(int blockSize)
+	{
+		this.blockSize = blockSize;
+	}
+
 	public boolean isUseDenseNodes()
 	{
 		return useDenseNodes;
@@ -45,4 +70,14 @@ public class PbfConfig
 		this.useDenseNodes = useDenseNodes;
 	}
 
+	public int getNumThreads()
+	{
+		return numThreads;
+	}
+
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
 }
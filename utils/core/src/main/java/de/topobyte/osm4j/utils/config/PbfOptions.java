@@ -21,23 +21,38 @@ import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
 
 import de.topobyte.osm4j.pbf.Compression;
+import de.topobyte.osm4j.pbf.Constants;
+import de.topobyte.osm4j.pbf.seq.BlockWriter;
+import de.topobyte.osm4j.pbf.seq.PbfWriter;
 import de.topobyte.utilities.apache.commons.cli.OptionHelper;
+import de.topobyte.utilities.apache.commons.cli.parsing.ArgumentHelper;
+import de.topobyte.utilities.apache.commons.cli.parsing.ArgumentParseException;
+import de.topobyte.utilities.apache.commons.cli.parsing.IntegerOption;
 
 public class PbfOptions
 {
 
-	public static final String POSSIBLE_COMPRESSION_ARGUMENTS = "none, deflate, lz4";
+	public static final String POSSIBLE_COMPRESSION_ARGUMENTS = "none, deflate, lz4, zstd";
 
 	private static final String OPTION_PBF_COMPRESSION = "pbf-compression";
+	private static final String OPTION_PBF_ZSTD_LEVEL = "pbf-zstd-level";
+	private static final String OPTION_PBF_BLOCK_SIZE = "pbf-block-size";
 	private static final String OPTION_PBF_NONE_DENSE = "pbf-none-dense";
+	private static final String OPTION_PBF_THREADS = "pbf-threads";
 
 	public static void add(Options options)
 	{
 		// @formatter:off
 		OptionHelper.addL(options, OPTION_PBF_COMPRESSION, true, false,
 				"PBF output compression. One of " + POSSIBLE_COMPRESSION_ARGUMENTS);
+		OptionHelper.addL(options, OPTION_PBF_ZSTD_LEVEL, true, false,
+				"PBF zstd compression level (default: " + BlockWriter.DEFAULT_ZSTD_LEVEL + ")");
+		OptionHelper.addL(options, OPTION_PBF_BLOCK_SIZE, true, false,
+				"PBF target uncompressed block size in bytes (default: " + PbfWriter.DEFAULT_BLOCK_SIZE + ")");
 		OptionHelper.addL(options, OPTION_PBF_NONE_DENSE, false, false,
 				"Disable dense node packing");
+		OptionHelper.addL(options, OPTION_PBF_THREADS, true, false,
+				"PBF: number of threads to compress blocks with");
 		// @formatter:on
 	}
 
@@ -53,15 +68,58 @@ public class PbfOptions
 				config.setCompression(Compression.DEFLATE);
 			} else if (compressionArg.equals("lz4")) {
 				config.setCompression(Compression.LZ4);
+			} else if (compressionArg.equals("zstd")) {
+				config.setCompression(Compression.ZSTD);
 			} else {
 				throw new ConfigurationException(
 						"Invalid compression value: Please specify one of: "
 								+ POSSIBLE_COMPRESSION_ARGUMENTS);
 			}
 		}
+		try {
+			IntegerOption zstdLevel = ArgumentHelper.getInteger(line,
+					OPTION_PBF_ZSTD_LEVEL);
+			if (zstdLevel.hasValue()) {
+				config.setZstdLevel(zstdLevel.getValue());
+			}
+		} catch (ArgumentParseException e) {
+			throw new ConfigurationException(String.format(
+					"Unable to parse option '%s'", OPTION_PBF_ZSTD_LEVEL), e);
+		}
+		try {
+			IntegerOption blockSize = ArgumentHelper.getInteger(line,
+					OPTION_PBF_BLOCK_SIZE);
+			if (blockSize.hasValue()) {
+				int value = blockSize.getValue();
+				if (value < 1 || value > Constants.MAX_BLOCK_SIZE) {
+					throw new ConfigurationException(String.format(
+							"Option '%s' must be between 1 and %d",
+							OPTION_PBF_BLOCK_SIZE, Constants.MAX_BLOCK_SIZE));
+				}
+				config.setBlockSize(value);
+			}
+		} catch (ArgumentParseException e) {
+			throw new ConfigurationException(String.format(
+					"Unable to parse option '%s'", OPTION_PBF_BLOCK_SIZE), e);
+		}
 		if (line.hasOption(OPTION_PBF_NONE_DENSE)) {
 			config.setUseDenseNodes(false);
 		}
+		try {
+			IntegerOption threads = ArgumentHelper.getInteger(line,
+					OPTION_PBF_THREADS);
+			if (threads.hasValue()) {
+				if (threads.getValue() < 1) {
+					throw new ConfigurationException(String.format(
+							"Option '%s' must be at least 1",
+							OPTION_PBF_THREADS));
+				}
+				config.setNumThreads(threads.getValue());
+			}
+		} catch (ArgumentParseException e) {
+			throw new ConfigurationException(String.format(
+					"Unable to parse option '%s'", OPTION_PBF_THREADS), e);
+		}
 		return config;
 	}
 
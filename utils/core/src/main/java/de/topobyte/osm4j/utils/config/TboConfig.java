@@ -17,7 +17,10 @@
 
 package de.topobyte.osm4j.utils.config;
 
+import java.util.concurrent.ExecutorService;
+
 import de.topobyte.osm4j.tbo.Compression;
+import de.topobyte.osm4j.tbo.access.BlockableWriter;
 import de.topobyte.osm4j.tbo.data.Definitions;
 import de.topobyte.osm4j.utils.config.limit.ElementCountLimit;
 import de.topobyte.osm4j.utils.config.limit.NodeLimit;
@@ -30,6 +33,8 @@ public class TboConfig
 {
 
 	private Compression compression = Compression.LZ4;
+	private int zstdLevel = BlockableWriter.DEFAULT_ZSTD_LEVEL;
+	private byte[] dictionary = null;
 
 	private NodeLimit limitNodes = new ElementCountLimit(
 			Definitions.DEFAULT_BATCH_SIZE_NODES);
@@ -38,6 +43,12 @@ public class TboConfig
 	private RelationLimit limitRelations = new RelationMemberLimit(
 			Definitions.DEFAULT_BATCH_SIZE_RELATION_MEMBERS);
 
+	private boolean writeIndex = false;
+	private boolean columnar = false;
+
+	private int numThreads = 1;
+	private ExecutorService executor = null;
+
 	public Compression getCompression()
 	{
 		return compression;
@@ -48,6 +59,30 @@ public class TboConfig
 		this.compression = compression;
 	}
 
+	public int getZstdLevel()
+	{
+		return zstdLevel;
+	}
+
+	public void setZstdLevel(int zstdLevel)
+	{
+		this.zstdLevel = zstdLevel;
+	}
+
+	public byte[] getDictionary()
+	{
+		return dictionary;
+	}
+
+	/**
+	 * Compress blocks with the specified zstd dictionary. Only used with
+	 * {@link Compression#ZSTD}.
+	 */
+	public void setDictionary(byte[] dictionary)
+	{
+		this.dictionary = dictionary;
+	}
+
 	public NodeLimit getLimitNodes()
 	{
 		return limitNodes;
@@ -78,4 +113,49 @@ public class TboConfig
 		this.limitRelations = limitRelations;
 	}
 
+	public boolean isWriteIndex()
+	{
+		return writeIndex;
+	}
+
+	public void setWriteIndex(boolean writeIndex)
+	{
+		this.writeIndex = writeIndex;
+	}
+
+	public boolean isColumnar()
+	{
+		return columnar;
+	}
+
+	public void setColumnar(boolean columnar)
+	{
+		this.columnar = columnar;
+	}
+
+	public int getNumThreads()
+	{
+		return numThreads;
+	}
+
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
+	public ExecutorService getExecutor()
+	{
+		return executor;
+	}
+
+	/**
+	 * Compress blocks of all writers configured from this instance on the
+	 * specified executor. Takes precedence over the number of threads. The
+	 * executor is owned by the caller and needs to be shut down by it.
+	 */
+	public void setExecutor(ExecutorService executor)
+	{
+		this.executor = executor;
+	}
+
 }
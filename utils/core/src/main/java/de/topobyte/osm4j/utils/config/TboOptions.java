@@ -17,10 +17,16 @@
 
 package de.topobyte.osm4j.utils.config;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
 
 import de.topobyte.osm4j.tbo.Compression;
+import de.topobyte.osm4j.tbo.access.BlockableWriter;
+import de.topobyte.osm4j.utils.config.limit.ByteSizeLimit;
 import de.topobyte.osm4j.utils.config.limit.ElementCountLimit;
 import de.topobyte.osm4j.utils.config.limit.RelationMemberLimit;
 import de.topobyte.osm4j.utils.config.limit.WayNodeLimit;
@@ -32,9 +38,11 @@ import de.topobyte.utilities.apache.commons.cli.parsing.IntegerOption;
 public class TboOptions
 {
 
-	public static final String POSSIBLE_COMPRESSION_ARGUMENTS = "none, deflate, lz4";
+	public static final String POSSIBLE_COMPRESSION_ARGUMENTS = "none, deflate, lz4, zstd";
 
 	private static final String OPTION_TBO_COMPRESSION = "tbo-compression";
+	private static final String OPTION_TBO_ZSTD_LEVEL = "tbo-zstd-level";
+	private static final String OPTION_TBO_DICTIONARY = "tbo-dictionary";
 
 	private static final String OPTION_TBO_MAX_ELEMENTS_PER_BLOCK = "tbo-max-elements-per-block";
 	private static final String OPTION_TBO_MAX_NODES_PER_BLOCK = "tbo-max-nodes-per-block";
@@ -42,17 +50,27 @@ public class TboOptions
 	private static final String OPTION_TBO_MAX_RELATIONS_PER_BLOCK = "tbo-max-relations-per-block";
 	private static final String OPTION_TBO_MAX_WAY_NODES_PER_BLOCK = "tbo-max-way-nodes-per-block";
 	private static final String OPTION_TBO_MAX_RELATION_MEMBERS_PER_BLOCK = "tbo-max-relation-members-per-block";
+	private static final String OPTION_TBO_MAX_BYTES_PER_BLOCK = "tbo-max-bytes-per-block";
+	private static final String OPTION_TBO_INDEX = "tbo-index";
+	private static final String OPTION_TBO_THREADS = "tbo-threads";
+	private static final String OPTION_TBO_COLUMNAR = "tbo-columnar";
 
 	public static void add(Options options)
 	{
 		// @formatter:off
 		OptionHelper.addL(options, OPTION_TBO_COMPRESSION, true, false, "TBO output compression. One of " + POSSIBLE_COMPRESSION_ARGUMENTS);
+		OptionHelper.addL(options, OPTION_TBO_ZSTD_LEVEL, true, false, "TBO zstd compression level (default: " + BlockableWriter.DEFAULT_ZSTD_LEVEL + ")");
+		OptionHelper.addL(options, OPTION_TBO_DICTIONARY, true, false, "TBO: file with a zstd dictionary to compress blocks with");
 		OptionHelper.addL(options, OPTION_TBO_MAX_ELEMENTS_PER_BLOCK, true, false, "TBO: max number of elements per block");
 		OptionHelper.addL(options, OPTION_TBO_MAX_NODES_PER_BLOCK, true, false, "TBO: max number of nodes per block");
 		OptionHelper.addL(options, OPTION_TBO_MAX_WAYS_PER_BLOCK, true, false, "TBO: max number of ways per block");
 		OptionHelper.addL(options, OPTION_TBO_MAX_RELATIONS_PER_BLOCK, true, false, "TBO: max number of relations per block");
 		OptionHelper.addL(options, OPTION_TBO_MAX_WAY_NODES_PER_BLOCK, true, false, "TBO: max number of way nodes per block");
 		OptionHelper.addL(options, OPTION_TBO_MAX_RELATION_MEMBERS_PER_BLOCK, true, false, "TBO: max number of relation members per block");
+		OptionHelper.addL(options, OPTION_TBO_MAX_BYTES_PER_BLOCK, true, false, "TBO: max estimated number of uncompressed bytes per block");
+		OptionHelper.addL(options, OPTION_TBO_INDEX, false, false, "TBO: append a block index for random access");
+		OptionHelper.addL(options, OPTION_TBO_THREADS, true, false, "TBO: number of threads to compress blocks with");
+		OptionHelper.addL(options, OPTION_TBO_COLUMNAR, false, false, "TBO: write blocks using the columnar layout");
 		// @formatter:on
 	}
 
@@ -68,6 +86,8 @@ public class TboOptions
 				config.setCompression(Compression.DEFLATE);
 			} else if (compressionArg.equals("lz4")) {
 				config.setCompression(Compression.LZ4);
+			} else if (compressionArg.equals("zstd")) {
+				config.setCompression(Compression.ZSTD);
 			} else {
 				throw new ConfigurationException(
 						"Invalid compression value. Please specify one of: "
@@ -75,6 +95,23 @@ public class TboOptions
 			}
 		}
 
+		if (line.hasOption(OPTION_TBO_DICTIONARY)) {
+			File file = new File(line.getOptionValue(OPTION_TBO_DICTIONARY));
+			try {
+				config.setDictionary(Files.readAllBytes(file.toPath()));
+			} catch (IOException e) {
+				throw new ConfigurationException(
+						"Unable to read dictionary: " + e.getMessage(), e);
+			}
+		}
+
+		if (line.hasOption(OPTION_TBO_INDEX)) {
+			config.setWriteIndex(true);
+		}
+		if (line.hasOption(OPTION_TBO_COLUMNAR)) {
+			config.setColumnar(true);
+		}
+
 		try {
 			IntegerOption maxElementsPerBlock = parseInteger(line,
 					OPTION_TBO_MAX_ELEMENTS_PER_BLOCK);
@@ -88,6 +125,27 @@ public class TboOptions
 					OPTION_TBO_MAX_WAY_NODES_PER_BLOCK);
 			IntegerOption maxRelationMembersPerBlock = parseInteger(line,
 					OPTION_TBO_MAX_RELATION_MEMBERS_PER_BLOCK);
+			IntegerOption maxBytesPerBlock = parseInteger(line,
+					OPTION_TBO_MAX_BYTES_PER_BLOCK);
+			IntegerOption threads = parseInteger(line, OPTION_TBO_THREADS);
+			IntegerOption zstdLevel = parseInteger(line, OPTION_TBO_ZSTD_LEVEL);
+
+			if (zstdLevel.hasValue()) {
+				config.setZstdLevel(zstdLevel.getValue());
+			}
+
+			if (threads.hasValue()) {
+				config.setNumThreads(threads.getValue());
+			}
+
+			if (maxBytesPerBlock.hasValue()) {
+				config.setLimitNodes(
+						new ByteSizeLimit(maxBytesPerBlock.getValue()));
+				config.setLimitWays(
+						new ByteSizeLimit(maxBytesPerBlock.getValue()));
+				config.setLimitRelations(
+						new ByteSizeLimit(maxBytesPerBlock.getValue()));
+			}
 
 			if (maxElementsPerBlock.hasValue()) {
 				config.setLimitNodes(
@@ -21,7 +21,9 @@ import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
-class DateParser
+import de.topobyte.osm4j.core.util.TimestampParser;
+
+public class DateParser
 {
 
 	private static final String[] PATTERNS = { "yyyy-MM-dd'T'HH:mm:ss'Z'",
@@ -38,6 +40,20 @@ class DateParser
 
 	private DateTimeFormatter current = PARSERS[0];
 
+	/**
+	 * Parse a date to milliseconds since the epoch. Dates in the canonical
+	 * format are parsed without creating any objects, other formats are
+	 * handled by {@link #parse(String)}.
+	 */
+	public long parseMillis(String formattedDate)
+	{
+		long millis = TimestampParser.parse(formattedDate);
+		if (millis != TimestampParser.INVALID) {
+			return millis;
+		}
+		return parse(formattedDate).getMillis();
+	}
+
 	public DateTime parse(String formattedDate)
 	{
 		try {
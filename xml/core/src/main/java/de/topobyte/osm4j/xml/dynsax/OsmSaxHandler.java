@@ -21,8 +21,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.joda.time.DateTime;
-
 import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
 
 import de.topobyte.osm4j.core.access.OsmHandler;
@@ -259,8 +257,7 @@ class OsmSaxHandler extends DynamicSaxHandler
 
 			long timestamp = -1;
 			if (aTimestamp != null) {
-				DateTime date = dateParser.parse(aTimestamp);
-				timestamp = date.getMillis();
+				timestamp = dateParser.parseMillis(aTimestamp);
 			}
 
 			boolean visible = true;
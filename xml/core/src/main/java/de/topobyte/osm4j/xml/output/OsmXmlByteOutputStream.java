@@ -0,0 +1,329 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.xml.output;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import de.topobyte.osm4j.core.access.OsmOutputStream;
+import de.topobyte.osm4j.core.model.iface.EntityContainer;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmBounds;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+
+/**
+ * An {@link OsmOutputStream} that writes the same XML as
+ * {@link OsmXmlOutputStream}, but encodes entities to UTF-8 bytes directly
+ * into a reusable buffer instead of building strings and passing them through
+ * a {@link java.io.Writer}.
+ * 
+ * With more than one thread, entities are collected in batches that are
+ * serialized on a pool of worker threads and written to the output in order.
+ * In that mode, entities must not be modified after they have been passed to
+ * this stream.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class OsmXmlByteOutputStream implements OsmOutputStream
+{
+
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private static final String INDENT1 = "  ";
+	private static final String INDENT2 = "    ";
+	private static final String NEWLINE = "\n";
+
+	private final OutputStream out;
+	private final boolean printMetadata;
+	private final XmlByteWriter writer;
+
+	private int batchLimit = 4000;
+
+	// Pipelined mode: batches are serialized on a pool of worker threads,
+	// serialized batches are written in submission order
+	private int numThreads = 1;
+	private int maxBatchesInFlight = 0;
+	private ExecutorService workers = null;
+	private Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private List<EntityContainer> batch = new ArrayList<>();
+	private ThreadLocal<XmlByteWriter> batchWriters = new ThreadLocal<XmlByteWriter>() {
+
+		@Override
+		protected XmlByteWriter initialValue()
+		{
+			return createWriter(DEFAULT_BUFFER_SIZE);
+		}
+
+	};
+
+	public OsmXmlByteOutputStream(OutputStream out, boolean printMetadata)
+	{
+		this.out = out;
+		this.printMetadata = printMetadata;
+		writer = createWriter(DEFAULT_BUFFER_SIZE);
+		writeHeader();
+	}
+
+	public int getBatchLimit()
+	{
+		return batchLimit;
+	}
+
+	/**
+	 * Set the number of entities serialized together on a worker thread in
+	 * pipelined mode.
+	 */
+	public void setBatchLimit(int batchLimit)
+	{
+		this.batchLimit = batchLimit;
+	}
+
+	public int getNumThreads()
+	{
+		return numThreads;
+	}
+
+	/**
+	 * Set the number of threads used to serialize entities. With more than one
+	 * thread, batches of entities are handed off to a pool of worker threads
+	 * and the resulting data is written to the output in order. Must be set
+	 * before the first entity is written.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
+	public int getMaxBatchesInFlight()
+	{
+		return maxBatchesInFlight;
+	}
+
+	/**
+	 * Set the maximum number of batches being serialized by worker threads or
+	 * waiting to be written at any time. This bounds memory usage in
+	 * pipelined mode. Defaults to twice the number of threads if not set.
+	 */
+	public void setMaxBatchesInFlight(int maxBatchesInFlight)
+	{
+		this.maxBatchesInFlight = maxBatchesInFlight;
+	}
+
+	private XmlByteWriter createWriter(int initialSize)
+	{
+		return new XmlByteWriter(INDENT1, INDENT2, NEWLINE, printMetadata,
+				initialSize);
+	}
+
+	private void writeHeader()
+	{
+		writer.write("<?xml version='1.0' encoding='UTF-8'?>");
+		writer.writeNewline();
+		writer.write("<osm version=\"0.6\">");
+		writer.writeNewline();
+	}
+
+	@Override
+	public void write(OsmBounds bounds) throws IOException
+	{
+		if (!batch.isEmpty()) {
+			submitBatch();
+		}
+		writePending(0);
+		writer.write(bounds);
+		writer.writeNewline();
+		flushIfFull();
+	}
+
+	@Override
+	public void write(OsmNode node) throws IOException
+	{
+		if (numThreads > 1) {
+			add(new EntityContainer(EntityType.Node, node));
+			return;
+		}
+		writer.write(node);
+		writer.writeNewline();
+		flushIfFull();
+	}
+
+	@Override
+	public void write(OsmWay way) throws IOException
+	{
+		if (numThreads > 1) {
+			add(new EntityContainer(EntityType.Way, way));
+			return;
+		}
+		writer.write(way);
+		writer.writeNewline();
+		flushIfFull();
+	}
+
+	@Override
+	public void write(OsmRelation relation) throws IOException
+	{
+		if (numThreads > 1) {
+			add(new EntityContainer(EntityType.Relation, relation));
+			return;
+		}
+		writer.write(relation);
+		writer.writeNewline();
+		flushIfFull();
+	}
+
+	@Override
+	public void complete() throws IOException
+	{
+		if (!batch.isEmpty()) {
+			submitBatch();
+		}
+		if (workers != null) {
+			try {
+				writePending(0);
+			} finally {
+				workers.shutdownNow();
+				workers = null;
+			}
+		}
+		writer.write("</osm>");
+		writer.writeNewline();
+		flush();
+		out.flush();
+	}
+
+	private void flushIfFull() throws IOException
+	{
+		if (writer.size() >= DEFAULT_BUFFER_SIZE) {
+			flush();
+		}
+	}
+
+	private void flush() throws IOException
+	{
+		writer.writeTo(out);
+		writer.reset();
+	}
+
+	private void add(EntityContainer container) throws IOException
+	{
+		batch.add(container);
+		if (batch.size() >= batchLimit) {
+			submitBatch();
+		}
+	}
+
+	private void submitBatch() throws IOException
+	{
+		if (workers == null) {
+			workers = Executors.newFixedThreadPool(numThreads,
+					new ThreadFactory() {
+
+						@Override
+						public Thread newThread(Runnable runnable)
+						{
+							Thread thread = new Thread(runnable,
+									"xml-writer");
+							thread.setDaemon(true);
+							return thread;
+						}
+
+					});
+		}
+
+		int limit = maxBatchesInFlight > 0 ? maxBatchesInFlight
+				: 2 * numThreads;
+		writePending(limit - 1);
+
+		final List<EntityContainer> entities = batch;
+
+		pending.add(workers.submit(new Callable<byte[]>() {
+
+			@Override
+			public byte[] call()
+			{
+				XmlByteWriter batchWriter = batchWriters.get();
+				batchWriter.reset();
+				for (EntityContainer container : entities) {
+					switch (container.getType()) {
+					case Node:
+						batchWriter.write((OsmNode) container.getEntity());
+						break;
+					case Way:
+						batchWriter.write((OsmWay) container.getEntity());
+						break;
+					case Relation:
+						batchWriter
+								.write((OsmRelation) container.getEntity());
+						break;
+					}
+					batchWriter.writeNewline();
+				}
+				return batchWriter.toByteArray();
+			}
+
+		}));
+
+		batch = new ArrayList<>();
+
+		// Write any batches that are already done without waiting
+		while (!pending.isEmpty() && pending.peek().isDone()) {
+			writeBatch(pending.poll());
+		}
+	}
+
+	/**
+	 * Write pending batches in order, waiting for them to be finished, until
+	 * at most the specified number of batches is left pending.
+	 */
+	private void writePending(int remaining) throws IOException
+	{
+		while (pending.size() > remaining) {
+			writeBatch(pending.poll());
+		}
+	}
+
+	private void writeBatch(Future<byte[]> future) throws IOException
+	{
+		byte[] data;
+		try {
+			data = future.get();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException(
+					"interrupted while waiting for batch");
+		} catch (ExecutionException e) {
+			throw new IOException("error while serializing batch",
+					e.getCause());
+		}
+		flush();
+		out.write(data);
+	}
+
+}
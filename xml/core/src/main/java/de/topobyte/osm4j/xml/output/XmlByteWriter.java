@@ -0,0 +1,501 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.xml.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.text.translate.CharSequenceTranslator;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmBounds;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmMetadata;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+import de.topobyte.osm4j.core.model.iface.OsmTag;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+
+/**
+ * Serializes entities as UTF-8 encoded XML directly into a reusable byte
+ * buffer. The output is the same as the output of {@link XmlWriter}, but
+ * avoids intermediate strings: characters are escaped using a precomputed
+ * table, coordinates are formatted from their fixed-precision representation
+ * and the date part of timestamps is cached per day.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class XmlByteWriter
+{
+
+	private static final CharSequenceTranslator ESCAPER = StringEscapeUtils.ESCAPE_XML11;
+
+	// Replacements for characters below 0xA0, null for characters that are
+	// written as they are
+	private static final byte[][] ESCAPES = new byte[0xA0][];
+
+	static {
+		for (char c = 0; c < ESCAPES.length; c++) {
+			String string = String.valueOf(c);
+			String escaped = ESCAPER.translate(string);
+			if (!escaped.equals(string)) {
+				ESCAPES[c] = bytes(escaped);
+			}
+		}
+	}
+
+	private static final byte[] NODE = bytes("<node id=\"");
+	private static final byte[] WAY = bytes("<way id=\"");
+	private static final byte[] RELATION = bytes("<relation id=\"");
+	private static final byte[] NODE_END = bytes("</node>");
+	private static final byte[] WAY_END = bytes("</way>");
+	private static final byte[] RELATION_END = bytes("</relation>");
+	private static final byte[] LAT = bytes("\" lat=\"");
+	private static final byte[] LON = bytes("\" lon=\"");
+	private static final byte[] ND = bytes("<nd ref=\"");
+	private static final byte[] MEMBER = bytes("<member type=\"");
+	private static final byte[] REF = bytes("\" ref=\"");
+	private static final byte[] ROLE = bytes("\" role=\"");
+	private static final byte[] TAG = bytes("<tag k=\"");
+	private static final byte[] VALUE = bytes("\" v=\"");
+	private static final byte[] VERSION = bytes(" version=\"");
+	private static final byte[] TIMESTAMP = bytes(" timestamp=\"");
+	private static final byte[] UID = bytes(" uid=\"");
+	private static final byte[] USER = bytes(" user=\"");
+	private static final byte[] CHANGESET = bytes(" changeset=\"");
+	private static final byte[] INVISIBLE = bytes(" visible=\"false\"");
+	private static final byte[] TYPE_NODE = bytes("node");
+	private static final byte[] TYPE_WAY = bytes("way");
+	private static final byte[] TYPE_RELATION = bytes("relation");
+	private static final byte[] CLOSE_EMPTY = bytes("\"/>");
+	private static final byte[] CLOSE = bytes("/>");
+
+	private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+	private static final int DAY_CACHE_SIZE = 8192;
+
+	private final byte[] indent1;
+	private final byte[] indent2;
+	private final byte[] newline;
+	private final boolean printMetadata;
+
+	private byte[] buffer;
+	private int size = 0;
+
+	private final byte[] digits = new byte[20];
+
+	// Used for values that cannot be formatted from a fixed-precision value
+	private DecimalFormat f = new DecimalFormat("0.#######;-0.#######",
+			new DecimalFormatSymbols(Locale.US));
+
+	private DateTimeFormatter dateFormatter = DateTimeFormat
+			.forPattern("yyyy-MM-dd'T'").withZoneUTC();
+
+	private String templateBounds = "<bounds minlon=\"%f\" minlat=\"%f\" maxlon=\"%f\" maxlat=\"%f\"/>";
+
+	// The formatted date part of timestamps, indexed by day modulo cache size
+	private final long[] cachedDays = new long[DAY_CACHE_SIZE];
+	private final byte[][] cachedDates = new byte[DAY_CACHE_SIZE][];
+
+	public XmlByteWriter(String indent1, String indent2, String newline,
+			boolean printMetadata, int initialSize)
+	{
+		this.indent1 = bytes(indent1);
+		this.indent2 = bytes(indent2);
+		this.newline = bytes(newline);
+		this.printMetadata = printMetadata;
+		buffer = new byte[initialSize];
+		Arrays.fill(cachedDays, Long.MIN_VALUE);
+	}
+
+	private static byte[] bytes(String string)
+	{
+		return string.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return the number of bytes currently in the buffer.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Discard the content of the buffer.
+	 */
+	public void reset()
+	{
+		size = 0;
+	}
+
+	/**
+	 * Write the content of the buffer to the specified stream.
+	 */
+	public void writeTo(OutputStream out) throws IOException
+	{
+		out.write(buffer, 0, size);
+	}
+
+	/**
+	 * @return a copy of the content of the buffer.
+	 */
+	public byte[] toByteArray()
+	{
+		return Arrays.copyOf(buffer, size);
+	}
+
+	public void write(String string)
+	{
+		ensure(string.length() * 3);
+		for (int i = 0; i < string.length(); i++) {
+			i = putChar(string, i);
+		}
+	}
+
+	public void writeNewline()
+	{
+		put(newline);
+	}
+
+	public void write(OsmBounds bounds)
+	{
+		put(indent1);
+		write(String.format(Locale.US, templateBounds, bounds.getLeft(),
+				bounds.getBottom(), bounds.getRight(), bounds.getTop()));
+	}
+
+	public void write(OsmNode node)
+	{
+		put(indent1);
+		put(NODE);
+		putLong(node.getId());
+		put(LAT);
+		putCoordinate(node.getLatitude());
+		put(LON);
+		putCoordinate(node.getLongitude());
+		put((byte) '"');
+		if (printMetadata) {
+			printMetadata(node.getMetadata());
+		}
+		if (node.getNumberOfTags() == 0) {
+			put(CLOSE);
+		} else {
+			put((byte) '>');
+			put(newline);
+			printTags(node);
+			put(indent1);
+			put(NODE_END);
+		}
+	}
+
+	public void write(OsmWay way)
+	{
+		put(indent1);
+		put(WAY);
+		putLong(way.getId());
+		put((byte) '"');
+		if (printMetadata) {
+			printMetadata(way.getMetadata());
+		}
+		if (way.getNumberOfTags() == 0 && way.getNumberOfNodes() == 0) {
+			put(CLOSE);
+		} else {
+			put((byte) '>');
+			put(newline);
+			for (int i = 0; i < way.getNumberOfNodes(); i++) {
+				put(indent2);
+				put(ND);
+				putLong(way.getNodeId(i));
+				put(CLOSE_EMPTY);
+				put(newline);
+			}
+			printTags(way);
+			put(indent1);
+			put(WAY_END);
+		}
+	}
+
+	public void write(OsmRelation relation)
+	{
+		put(indent1);
+		put(RELATION);
+		putLong(relation.getId());
+		put((byte) '"');
+		if (printMetadata) {
+			printMetadata(relation.getMetadata());
+		}
+		if (relation.getNumberOfTags() == 0
+				&& relation.getNumberOfMembers() == 0) {
+			put(CLOSE);
+		} else {
+			put((byte) '>');
+			put(newline);
+			for (int i = 0; i < relation.getNumberOfMembers(); i++) {
+				OsmRelationMember member = relation.getMember(i);
+				EntityType type = member.getType();
+				put(indent2);
+				put(MEMBER);
+				put(type == EntityType.Node ? TYPE_NODE
+						: type == EntityType.Way ? TYPE_WAY : TYPE_RELATION);
+				put(REF);
+				putLong(member.getId());
+				put(ROLE);
+				escape(member.getRole());
+				put(CLOSE_EMPTY);
+				put(newline);
+			}
+			printTags(relation);
+			put(indent1);
+			put(RELATION_END);
+		}
+	}
+
+	private void printMetadata(OsmMetadata metadata)
+	{
+		if (metadata == null) {
+			return;
+		}
+		put(VERSION);
+		putLong(metadata.getVersion());
+		put((byte) '"');
+		put(TIMESTAMP);
+		putTimestamp(metadata.getTimestamp());
+		put((byte) '"');
+		if (metadata.getUid() >= 0) {
+			put(UID);
+			putLong(metadata.getUid());
+			put((byte) '"');
+			put(USER);
+			escape(metadata.getUser());
+			put((byte) '"');
+		}
+		put(CHANGESET);
+		putLong(metadata.getChangeset());
+		put((byte) '"');
+		if (!metadata.isVisible()) {
+			put(INVISIBLE);
+		}
+	}
+
+	private void printTags(OsmEntity entity)
+	{
+		for (int i = 0; i < entity.getNumberOfTags(); i++) {
+			OsmTag tag = entity.getTag(i);
+			put(indent2);
+			put(TAG);
+			escape(tag.getKey());
+			put(VALUE);
+			escape(tag.getValue());
+			put(CLOSE_EMPTY);
+			put(newline);
+		}
+	}
+
+	private void ensure(int additional)
+	{
+		if (size + additional > buffer.length) {
+			int length = Math.max(buffer.length * 2, size + additional);
+			buffer = Arrays.copyOf(buffer, length);
+		}
+	}
+
+	private void put(byte b)
+	{
+		ensure(1);
+		buffer[size++] = b;
+	}
+
+	private void put(byte[] bytes)
+	{
+		ensure(bytes.length);
+		System.arraycopy(bytes, 0, buffer, size, bytes.length);
+		size += bytes.length;
+	}
+
+	private void putLong(long value)
+	{
+		if (value == Long.MIN_VALUE) {
+			write(Long.toString(value));
+			return;
+		}
+		ensure(20);
+		if (value < 0) {
+			buffer[size++] = '-';
+			value = -value;
+		}
+		int n = 0;
+		do {
+			digits[n++] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		while (n > 0) {
+			buffer[size++] = digits[--n];
+		}
+	}
+
+	private void putDigits(int value, int count)
+	{
+		ensure(count);
+		for (int i = count - 1; i >= 0; i--) {
+			buffer[size + i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		size += count;
+	}
+
+	/*
+	 * Coordinates are printed with up to 7 decimal places, rounding half to
+	 * even like DecimalFormat does. The value is scaled to an integer number
+	 * of 1e-7 units, unless the scaled value is so close to a tie that the
+	 * rounding error of the multiplication might matter, or the value is out
+	 * of the range of usual coordinates.
+	 */
+	private void putCoordinate(double value)
+	{
+		if (!(Math.abs(value) < 1000)) {
+			write(f.format(value));
+			return;
+		}
+		double scaled = value * 1e7;
+		double fraction = scaled - Math.floor(scaled);
+		if (Math.abs(fraction - 0.5) < 1e-5) {
+			write(f.format(value));
+			return;
+		}
+		long fixed = (long) Math.rint(scaled);
+		if (fixed == 0) {
+			if (value < 0 || 1 / value < 0) {
+				put((byte) '-');
+			}
+			put((byte) '0');
+			return;
+		}
+		if (fixed < 0) {
+			put((byte) '-');
+			fixed = -fixed;
+		}
+		putLong(fixed / 10000000);
+		int decimals = (int) (fixed % 10000000);
+		if (decimals == 0) {
+			return;
+		}
+		int count = 7;
+		while (decimals % 10 == 0) {
+			decimals /= 10;
+			count--;
+		}
+		put((byte) '.');
+		putDigits(decimals, count);
+	}
+
+	/*
+	 * Timestamps are printed as yyyy-MM-dd'T'HH:mm:ss'Z' in UTC.
+	 */
+	private void putTimestamp(long millis)
+	{
+		long day = Math.floorDiv(millis, MILLIS_PER_DAY);
+		int millisOfDay = (int) Math.floorMod(millis, MILLIS_PER_DAY);
+		int slot = (int) (day & (DAY_CACHE_SIZE - 1));
+		if (cachedDays[slot] != day) {
+			cachedDays[slot] = day;
+			cachedDates[slot] = bytes(
+					dateFormatter.print(day * MILLIS_PER_DAY));
+		}
+		put(cachedDates[slot]);
+
+		int seconds = millisOfDay / 1000;
+		putDigits(seconds / 3600, 2);
+		put((byte) ':');
+		putDigits(seconds / 60 % 60, 2);
+		put((byte) ':');
+		putDigits(seconds % 60, 2);
+		put((byte) 'Z');
+	}
+
+	private void escape(String string)
+	{
+		if (string == null) {
+			// Like the character based writer, write nothing for null values
+			return;
+		}
+		ensure(string.length() * 6);
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c < 0xA0) {
+				byte[] escaped = ESCAPES[c];
+				if (escaped != null) {
+					System.arraycopy(escaped, 0, buffer, size,
+							escaped.length);
+					size += escaped.length;
+					continue;
+				}
+			} else if (c == 0xFFFE || c == 0xFFFF) {
+				continue;
+			} else if (Character.isSurrogate(c)) {
+				if (!Character.isHighSurrogate(c)
+						|| i + 1 == string.length()
+						|| !Character.isLowSurrogate(string.charAt(i + 1))) {
+					// Unpaired surrogates are dropped
+					continue;
+				}
+			}
+			i = putChar(string, i);
+		}
+	}
+
+	/*
+	 * Encode the character at the specified index as UTF-8 and return the
+	 * index of the last character consumed. Requires enough capacity in the
+	 * buffer.
+	 */
+	private int putChar(String string, int i)
+	{
+		char c = string.charAt(i);
+		if (c < 0x80) {
+			buffer[size++] = (byte) c;
+		} else if (c < 0x800) {
+			buffer[size++] = (byte) (0xC0 | (c >> 6));
+			buffer[size++] = (byte) (0x80 | (c & 0x3F));
+		} else if (Character.isHighSurrogate(c) && i + 1 < string.length()
+				&& Character.isLowSurrogate(string.charAt(i + 1))) {
+			int cp = Character.toCodePoint(c, string.charAt(++i));
+			buffer[size++] = (byte) (0xF0 | (cp >> 18));
+			buffer[size++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+			buffer[size++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+			buffer[size++] = (byte) (0x80 | (cp & 0x3F));
+		} else if (Character.isSurrogate(c)) {
+			// Like the standard UTF-8 encoder, replace with '?'
+			buffer[size++] = '?';
+		} else {
+			buffer[size++] = (byte) (0xE0 | (c >> 12));
+			buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+			buffer[size++] = (byte) (0x80 | (c & 0x3F));
+		}
+		return i;
+	}
+
+}
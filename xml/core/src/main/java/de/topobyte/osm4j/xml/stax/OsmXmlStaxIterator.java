@@ -0,0 +1,653 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.xml.stax;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.core.model.iface.EntityContainer;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmBounds;
+import de.topobyte.osm4j.core.model.iface.OsmMetadata;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+import de.topobyte.osm4j.core.model.iface.OsmTag;
+import de.topobyte.osm4j.core.model.impl.Bounds;
+import de.topobyte.osm4j.core.model.impl.Entity;
+import de.topobyte.osm4j.core.model.impl.Metadata;
+import de.topobyte.osm4j.core.model.impl.MutableEntity;
+import de.topobyte.osm4j.core.model.impl.MutableNode;
+import de.topobyte.osm4j.core.model.impl.MutableRelation;
+import de.topobyte.osm4j.core.model.impl.MutableWay;
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Relation;
+import de.topobyte.osm4j.core.model.impl.RelationMember;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
+import de.topobyte.osm4j.core.model.util.ImplUtil;
+import de.topobyte.osm4j.core.model.util.ReusableEntities;
+import de.topobyte.osm4j.xml.dynsax.DateParser;
+
+/**
+ * This class allows iteration over OSM XML data using a StAX pull parser.
+ * 
+ * In contrast to {@link de.topobyte.osm4j.xml.dynsax.OsmXmlIterator}, no
+ * separate thread is involved: the input is parsed on the calling thread
+ * whenever the next entity is requested. The entities produced are the same as
+ * those produced by {@link de.topobyte.osm4j.xml.dynsax.OsmXmlReader}.
+ * 
+ * The underlying input stream is closed once the end of the document has been
+ * reached or when {@link #close()} is called.
+ * 
+ * If {@link #setReuseEntities(boolean)} has been enabled, elements are parsed
+ * into reusable entities instead of new objects.
+ * 
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class OsmXmlStaxIterator implements OsmIterator, Closeable
+{
+
+	private static final String NAME_OSM = "osm";
+	private static final String NAME_BOUNDS = "bounds";
+	private static final String NAME_BOUND = "bound";
+	private static final String NAME_NODE = "node";
+	private static final String NAME_WAY = "way";
+	private static final String NAME_RELATION = "relation";
+	private static final String NAME_TAG = "tag";
+	private static final String NAME_ND = "nd";
+	private static final String NAME_MEMBER = "member";
+
+	private static final String ATTR_MIN_LAT = "minlat";
+	private static final String ATTR_MAX_LAT = "maxlat";
+	private static final String ATTR_MIN_LON = "minlon";
+	private static final String ATTR_MAX_LON = "maxlon";
+	private static final String ATTR_BOX = "box";
+
+	private static final String ATTR_ID = "id";
+	private static final String ATTR_K = "k";
+	private static final String ATTR_V = "v";
+	private static final String ATTR_LON = "lon";
+	private static final String ATTR_LAT = "lat";
+	private static final String ATTR_REF = "ref";
+	private static final String ATTR_TYPE = "type";
+	private static final String ATTR_ROLE = "role";
+
+	private static final String ATTR_VERSION = "version";
+	private static final String ATTR_TIMESTAMP = "timestamp";
+	private static final String ATTR_UID = "uid";
+	private static final String ATTR_USER = "user";
+	private static final String ATTR_CHANGESET = "changeset";
+	private static final String ATTR_VISIBLE = "visible";
+
+	private InputStream input;
+	private XMLStreamReader reader;
+
+	private boolean parseMetadata;
+	private DateParser dateParser;
+
+	private OsmBounds bounds = null;
+	private boolean beyondBounds = false;
+
+	private EntityContainer next = null;
+	private boolean finished = false;
+
+	private boolean reuseEntities = false;
+	// Two sets of entities used alternately, because the next element is
+	// parsed ahead of time by hasNext() while the current one is still in use
+	private ReusableEntities[] reusable = new ReusableEntities[] {
+			new ReusableEntities(), new ReusableEntities() };
+	private int current = 0;
+
+	private Builder builder = new Builder();
+	private MutableTarget mutableTarget = new MutableTarget();
+
+	public OsmXmlStaxIterator(InputStream input, boolean parseMetadata)
+	{
+		this.input = input;
+		this.parseMetadata = parseMetadata;
+		if (parseMetadata) {
+			dateParser = new DateParser();
+		}
+
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		try {
+			reader = factory.createXMLStreamReader(input);
+		} catch (XMLStreamException e) {
+			throw new RuntimeException("error while creating xml parser", e);
+		}
+	}
+
+	public OsmXmlStaxIterator(File file, boolean parseMetadata)
+			throws FileNotFoundException
+	{
+		this(new BufferedInputStream(new FileInputStream(file)),
+				parseMetadata);
+	}
+
+	public OsmXmlStaxIterator(String pathname, boolean parseMetadata)
+			throws FileNotFoundException
+	{
+		this(new File(pathname), parseMetadata);
+	}
+
+	/**
+	 * Hand out mutable entities and containers that are reused across calls
+	 * to {@link #next()} instead of creating new objects for each element. An
+	 * entity and its container are only valid until the next call to
+	 * {@link #next()}, use {@link ImplUtil#copy} to retain them. Must be
+	 * called before starting iteration.
+	 * 
+	 * @param reuseEntities
+	 *            whether to reuse entities.
+	 */
+	public void setReuseEntities(boolean reuseEntities)
+	{
+		this.reuseEntities = reuseEntities;
+	}
+
+	@Override
+	public Iterator<EntityContainer> iterator()
+	{
+		return this;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (next == null && !finished) {
+			advance();
+		}
+		return next != null;
+	}
+
+	@Override
+	public EntityContainer next()
+	{
+		if (!hasNext()) {
+			throw new NoSuchElementException(
+					"End of stream has been reached");
+		}
+		EntityContainer result = next;
+		next = null;
+		return result;
+	}
+
+	@Override
+	public void remove()
+	{
+		throw new UnsupportedOperationException(
+				"an iterator over osm files is read-only");
+	}
+
+	@Override
+	public boolean hasBounds()
+	{
+		// Bounds are only valid before the first entity
+		hasNext();
+		return bounds != null;
+	}
+
+	@Override
+	public OsmBounds getBounds()
+	{
+		hasNext();
+		return bounds;
+	}
+
+	/**
+	 * Stop parsing and close the underlying input stream. This is only
+	 * necessary when the iterator is abandoned before reaching the end of the
+	 * data, the stream is closed automatically otherwise.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (finished) {
+			return;
+		}
+		finished = true;
+		next = null;
+		try {
+			reader.close();
+		} catch (XMLStreamException e) {
+			// ignore, the stream is closed below anyway
+		}
+		input.close();
+	}
+
+	private void advance()
+	{
+		try {
+			if (reuseEntities) {
+				current ^= 1;
+				next = parseNext(reusable[current]);
+			} else {
+				next = parseNext(null);
+			}
+		} catch (XMLStreamException | RuntimeException e) {
+			closeQuietly();
+			throw new RuntimeException("error while processing input", e);
+		}
+		if (next == null) {
+			closeQuietly();
+		}
+	}
+
+	private void closeQuietly()
+	{
+		try {
+			close();
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+
+	/**
+	 * Parse until the next entity has been read completely.
+	 * 
+	 * @param entities
+	 *            the entities to parse into or null to create new entities.
+	 * @return the next entity or null if the end of the document has been
+	 *         reached.
+	 */
+	private EntityContainer parseNext(ReusableEntities entities)
+			throws XMLStreamException
+	{
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event != XMLStreamConstants.START_ELEMENT) {
+				continue;
+			}
+			String name = reader.getLocalName();
+			if (name.equals(NAME_OSM)) {
+				// Descend into the root element
+				continue;
+			}
+			if (name.equals(NAME_NODE)) {
+				beyondBounds = true;
+				return parseNode(entities);
+			} else if (name.equals(NAME_WAY)) {
+				beyondBounds = true;
+				return parseWay(entities);
+			} else if (name.equals(NAME_RELATION)) {
+				beyondBounds = true;
+				return parseRelation(entities);
+			} else if (name.equals(NAME_BOUNDS)) {
+				parseBounds();
+			} else if (name.equals(NAME_BOUND)) {
+				parseBound();
+			} else {
+				skipElement();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Skip the remainder of the current element including all of its
+	 * children.
+	 */
+	private void skipElement() throws XMLStreamException
+	{
+		int depth = 1;
+		while (depth > 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * Move to the next child element of the current element.
+	 * 
+	 * @return false if the end of the current element has been reached.
+	 */
+	private boolean nextChild() throws XMLStreamException
+	{
+		while (true) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				return true;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				return false;
+			}
+		}
+	}
+
+	private String attribute(String name)
+	{
+		return reader.getAttributeValue(null, name);
+	}
+
+	private void setBounds(Bounds bounds)
+	{
+		if (!beyondBounds) {
+			beyondBounds = true;
+			this.bounds = bounds;
+		}
+	}
+
+	private void parseBounds() throws XMLStreamException
+	{
+		double minLon = Double.parseDouble(attribute(ATTR_MIN_LON));
+		double minLat = Double.parseDouble(attribute(ATTR_MIN_LAT));
+		double maxLon = Double.parseDouble(attribute(ATTR_MAX_LON));
+		double maxLat = Double.parseDouble(attribute(ATTR_MAX_LAT));
+		setBounds(new Bounds(minLon, maxLon, maxLat, minLat));
+		skipElement();
+	}
+
+	private void parseBound() throws XMLStreamException
+	{
+		String[] parts = attribute(ATTR_BOX).split(",");
+		if (parts.length == 4) {
+			double minLat = Double.parseDouble(parts[0]);
+			double minLon = Double.parseDouble(parts[1]);
+			double maxLat = Double.parseDouble(parts[2]);
+			double maxLon = Double.parseDouble(parts[3]);
+			setBounds(new Bounds(minLon, maxLon, maxLat, minLat));
+		}
+		skipElement();
+	}
+
+	private EntityContainer parseNode(ReusableEntities entities)
+			throws XMLStreamException
+	{
+		long id = Long.parseLong(attribute(ATTR_ID));
+		double lon = Double.parseDouble(attribute(ATTR_LON));
+		double lat = Double.parseDouble(attribute(ATTR_LAT));
+
+		if (entities == null) {
+			builder.reset(EntityType.Node);
+			parseContent(EntityType.Node, builder);
+			Node node = new Node(id, lon, lat, builder.metadata);
+			setTags(node, builder.tags);
+			return new EntityContainer(EntityType.Node, node);
+		}
+
+		MutableNode node = entities.node();
+		node.setId(id);
+		node.setLongitude(lon);
+		node.setLatitude(lat);
+		mutableTarget.entity = node;
+		parseContent(EntityType.Node, mutableTarget);
+		return entities.container(node);
+	}
+
+	private EntityContainer parseWay(ReusableEntities entities)
+			throws XMLStreamException
+	{
+		long id = Long.parseLong(attribute(ATTR_ID));
+
+		if (entities == null) {
+			builder.reset(EntityType.Way);
+			parseContent(EntityType.Way, builder);
+			Way way = new Way(id, builder.nodes, builder.metadata);
+			setTags(way, builder.tags);
+			return new EntityContainer(EntityType.Way, way);
+		}
+
+		MutableWay way = entities.way();
+		way.setId(id);
+		mutableTarget.entity = way;
+		parseContent(EntityType.Way, mutableTarget);
+		return entities.container(way);
+	}
+
+	private EntityContainer parseRelation(ReusableEntities entities)
+			throws XMLStreamException
+	{
+		long id = Long.parseLong(attribute(ATTR_ID));
+
+		if (entities == null) {
+			builder.reset(EntityType.Relation);
+			parseContent(EntityType.Relation, builder);
+			Relation relation = new Relation(id, builder.members,
+					builder.metadata);
+			setTags(relation, builder.tags);
+			return new EntityContainer(EntityType.Relation, relation);
+		}
+
+		MutableRelation relation = entities.relation();
+		relation.setId(id);
+		mutableTarget.entity = relation;
+		parseContent(EntityType.Relation, mutableTarget);
+		return entities.container(relation);
+	}
+
+	private static void setTags(Entity entity, List<OsmTag> tags)
+	{
+		if (tags != null) {
+			entity.setTags(tags);
+		}
+	}
+
+	/**
+	 * Parse the metadata attributes and the children of the current entity
+	 * element of the specified type.
+	 */
+	private void parseContent(EntityType type, Target target)
+			throws XMLStreamException
+	{
+		if (parseMetadata) {
+			parseMetadata(target);
+		}
+
+		while (nextChild()) {
+			String name = reader.getLocalName();
+			if (name.equals(NAME_TAG)) {
+				target.addTag(attribute(ATTR_K), attribute(ATTR_V));
+			} else if (type == EntityType.Way && name.equals(NAME_ND)) {
+				target.addNode(Long.parseLong(attribute(ATTR_REF)));
+			} else if (type == EntityType.Relation
+					&& name.equals(NAME_MEMBER)) {
+				parseMember(target);
+			}
+			skipElement();
+		}
+	}
+
+	private void parseMetadata(Target target)
+	{
+		String aVersion = attribute(ATTR_VERSION);
+		String aTimestamp = attribute(ATTR_TIMESTAMP);
+		String aUid = attribute(ATTR_UID);
+		String user = attribute(ATTR_USER);
+		String aChangeset = attribute(ATTR_CHANGESET);
+		String aVisible = attribute(ATTR_VISIBLE);
+
+		long uid = -1;
+		if (aUid != null) {
+			uid = Long.parseLong(aUid);
+		}
+
+		if (user == null) {
+			user = "";
+		}
+
+		int version = -1;
+		if (aVersion != null) {
+			version = Integer.parseInt(aVersion);
+		}
+
+		long changeset = -1;
+		if (aChangeset != null) {
+			changeset = Long.parseLong(aChangeset);
+		}
+
+		long timestamp = -1;
+		if (aTimestamp != null) {
+			timestamp = dateParser.parseMillis(aTimestamp);
+		}
+
+		boolean visible = true;
+		if (aVisible != null) {
+			if (aVisible.equals("false")) {
+				visible = false;
+			}
+		}
+
+		target.setMetadata(version, timestamp, uid, user, changeset, visible);
+	}
+
+	private void parseMember(Target target)
+	{
+		String aType = attribute(ATTR_TYPE);
+		long ref = Long.parseLong(attribute(ATTR_REF));
+		String role = attribute(ATTR_ROLE);
+
+		EntityType type = null;
+		if (aType.equals("node")) {
+			type = EntityType.Node;
+		} else if (aType.equals("way")) {
+			type = EntityType.Way;
+		} else if (aType.equals("relation")) {
+			type = EntityType.Relation;
+		}
+
+		target.addMember(ref, type, role);
+	}
+
+	/*
+	 * Receives the parsed content of an entity element, so that the same
+	 * parsing code can build new entities or fill reusable ones.
+	 */
+	private interface Target
+	{
+
+		public void setMetadata(int version, long timestamp, long uid,
+				String user, long changeset, boolean visible);
+
+		public void addTag(String key, String value);
+
+		public void addNode(long id);
+
+		public void addMember(long id, EntityType type, String role);
+
+	}
+
+	/*
+	 * Collects the content of an element for creating a new entity.
+	 */
+	private static class Builder implements Target
+	{
+
+		private OsmMetadata metadata;
+		private List<OsmTag> tags;
+		private TLongArrayList nodes;
+		private List<OsmRelationMember> members;
+
+		void reset(EntityType type)
+		{
+			metadata = null;
+			tags = null;
+			nodes = type == EntityType.Way ? new TLongArrayList() : null;
+			members = type == EntityType.Relation
+					? new ArrayList<OsmRelationMember>() : null;
+		}
+
+		@Override
+		public void setMetadata(int version, long timestamp, long uid,
+				String user, long changeset, boolean visible)
+		{
+			metadata = new Metadata(version, timestamp, uid, user, changeset,
+					visible);
+		}
+
+		@Override
+		public void addTag(String key, String value)
+		{
+			if (tags == null) {
+				tags = new ArrayList<>();
+			}
+			tags.add(new Tag(key, value));
+		}
+
+		@Override
+		public void addNode(long id)
+		{
+			nodes.add(id);
+		}
+
+		@Override
+		public void addMember(long id, EntityType type, String role)
+		{
+			members.add(new RelationMember(id, type, role));
+		}
+
+	}
+
+	/*
+	 * Fills the content of an element into a reusable entity.
+	 */
+	private static class MutableTarget implements Target
+	{
+
+		private MutableEntity entity;
+
+		@Override
+		public void setMetadata(int version, long timestamp, long uid,
+				String user, long changeset, boolean visible)
+		{
+			entity.setMetadata(version, timestamp, uid, user, changeset,
+					visible);
+		}
+
+		@Override
+		public void addTag(String key, String value)
+		{
+			entity.addTag(key, value);
+		}
+
+		@Override
+		public void addNode(long id)
+		{
+			((MutableWay) entity).addNode(id);
+		}
+
+		@Override
+		public void addMember(long id, EntityType type, String role)
+		{
+			((MutableRelation) entity).addMember(id, type, role);
+		}
+
+	}
+
+}
@@ -0,0 +1,296 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.xml.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.access.OsmOutputStream;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmTag;
+import de.topobyte.osm4j.core.model.impl.Metadata;
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Relation;
+import de.topobyte.osm4j.core.model.impl.RelationMember;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
+import de.topobyte.osm4j.testing.DataSetGenerator;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.EntityGenerator;
+import de.topobyte.osm4j.testing.TestDataSet;
+import de.topobyte.osm4j.testing.model.TestBounds;
+import de.topobyte.osm4j.xml.output.OsmXmlByteOutputStream;
+import de.topobyte.osm4j.xml.output.OsmXmlOutputStream;
+
+public class TestByteOutputStream extends LocaleTest
+{
+
+	public TestByteOutputStream(Locale locale)
+	{
+		super(locale);
+	}
+
+	private interface Writing
+	{
+
+		public void write(OsmOutputStream output) throws IOException;
+
+	}
+
+	private static String writeReference(Writing writing,
+			boolean printMetadata) throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		PrintWriter writer = new PrintWriter(
+				new OutputStreamWriter(baos, StandardCharsets.UTF_8));
+		OsmXmlOutputStream output = new OsmXmlOutputStream(writer,
+				printMetadata);
+		writing.write(output);
+		output.complete();
+		return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static String writeBytes(Writing writing, boolean printMetadata,
+			int numThreads) throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		OsmXmlByteOutputStream output = new OsmXmlByteOutputStream(baos,
+				printMetadata);
+		output.setNumThreads(numThreads);
+		output.setBatchLimit(7);
+		writing.write(output);
+		output.complete();
+		return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static void compare(Writing writing, boolean printMetadata)
+			throws IOException
+	{
+		String expected = writeReference(writing, printMetadata);
+		Assert.assertEquals(expected, writeBytes(writing, printMetadata, 1));
+		Assert.assertEquals(expected, writeBytes(writing, printMetadata, 3));
+	}
+
+	@Test
+	public void testGenerated() throws IOException
+	{
+		for (boolean withMetadata : new boolean[] { true, false }) {
+			EntityGenerator entityGenerator = new EntityGenerator(10, true);
+			entityGenerator.setGenerateMetadata(withMetadata);
+			DataSetGenerator dataSetGenerator = new DataSetGenerator(
+					entityGenerator);
+
+			final TestDataSet data = dataSetGenerator.generate(300, 200,
+					100);
+			data.setBounds(new TestBounds(12, 13, 52, 50));
+
+			compare(new Writing() {
+
+				@Override
+				public void write(OsmOutputStream output) throws IOException
+				{
+					output.write(data.getBounds());
+					DataSetHelper.write(data, output);
+				}
+
+			}, withMetadata);
+		}
+	}
+
+	@Test
+	public void testEscaping() throws IOException
+	{
+		final List<OsmNode> nodes = new ArrayList<>();
+		for (int i = 0; i < 0x10000; i += 256) {
+			StringBuilder value = new StringBuilder();
+			for (int c = i; c < i + 256; c++) {
+				value.append((char) c);
+			}
+			List<OsmTag> tags = new ArrayList<>();
+			tags.add(new Tag("key", value.toString()));
+			nodes.add(new Node(i, 13, 52, tags));
+		}
+		List<OsmTag> tags = new ArrayList<>();
+		tags.add(new Tag("pair", "a\uD83D\uDE00b"));
+		tags.add(new Tag("high", "a\uD83Db"));
+		tags.add(new Tag("low", "a\uDE00b"));
+		tags.add(new Tag("end", "a\uD83D"));
+		tags.add(new Tag("<&'\">", "\u00E4\u20AC\u0085\u009f\u00A0"));
+		nodes.add(new Node(1, 13, 52, tags));
+
+		compare(new Writing() {
+
+			@Override
+			public void write(OsmOutputStream output) throws IOException
+			{
+				for (OsmNode node : nodes) {
+					output.write(node);
+				}
+			}
+
+		}, false);
+	}
+
+	@Test
+	public void testCoordinates() throws IOException
+	{
+		final List<Double> values = new ArrayList<>();
+		double[] special = { 0, -0.0, 1e-9, -1e-9, 5e-8, -5e-8, 1.5e-7,
+				180, -180, 90, -90, 52.5, 13.4049999, 0.00390625,
+				-0.00390625, 1 / 1024.0, 12345.6789, 1e20, Double.NaN,
+				Double.POSITIVE_INFINITY, Double.MIN_VALUE };
+		for (double value : special) {
+			values.add(value);
+		}
+		for (int i = -1000; i <= 1000; i++) {
+			values.add(i / 256.0);
+			values.add(i / 4096.0 * 45);
+			values.add(i * 1e-7);
+			values.add(i * 1e-7 + 0.5e-7);
+		}
+		Random random = new Random(1);
+		for (int i = 0; i < 10000; i++) {
+			values.add(random.nextDouble() * 360 - 180);
+			values.add(random.nextInt(1800000000) * 1e-7 - 90);
+		}
+
+		compare(new Writing() {
+
+			@Override
+			public void write(OsmOutputStream output) throws IOException
+			{
+				for (int i = 0; i < values.size(); i++) {
+					double value = values.get(i);
+					output.write(new Node(i, value, -value));
+				}
+			}
+
+		}, false);
+	}
+
+	@Test
+	public void testTimestamps() throws IOException
+	{
+		final List<Long> values = new ArrayList<>();
+		long[] special = { 0, -1, 1, 999, 1000, -1000, -1001,
+				1199145600000L, 1199145599999L, 253402300799000L,
+				-62135596800000L, 1234567890123L };
+		for (long value : special) {
+			values.add(value);
+		}
+		Random random = new Random(1);
+		for (int i = 0; i < 10000; i++) {
+			values.add((long) (random.nextDouble() * 2e12));
+		}
+
+		compare(new Writing() {
+
+			@Override
+			public void write(OsmOutputStream output) throws IOException
+			{
+				for (int i = 0; i < values.size(); i++) {
+					Metadata metadata = new Metadata(i, values.get(i), i,
+							"user" + i, i, i % 2 == 0);
+					output.write(new Node(i, 13, 52, metadata));
+				}
+			}
+
+		}, true);
+	}
+
+	@Test
+	public void testWaysAndRelations() throws IOException
+	{
+		final List<Way> ways = new ArrayList<>();
+		final List<Relation> relations = new ArrayList<>();
+		List<OsmTag> tags = new ArrayList<>();
+		tags.add(new Tag("name", "M\u00FCnchen & <Umgebung>"));
+		Metadata metadata = new Metadata(3, 1234567890000L, -1, null, 7);
+
+		ways.add(new Way(1, new TLongArrayList()));
+		ways.add(new Way(2, new TLongArrayList(new long[] { 1, -2, 3 }),
+				tags, metadata));
+		ways.add(new Way(Long.MAX_VALUE,
+				new TLongArrayList(new long[] { Long.MIN_VALUE }), tags));
+
+		List<RelationMember> members = new ArrayList<>();
+		members.add(new RelationMember(1, EntityType.Node, "stop"));
+		members.add(new RelationMember(2, EntityType.Way, "\"outer\""));
+		members.add(new RelationMember(3, EntityType.Relation, ""));
+		relations.add(new Relation(1, new ArrayList<RelationMember>()));
+		relations.add(new Relation(2, members, tags, metadata));
+
+		for (boolean printMetadata : new boolean[] { true, false }) {
+			compare(new Writing() {
+
+				@Override
+				public void write(OsmOutputStream output) throws IOException
+				{
+					for (Way way : ways) {
+						output.write(way);
+					}
+					for (Relation relation : relations) {
+						output.write(relation);
+					}
+				}
+
+			}, printMetadata);
+		}
+	}
+
+	@Test
+	public void testNullStrings() throws IOException
+	{
+		List<OsmTag> tags = new ArrayList<>();
+		tags.add(new Tag("key", null));
+		final Node node = new Node(1, 13, 52, tags,
+				new Metadata(1, 0L, 5L, null, 7L));
+
+		List<RelationMember> members = new ArrayList<>();
+		members.add(new RelationMember(1, EntityType.Node, null));
+		final Relation relation = new Relation(2, members, tags,
+				new Metadata(1, 0L, 5L, null, 7L));
+
+		for (boolean printMetadata : new boolean[] { true, false }) {
+			compare(new Writing() {
+
+				@Override
+				public void write(OsmOutputStream output) throws IOException
+				{
+					output.write(node);
+					output.write(relation);
+				}
+
+			}, printMetadata);
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.xml.test;
+
+import java.util.Random;
+
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.util.TimestampParser;
+import de.topobyte.osm4j.xml.dynsax.DateParser;
+
+public class TestDateParser
+{
+
+	private DateTimeFormatter formatter = DateTimeFormat
+			.forPattern("yyyy-MM-dd'T'HH:mm:ss'Z'").withZoneUTC();
+
+	@Test
+	public void testCanonical()
+	{
+		DateParser parser = new DateParser();
+		Random random = new Random(1);
+		long min = formatter.parseMillis("0000-01-01T00:00:00Z");
+		long max = formatter.parseMillis("9999-12-31T23:59:59Z");
+		long[] special = { 0, -1000, 1000, 951782400000L, 951868800000L,
+				4107542400000L, 1494529484000L, min, max };
+		for (int i = 0; i < 100000 + special.length; i++) {
+			long millis = i < special.length ? special[i]
+					: min + (long) (random.nextDouble() * (max - min));
+			millis -= Math.floorMod(millis, 1000);
+			String text = formatter.print(millis);
+			Assert.assertEquals(text, millis, TimestampParser.parse(text));
+			Assert.assertEquals(text, millis, parser.parseMillis(text));
+			Assert.assertEquals(text, parser.parse(text).getMillis(),
+					parser.parseMillis(text));
+		}
+	}
+
+	@Test
+	public void testInvalid()
+	{
+		String[] values = { "", "2017-05-11T19:04:44", "2017-05-11 19:04:44Z",
+				"2017-05-11T19:04:44+0000", "2017-5-11T19:04:44Z",
+				"2017-05-11t19:04:44z", "2017-00-11T19:04:44Z",
+				"2017-13-11T19:04:44Z", "2017-02-29T19:04:44Z",
+				"2016-02-30T19:04:44Z", "1900-02-29T00:00:00Z",
+				"2017-04-31T19:04:44Z", "2017-05-00T19:04:44Z",
+				"2017-05-11T24:00:00Z", "2017-05-11T19:60:44Z",
+				"2017-05-11T19:04:60Z", "2017-05-1aT19:04:44Z",
+				"-017-05-11T19:04:44Z" };
+		for (String value : values) {
+			Assert.assertEquals(value, TimestampParser.INVALID,
+					TimestampParser.parse(value));
+		}
+		Assert.assertEquals(951782400000L,
+				TimestampParser.parse("2000-02-29T00:00:00Z"));
+	}
+
+	@Test
+	public void testFallback()
+	{
+		DateParser parser = new DateParser();
+		String[] values = { "2017-05-11T19:04:44+0000",
+				"2017-05-11T21:04:44+0200", "2017-05-11t19:04:44z",
+				"2017-5-11T19:04:44Z" };
+		for (String value : values) {
+			Assert.assertEquals(value, parser.parse(value).getMillis(),
+					parser.parseMillis(value));
+		}
+		Assert.assertEquals(1494529484000L,
+				parser.parseMillis("2017-05-11T21:04:44+0200"));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testUnparsable()
+	{
+		new DateParser().parseMillis("2017-02-29T19:04:44Z");
+	}
+
+}
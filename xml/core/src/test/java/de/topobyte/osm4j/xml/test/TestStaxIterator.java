@@ -0,0 +1,189 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.xml.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.osm4j.core.access.OsmInputException;
+import de.topobyte.osm4j.core.model.iface.EntityContainer;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.testing.DataSetGenerator;
+import de.topobyte.osm4j.testing.DataSetHelper;
+import de.topobyte.osm4j.testing.EntityGenerator;
+import de.topobyte.osm4j.testing.TestDataSet;
+import de.topobyte.osm4j.testing.model.TestBounds;
+import de.topobyte.osm4j.xml.dynsax.OsmXmlReader;
+import de.topobyte.osm4j.xml.output.OsmXmlOutputStream;
+import de.topobyte.osm4j.xml.stax.OsmXmlStaxIterator;
+
+public class TestStaxIterator
+{
+
+	private static byte[] generate(boolean withMetadata) throws IOException
+	{
+		EntityGenerator entityGenerator = new EntityGenerator(10, true);
+		entityGenerator.setGenerateMetadata(withMetadata);
+		DataSetGenerator dataSetGenerator = new DataSetGenerator(
+				entityGenerator);
+
+		TestDataSet data = dataSetGenerator.generate(30, 20, 10);
+		data.setBounds(new TestBounds(12, 13, 52, 50));
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		OsmXmlOutputStream output = new OsmXmlOutputStream(baos,
+				withMetadata);
+		output.write(data.getBounds());
+		DataSetHelper.write(data, output);
+		output.complete();
+		return baos.toByteArray();
+	}
+
+	private static void compareToSax(InputStream staxInput,
+			InputStream saxInput, boolean parseMetadata)
+			throws IOException, OsmInputException
+	{
+		OsmXmlStaxIterator iterator = new OsmXmlStaxIterator(staxInput,
+				parseMetadata);
+		TestDataSet stax = DataSetHelper.read(iterator);
+
+		OsmXmlReader reader = new OsmXmlReader(saxInput, parseMetadata);
+		TestDataSet sax = DataSetHelper.read(reader);
+
+		Assert.assertTrue("stax vs. sax", DataSetHelper.equals(sax, stax));
+	}
+
+	@Test
+	public void testGenerated() throws IOException, OsmInputException
+	{
+		byte[] xml = generate(true);
+		compareToSax(new ByteArrayInputStream(xml),
+				new ByteArrayInputStream(xml), true);
+		compareToSax(new ByteArrayInputStream(xml),
+				new ByteArrayInputStream(xml), false);
+	}
+
+	@Test
+	public void testGeneratedNoMetadata() throws IOException, OsmInputException
+	{
+		byte[] xml = generate(false);
+		compareToSax(new ByteArrayInputStream(xml),
+				new ByteArrayInputStream(xml), true);
+	}
+
+	@Test
+	public void testResources() throws IOException, OsmInputException
+	{
+		String[] filenames = { "node-240109189.osm",
+				"node-240109189-nometa.osm", "node-240109189-bounds.osm" };
+		for (String filename : filenames) {
+			compareToSax(Util.stream(filename), Util.stream(filename), true);
+		}
+	}
+
+	@Test
+	public void testBounds() throws IOException
+	{
+		byte[] xml = generate(true);
+		OsmXmlStaxIterator iterator = new OsmXmlStaxIterator(
+				new ByteArrayInputStream(xml), true);
+		Assert.assertTrue(iterator.hasBounds());
+		Assert.assertEquals(12, iterator.getBounds().getLeft(), 1e-7);
+		Assert.assertEquals(13, iterator.getBounds().getRight(), 1e-7);
+		iterator.close();
+	}
+
+	@Test
+	public void testReuseEntities() throws IOException, OsmInputException
+	{
+		byte[] xml = generate(true);
+
+		TestDataSet sax = DataSetHelper.read(
+				new OsmXmlReader(new ByteArrayInputStream(xml), true));
+
+		OsmXmlStaxIterator iterator = new OsmXmlStaxIterator(
+				new ByteArrayInputStream(xml), true);
+		iterator.setReuseEntities(true);
+		Assert.assertTrue(DataSetHelper.equals(sax,
+				DataSetHelper.readCopies(iterator)));
+
+		// The current entity stays valid while the next one is parsed ahead
+		iterator = new OsmXmlStaxIterator(new ByteArrayInputStream(xml), true);
+		iterator.setReuseEntities(true);
+		EntityContainer first = iterator.next();
+		OsmEntity entity = first.getEntity();
+		long id = entity.getId();
+		Assert.assertTrue(iterator.hasNext());
+		Assert.assertSame(entity, first.getEntity());
+		Assert.assertEquals(id, entity.getId());
+		EntityContainer second = iterator.next();
+		Assert.assertNotEquals(id, second.getEntity().getId());
+		Assert.assertSame(first, iterator.next());
+		iterator.close();
+	}
+
+	@Test
+	public void testClose() throws IOException
+	{
+		final boolean[] closed = new boolean[1];
+		InputStream input = new ByteArrayInputStream(generate(true)) {
+
+			@Override
+			public void close() throws IOException
+			{
+				closed[0] = true;
+			}
+
+		};
+
+		OsmXmlStaxIterator iterator = new OsmXmlStaxIterator(input, true);
+		iterator.next();
+		Assert.assertFalse(closed[0]);
+
+		iterator.close();
+		Assert.assertTrue(closed[0]);
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testCloseAtEnd() throws IOException
+	{
+		final boolean[] closed = new boolean[1];
+		InputStream input = new ByteArrayInputStream(generate(true)) {
+
+			@Override
+			public void close() throws IOException
+			{
+				closed[0] = true;
+			}
+
+		};
+
+		OsmXmlStaxIterator iterator = new OsmXmlStaxIterator(input, true);
+		while (iterator.hasNext()) {
+			iterator.next();
+		}
+		Assert.assertTrue(closed[0]);
+	}
+
+}
@@ -0,0 +1,127 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of osm4j.
+//
+// osm4j is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// osm4j is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with osm4j. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.osm4j.xml.dynsax.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import de.topobyte.osm4j.xml.dynsax.DateParser;
+
+/**
+ * Parses a number of random timestamps in the canonical OSM format a number of
+ * times and reports the time spent and the number of bytes allocated per
+ * timestamp.
+ * 
+ * In 'joda' mode, timestamps are parsed into Joda-Time objects using
+ * {@link DateParser#parse(String)}, which is what the readers used to do. In
+ * 'millis' mode, timestamps are parsed using
+ * {@link DateParser#parseMillis(String)}, which is what the readers use now.
+ */
+public class BenchmarkDateParsing
+{
+
+	public static void main(String[] args)
+	{
+		if (args.length > 3) {
+			System.out.println("usage: "
+					+ BenchmarkDateParsing.class.getSimpleName()
+					+ " [count] [runs] [joda|millis]");
+			System.exit(1);
+		}
+
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		String mode = args.length > 2 ? args[2] : null;
+
+		String[] timestamps = generate(count);
+
+		for (int i = 1; i <= runs; i++) {
+			System.out.println(String.format("run %d/%d", i, runs));
+			if (mode == null || mode.equals("joda")) {
+				run("joda", timestamps, true);
+			}
+			if (mode == null || mode.equals("millis")) {
+				run("millis", timestamps, false);
+			}
+		}
+	}
+
+	private static String[] generate(int count)
+	{
+		DateTimeFormatter formatter = DateTimeFormat
+				.forPattern("yyyy-MM-dd'T'HH:mm:ss'Z'").withZoneUTC();
+		long min = formatter.parseMillis("2005-01-01T00:00:00Z");
+		long max = formatter.parseMillis("2025-01-01T00:00:00Z");
+
+		Random random = new Random(1);
+		String[] timestamps = new String[count];
+		for (int i = 0; i < count; i++) {
+			long millis = min + (long) (random.nextDouble() * (max - min));
+			timestamps[i] = formatter.print(millis);
+		}
+		return timestamps;
+	}
+
+	private static void run(String name, String[] timestamps, boolean joda)
+	{
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		DateParser parser = new DateParser();
+
+		long allocated0 = allocatedBytes(threadBean, threadId);
+		long start = System.currentTimeMillis();
+
+		long sum = 0;
+		if (joda) {
+			for (String timestamp : timestamps) {
+				sum += parser.parse(timestamp).getMillis();
+			}
+		} else {
+			for (String timestamp : timestamps) {
+				sum += parser.parseMillis(timestamp);
+			}
+		}
+
+		long time = System.currentTimeMillis() - start;
+		long allocated = allocatedBytes(threadBean, threadId) - allocated0;
+
+		System.out.println(String.format("%s: %d ms (checksum %d)", name,
+				time, sum));
+		if (allocated >= 0) {
+			System.out.println(String.format(
+					"%s: allocated %d MiB (%.1f bytes/timestamp)", name,
+					allocated / 1024 / 1024,
+					allocated / (double) timestamps.length));
+		}
+	}
+
+	private static long allocatedBytes(ThreadMXBean bean, long threadId)
+	{
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean)
+					.getThreadAllocatedBytes(threadId);
+		}
+		return -1;
+	}
+
+}
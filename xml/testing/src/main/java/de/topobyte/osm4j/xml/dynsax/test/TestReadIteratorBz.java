@@ -23,9 +23,10 @@ import java.io.InputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
 
-import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.xml.sax.SAXException;
 
+import de.topobyte.osm4j.core.io.InputCompression;
+import de.topobyte.osm4j.core.io.ParallelDecompressionInputStream;
 import de.topobyte.osm4j.core.model.iface.EntityContainer;
 import de.topobyte.osm4j.core.model.iface.EntityType;
 import de.topobyte.osm4j.core.model.iface.OsmEntity;
@@ -54,7 +55,8 @@ public class TestReadIteratorBz
 		TestReadIteratorBz test = new TestReadIteratorBz();
 
 		InputStream cinput = new FileInputStream(pathInput);
-		InputStream input = new BZip2CompressorInputStream(cinput, true);
+		InputStream input = ParallelDecompressionInputStream.decompress(cinput,
+				InputCompression.BZIP2);
 
 		OsmXmlIterator iterator = new OsmXmlIterator(input, false);
 		while (iterator.hasNext()) {